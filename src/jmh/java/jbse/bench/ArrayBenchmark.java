@@ -0,0 +1,83 @@
+package jbse.bench;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.mem.Array;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import jbse.val.ReferenceConcrete;
+import jbse.val.Simplex;
+import jbse.val.Term;
+
+/**
+ * Measures {@link Array#get(Primitive)} and {@link Array#set(Primitive, jbse.val.Value)}
+ * with concrete and symbolic indices.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ArrayBenchmark {
+    @Param({"16", "256"})
+    public int length;
+    
+    private CalculatorRewriting calc;
+    private Array array;
+    private Simplex[] indices;
+    private Term symbolicIndex;
+    
+    @Setup
+    public void setUp() throws Exception {
+        this.calc = BenchmarkSupport.calculator();
+        final jbse.mem.State state = new jbse.mem.State(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>(), this.calc);
+        final ReferenceConcrete ref = state.createArray(null, this.calc.valInt(this.length), "" + Type.ARRAYOF + Type.INT);
+        this.array = (Array) state.getObject(ref);
+        this.indices = new Simplex[this.length];
+        for (int i = 0; i < this.length; ++i) {
+            this.indices[i] = this.calc.valInt(i);
+        }
+        this.symbolicIndex = this.calc.valTerm(Type.INT, "I");
+    }
+    
+    @Benchmark
+    public int getConcrete() throws Exception {
+        int n = 0;
+        for (Simplex index : this.indices) {
+            n += this.array.get(index).size();
+        }
+        return n;
+    }
+    
+    @Benchmark
+    public int setFastConcrete() throws Exception {
+        for (Simplex index : this.indices) {
+            this.array.setFast(index, index);
+        }
+        return this.indices.length;
+    }
+    
+    @Benchmark
+    public Collection<Array.AccessOutcome> getSymbolic() throws Exception {
+        return this.array.get(this.symbolicIndex);
+    }
+    
+    @Benchmark
+    public Array setSymbolic() throws Exception {
+        final Array a = this.array.clone();
+        a.set(this.symbolicIndex, this.calc.valInt(1));
+        return a;
+    }
+}
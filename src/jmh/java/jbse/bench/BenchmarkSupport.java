@@ -0,0 +1,73 @@
+package jbse.bench;
+
+import java.io.File;
+
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureClassInit;
+import jbse.dec.DecisionProcedureEquality;
+import jbse.dec.DecisionProcedureSignAnalysis;
+import jbse.jvm.RunnerParameters;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterNormalize;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.rewr.RewriterPolynomials;
+import jbse.rules.ClassInitRulesRepo;
+
+/**
+ * Utility methods shared by the benchmarks. 
+ * The classpath used for the symbolically executed 
+ * targets is configured by the system properties
+ * {@code jbse.bench.classes} (default {@code target/classes})
+ * and {@code jbse.bench.rtjar} (default {@code data/rt.jar}).
+ */
+final class BenchmarkSupport {
+    static final String CLASSES_PATH = System.getProperty("jbse.bench.classes", "target" + File.separator + "classes");
+    static final String RT_JAR_PATH = System.getProperty("jbse.bench.rtjar", "data" + File.separator + "rt.jar");
+    static final String TARGETS_CLASS = "jbse/bench/targets/Loops";
+    
+    /**
+     * Creates a {@link CalculatorRewriting} with the
+     * default rewriters.
+     * 
+     * @return a {@link CalculatorRewriting}.
+     */
+    static CalculatorRewriting calculator() {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        calc.addRewriter(new RewriterPolynomials());
+        calc.addRewriter(new RewriterNormalize());
+        return calc;
+    }
+
+    /**
+     * Creates the {@link RunnerParameters} for running a 
+     * method of the bundled targets with the internal 
+     * decision procedures only (no external solver).
+     * 
+     * @param parametersSignature the parameters/return value 
+     *        descriptor of the method. 
+     * @param methodName the name of the method.
+     * @return a {@link RunnerParameters}.
+     */
+    static RunnerParameters runnerParameters(String parametersSignature, String methodName) {
+        final CalculatorRewriting calc = calculator();
+        final RunnerParameters p = new RunnerParameters();
+        p.addClasspath(CLASSES_PATH, RT_JAR_PATH);
+        p.setMethodSignature(TARGETS_CLASS, parametersSignature, methodName);
+        p.setCalculator(calc);
+        p.setDecisionProcedure(new DecisionProcedureAlgorithms(
+            new DecisionProcedureClassInit(
+                new DecisionProcedureEquality(
+                    new DecisionProcedureSignAnalysis(new DecisionProcedureAlwSat(), calc), calc), 
+                calc, new ClassInitRulesRepo()), calc));
+        return p;
+    }
+
+    /**
+     * Do not instantiate it!
+     */
+    private BenchmarkSupport() {
+        //intentionally empty
+    }
+}
@@ -0,0 +1,62 @@
+package jbse.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import jbse.val.Term;
+
+/**
+ * Measures the throughput of a {@link CalculatorRewriting} 
+ * with polynomial normalization on polynomial-heavy expressions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CalculatorRewritingBenchmark {
+    @Param({"2", "4"})
+    public int degree;
+    
+    private CalculatorRewriting calc;
+    private Term a, b, c;
+    
+    @Setup
+    public void setUp() throws Exception {
+        this.calc = BenchmarkSupport.calculator();
+        this.a = this.calc.valTerm(Type.INT, "A");
+        this.b = this.calc.valTerm(Type.INT, "B");
+        this.c = this.calc.valTerm(Type.INT, "C");
+    }
+    
+    /** (A + B)^degree * (A - C) */
+    @Benchmark
+    public Primitive polynomialProduct() throws Exception {
+        final Primitive sum = this.a.add(this.b);
+        Primitive retVal = sum;
+        for (int i = 1; i < this.degree; ++i) {
+            retVal = retVal.mul(sum);
+        }
+        return retVal.mul(this.a.sub(this.c));
+    }
+    
+    /** A / (A + B) + B / (A + B) + ... (degree summands) */
+    @Benchmark
+    public Primitive rationalSum() throws Exception {
+        final Primitive den = this.a.add(this.b);
+        Primitive retVal = this.a.div(den);
+        for (int i = 1; i < this.degree; ++i) {
+            retVal = retVal.add(this.b.mul(this.calc.valInt(i)).div(den));
+        }
+        return retVal;
+    }
+}
@@ -0,0 +1,88 @@
+package jbse.bench;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureEquality;
+import jbse.dec.DecisionProcedureSignAnalysis;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.Term;
+
+/**
+ * Measures the push and query throughput of the 
+ * {@link DecisionProcedureSignAnalysis} and 
+ * {@link DecisionProcedureEquality} decision procedures.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class DecisionProcedureBenchmark {
+    @Param({"SIGN", "EQUALITY"})
+    public String procedure;
+
+    @Param({"10", "100"})
+    public int assumptions;
+    
+    private CalculatorRewriting calc;
+    private ClassHierarchy hier;
+    private DecisionProcedure dec;
+    private Primitive[] clauses;
+    private Expression[] queries;
+    
+    @Setup
+    public void setUp() throws Exception {
+        this.calc = BenchmarkSupport.calculator();
+        this.hier = new ClassHierarchy(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>());
+        this.dec = ("SIGN".equals(this.procedure) ? 
+                    new DecisionProcedureSignAnalysis(new DecisionProcedureAlwSat(), this.calc) :
+                    new DecisionProcedureEquality(new DecisionProcedureAlwSat(), this.calc));
+        this.clauses = new Primitive[this.assumptions];
+        this.queries = new Expression[this.assumptions];
+        for (int i = 0; i < this.assumptions; ++i) {
+            final Term t = this.calc.valTerm(Type.INT, "T" + i);
+            final Term u = this.calc.valTerm(Type.INT, "U" + i);
+            this.clauses[i] = ("SIGN".equals(this.procedure) ? t.gt(this.calc.valInt(0)) : t.eq(u));
+            this.queries[i] = (Expression) ("SIGN".equals(this.procedure) ? t.le(this.calc.valInt(0)) : t.ne(u));
+        }
+    }
+    
+    @Benchmark
+    public DecisionProcedure push() throws Exception {
+        this.dec.clearAssumptions();
+        for (Primitive p : this.clauses) {
+            this.dec.pushAssumption(new ClauseAssume(p));
+        }
+        return this.dec;
+    }
+    
+    @Benchmark
+    public int pushAndQuery() throws Exception {
+        this.dec.clearAssumptions();
+        int sat = 0;
+        for (int i = 0; i < this.clauses.length; ++i) {
+            this.dec.pushAssumption(new ClauseAssume(this.clauses[i]));
+            if (this.dec.isSat(this.hier, this.queries[i])) {
+                ++sat;
+            }
+        }
+        return sat;
+    }
+}
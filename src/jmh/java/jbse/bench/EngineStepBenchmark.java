@@ -0,0 +1,71 @@
+package jbse.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import jbse.jvm.Engine;
+import jbse.jvm.RunnerBuilder;
+
+/**
+ * Measures the throughput of {@link Engine#step()} on a 
+ * concrete and on a symbolic loop. Each invocation steps 
+ * the engine until the first trace ends; the number of 
+ * executed steps is reported as an auxiliary counter, so
+ * JMH reports the steps per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EngineStepBenchmark {
+    @State(Scope.Thread)
+    public static class EngineState {
+        @Param({"concreteLoop", "symbolicLoop"})
+        public String method;
+        
+        Engine engine;
+        
+        @Setup(Level.Invocation)
+        public void setUp() throws Exception {
+            final String descriptor = ("concreteLoop".equals(this.method) ? "()I" : "(I)I");
+            final RunnerBuilder rb = new RunnerBuilder();
+            rb.build(BenchmarkSupport.runnerParameters(descriptor, this.method));
+            this.engine = rb.getEngine();
+        }
+        
+        @TearDown(Level.Invocation)
+        public void tearDown() throws Exception {
+            this.engine.close();
+        }
+    }
+    
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Steps {
+        public long steps;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.steps = 0;
+        }
+    }
+    
+    @Benchmark
+    public Engine stepTrace(EngineState s, Steps counter) throws Exception {
+        final Engine engine = s.engine;
+        while (engine.canStep()) {
+            engine.step();
+        }
+        counter.steps += engine.getAnalyzedStates();
+        return engine;
+    }
+}
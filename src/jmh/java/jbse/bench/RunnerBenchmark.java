@@ -0,0 +1,49 @@
+package jbse.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.jvm.Runner;
+import jbse.jvm.RunnerBuilder;
+
+/**
+ * Measures a full {@link Runner} run (exploration of 
+ * the whole symbolic execution tree) over the bundled 
+ * target methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class RunnerBenchmark {
+    @Param({"concreteLoop:()I", "symbolicLoop:(I)I", "branches:(IIII)I", "arrayLoop:()I"})
+    public String target;
+    
+    private Runner runner;
+    private RunnerBuilder builder;
+    
+    @Setup(Level.Invocation)
+    public void setUp() throws Exception {
+        final String[] methodAndDescriptor = this.target.split(":");
+        this.builder = new RunnerBuilder();
+        this.runner = this.builder.build(BenchmarkSupport.runnerParameters(methodAndDescriptor[1], methodAndDescriptor[0]));
+    }
+    
+    @Benchmark
+    public long run() throws Exception {
+        try {
+            this.runner.run();
+        } finally {
+            this.builder.getEngine().close();
+        }
+        return this.runner.getTracesTotal();
+    }
+}
@@ -0,0 +1,54 @@
+package jbse.bench;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Term;
+
+/**
+ * Measures the cost of {@link jbse.mem.State#clone()} 
+ * for different heap sizes and path condition lengths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StateCloneBenchmark {
+    @Param({"10", "100", "1000"})
+    public int heapSize;
+
+    @Param({"0", "100"})
+    public int pathConditionLength;
+    
+    private jbse.mem.State state;
+    
+    @Setup
+    public void setUp() throws Exception {
+        final CalculatorRewriting calc = BenchmarkSupport.calculator();
+        this.state = new jbse.mem.State(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+        for (int i = 0; i < this.heapSize; ++i) {
+            this.state.createArray(null, calc.valInt(8), "" + Type.ARRAYOF + Type.INT);
+        }
+        for (int i = 0; i < this.pathConditionLength; ++i) {
+            final Term t = calc.valTerm(Type.INT, "T" + i);
+            this.state.assume(t.gt(calc.valInt(i)));
+        }
+    }
+    
+    @Benchmark
+    public jbse.mem.State cloneState() {
+        return this.state.clone();
+    }
+}
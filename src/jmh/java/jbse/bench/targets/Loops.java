@@ -0,0 +1,50 @@
+package jbse.bench.targets;
+
+/**
+ * Small target methods for the {@code jbse.bench} benchmarks.
+ * They are symbolically executed by JBSE, not invoked by
+ * the benchmarks.
+ */
+public class Loops {
+    private int[] data = new int[16];
+
+    /** A loop with concrete bounds and data (no branching). */
+    public static int concreteLoop() {
+        int sum = 0;
+        for (int i = 0; i < 200; ++i) {
+            sum += i * i;
+        }
+        return sum;
+    }
+
+    /** A loop whose exit condition depends on a symbolic input. */
+    public static int symbolicLoop(int n) {
+        int sum = 0;
+        for (int i = 0; i < n && i < 8; ++i) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    /** A sequence of independent branches (2^k paths). */
+    public static int branches(int a, int b, int c, int d) {
+        int r = 0;
+        if (a > 0) { r += 1; }
+        if (b > 0) { r += 2; }
+        if (c > 0) { r += 4; }
+        if (d > 0) { r += 8; }
+        return r;
+    }
+
+    /** Writes and reads a concrete array in a loop. */
+    public int arrayLoop() {
+        for (int i = 0; i < this.data.length; ++i) {
+            this.data[i] = i;
+        }
+        int sum = 0;
+        for (int i = 0; i < this.data.length; ++i) {
+            sum += this.data[i];
+        }
+        return sum;
+    }
+}
@@ -47,6 +47,7 @@ public final class Algo_INIT {
     throws InvalidClassFileFactoryClassException, InitializationException, 
     DecisionException, ClasspathException {
         final State state = new State(ctx.classpath, ctx.classFileFactoryClass, ctx.expansionBackdoor, ctx.calc);
+        state.setUseArrayTheory(ctx.useArrayTheory);
 
         //adds a method frame for the initial method invocation (and possibly triggers)
         try {
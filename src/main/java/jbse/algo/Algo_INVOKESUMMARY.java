@@ -0,0 +1,122 @@
+package jbse.algo;
+
+import static jbse.bc.Offsets.INVOKEDYNAMICINTERFACE_OFFSET;
+import static jbse.bc.Offsets.INVOKESPECIALSTATICVIRTUAL_OFFSET;
+import static jbse.mem.Util.toPrimitive;
+
+import java.util.function.Supplier;
+
+import jbse.dec.DecisionProcedureAlgorithms.Outcome;
+import jbse.tree.DecisionAlternative_INVOKESUMMARY;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * {@link Algorithm} implementing the effect of the invocation of
+ * a static method by instantiating its {@link MethodSummary}
+ * on the actual arguments. It produces one successor state for
+ * each case of the summary whose precondition is satisfiable,
+ * where the precondition is assumed and the return value of
+ * the case is pushed on the operand stack.
+ *
+ * @author Pietro Braione
+ */
+final class Algo_INVOKESUMMARY extends Algo_INVOKEMETA<
+DecisionAlternative_INVOKESUMMARY,
+StrategyDecide<DecisionAlternative_INVOKESUMMARY>,
+StrategyRefine<DecisionAlternative_INVOKESUMMARY>,
+StrategyUpdate<DecisionAlternative_INVOKESUMMARY>> {
+
+    private final MethodSummary summary; //set by constructor
+
+    public Algo_INVOKESUMMARY(MethodSummary summary) {
+        this.summary = summary;
+    }
+
+    private int pcOffset; //set by cooker
+    private Primitive[] preconditions; //set by cooker
+    private Primitive[] returnValues; //set by cooker
+
+    @Override
+    protected Supplier<Integer> numOperands() {
+        return () -> this.data.signature().getMethodDescriptor().getParametersNumber();
+    }
+
+    @Override
+    protected BytecodeCooker bytecodeCooker() {
+        return (state) -> {
+            //sets the program counter offset for the return point
+            this.pcOffset = (this.isInterface ?
+                INVOKEDYNAMICINTERFACE_OFFSET :
+                INVOKESPECIALSTATICVIRTUAL_OFFSET);
+
+            //instantiates the summary on the arguments
+            final int numCases = this.summary.getNumCases();
+            this.preconditions = new Primitive[numCases];
+            this.returnValues = new Primitive[numCases];
+            try {
+                final Primitive[] args = toPrimitive(this.data.operands());
+                for (int i = 0; i < numCases; ++i) {
+                    this.preconditions[i] = this.summary.getPrecondition(i, args);
+                    this.returnValues[i] = this.summary.getReturnValue(i, args);
+                }
+            } catch (InvalidOperandException | InvalidTypeException e) {
+                //the arguments do not fit the summary:
+                //executes the method bytecode
+                continueWithBaseLevelImpl();
+            }
+        };
+    }
+
+    @Override
+    protected Class<DecisionAlternative_INVOKESUMMARY> classDecisionAlternative() {
+        return DecisionAlternative_INVOKESUMMARY.class;
+    }
+
+    @Override
+    protected StrategyDecide<DecisionAlternative_INVOKESUMMARY> decider() {
+        return (state, result) -> {
+            for (int i = 0; i < this.preconditions.length; ++i) {
+                final Primitive precondition = this.preconditions[i];
+                if (precondition.surelyTrue()) {
+                    result.add(new DecisionAlternative_INVOKESUMMARY(i, true));
+                } else if (precondition.surelyFalse()) {
+                    continue;
+                } else if (!(precondition instanceof Expression) ||
+                           this.ctx.decisionProcedure.isSat(state.getClassHierarchy(), (Expression) precondition)) {
+                    result.add(new DecisionAlternative_INVOKESUMMARY(i, false));
+                }
+            }
+            return (result.size() > 1 ? Outcome.TT : Outcome.TF);
+        };
+    }
+
+    @Override
+    protected StrategyRefine<DecisionAlternative_INVOKESUMMARY> refiner() {
+        return (state, alt) -> {
+            final Primitive precondition = this.preconditions[alt.caseIndex()];
+            if (!precondition.surelyTrue()) {
+                state.assume(this.ctx.decisionProcedure.simplify(precondition));
+            }
+        };
+    }
+
+    @Override
+    protected StrategyUpdate<DecisionAlternative_INVOKESUMMARY> updater() {
+        return (state, alt) -> {
+            state.pushOperand(this.returnValues[alt.caseIndex()]);
+        };
+    }
+
+    @Override
+    protected Supplier<Boolean> isProgramCounterUpdateAnOffset() {
+        return () -> true;
+    }
+
+    @Override
+    protected Supplier<Integer> programCounterUpdate() {
+        return () -> this.pcOffset;
+    }
+}
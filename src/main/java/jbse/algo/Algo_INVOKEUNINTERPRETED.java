@@ -1,10 +1,8 @@
 package jbse.algo;
 
 import static jbse.algo.Util.failExecution;
-import static jbse.common.Type.splitParametersDescriptors;
 import static jbse.mem.Util.toPrimitive;
 import static jbse.common.Type.isPrimitive;
-import static jbse.common.Type.splitReturnValueDescriptor;
 
 import java.util.Arrays;
 import java.util.function.Supplier;
@@ -43,15 +41,15 @@ public final class Algo_INVOKEUNINTERPRETED extends Algo_INVOKEMETA_Nonbranching
     @Override
     protected Supplier<Integer> numOperands() {
         return () -> {
-            final String[] paramsDescriptors = splitParametersDescriptors(this.data.signature().getDescriptor());
-            return (this.isStatic ? paramsDescriptors.length : paramsDescriptors.length + 1);
+            final int nParams = this.data.signature().getMethodDescriptor().getParametersNumber();
+            return (this.isStatic ? nParams : nParams + 1);
         };
     }
 
     @Override
     protected void cookMore(State state) throws UninterpretedUnsupportedException {
         //gets and checks the return type
-        this.returnType = splitReturnValueDescriptor(this.methodSignatureImpl.getDescriptor()).charAt(0);
+        this.returnType = this.methodSignatureImpl.getMethodDescriptor().getReturnValueType();
         if (!isPrimitive(this.returnType)) {
             throw new UninterpretedUnsupportedException("The method " + this.methodSignatureImpl + " does not return a primitive value."); 
         }
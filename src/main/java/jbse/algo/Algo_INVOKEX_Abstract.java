@@ -8,7 +8,6 @@ import static jbse.algo.Util.throwNew;
 import static jbse.bc.Signatures.INCOMPATIBLE_CLASS_CHANGE_ERROR;
 import static jbse.bc.Signatures.NULL_POINTER_EXCEPTION;
 import static jbse.common.Type.REFERENCE;
-import static jbse.common.Type.splitParametersDescriptors;
 import static jbse.common.Type.TYPEEND;
 
 import java.util.function.Supplier;
@@ -23,6 +22,7 @@ import jbse.bc.exc.IncompatibleClassFileException;
 import jbse.bc.exc.MethodAbstractException;
 import jbse.bc.exc.MethodNotAccessibleException;
 import jbse.bc.exc.MethodNotFoundException;
+import jbse.dec.exc.DecisionException;
 import jbse.mem.State;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.DecisionAlternative_NONE;
@@ -60,8 +60,8 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     @Override
     protected final Supplier<Integer> numOperands() {
         return () -> {
-            final String[] paramsDescriptors = splitParametersDescriptors(this.data.signature().getDescriptor());
-            return (this.isStatic ? paramsDescriptors.length : paramsDescriptors.length + 1);
+            final int nParams = this.data.signature().getMethodDescriptor().getParametersNumber();
+            return (this.isStatic ? nParams : nParams + 1);
         };
     }
 
@@ -152,14 +152,22 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     }
     
     protected final void findOverridingMetaLevelImpl(State state) 
-    throws InterruptException, MetaUnsupportedException {
+    throws InterruptException, MetaUnsupportedException, DecisionException {
         try {
-            if (this.ctx.dispatcherMeta.isMeta(state.getClassHierarchy(), this.methodSignatureResolved)) {
-                final Algo_INVOKEMETA<?, ?, ?, ?> algo = 
-                    this.ctx.dispatcherMeta.select(this.methodSignatureResolved);
-                algo.setFeatures(this.isInterface, this.isSpecial, this.isStatic);
-                continueWith(algo);
+            if (!this.ctx.dispatcherMeta.isMeta(state.getClassHierarchy(), this.methodSignatureResolved)) {
+                //possibly summarizes the (static) method, so that 
+                //its invocations will be managed at the meta-level
+                final MethodSummary summary = 
+                    (this.isStatic ? this.ctx.getMethodSummary(state, this.methodSignatureResolved) : null);
+                if (summary == null) {
+                    return;
+                }
+                this.ctx.dispatcherMeta.loadAlgoSummary(this.methodSignatureResolved, summary);
             }
+            final Algo_INVOKEMETA<?, ?, ?, ?> algo = 
+                this.ctx.dispatcherMeta.select(this.methodSignatureResolved);
+            algo.setFeatures(this.isInterface, this.isSpecial, this.isStatic);
+            continueWith(algo);
         } catch (BadClassFileException | MethodNotFoundException e) {
             //this should never happen after resolution 
             failExecution(e);
@@ -66,6 +66,6 @@ final class Algo_PUTSTATIC extends Algo_PUTX {
     @Override
     protected void put(State state) throws InterruptException {
         final String fieldClassName = this.fieldSignatureResolved.getClassName();
-        state.getKlass(fieldClassName).setFieldValue(this.fieldSignatureResolved, this.data.operand(0));
+        state.getKlassForUpdate(fieldClassName).setFieldValue(this.fieldSignatureResolved, this.data.operand(0));
     }
 }
@@ -10,6 +10,7 @@ import static jbse.bc.Signatures.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION;
 import static jbse.bc.Signatures.NULL_POINTER_EXCEPTION;
 import static jbse.common.Type.getArrayMemberType;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.function.Supplier;
 
@@ -19,6 +20,10 @@ import jbse.dec.exc.DecisionException;
 import jbse.mem.Array;
 import jbse.mem.State;
 import jbse.mem.exc.ContradictionException;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+import jbse.mem.exc.InvalidProgramCounterException;
+import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.DecisionAlternative_XALOAD;
 import jbse.tree.DecisionAlternative_XALOAD_Out;
 import jbse.tree.DecisionAlternative_XALOAD_Unresolved;
@@ -26,11 +31,13 @@ import jbse.tree.DecisionAlternative_XALOAD_Aliases;
 import jbse.tree.DecisionAlternative_XALOAD_Null;
 import jbse.tree.DecisionAlternative_XALOAD_Expands;
 import jbse.tree.DecisionAlternative_XALOAD_Resolved;
+import jbse.val.Expression;
 import jbse.val.Primitive;
 import jbse.val.Reference;
 import jbse.val.ReferenceArrayImmaterial;
 import jbse.val.ReferenceConcrete;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
 import jbse.val.Value;
 import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidTypeException;
@@ -89,6 +96,7 @@ StrategyUpdate_XALOAD> {
             //reads the array and its entries
             try {
                 this.arrayObj = (Array) state.getObject(this.myObjectRef);
+                possiblyLoadFast(state);
                 this.entries = this.arrayObj.get(this.index);
             } catch (InvalidOperandException | InvalidTypeException | 
                      ClassCastException e) {
@@ -99,6 +107,55 @@ StrategyUpdate_XALOAD> {
         };
     }
 
+    /**
+     * Completes the bytecode semantics without building the access 
+     * outcomes and the decision alternatives, whenever the array has 
+     * a simple representation, the index is concrete, and the access 
+     * does not add a branch to the state tree (i.e., the index is out 
+     * of range, or the loaded value needs no resolution).
+     * 
+     * @param state the current {@link State}.
+     * @throws InvalidTypeException if the index is not an int.
+     * @throws InterruptException if the bytecode semantics is completed.
+     */
+    private void possiblyLoadFast(State state) throws InvalidTypeException, InterruptException {
+        if (!this.arrayObj.hasSimpleRep() || !(this.index instanceof Simplex) ||
+            this.ctx.stateTree.mustAddBranchPoint(false, true, true, false)) {
+            return;
+        }
+        try {
+            final Simplex indexConcrete = (Simplex) this.index;
+            if (this.arrayObj.inRangeFast(indexConcrete)) {
+                final Value val = this.arrayObj.getFast(indexConcrete);
+                if (val == null || val instanceof ReferenceSymbolic || 
+                    val instanceof ReferenceArrayImmaterial) {
+                    return; //needs a fresh symbol, resolution or materialization
+                }
+                state.popOperands(2);
+                pushLoaded(state, val);
+                state.incProgramCounter(XALOADSTORE_OFFSET);
+                state.setBranchingDecision(false);
+            } else {
+                state.setBranchingDecision(false);
+                throwNew(state, ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION);
+            }
+        } catch (InvalidProgramCounterException e) {
+            throwVerifyError(state);
+        } catch (InvalidOperandException | FastArrayAccessNotAllowedException | 
+                 InvalidNumberOfOperandsException | ThreadStackEmptyException e) {
+            //this should never happen
+            failExecution(e);
+        }
+        exitFromAlgorithm();
+    }
+
+    @Override
+    protected boolean canSkipSatChecks() {
+        //the alternatives are numbered in the order of the 
+        //satisfiable ones, across all the array entries
+        return false;
+    }
+
     @Override
     protected Class<DecisionAlternative_XALOAD> classDecisionAlternative() {
         return DecisionAlternative_XALOAD.class;
@@ -110,6 +167,20 @@ StrategyUpdate_XALOAD> {
             boolean shouldRefine = false;
             boolean branchingDecision = false;
             boolean first = true; //just for formatting
+            
+            //decides the satisfiability of all the access 
+            //conditions at once, so resolve_XALOAD does not 
+            //need to query the decision procedure for each of them
+            final ArrayList<Expression> accessConditions = new ArrayList<>();
+            for (Array.AccessOutcome e : this.entries) {
+                if (e.getAccessCondition() != null) {
+                    accessConditions.add(e.getAccessCondition());
+                }
+            }
+            if (accessConditions.size() > 1) {
+                this.ctx.decisionProcedure.isSatAlternatives(state.getClassHierarchy(), accessConditions);
+            }
+            
             for (Array.AccessOutcome e : this.entries) {
                 //puts in val the value of the current entry, or a fresh symbol, 
                 //or null if the index is out of bound
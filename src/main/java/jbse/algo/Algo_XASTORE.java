@@ -1,6 +1,7 @@
 package jbse.algo;
 
 import static jbse.algo.Util.exitFromAlgorithm;
+import static jbse.algo.Util.failExecution;
 import static jbse.algo.Util.storeInArray;
 import static jbse.algo.Util.throwNew;
 import static jbse.algo.Util.throwVerifyError;
@@ -21,9 +22,15 @@ import jbse.bc.exc.BadClassFileException;
 import jbse.dec.DecisionProcedureAlgorithms.Outcome;
 import jbse.mem.Array;
 import jbse.mem.Objekt;
+import jbse.mem.State;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+import jbse.mem.exc.InvalidProgramCounterException;
+import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.DecisionAlternative_XASTORE;
 import jbse.val.Primitive;
 import jbse.val.Reference;
+import jbse.val.Simplex;
 import jbse.val.Value;
 import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidTypeException;
@@ -77,14 +84,13 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
                 exitFromAlgorithm();
             }
 
-            //creates the Values that check whether the index
-            //is in range or out of range w.r.t. the array;
-            //moreover, converts the value in case of [b/c/s]astore
-            //and checks assignment compatibility in case of aastore
+            //converts the value in case of [b/c/s]astore and 
+            //checks assignment compatibility in case of aastore;
+            //then, either stores the value if the access is concrete,
+            //or creates the Values that check whether the index
+            //is in range or out of range w.r.t. the array
             try {
                 final Array array = (Array) state.getObject(myObjectRef);
-                this.inRange = array.inRange(index);
-                this.outOfRange = array.outOfRange(index);
                 final String arrayMemberType = getArrayMemberType(array.getType());
                 if (isReference(arrayMemberType) || isArray(arrayMemberType)) {
                     if (!(value instanceof Reference)) {
@@ -114,6 +120,9 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
                         exitFromAlgorithm();
                     }
                 }
+                possiblyStoreFast(state, array, index);
+                this.inRange = array.inRange(index);
+                this.outOfRange = array.outOfRange(index);
             } catch (InvalidOperandException | InvalidTypeException | 
             ClassCastException | BadClassFileException e) {
                 //index is bad or the reference does not point to an array
@@ -126,6 +135,44 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
         };
     }
 
+    /**
+     * Completes the bytecode semantics without building the range 
+     * checks and the decision alternatives, whenever the array has 
+     * a simple representation, the index is concrete, and the access
+     * does not add a branch to the state tree.
+     * 
+     * @param state the current {@link State}.
+     * @param array the {@link Array} where the value must be stored.
+     * @param index the index where the value must be stored.
+     * @throws InvalidTypeException if {@code index} is not an int.
+     * @throws InterruptException if the bytecode semantics is completed.
+     */
+    private void possiblyStoreFast(State state, Array array, Primitive index) 
+    throws InvalidTypeException, InterruptException {
+        if (!array.hasSimpleRep() || !(index instanceof Simplex) ||
+            this.ctx.stateTree.mustAddBranchPoint(false, true, true, false)) {
+            return;
+        }
+        try {
+            final Simplex indexConcrete = (Simplex) index;
+            state.setBranchingDecision(false);
+            if (array.inRangeFast(indexConcrete)) {
+                array.setFast(indexConcrete, this.valueToStore);
+                state.popOperands(3);
+                state.incProgramCounter(XALOADSTORE_OFFSET);
+            } else {
+                throwNew(state, ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION);
+            }
+        } catch (InvalidProgramCounterException e) {
+            throwVerifyError(state);
+        } catch (InvalidOperandException | FastArrayAccessNotAllowedException | 
+                 InvalidNumberOfOperandsException | ThreadStackEmptyException e) {
+            //this should never happen
+            failExecution(e);
+        }
+        exitFromAlgorithm();
+    }
+
     @Override
     protected Class<DecisionAlternative_XASTORE> classDecisionAlternative() {
         return DecisionAlternative_XASTORE.class;
@@ -95,22 +95,9 @@ UP extends StrategyUpdate<R>> extends Algorithm<D, R, DE, RE, UP> {
         //possibly materializes the value
         final Value val = altLoads.getValueToLoad();
         final Value valMaterialized = possiblyMaterialize(state, val);
-        final char valMaterializedType = valMaterialized.getType();
 
         //pushes the value
-        try {
-            final Value valToPush;
-            if (isPrimitive(valMaterializedType) && !isPrimitiveOpStack(valMaterializedType)) {
-                valToPush = ((Primitive) valMaterialized).to(INT);
-            } else {
-                valToPush = valMaterialized;
-            }
-            state.pushOperand(valToPush);
-        } catch (ClassCastException | InvalidTypeException | 
-                 ThreadStackEmptyException e) {
-            //this should not happen
-            failExecution(e);
-        }
+        pushLoaded(state, valMaterialized);
 
         //manages triggers
         try {
@@ -128,6 +115,30 @@ UP extends StrategyUpdate<R>> extends Algorithm<D, R, DE, RE, UP> {
         }
     }
 
+    /**
+     * Pushes a loaded value on the operand stack, widening
+     * it to int if it is a primitive with a smaller type.
+     * 
+     * @param state a {@link State}.
+     * @param val the loaded {@link Value}, materialized.
+     */
+    protected final void pushLoaded(State state, Value val) {
+        try {
+            final char valType = val.getType();
+            final Value valToPush;
+            if (isPrimitive(valType) && !isPrimitiveOpStack(valType)) {
+                valToPush = ((Primitive) val).to(INT);
+            } else {
+                valToPush = val;
+            }
+            state.pushOperand(valToPush);
+        } catch (ClassCastException | InvalidTypeException | 
+                 ThreadStackEmptyException e) {
+            //this should not happen
+            failExecution(e);
+        }
+    }
+
     /** 
      * Materializes an immaterial {@link Value}.
      * 
@@ -127,6 +127,22 @@ UP extends StrategyUpdate<R>> {
      */
     protected void cleanup() { }
     
+    /**
+     * Override this method to prevent the decision procedure 
+     * from skipping the satisfiability checks when the algorithm 
+     * decides a branch above a replayed state. This is necessary 
+     * whenever the branch numbers of the decision alternatives 
+     * depend on which of them are satisfiable, since otherwise 
+     * the numbers would differ from those of the original 
+     * exploration.
+     * 
+     * @return {@code true} iff the satisfiability checks can 
+     *         be skipped; by default {@code true}.
+     */
+    protected boolean canSkipSatChecks() {
+        return true;
+    }
+    
     private final Supplier<Integer> numOperands; //just caches
     protected D data; //just caches
     private final BytecodeCooker cooker;  //just caches
@@ -258,19 +274,29 @@ UP extends StrategyUpdate<R>> {
         }
 
         //decides the satisfiability of the different alternatives
+        //(when replaying, the alternatives above the replayed 
+        //state are not checked, since only the one on the path 
+        //to the replayed state will be explored)
         final SortedSet<R> decisionResults = this.ctx.mkDecisionResultSet(classDecisionAlternative());     
-        final Outcome outcome = this.decider.decide(state, decisionResults);
+        final boolean skipSatChecks = canSkipSatChecks() && this.ctx.stateTree.isReplayingAboveTarget(state);
+        final Outcome outcome;
+        try {
+            this.ctx.decisionProcedure.setSkipSatChecks(skipSatChecks);
+            outcome = this.decider.decide(state, decisionResults);
+        } finally {
+            this.ctx.decisionProcedure.setSkipSatChecks(false);
+        }
 
         //checks if at least one alternative is satisfiable
-        final int tot = decisionResults.size();
-        if (tot == 0) {
+        if (decisionResults.size() == 0) {
             throw new ContradictionException();
         }
 
         //generates the next states
         final boolean shouldRefine = outcome.shouldRefine();
         final boolean branchingDecision = outcome.branchingDecision();
-        final boolean branchAdded = possiblyAddBranchPoint(decisionResults);
+        final boolean branchAdded = possiblyAddBranchPoint(state, decisionResults);
+        final int tot = decisionResults.size();
         int cur = 1;
         for (R result : decisionResults) {
             final State stateCurrent = (cur < tot ? state.clone() : state);
@@ -330,12 +356,32 @@ UP extends StrategyUpdate<R>> {
         }
     }
     
-    private boolean possiblyAddBranchPoint(Collection<R> decisionResults) {
+    /**
+     * Possibly adds a branch point to the state tree. If the
+     * branch point is added while replaying, discards all the
+     * decision results that do not lead to the replayed state.
+     * 
+     * @param state the {@link State} that is branching.
+     * @param decisionResults the decision results.
+     * @return {@code true} iff the branch point was added.
+     * @throws ContradictionException if no decision result 
+     *         leads to the replayed state.
+     */
+    private boolean possiblyAddBranchPoint(State state, Collection<R> decisionResults) 
+    throws ContradictionException {
         final boolean moreThanOneResult = (decisionResults.size() > 1);
         final DecisionAlternative d = decisionResults.iterator().next();
         final boolean trivial = d.trivial();
         final boolean concrete = d.concrete();
         final boolean noDecision = d.noDecision();
-        return this.ctx.stateTree.possiblyAddBranchPoint(moreThanOneResult, trivial, concrete, noDecision);
+        if (!this.ctx.stateTree.mustAddBranchPoint(moreThanOneResult, trivial, concrete, noDecision)) {
+            return false;
+        }
+        decisionResults.removeIf(r -> !this.ctx.stateTree.isOnReplayPath(state, r.getBranchNumber()));
+        if (decisionResults.isEmpty()) {
+            throw new ContradictionException();
+        }
+        this.ctx.stateTree.addBranchPoint();
+        return true;
     }
 }
@@ -134,6 +134,18 @@ class DispatcherMeta extends Dispatcher<Signature, Algo_INVOKEMETA<?, ?, ?, ?>>
 		loadMetaDelegate(methodSignatureResolved, metaDelegate);
 	}
 	
+	/**
+	 * Loads an {@link Algorithm} to manage the invocation of a static method
+	 * by instantiating its summary.
+	 * 
+	 * @param methodSignatureResolved the {@link Signature} of a <em>resolved</em> method.
+	 * @param summary the {@link MethodSummary} of the method.
+	 */
+	public void loadAlgoSummary(Signature methodSignatureResolved, MethodSummary summary) {
+		final Algo_INVOKESUMMARY metaDelegate = new Algo_INVOKESUMMARY(summary);
+		loadMetaDelegate(methodSignatureResolved, metaDelegate);
+	}
+	
 	private void loadMetaDelegate(Signature methodSignatureResolved, final Algo_INVOKEMETA<?, ?, ?, ?> metaDelegate) {
 		setCase(methodSignatureResolved, () -> metaDelegate);
 	}
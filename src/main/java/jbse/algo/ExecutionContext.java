@@ -151,6 +151,7 @@ import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.exc.DecisionException;
 import jbse.mem.State;
 import jbse.rules.TriggerRulesRepo;
 import jbse.tree.DecisionAlternative;
@@ -224,6 +225,19 @@ public final class ExecutionContext {
 	 */
 	public final TriggerManager triggerManager;
 
+	/** 
+	 * Whether the arrays with primitive members must be represented 
+	 * in the SMT theory of arrays.
+	 */
+	public final boolean useArrayTheory;
+	
+	/** 
+	 * The {@link MethodSummaryProvider} for the methods whose 
+	 * invocations must be managed by instantiating their summaries, 
+	 * or {@code null} if no method must be summarized.
+	 */
+	private MethodSummaryProvider methodSummaryProvider = null;
+
 	/**
 	 * Constructor.
 	 * 
@@ -254,6 +268,11 @@ public final class ExecutionContext {
 	 *        for sibling branches.
 	 * @param nativeInvoker a {@link NativeInvoker} which will be used
 	 *        to execute native methods.
+	 * @param useArrayTheory {@code true} iff the arrays with primitive 
+	 *        members must be represented in the SMT theory of arrays, 
+	 *        so that accessing them with a symbolic index yields a 
+	 *        single symbolic value rather than one branch for each
+	 *        array entry.
 	 */
 	public ExecutionContext(
 			State initialState,
@@ -267,7 +286,8 @@ public final class ExecutionContext {
 			Map<String, Set<String>> expansionBackdoor,
 			TriggerRulesRepo rulesTrigger,
 			DecisionAlternativeComparators comparators, 
-			NativeInvoker nativeInvoker) {
+			NativeInvoker nativeInvoker,
+			boolean useArrayTheory) {
 		this.initialState = initialState;
 		this.classpath = classpath;
 		this.rootMethodSignature = rootMethodSignature;
@@ -279,6 +299,7 @@ public final class ExecutionContext {
 		this.triggerManager = new TriggerManager(rulesTrigger.clone()); //safety copy
 		this.comparators = comparators;
 		this.nativeInvoker = nativeInvoker;
+		this.useArrayTheory = useArrayTheory;
 		
 	    //defaults
         try {
@@ -429,6 +450,34 @@ public final class ExecutionContext {
 		this.dispatcherMeta.loadAlgoUninterpreted(methodSignature, functionName);
 	}
 	
+	/**
+	 * Sets the {@link MethodSummaryProvider} for the methods whose 
+	 * invocations must be managed by instantiating their summaries
+	 * rather than by executing their bytecode.
+	 * 
+	 * @param methodSummaryProvider a {@link MethodSummaryProvider}, 
+	 *        or {@code null} if no method must be summarized.
+	 */
+	public void setMethodSummaryProvider(MethodSummaryProvider methodSummaryProvider) {
+		this.methodSummaryProvider = methodSummaryProvider;
+	}
+	
+	/**
+	 * Returns the summary of a method.
+	 * 
+	 * @param state the {@link State} where the method is invoked.
+	 * @param methodSignature the {@link Signature} of the
+	 *        <em>resolved</em> method.
+	 * @return a {@link MethodSummary}, or {@code null} if the 
+	 *         method must not, or cannot, be summarized.
+	 * @throws DecisionException if the decision procedure fails.
+	 */
+	public MethodSummary getMethodSummary(State state, Signature methodSignature) 
+	throws DecisionException {
+		return (this.methodSummaryProvider == null ? null : 
+				this.methodSummaryProvider.getSummary(state, methodSignature));
+	}
+	
     /**
      * Determines whether a class has a pure static initializer, where with
      * "pure" we mean that its effect is independent on when the initializer
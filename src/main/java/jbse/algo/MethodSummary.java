@@ -0,0 +1,526 @@
+package jbse.algo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jbse.bc.MethodDescriptor;
+import jbse.bc.Signature;
+import jbse.common.Type;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.Any;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidOperatorException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * The summary of a method whose parameters and return value are
+ * primitive, and that has no effect on the heap. A summary is a list
+ * of cases, each a pair (precondition, return value) of {@link Primitive}s
+ * over the method parameters, and corresponds to the leaves
+ * of a complete symbolic execution of the method. The parameters
+ * are represented by {@link Term}s, that are replaced by the
+ * actual arguments when the summary is instantiated at an invocation.
+ *
+ * @author Pietro Braione
+ */
+public final class MethodSummary {
+	/** The prefix of the names of the parameter {@link Term}s. */
+	private static final String PARAM_PREFIX = "{PARAM";
+
+	/** The suffix of the names of the parameter {@link Term}s. */
+	private static final String PARAM_SUFFIX = "}";
+
+	/** The {@link Signature} of the summarized method. */
+	private final Signature methodSignature;
+
+	/** The {@link Calculator}. */
+	private final Calculator calc;
+
+	/** The parameters, as {@link Term}s. */
+	private final Term[] params;
+
+	/** The preconditions of the cases. */
+	private final List<Primitive> preconditions;
+
+	/** The return values of the cases. */
+	private final List<Primitive> returnValues;
+
+	private MethodSummary(Signature methodSignature, Calculator calc, Term[] params,
+						  List<Primitive> preconditions, List<Primitive> returnValues) {
+		this.methodSignature = methodSignature;
+		this.calc = calc;
+		this.params = params;
+		this.preconditions = preconditions;
+		this.returnValues = returnValues;
+	}
+
+	/**
+	 * Factory method. Builds a summary from the leaves of a symbolic
+	 * execution of a method.
+	 *
+	 * @param methodSignature the {@link Signature} of the method.
+	 * @param calc a {@link Calculator}.
+	 * @param params a {@link PrimitiveSymbolic}{@code []}, the
+	 *        symbolic values of the method parameters.
+	 * @param preconditions a {@link List}{@code <}{@link Primitive}{@code >},
+	 *        the path conditions of the leaves over {@code params}.
+	 * @param returnValues a {@link List}{@code <}{@link Primitive}{@code >},
+	 *        the values returned at the leaves, in the same order
+	 *        of {@code preconditions}.
+	 * @return a {@link MethodSummary}, or {@code null} if some
+	 *         precondition or return value depends on some
+	 *         symbolic value other than {@code params}.
+	 */
+	public static MethodSummary make(Signature methodSignature, Calculator calc, PrimitiveSymbolic[] params,
+									 List<Primitive> preconditions, List<Primitive> returnValues) {
+		final Term[] paramTerms = makeParams(methodSignature, calc);
+		if (paramTerms == null || paramTerms.length != params.length) {
+			return null;
+		}
+		final HashMap<Primitive, Primitive> toTerms = new HashMap<>();
+		for (int i = 0; i < params.length; ++i) {
+			toTerms.put(params[i], paramTerms[i]);
+		}
+		final Substitution s = new Substitution(calc, toTerms);
+		final ArrayList<Primitive> preconditionsCanonical = new ArrayList<>();
+		final ArrayList<Primitive> returnValuesCanonical = new ArrayList<>();
+		try {
+			for (int i = 0; i < preconditions.size(); ++i) {
+				final Primitive precondition = s.apply(preconditions.get(i));
+				final Primitive returnValue = s.apply(returnValues.get(i));
+				if (precondition == null || returnValue == null) {
+					return null;
+				}
+				preconditionsCanonical.add(precondition);
+				returnValuesCanonical.add(returnValue);
+			}
+		} catch (InvalidOperandException | InvalidTypeException e) {
+			return null;
+		}
+		return new MethodSummary(methodSignature, calc, paramTerms, preconditionsCanonical, returnValuesCanonical);
+	}
+
+	private static Term[] makeParams(Signature methodSignature, Calculator calc) {
+		final MethodDescriptor methodDescriptor = methodSignature.getMethodDescriptor();
+		final Term[] retVal = new Term[methodDescriptor.getParametersNumber()];
+		try {
+			for (int i = 0; i < retVal.length; ++i) {
+				retVal[i] = calc.valTerm(methodDescriptor.getParameterType(i), PARAM_PREFIX + i + PARAM_SUFFIX);
+			}
+		} catch (InvalidTypeException e) {
+			//some parameter is not primitive
+			return null;
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the summarized method.
+	 *
+	 * @return a {@link Signature}.
+	 */
+	public Signature getMethodSignature() {
+		return this.methodSignature;
+	}
+
+	/**
+	 * Returns the number of cases of this summary.
+	 *
+	 * @return an {@code int}.
+	 */
+	public int getNumCases() {
+		return this.preconditions.size();
+	}
+
+	/**
+	 * Returns the precondition of a case, instantiated
+	 * on the actual arguments of an invocation.
+	 *
+	 * @param caseIndex an {@code int}, the index of the case.
+	 * @param args a {@link Primitive}{@code []}, the actual
+	 *        arguments of the invocation.
+	 * @return a {@link Primitive}.
+	 * @throws InvalidTypeException if some of {@code args}
+	 *         cannot be converted to the type of the
+	 *         corresponding parameter.
+	 * @throws InvalidOperandException if {@code args} has
+	 *         not as many elements as the parameters.
+	 */
+	public Primitive getPrecondition(int caseIndex, Primitive... args)
+	throws InvalidOperandException, InvalidTypeException {
+		return instantiate(this.preconditions.get(caseIndex), args);
+	}
+
+	/**
+	 * Returns the return value of a case, instantiated
+	 * on the actual arguments of an invocation.
+	 *
+	 * @param caseIndex an {@code int}, the index of the case.
+	 * @param args a {@link Primitive}{@code []}, the actual
+	 *        arguments of the invocation.
+	 * @return a {@link Primitive}.
+	 * @throws InvalidTypeException if some of {@code args}
+	 *         cannot be converted to the type of the
+	 *         corresponding parameter.
+	 * @throws InvalidOperandException if {@code args} has
+	 *         not as many elements as the parameters.
+	 */
+	public Primitive getReturnValue(int caseIndex, Primitive... args)
+	throws InvalidOperandException, InvalidTypeException {
+		return instantiate(this.returnValues.get(caseIndex), args);
+	}
+
+	private Primitive instantiate(Primitive p, Primitive[] args)
+	throws InvalidOperandException, InvalidTypeException {
+		if (args.length != this.params.length) {
+			throw new InvalidOperandException("a summary of " + this.methodSignature + " was instantiated with " + args.length + " arguments");
+		}
+		final HashMap<Primitive, Primitive> toArgs = new HashMap<>();
+		for (int i = 0; i < args.length; ++i) {
+			toArgs.put(this.params[i], this.calc.to(this.params[i].getType(), args[i]));
+		}
+		final Primitive retVal = new Substitution(this.calc, toArgs).apply(p);
+		if (retVal == null) {
+			//this should never happen
+			throw new UnexpectedInternalException("the summary of " + this.methodSignature + " has a free symbol");
+		}
+		return retVal;
+	}
+
+	/**
+	 * Replaces some {@link Primitive}s with other ones, and rebuilds
+	 * the result with a {@link Calculator}, so that it is simplified
+	 * as much as possible.
+	 *
+	 * @author Pietro Braione
+	 */
+	private static final class Substitution implements PrimitiveVisitor {
+		private final Calculator calc;
+		private final Map<Primitive, Primitive> map;
+		private Primitive value; //the result, null if some symbol is not mapped
+
+		Substitution(Calculator calc, Map<Primitive, Primitive> map) {
+			this.calc = calc;
+			this.map = map;
+		}
+
+		Primitive apply(Primitive p) throws InvalidOperandException, InvalidTypeException {
+			try {
+				p.accept(this);
+			} catch (InvalidOperandException | InvalidTypeException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+			return this.value;
+		}
+
+		@Override
+		public void visitAny(Any x) {
+			this.value = null;
+		}
+
+		@Override
+		public void visitExpression(Expression e) throws Exception {
+			if (e.isUnary()) {
+				e.getOperand().accept(this);
+				if (this.value != null) {
+					this.value = this.calc.applyUnary(e.getOperator(), this.value);
+				}
+			} else {
+				e.getFirstOperand().accept(this);
+				final Primitive firstOperand = this.value;
+				if (firstOperand == null) {
+					return;
+				}
+				e.getSecondOperand().accept(this);
+				if (this.value != null) {
+					this.value = this.calc.applyBinary(firstOperand, e.getOperator(), this.value);
+				}
+			}
+		}
+
+		@Override
+		public void visitFunctionApplication(FunctionApplication x) throws Exception {
+			final Primitive[] args = x.getArgs();
+			for (int i = 0; i < args.length; ++i) {
+				args[i].accept(this);
+				if (this.value == null) {
+					return;
+				}
+				args[i] = this.value;
+			}
+			this.value = this.calc.applyFunction(x.getType(), x.getOperator(), args);
+		}
+
+		@Override
+		public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
+			this.value = this.map.get(s);
+		}
+
+		@Override
+		public void visitSimplex(Simplex x) {
+			this.value = x;
+		}
+
+		@Override
+		public void visitTerm(Term x) {
+			this.value = this.map.get(x);
+		}
+
+		@Override
+		public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+			x.getArg().accept(this);
+			if (this.value != null) {
+				this.value = this.calc.to(x.getType(), this.value);
+			}
+		}
+
+		@Override
+		public void visitWideningConversion(WideningConversion x) throws Exception {
+			x.getArg().accept(this);
+			if (this.value != null) {
+				this.value = this.calc.to(x.getType(), this.value);
+			}
+		}
+	}
+
+	/**
+	 * Returns a textual representation of this summary,
+	 * that can be parsed back by {@link #fromText(Signature, Calculator, String)}.
+	 *
+	 * @return a {@link String}, or {@code null} if this
+	 *         summary has no textual representation (e.g.,
+	 *         because it contains the application of a function
+	 *         whose name has blanks).
+	 */
+	public String toText() {
+		final Writer w = new Writer();
+		w.buf.append(this.methodSignature.toString());
+		w.buf.append('\n');
+		for (int i = 0; i < this.preconditions.size(); ++i) {
+			if (!w.write(this.preconditions.get(i)) || !w.write(this.returnValues.get(i))) {
+				return null;
+			}
+		}
+		return w.buf.toString();
+	}
+
+	/**
+	 * Writes {@link Primitive}s in prefix notation, one per line.
+	 *
+	 * @author Pietro Braione
+	 */
+	private final class Writer implements PrimitiveVisitor {
+		final StringBuilder buf = new StringBuilder();
+		private boolean ok;
+
+		boolean write(Primitive p) {
+			this.ok = true;
+			try {
+				p.accept(this);
+			} catch (Exception e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+			this.buf.append('\n');
+			return this.ok;
+		}
+
+		@Override
+		public void visitAny(Any x) {
+			this.ok = false;
+		}
+
+		@Override
+		public void visitExpression(Expression e) throws Exception {
+			if (e.isUnary()) {
+				this.buf.append("U ").append(e.getOperator().name()).append(' ');
+				e.getOperand().accept(this);
+			} else {
+				this.buf.append("B ").append(e.getOperator().name()).append(' ');
+				e.getFirstOperand().accept(this);
+				this.buf.append(' ');
+				e.getSecondOperand().accept(this);
+			}
+		}
+
+		@Override
+		public void visitFunctionApplication(FunctionApplication x) throws Exception {
+			if (x.getOperator().isEmpty() || x.getOperator().matches(".*\\s.*")) {
+				this.ok = false;
+				return;
+			}
+			final Primitive[] args = x.getArgs();
+			this.buf.append('F').append(x.getType()).append(' ').append(x.getOperator()).append(' ').append(args.length);
+			for (Primitive arg : args) {
+				this.buf.append(' ');
+				arg.accept(this);
+			}
+		}
+
+		@Override
+		public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
+			this.ok = false;
+		}
+
+		@Override
+		public void visitSimplex(Simplex x) {
+			final Object v = x.getActualValue();
+			this.buf.append('S').append(x.getType()).append(' ');
+			this.buf.append(v instanceof Character ? Integer.toString((Character) v) : v.toString());
+		}
+
+		@Override
+		public void visitTerm(Term x) {
+			for (int i = 0; i < MethodSummary.this.params.length; ++i) {
+				if (MethodSummary.this.params[i].equals(x)) {
+					this.buf.append('P').append(i);
+					return;
+				}
+			}
+			this.ok = false;
+		}
+
+		@Override
+		public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+			this.buf.append('N').append(x.getType()).append(' ');
+			x.getArg().accept(this);
+		}
+
+		@Override
+		public void visitWideningConversion(WideningConversion x) throws Exception {
+			this.buf.append('W').append(x.getType()).append(' ');
+			x.getArg().accept(this);
+		}
+	}
+
+	/**
+	 * Parses the textual representation of a summary.
+	 *
+	 * @param methodSignature the {@link Signature} of the
+	 *        summarized method.
+	 * @param calc a {@link Calculator}.
+	 * @param text a {@link String}, as returned by {@link #toText()}.
+	 * @return the {@link MethodSummary} represented by {@code text},
+	 *         or {@code null} if {@code text} is malformed or
+	 *         does not summarize {@code methodSignature}.
+	 */
+	public static MethodSummary fromText(Signature methodSignature, Calculator calc, String text) {
+		final Term[] params = makeParams(methodSignature, calc);
+		final String[] lines = text.split("\n");
+		if (params == null || lines.length == 0 || lines.length % 2 == 0 ||
+			!lines[0].equals(methodSignature.toString())) {
+			return null;
+		}
+		final ArrayList<Primitive> preconditions = new ArrayList<>();
+		final ArrayList<Primitive> returnValues = new ArrayList<>();
+		try {
+			for (int i = 1; i < lines.length; i += 2) {
+				preconditions.add(new Reader(calc, params, lines[i]).read());
+				returnValues.add(new Reader(calc, params, lines[i + 1]).read());
+			}
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | InvalidOperandException |
+				 InvalidTypeException | InvalidOperatorException e) {
+			return null;
+		}
+		return new MethodSummary(methodSignature, calc, params, preconditions, returnValues);
+	}
+
+	/**
+	 * Reads a {@link Primitive} written by a {@link Writer}.
+	 *
+	 * @author Pietro Braione
+	 */
+	private static final class Reader {
+		private final Calculator calc;
+		private final Term[] params;
+		private final String[] tokens;
+		private int next = 0;
+
+		Reader(Calculator calc, Term[] params, String line) {
+			this.calc = calc;
+			this.params = params;
+			this.tokens = line.split(" ");
+		}
+
+		Primitive read() throws InvalidOperandException, InvalidTypeException, InvalidOperatorException {
+			final Primitive retVal = readPrimitive();
+			if (this.next != this.tokens.length) {
+				throw new IllegalArgumentException("trailing tokens");
+			}
+			return retVal;
+		}
+
+		private Primitive readPrimitive() throws InvalidOperandException, InvalidTypeException, InvalidOperatorException {
+			final String token = this.tokens[this.next++];
+			final char kind = token.charAt(0);
+			if (kind == 'P') {
+				return this.params[Integer.parseInt(token.substring(1))];
+			} else if (kind == 'U') {
+				final Operator operator = Operator.valueOf(this.tokens[this.next++]);
+				return this.calc.applyUnary(operator, readPrimitive());
+			} else if (kind == 'B') {
+				final Operator operator = Operator.valueOf(this.tokens[this.next++]);
+				final Primitive firstOperand = readPrimitive();
+				return this.calc.applyBinary(firstOperand, operator, readPrimitive());
+			}
+			final char type = token.charAt(1);
+			if (token.length() != 2) {
+				throw new IllegalArgumentException("bad token " + token);
+			} else if (kind == 'S') {
+				return Simplex.make(this.calc, parseValue(type, this.tokens[this.next++]));
+			} else if (kind == 'F') {
+				final String operator = this.tokens[this.next++];
+				final Primitive[] args = new Primitive[Integer.parseInt(this.tokens[this.next++])];
+				for (int i = 0; i < args.length; ++i) {
+					args[i] = readPrimitive();
+				}
+				return this.calc.applyFunction(type, operator, args);
+			} else if (kind == 'N') {
+				return this.calc.narrow(type, readPrimitive());
+			} else if (kind == 'W') {
+				return this.calc.widen(type, readPrimitive());
+			} else {
+				throw new IllegalArgumentException("bad token " + token);
+			}
+		}
+
+		private static Object parseValue(char type, String value) {
+			switch (type) {
+			case Type.BOOLEAN:
+				return Boolean.valueOf(value);
+			case Type.BYTE:
+				return Byte.valueOf(value);
+			case Type.SHORT:
+				return Short.valueOf(value);
+			case Type.INT:
+				return Integer.valueOf(value);
+			case Type.LONG:
+				return Long.valueOf(value);
+			case Type.FLOAT:
+				return Float.valueOf(value);
+			case Type.DOUBLE:
+				return Double.valueOf(value);
+			case Type.CHAR:
+				return Character.valueOf((char) Integer.parseInt(value));
+			default:
+				throw new IllegalArgumentException("bad type " + type);
+			}
+		}
+	}
+}
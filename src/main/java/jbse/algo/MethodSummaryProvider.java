@@ -0,0 +1,30 @@
+package jbse.algo;
+
+import jbse.bc.Signature;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.State;
+
+/**
+ * Provides the {@link MethodSummary}s of the methods whose
+ * invocations must be managed by instantiating their summaries
+ * rather than by executing their bytecode.
+ *
+ * @author Pietro Braione
+ */
+public interface MethodSummaryProvider {
+	/**
+	 * Returns the summary of a method.
+	 *
+	 * @param state the {@link State} where the method is
+	 *        invoked. It is not modified, but after the invocation
+	 *        the decision procedure is synchronized with its
+	 *        path condition.
+	 * @param methodSignature the {@link Signature} of the
+	 *        <em>resolved</em> method.
+	 * @return a {@link MethodSummary}, or {@code null} if
+	 *         the method must not, or cannot, be summarized.
+	 * @throws DecisionException if the decision procedure
+	 *         fails.
+	 */
+	MethodSummary getSummary(State state, Signature methodSignature) throws DecisionException;
+}
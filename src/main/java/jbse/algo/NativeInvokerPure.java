@@ -44,7 +44,7 @@ public class NativeInvokerPure implements NativeInvoker {
 	public void doInvokeNative(State state, Signature methodSignatureResolved, Value[] args, int pcOffset) 
 	throws CannotInvokeNativeException, ThreadStackEmptyException {
 		//determines the return value
-		final String returnType = Type.splitReturnValueDescriptor(methodSignatureResolved.getDescriptor());
+		final String returnType = methodSignatureResolved.getMethodDescriptor().getReturnValueDescriptor();
 		final Value returnValue;
 		if (Type.isVoid(returnType)) {
 			returnValue = null;
@@ -2,11 +2,15 @@ package jbse.algo;
 
 import static jbse.algo.Util.throwVerifyError;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jbse.algo.exc.CannotInvokeNativeException;
+import jbse.bc.MethodDescriptor;
 import jbse.bc.Signature;
 import jbse.common.Type;
 import jbse.mem.State;
@@ -27,51 +31,41 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  *
  */
 public class NativeInvokerReflect implements NativeInvoker {
+	/** 
+	 * Caches the resolved {@link NativeMethod}s. Method handles 
+	 * only depend on the virtual machine we are running on, so
+	 * the cache is shared by all the invokers.
+	 */
+	static final ConcurrentHashMap<Signature, NativeMethod> CACHE = new ConcurrentHashMap<>();
+
 	@Override
 	public void doInvokeNative(State state, Signature methodSignatureResolved, Value[] args, int pcOffset)
 	throws CannotInvokeNativeException, ThreadStackEmptyException {
-		try {
-			//converts the arguments
-			final String[] argsType = Type.splitParametersDescriptors(methodSignatureResolved.getDescriptor());
-			final Object[] argsRefl = new Object[args.length];
-			final Class<?>[] argsClass = new Class[args.length];
-			for (int i = 0; i < args.length; ++i) {
-				argsRefl[i] = args[i].getValueForNative();
-				argsClass[i] = getClass(argsType[i]);
-			}
-			
-			//gets the method and invokes it
-			final Class<?> c = Class.forName(methodSignatureResolved.getClassName().replace('/', '.'));
-			final Method m = c.getMethod(methodSignatureResolved.getName(), argsClass);
-			final Object retValRefl;
-			if (Modifier.isStatic(m.getModifiers())) {
-				retValRefl = m.invoke(null, argsRefl);
-			} else {
-				final Object argThis = argsRefl[0]; //TODO reify argsRefl[0]
-				final Object[] argsReflOthers = new Object[argsRefl.length - 1];
-				for (int i = 0; i < argsReflOthers.length; ++i) {
-					argsReflOthers[i] = argsRefl[i + 1];
-				}
-				retValRefl = m.invoke(argThis, argsReflOthers);
-			}
-			
-			//reifies the return value
-			final String retType =  Type.splitReturnValueDescriptor(methodSignatureResolved.getDescriptor());
-			final Value retVal = toValue(state.getCalculator(), retValRefl, retType);
+		//gets the method
+		NativeMethod m = CACHE.get(methodSignatureResolved);
+		if (m == null) {
+			m = new NativeMethod(methodSignatureResolved);
+			CACHE.putIfAbsent(methodSignatureResolved, m);
+		}
+		
+		//converts the arguments, invokes the method and reifies the return value
+		if (args.length != m.argsType.length) {
+			throw new CannotInvokeNativeException("wrong number of arguments for " + methodSignatureResolved + ".");
+		}
+		final Object[] argsRefl = new Object[args.length];
+		for (int i = 0; i < args.length; ++i) {
+			argsRefl[i] = convert(args[i].getValueForNative(), m.argsType[i]);
+		}
+		final Object retValRefl = m.invoke(argsRefl);
+		final Value retVal = m.reifier.reify(state.getCalculator(), retValRefl);
 
-			//pushes the return value on the operand stack
-			if (retVal != null) {
-				try {
-					state.pushOperand(retVal);
-				} catch (ThreadStackEmptyException e) {
-					state.setStuckReturn(retVal);
-				}
+		//pushes the return value on the operand stack
+		if (retVal != null) {
+			try {
+				state.pushOperand(retVal);
+			} catch (ThreadStackEmptyException e) {
+				state.setStuckReturn(retVal);
 			}
-		} catch (ClassNotFoundException | SecurityException | 
-				NoSuchMethodException | IllegalArgumentException | 
-				IllegalAccessException | InvocationTargetException e) {
-			//TODO invent some relevant exception?
-			throw new CannotInvokeNativeException(e);
 		}
 
 		//increments the program counter
@@ -82,7 +76,77 @@ public class NativeInvokerReflect implements NativeInvoker {
 		}
 	}
 	
-	private Class<?> getClass(String type) throws ClassNotFoundException {
+	/**
+	 * Reifies the value returned by a native method.
+	 */
+	@FunctionalInterface
+	private interface Reifier {
+		Value reify(Calculator calc, Object retValRefl) throws CannotInvokeNativeException;
+	}
+	
+	/**
+	 * A resolved native method, with the information 
+	 * necessary to invoke it that does not depend on
+	 * the invocation arguments.
+	 */
+	private static final class NativeMethod {
+		/** 
+		 * The method handle, with type {@code (Object[])Object}; 
+		 * the receiver (if the method is not static) is the first 
+		 * array element.
+		 */
+		private final MethodHandle handle;
+		
+		/** 
+		 * The first characters of the types of the parameters, 
+		 * the receiver (if the method is not static) included. 
+		 */
+		private final char[] argsType;
+		
+		/** The {@link Reifier} of the return value. */
+		private final Reifier reifier;
+
+		NativeMethod(Signature methodSignature) throws CannotInvokeNativeException {
+			try {
+				final MethodDescriptor methodDescriptor = methodSignature.getMethodDescriptor();
+				final int nParams = methodDescriptor.getParametersNumber();
+				final Class<?>[] paramsClass = new Class<?>[nParams];
+				for (int i = 0; i < nParams; ++i) {
+					paramsClass[i] = classOf(methodDescriptor.getParameterDescriptor(i));
+				}
+				final Class<?> c = Class.forName(methodSignature.getClassName().replace('/', '.'));
+				final Method m = c.getMethod(methodSignature.getName(), paramsClass);
+				final boolean isStatic = Modifier.isStatic(m.getModifiers());
+				final int arity = nParams + (isStatic ? 0 : 1);
+				this.handle = MethodHandles.publicLookup().unreflect(m)
+						.asType(MethodType.genericMethodType(arity))
+						.asSpreader(Object[].class, arity);
+				this.argsType = new char[arity];
+				if (!isStatic) {
+					this.argsType[0] = Type.REFERENCE; //TODO reify the receiver
+				}
+				for (int i = 0; i < nParams; ++i) {
+					this.argsType[i + (isStatic ? 0 : 1)] = methodDescriptor.getParameterType(i);
+				}
+				this.reifier = reifier(methodDescriptor.getReturnValueDescriptor());
+			} catch (ClassNotFoundException | SecurityException | 
+					NoSuchMethodException | IllegalAccessException e) {
+				//TODO invent some relevant exception?
+				throw new CannotInvokeNativeException(e);
+			}
+		}
+		
+		Object invoke(Object[] argsRefl) throws CannotInvokeNativeException {
+			try {
+				return (Object) this.handle.invokeExact(argsRefl);
+			} catch (Throwable e) {
+				//TODO invent some relevant exception?
+				throw new CannotInvokeNativeException(e);
+			}
+		}
+	}
+	
+	private static Class<?> classOf(String type) throws ClassNotFoundException {
 		if (type.equals("" + Type.BYTE)) {
 			return byte.class;
 		} else if (type.equals("" + Type.SHORT)) {
@@ -99,20 +163,44 @@ public class NativeInvokerReflect implements NativeInvoker {
 			return char.class;
 		} else if (type.equals("" + Type.BOOLEAN)) {
 			return boolean.class;
+		} else if (type.charAt(0) == Type.REFERENCE) {
+			return Class.forName(type.substring(1, type.length() - 1).replace('/', '.'));
 		} else {
-			return Class.forName(type);
+			return Class.forName(type.replace('/', '.'));
+		}
+	}
+	
+	/**
+	 * Converts a boxed argument to the type of the 
+	 * corresponding method parameter. The operand stack
+	 * holds the narrow primitive types (boolean, byte,
+	 * char, short) as ints, so they must be narrowed.
+	 */
+	private static Object convert(Object argRefl, char type) {
+		switch (type) {
+		case Type.BOOLEAN:
+			return (argRefl instanceof Number ? Boolean.valueOf(((Number) argRefl).intValue() != 0) : argRefl);
+		case Type.BYTE:
+			return (argRefl instanceof Number ? Byte.valueOf(((Number) argRefl).byteValue()) : argRefl);
+		case Type.SHORT:
+			return (argRefl instanceof Number ? Short.valueOf(((Number) argRefl).shortValue()) : argRefl);
+		case Type.CHAR:
+			return (argRefl instanceof Number ? Character.valueOf((char) ((Number) argRefl).intValue()) : argRefl);
+		default:
+			return argRefl;
 		}
 	}
 	
-	private Value toValue(Calculator calc, Object retValRefl, String type) 
-	throws CannotInvokeNativeException {
+	private static Reifier reifier(String type) {
 	    if (type.equals("" + Type.VOID)) {
-            return null;
+            return (calc, retValRefl) -> null;
         } else if (Type.isPrimitive(type)) {
-            return calc.val_(retValRefl);
+            return (calc, retValRefl) -> calc.val_(retValRefl);
 		} else {
 			//TODO implement reification of objects
-			throw new ValueDoesNotSupportNativeException("cannot reflect metacircularly values with type " + type + ".");
+			return (calc, retValRefl) -> { 
+				throw new ValueDoesNotSupportNativeException("cannot reflect metacircularly values with type " + type + "."); 
+			};
 		}
 	}
 }
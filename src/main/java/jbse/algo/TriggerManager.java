@@ -10,7 +10,6 @@ import jbse.bc.exc.BadClassFileException;
 import jbse.bc.exc.MethodCodeNotFoundException;
 import jbse.bc.exc.MethodNotFoundException;
 import jbse.bc.exc.NullMethodReceiverException;
-import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.Objekt;
 import jbse.mem.State;
@@ -101,8 +100,8 @@ public class TriggerManager {
 		boolean retVal = false;
 		for (TriggerRule rule : rules) {
 			final Signature triggerSig = rule.getTriggerSignature();
-			if (Type.splitReturnValueDescriptor(triggerSig.getDescriptor()).equals("" + Type.VOID) &&
-				Type.splitParametersDescriptors(triggerSig.getDescriptor()).length <= 1) {
+			if (triggerSig.getMethodDescriptor().isVoid() &&
+				triggerSig.getMethodDescriptor().getParametersNumber() <= 1) {
 				final ReferenceConcrete triggerArg = getTriggerMethodParameterObject(rule, ref, state);
 				if (triggerArg == null) {
 					throw new MissingTriggerParameterException("No heap object matches the parameter part in the trigger rule " + rule);
@@ -91,7 +91,6 @@ public class Util {
      * Cleanly interrupts the execution of an {@link Algorithm}.
      */
     public static void exitFromAlgorithm() throws InterruptException {
-        assert false;
         throw InterruptException.mk();
     }
 
@@ -543,7 +542,7 @@ public class Util {
             final ListIterator<String> it = this.classesCreated.listIterator();
             while (it.hasNext()) {
                 final String className = it.next();
-                final Klass k = this.s.getKlass(className);
+                final Klass k = this.s.getKlassForUpdate(className);
                 final ClassFile classFile = this.s.getClassHierarchy().getClassFile(className);
                 final Signature[] flds = classFile.getDeclaredFieldsStatic();
                 for (final Signature sig : flds) {
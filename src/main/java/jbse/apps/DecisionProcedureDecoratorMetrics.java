@@ -0,0 +1,136 @@
+package jbse.apps;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import jbse.bc.ClassHierarchy;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureDecorator;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
+import jbse.jvm.Metrics;
+import jbse.mem.Clause;
+import jbse.mem.Objekt;
+import jbse.val.Expression;
+import jbse.val.ReferenceSymbolic;
+
+/**
+ * A {@link DecisionProcedureDecorator} that records in a 
+ * {@link Metrics} the number of queries to its component
+ * and their latency (in nanoseconds), broken down by the 
+ * type of clause the query is about.
+ *  
+ * @author Pietro Braione
+ */
+public class DecisionProcedureDecoratorMetrics extends DecisionProcedureDecorator {
+	private final Metrics metrics;
+	
+	/** Caches the histograms of {@link #pushAssumption(Clause)} by clause class. */
+	private final IdentityHashMap<Class<?>, Metrics.Histogram> push = new IdentityHashMap<>();
+	private final Metrics.Histogram setAssumptions;
+	private final Metrics.Histogram isSat;
+	private final Metrics.Histogram isSatAlternatives;
+	private final Metrics.Histogram isSatAliases;
+	private final Metrics.Histogram isSatExpands;
+	private final Metrics.Histogram isSatNull;
+	private final Metrics.Histogram isSatInitialized;
+	private final Metrics.Histogram isSatNotInitialized;
+
+	public DecisionProcedureDecoratorMetrics(DecisionProcedure component, Metrics metrics) {
+		super(component);
+		this.metrics = metrics;
+		this.setAssumptions = metrics.histogram("solver.setAssumptions.nanos");
+		this.isSat = metrics.histogram("solver.isSat.ClauseAssume.nanos");
+		this.isSatAlternatives = metrics.histogram("solver.isSatAlternatives.ClauseAssume.nanos");
+		this.isSatAliases = metrics.histogram("solver.isSat.ClauseAssumeAliases.nanos");
+		this.isSatExpands = metrics.histogram("solver.isSat.ClauseAssumeExpands.nanos");
+		this.isSatNull = metrics.histogram("solver.isSat.ClauseAssumeNull.nanos");
+		this.isSatInitialized = metrics.histogram("solver.isSat.ClauseAssumeClassInitialized.nanos");
+		this.isSatNotInitialized = metrics.histogram("solver.isSat.ClauseAssumeClassNotInitialized.nanos");
+	}
+	
+	@Override
+	public void pushAssumption(Clause c) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		super.pushAssumption(c);
+		Metrics.Histogram h = this.push.get(c.getClass());
+		if (h == null) {
+			h = this.metrics.histogram("solver.push." + c.getClass().getSimpleName() + ".nanos");
+			this.push.put(c.getClass(), h);
+		}
+		h.record(System.nanoTime() - start);
+	}
+	
+	@Override
+	public void setAssumptions(Collection<Clause> newAssumptions) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		super.setAssumptions(newAssumptions);
+		this.setAssumptions.record(System.nanoTime() - start);
+	}
+
+	@Override
+	public boolean isSat(ClassHierarchy hier, Expression exp) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean result = super.isSat(hier, exp);
+		this.isSat.record(System.nanoTime() - start);
+        return result;
+	}
+
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean[] result = super.isSatAlternatives(hier, alternatives);
+		this.isSatAlternatives.record(System.nanoTime() - start);
+        return result;
+	}
+	
+	@Override
+	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean result = super.isSatAliases(hier, r, heapPos, o);
+		this.isSatAliases.record(System.nanoTime() - start);
+        return result;
+	}
+	
+	@Override
+	public boolean isSatExpands(ClassHierarchy hier, ReferenceSymbolic r, String className)
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean result = super.isSatExpands(hier, r, className);
+		this.isSatExpands.record(System.nanoTime() - start);
+        return result;
+	}
+	
+	@Override
+	public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean result = super.isSatNull(hier, r);
+		this.isSatNull.record(System.nanoTime() - start);
+        return result;
+	}
+	
+	@Override
+	public boolean isSatInitialized(ClassHierarchy hier, String className) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean result = super.isSatInitialized(hier, className);
+		this.isSatInitialized.record(System.nanoTime() - start);
+        return result;
+	}
+	
+	@Override
+	public boolean isSatNotInitialized(ClassHierarchy hier, String className)
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		final boolean result = super.isSatNotInitialized(hier, className);
+		this.isSatNotInitialized.record(System.nanoTime() - start);
+        return result;
+	}
+}
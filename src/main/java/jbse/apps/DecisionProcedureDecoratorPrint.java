@@ -6,6 +6,7 @@ import static jbse.apps.Util.formatExpression;
 
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.List;
 
 import jbse.bc.ClassHierarchy;
 import jbse.dec.DecisionProcedure;
@@ -73,6 +74,18 @@ public class DecisionProcedureDecoratorPrint extends DecisionProcedureDecorator
         return retVal;
 	}
 	
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		final boolean[] retVal = super.isSatAlternatives(hier, alternatives);
+		for (int i = 0; i < retVal.length; ++i) {
+	        IO.print(this.out, ":: Decided: ");
+	        IO.print(this.out, formatClauses(this.getAssumptions())); 
+	        IO.println(this.out, TURNSTILE + formatExpression(alternatives.get(i)) + ". Result: " + Boolean.toString(retVal[i]));
+		}
+        return retVal;
+	}
+	
 	@Override
 	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
 	throws InvalidInputException, DecisionException {
@@ -1,6 +1,8 @@
 package jbse.apps;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import jbse.bc.ClassHierarchy;
 import jbse.dec.DecisionProcedure;
@@ -81,6 +83,16 @@ public class DecisionProcedureDecoratorStats extends DecisionProcedureDecorator
         return result;
 	}
 	
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		this.startTimer();
+		final boolean[] result = super.isSatAlternatives(hier, alternatives);
+		final long elapsed = this.elapsed();
+		System.err.println("ISSATALTERNATIVES\t" + alternatives + "\t" + Arrays.toString(result) + "\t" + elapsed);
+        return result;
+	}
+	
 	@Override
 	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
 	throws InvalidInputException, DecisionException {
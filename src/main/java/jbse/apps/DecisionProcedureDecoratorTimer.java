@@ -1,6 +1,7 @@
 package jbse.apps;
 
 import java.util.Collection;
+import java.util.List;
 
 import jbse.bc.ClassHierarchy;
 import jbse.dec.DecisionProcedure;
@@ -82,6 +83,15 @@ public class DecisionProcedureDecoratorTimer extends DecisionProcedureDecorator
         return result;
 	}
 	
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		this.startTimer();
+		final boolean[] result = super.isSatAlternatives(hier, alternatives);
+		this.stopTimer();
+        return result;
+	}
+	
 	@Override
 	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
 	throws InvalidInputException, DecisionException {
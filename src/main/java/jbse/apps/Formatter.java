@@ -1,5 +1,8 @@
 package jbse.apps;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import jbse.mem.State;
 
 /**
@@ -30,6 +33,16 @@ public interface Formatter {
 	 */
 	String emit();
 	
+	/**
+	 * Emits the formatted {@link State} on a {@link Writer}.
+	 * 
+	 * @param w the {@link Writer} where the output is emitted.
+	 * @throws IOException if writing on {@code w} fails.
+	 */
+	default void emit(Writer w) throws IOException {
+		w.write(emit());
+	}
+	
 	/**
 	 * Cleans the current formatting. Must be invoked
 	 * before invocations of {@link #formatPrologue()} or 
@@ -0,0 +1,210 @@
+package jbse.apps;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * An asynchronous output pipeline. A producer submits
+ * {@link Task}s that are executed, in the order they are
+ * submitted, by a single worker thread writing on a set of
+ * {@link Writer}s (the sinks). The pipeline has bounded
+ * capacity, so a producer that submits tasks faster than
+ * the worker executes them is blocked until the worker
+ * catches up. The sinks are flushed whenever the worker
+ * has no pending tasks.
+ *
+ * @author Pietro Braione
+ */
+public final class OutputPipeline {
+	/**
+	 * A task of the pipeline.
+	 *
+	 * @author Pietro Braione
+	 */
+	@FunctionalInterface
+	public interface Task {
+		/**
+		 * Executes the task. It must only access
+		 * objects that are not modified by the producer
+		 * after submission.
+		 *
+		 * @throws IOException if writing on some sink fails.
+		 */
+		void execute() throws IOException;
+	}
+
+	/** The task that stops the worker. */
+	private static final Task END = () -> { };
+
+	/** The submitted tasks. */
+	private final ArrayBlockingQueue<Task> queue;
+
+	/** The sinks. */
+	private final List<Writer> sinks;
+
+	/** The worker thread. */
+	private final Thread worker;
+
+	/** The first failure of a task, or {@code null}. */
+	private volatile Throwable failure = null;
+
+	/**
+	 * Constructor. Starts the worker thread.
+	 *
+	 * @param capacity an {@code int}, the maximum number
+	 *        of pending tasks. It must be positive.
+	 * @param sinks a {@link List}{@code <}{@link Writer}{@code >},
+	 *        the sinks written by the tasks.
+	 */
+	public OutputPipeline(int capacity, List<Writer> sinks) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.sinks = new ArrayList<>(sinks);
+		this.worker = new Thread(this::work, "jbse-output");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Submits a task, blocking if the pipeline is full.
+	 *
+	 * @param t the {@link Task} to be submitted.
+	 * @throws UnexpectedInternalException if some previously
+	 *         submitted task failed, or if the producer is
+	 *         interrupted while waiting.
+	 */
+	public void submit(Task t) {
+		if (this.failure != null) {
+			throw new UnexpectedInternalException(this.failure);
+		}
+		try {
+			this.queue.put(t);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UnexpectedInternalException(e);
+		}
+	}
+
+	/**
+	 * Submits a task if the pipeline is not full.
+	 *
+	 * @param t the {@link Task} to be submitted.
+	 * @return {@code true} iff {@code t} was submitted.
+	 * @throws UnexpectedInternalException if some previously
+	 *         submitted task failed.
+	 */
+	public boolean offer(Task t) {
+		if (this.failure != null) {
+			throw new UnexpectedInternalException(this.failure);
+		}
+		return this.queue.offer(t);
+	}
+
+	/**
+	 * Executes all the pending tasks, flushes the
+	 * sinks and stops the worker. The sinks are
+	 * not closed.
+	 *
+	 * @throws IOException if some task failed because
+	 *         of an {@link IOException}.
+	 * @throws UnexpectedInternalException if some task
+	 *         failed for other reasons.
+	 */
+	public void close() throws IOException {
+		try {
+			this.queue.put(END);
+			this.worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UnexpectedInternalException(e);
+		}
+		if (this.failure instanceof IOException) {
+			throw (IOException) this.failure;
+		} else if (this.failure != null) {
+			throw new UnexpectedInternalException(this.failure);
+		}
+	}
+
+	private void work() {
+		while (true) {
+			final Task t;
+			try {
+				t = this.queue.take();
+			} catch (InterruptedException e) {
+				//this should never happen
+				this.failure = e;
+				return;
+			}
+			if (t == END) {
+				flush();
+				return;
+			}
+			if (this.failure != null) {
+				continue; //drains the queue, so the producer never blocks
+			}
+			try {
+				t.execute();
+				if (this.queue.isEmpty()) {
+					flush();
+				}
+			} catch (IOException | RuntimeException e) {
+				this.failure = e;
+			}
+		}
+	}
+
+	private void flush() {
+		for (Writer w : this.sinks) {
+			try {
+				w.flush();
+			} catch (IOException e) {
+				if (this.failure == null) {
+					this.failure = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a {@link Writer} that copies its
+	 * output to other {@link Writer}s.
+	 *
+	 * @param writers the {@link Writer}s that receive
+	 *        the output.
+	 * @return a {@link Writer}. Closing it does not
+	 *         close {@code writers}.
+	 */
+	public static Writer tee(Writer... writers) {
+		final List<Writer> ws = Arrays.asList(writers.clone());
+		return new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				for (Writer w : ws) {
+					w.write(cbuf, off, len);
+				}
+			}
+
+			@Override
+			public void write(String str, int off, int len) throws IOException {
+				for (Writer w : ws) {
+					w.write(str, off, len);
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				for (Writer w : ws) {
+					w.flush();
+				}
+			}
+
+			@Override
+			public void close() { }
+		};
+	}
+}
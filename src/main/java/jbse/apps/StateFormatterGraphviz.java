@@ -1,157 +1,327 @@
 package jbse.apps;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import jbse.bc.Signature;
 import jbse.common.Type;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.Array;
+import jbse.mem.Frame;
 import jbse.mem.Instance;
 import jbse.mem.Klass;
 import jbse.mem.Objekt;
 import jbse.mem.State;
+import jbse.mem.Variable;
 import jbse.val.Reference;
 import jbse.val.ReferenceConcrete;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Value;
 
 /**
- * A {@link Formatter} which renders just the heap of a {@link State} as a 
- * Graphviz DOT graph.
- * 
+ * A {@link Formatter} which renders just the heap of a {@link State} as a
+ * Graphviz DOT graph. The graph is written directly on the output
+ * {@link Writer} upon emission, so the formatted {@link State} must
+ * not be modified between the invocations of {@link #formatState(State)}
+ * and of {@link #emit()} or {@link #emit(Writer)}. The rendering can be
+ * bounded to the objects that are reachable from the roots (the thread
+ * stack and the static method area) within a maximum number of steps,
+ * and to a maximum number of objects; the references to the objects that
+ * are not rendered point to an ellipsis node.
+ *
  * @author Pietro
  *
  */
 public class StateFormatterGraphviz implements Formatter {
 	private static final String nullStyle = "[shape=invtriangle,label=\"null\",regular=true]";
+	private static final String elidedStyle = "[shape=plaintext,label=\"...\"]";
+	private static final String ELIDED_NODE_NAME = "HE";
+
+	/** The maximum distance from the roots of the rendered objects, {@code 0} for unlimited. */
+	private final int maxDepth;
 
+	/** The maximum number of rendered objects, {@code 0} for unlimited. */
+	private final int maxObjects;
+
+	private State state = null;
 	private int nextFreshNode;
-	private boolean hasNull;
-	private String currentNodePrefix;
-	private String currentNodeName;
-	private String currentNode;
-	private String nullNodeName;
-	private String nodes;
-	private String edges;
-
-	protected String output = "";
-	
-	public StateFormatterGraphviz() { }
+	private boolean hasElided;
+
+	/**
+	 * Constructor for a formatter that renders the
+	 * whole heap.
+	 */
+	public StateFormatterGraphviz() {
+		this(0, 0);
+	}
+
+	/**
+	 * Constructor for a formatter that renders the
+	 * objects reachable from the roots. If both the
+	 * parameters are {@code 0}, renders the whole
+	 * heap.
+	 *
+	 * @param maxDepth an {@code int}, the maximum number
+	 *        of steps from the roots of the rendered objects,
+	 *        or {@code 0} for no limit.
+	 * @param maxObjects an {@code int}, the maximum number
+	 *        of rendered objects, or {@code 0} for no limit.
+	 * @throws IllegalArgumentException if {@code maxDepth < 0} or
+	 *         {@code maxObjects < 0}.
+	 */
+	public StateFormatterGraphviz(int maxDepth, int maxObjects) {
+		if (maxDepth < 0 || maxObjects < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.maxDepth = maxDepth;
+		this.maxObjects = maxObjects;
+	}
 
 	@Override
 	public void formatState(State s) {
-		this.output = "";
-		this.output += "digraph \"" + s.getIdentifier() + "[" + s.getSequenceNumber() + "]\"" + " { ";
-		this.output += this.formatHeap(s);
-		//this.formatOutput += this.formatStaticMethodArea(s);
-		this.output += "}\n";
+		this.state = s;
 	}
-	
+
 	@Override
 	public final String emit() {
-	    return this.output;
+		final StringWriter w = new StringWriter();
+		try {
+			emit(w);
+		} catch (IOException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		return w.toString();
+	}
+
+	@Override
+	public final void emit(Writer w) throws IOException {
+		if (this.state == null) {
+			return;
+		}
+		w.write("digraph \"");
+		w.write(this.state.getIdentifier());
+		w.write("[");
+		w.write(Long.toString(this.state.getSequenceNumber()));
+		w.write("]\" { ");
+		formatHeap(this.state, w);
+		w.write("}\n");
 	}
 
 	@Override
 	public final void cleanup() {
-		this.output = "";
+		this.state = null;
 	}
 
-	private String formatHeap(State s) {
+	private void formatHeap(State s, Writer w) throws IOException {
 		final Map<Long, Objekt> h = s.getHeap();
-		String retVal = ""; //= "subgraph cluster_heap { label=\"heap\" labeljust=l ";
-		this.currentNodePrefix = "H";
-		this.nodes = "";
-		this.edges = "";
+		final Map<Long, Objekt> rendered =
+			(this.maxDepth == 0 && this.maxObjects == 0 ? h : reachable(s, h));
 		this.nextFreshNode = 0;
-		
-		for (Map.Entry<Long, Objekt> e : h.entrySet()) {
-			this.hasNull = false;
-			this.nullNodeName = "";
-			this.currentNodeName = this.currentNodePrefix + e.getKey(); 
-			this.currentNode = this.currentNodeName + "[shape=box,label=\"" + e.getKey() + ":";
-			this.currentNode += e.getValue().getType();
-			this.formatObject(s, e.getValue());
-			this.currentNode += "\"]";
-			this.nodes += currentNode;
-		}
-		if (this.nodes.equals("")) {
-			this.nodes += this.currentNodePrefix + "H[style=invis]"; //to force visualization of subgraph without nodes
-		}
-		retVal += this.nodes + this.edges; //+ "}";
-		return retVal;
+		this.hasElided = false;
+
+		for (Map.Entry<Long, Objekt> e : rendered.entrySet()) {
+			final String nodeName = "H" + e.getKey();
+			w.write(nodeName);
+			w.write("[shape=box,label=\"");
+			w.write(e.getKey().toString());
+			w.write(":");
+			w.write(e.getValue().getType());
+			w.write("\"]");
+			formatObject(s, e.getValue(), nodeName, rendered, w);
+		}
+		if (rendered.isEmpty()) {
+			w.write("HH[style=invis]"); //to force visualization of subgraph without nodes
+		}
 	}
 
-	/*
-	private String formatStaticMethodArea(State s) {
-		final Map<String, Klass> a = s.getStaticMethodArea();
-		String retVal = "subgraph cluster_staticstore { label=\"static store\" labeljust=l ";
-		this.currentNodePrefix = "S";
-		this.nodes = "";
-		this.edges = "";
+	/**
+	 * Returns the objects that are reachable from the roots
+	 * of a state within the limits, in breadth-first order.
+	 */
+	private Map<Long, Objekt> reachable(State s, Map<Long, Objekt> h) {
+		final LinkedHashMap<Long, Objekt> retVal = new LinkedHashMap<>();
+		ArrayList<Long> frontier = new ArrayList<>();
 
-		for (Map.Entry<String, Klass> e : a.entrySet()) {
-			this.hasNull = false;
-			this.nullNodeName = "";
-			this.currentNodeName = this.currentNodePrefix + e.getKey(); 
-			this.currentNode = this.currentNodeName + "[shape=box,label=\"" + e.getKey() + ":";
-			this.currentNode += e.getValue().getType();
-			formatObject(s, e.getValue());
+		//the roots
+		final ArrayList<Value> roots = new ArrayList<>();
+		for (Frame f : s.getStack()) {
+			for (Variable v : f.localVariables().values()) {
+				roots.add(v.getValue());
+			}
+			roots.addAll(f.values());
+		}
+		for (Klass k : s.getStaticMethodArea().values()) {
+			for (Variable v : k.fields().values()) {
+				roots.add(v.getValue());
+			}
+		}
+		for (Value v : roots) {
+			final Long pos = target(s, v);
+			if (pos != null && h.containsKey(pos)) {
+				frontier.add(pos);
+			}
 		}
 
-		if (this.nodes.equals("")) {
-			this.nodes += this.currentNodePrefix + "H[style=invis]"; //to force visualization of subgraph without nodes
+		//breadth-first visit
+		int depth = 1;
+		while (!frontier.isEmpty() && (this.maxDepth == 0 || depth <= this.maxDepth)) {
+			final ArrayList<Long> next = new ArrayList<>();
+			for (long pos : frontier) {
+				if (retVal.containsKey(pos)) {
+					continue;
+				}
+				if (this.maxObjects > 0 && retVal.size() == this.maxObjects) {
+					return retVal;
+				}
+				final Objekt o = h.get(pos);
+				retVal.put(pos, o);
+				for (Value v : referencedValues(o)) {
+					final Long posNext = target(s, v);
+					if (posNext != null && h.containsKey(posNext) && !retVal.containsKey(posNext)) {
+						next.add(posNext);
+					}
+				}
+			}
+			frontier = next;
+			++depth;
 		}
-		retVal += this.nodes + this.edges + "}";
 		return retVal;
-	}*/
-	
-	private String formatObject(State s, Objekt o) {
+	}
+
+	private static Collection<Value> referencedValues(Objekt o) {
+		final ArrayList<Value> retVal = new ArrayList<>();
+		if (o instanceof Array) {
+			for (Array.AccessOutcomeIn e : ((Array) o).values()) {
+				retVal.add(e.getValue());
+			}
+		} else {
+			for (Variable v : o.fields().values()) {
+				retVal.add(v.getValue());
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the heap position a value refers to.
+	 *
+	 * @param s a {@link State}.
+	 * @param v a {@link Value}.
+	 * @return the heap position of the object {@code v}
+	 *         refers to, or {@code null} if {@code v} is
+	 *         not a reference, is null or is unresolved.
+	 */
+	private static Long target(State s, Value v) {
+		if (!(v instanceof Reference)) {
+			return null;
+		}
+		final Reference r = (Reference) v;
+		if (s.isNull(r)) {
+			return null;
+		} else if (r instanceof ReferenceConcrete) {
+			return ((ReferenceConcrete) r).getHeapPosition();
+		} else if (s.resolved((ReferenceSymbolic) r)) {
+			return s.getResolution((ReferenceSymbolic) r);
+		} else {
+			return null;
+		}
+	}
+
+	private void formatObject(State s, Objekt o, String nodeName, Map<Long, Objekt> rendered, Writer w)
+	throws IOException {
+		String nullNodeName = null;
 		if (o instanceof Instance || o instanceof Klass) {
 			for (Signature sig : o.getStoredFieldSignatures()) {
 				if (Type.isArray(sig.getDescriptor()) ||
 					Type.isReference(sig.getDescriptor())) {
-					Reference r = (Reference) o.getFieldValue(sig);
-					ReferenceSymbolic sr = null;
-					if (r instanceof ReferenceSymbolic) {
-						sr = (ReferenceSymbolic) r;
-					}
+					final Reference r = (Reference) o.getFieldValue(sig);
+					final ReferenceSymbolic sr = (r instanceof ReferenceSymbolic ? (ReferenceSymbolic) r : null);
 					if (s.isNull(r)) {
-						if (!this.hasNull) { 
-							this.hasNull = true;
-							this.nullNodeName = this.currentNodePrefix + "N" + this.nextFreshNode; 
-							this.nodes += this.nullNodeName + nullStyle;
-							this.nextFreshNode++;
-						}
-						edges += currentNodeName + "->" + nullNodeName;  
-					} else if (sr == null) {
-						edges += currentNodeName + "->" + "H" + ((ReferenceConcrete) r).getHeapPosition();
-					} else if (s.resolved(sr)) {
-						edges += currentNodeName + "->" + "H" + s.getResolution(sr);
+						nullNodeName = formatNullEdge(nodeName, nullNodeName, w);
+					} else if (sr == null || s.resolved(sr)) {
+						formatEdge(nodeName, target(s, r), rendered, w);
 					} else {
-						String dummyNodeName = this.currentNodePrefix + "I" + this.nextFreshNode;
-						nodes += dummyNodeName + "[label=\"?\" style=invis]";
-						edges += this.currentNodeName + "->" + dummyNodeName;
+						final String dummyNodeName = "HI" + this.nextFreshNode;
+						w.write(dummyNodeName);
+						w.write("[label=\"?\" style=invis]");
+						w.write(nodeName);
+						w.write("->");
+						w.write(dummyNodeName);
 						this.nextFreshNode++;
 					}
-					this.edges += "[label=\"" + sig.getName(); 
-					if (sr != null) { 
-						this.edges += " " + sr.getValue();
+					w.write("[label=\"");
+					w.write(sig.getName());
+					if (sr != null) {
+						w.write(" ");
+						w.write(sr.getValue());
 					}
-					this.edges += "\"]";
+					w.write("\"]");
 				} else if (sig.getDescriptor().charAt(0) == Type.NULLREF) {
-					if (!this.hasNull) { 
-						this.hasNull = true;
-						this.nullNodeName = this.currentNodePrefix + "N" + this.nextFreshNode; 
-						this.nodes += this.nullNodeName + nullStyle;
-						this.nextFreshNode++;
-					}
-					this.edges += this.currentNodeName + "->" + this.nullNodeName;
-					this.edges += "[label=\"" + sig.getName() + "\"]";
-				/*} else {
-					this.currentNode += "\\n" + sig.getName() + " = " + o.getFieldValue(sig);*/
+					nullNodeName = formatNullEdge(nodeName, nullNodeName, w);
+					w.write("[label=\"");
+					w.write(sig.getName());
+					w.write("\"]");
 				}
 			}
 		} else { //is an array
-			//TODO
+			for (Array.AccessOutcomeIn e : ((Array) o).values()) {
+				final Value v = e.getValue();
+				if (!(v instanceof Reference)) {
+					continue;
+				}
+				final Reference r = (Reference) v;
+				if (s.isNull(r)) {
+					nullNodeName = formatNullEdge(nodeName, nullNodeName, w);
+				} else {
+					final Long pos = target(s, r);
+					if (pos == null) {
+						continue; //unresolved
+					}
+					formatEdge(nodeName, pos, rendered, w);
+				}
+				w.write("[label=\"");
+				w.write(e.getAccessCondition() == null ? "" : e.getAccessCondition().toString().replace("\"", "\\\""));
+				w.write("\"]");
+			}
+		}
+	}
+
+	private String formatNullEdge(String nodeName, String nullNodeName, Writer w) throws IOException {
+		final String retVal;
+		if (nullNodeName == null) {
+			retVal = "HN" + this.nextFreshNode;
+			w.write(retVal);
+			w.write(nullStyle);
+			this.nextFreshNode++;
+		} else {
+			retVal = nullNodeName;
+		}
+		w.write(nodeName);
+		w.write("->");
+		w.write(retVal);
+		return retVal;
+	}
+
+	private void formatEdge(String nodeName, long pos, Map<Long, Objekt> rendered, Writer w) throws IOException {
+		final boolean isRendered = rendered.containsKey(pos);
+		if (!isRendered && !this.hasElided) {
+			this.hasElided = true;
+			w.write(ELIDED_NODE_NAME);
+			w.write(elidedStyle);
+		}
+		w.write(nodeName);
+		w.write("->");
+		if (isRendered) {
+			w.write("H");
+			w.write(Long.toString(pos));
+		} else {
+			w.write(ELIDED_NODE_NAME);
 		}
-		return ""; //TODO
 	}
 }
@@ -0,0 +1,214 @@
+package jbse.apps;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.Array;
+import jbse.mem.Clause;
+import jbse.mem.Frame;
+import jbse.mem.Klass;
+import jbse.mem.Objekt;
+import jbse.mem.State;
+import jbse.mem.Variable;
+import jbse.val.Reference;
+import jbse.val.ReferenceConcrete;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Value;
+
+/**
+ * A {@link Formatter} which dumps a {@link State} as a compact JSON
+ * object on a single line, for machine consumption. The object has
+ * the members {@code id}, {@code seq}, {@code pathCondition}, {@code stack},
+ * {@code statics} and {@code heap}. Primitive values are dumped as
+ * strings, null as {@code null}, and references as objects with a
+ * member {@code ref}, the heap position of the referred object (absent
+ * if the reference is symbolic and unresolved), and a member {@code sym},
+ * the symbol (only for symbolic references). The dump is written
+ * directly on the output {@link Writer} upon emission, so the formatted
+ * {@link State} must not be modified between the invocations of
+ * {@link #formatState(State)} and of {@link #emit()} or {@link #emit(Writer)}.
+ */
+public final class StateFormatterJSON implements Formatter {
+	private State state = null;
+
+	@Override
+	public void formatState(State s) {
+		this.state = s;
+	}
+
+	@Override
+	public String emit() {
+		final StringWriter w = new StringWriter();
+		try {
+			emit(w);
+		} catch (IOException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		return w.toString();
+	}
+
+	@Override
+	public void emit(Writer w) throws IOException {
+		if (this.state == null) {
+			return;
+		}
+		final State s = this.state;
+		w.write("{\"id\":");
+		writeString(w, s.getIdentifier());
+		w.write(",\"seq\":");
+		w.write(Integer.toString(s.getSequenceNumber()));
+
+		//path condition
+		w.write(",\"pathCondition\":[");
+		boolean first = true;
+		for (Clause c : s.getPathCondition()) {
+			first = writeSeparator(w, first);
+			writeString(w, c.toString());
+		}
+
+		//thread stack
+		w.write("],\"stack\":[");
+		first = true;
+		for (Frame f : s.getStack()) {
+			first = writeSeparator(w, first);
+			w.write("{\"method\":");
+			writeString(w, f.getCurrentMethodSignature().toString());
+			w.write(",\"pc\":");
+			w.write(Integer.toString(f.getProgramCounter()));
+			w.write(",\"locals\":{");
+			boolean firstLocal = true;
+			for (Variable v : f.localVariables().values()) {
+				firstLocal = writeSeparator(w, firstLocal);
+				writeString(w, v.getName());
+				w.write(':');
+				writeValue(w, s, v.getValue());
+			}
+			w.write("},\"operands\":[");
+			boolean firstOperand = true;
+			for (Value v : f.values()) {
+				firstOperand = writeSeparator(w, firstOperand);
+				writeValue(w, s, v);
+			}
+			w.write("]}");
+		}
+
+		//static method area
+		w.write("],\"statics\":{");
+		first = true;
+		for (Map.Entry<String, Klass> e : s.getStaticMethodArea().entrySet()) {
+			first = writeSeparator(w, first);
+			writeString(w, e.getKey());
+			w.write(':');
+			writeFields(w, s, e.getValue());
+		}
+
+		//heap
+		w.write("},\"heap\":{");
+		first = true;
+		for (Map.Entry<Long, Objekt> e : s.getHeap().entrySet()) {
+			first = writeSeparator(w, first);
+			w.write('"');
+			w.write(e.getKey().toString());
+			w.write("\":{\"type\":");
+			final Objekt o = e.getValue();
+			writeString(w, o.getType());
+			if (o instanceof Array) {
+				final Array a = (Array) o;
+				w.write(",\"length\":");
+				writeString(w, a.getLength().toString());
+				w.write(",\"entries\":[");
+				boolean firstEntry = true;
+				for (Array.AccessOutcomeIn entry : a.values()) {
+					firstEntry = writeSeparator(w, firstEntry);
+					w.write("{\"cond\":");
+					writeString(w, entry.getAccessCondition() == null ? null : entry.getAccessCondition().toString());
+					w.write(",\"value\":");
+					writeValue(w, s, entry.getValue());
+					w.write('}');
+				}
+				w.write("]}");
+			} else {
+				w.write(",\"fields\":");
+				writeFields(w, s, o);
+				w.write('}');
+			}
+		}
+		w.write("}}\n");
+	}
+
+	@Override
+	public void cleanup() {
+		this.state = null;
+	}
+
+	private static boolean writeSeparator(Writer w, boolean first) throws IOException {
+		if (!first) {
+			w.write(',');
+		}
+		return false;
+	}
+
+	private static void writeFields(Writer w, State s, Objekt o) throws IOException {
+		w.write('{');
+		boolean first = true;
+		for (Map.Entry<String, Variable> e : o.fields().entrySet()) {
+			first = writeSeparator(w, first);
+			writeString(w, e.getKey());
+			w.write(':');
+			writeValue(w, s, e.getValue().getValue());
+		}
+		w.write('}');
+	}
+
+	private static void writeValue(Writer w, State s, Value v) throws IOException {
+		if (v == null) {
+			w.write("null");
+		} else if (v instanceof Reference) {
+			final Reference r = (Reference) v;
+			if (r instanceof ReferenceConcrete) {
+				if (s.isNull(r)) {
+					w.write("null");
+				} else {
+					w.write("{\"ref\":");
+					w.write(Long.toString(((ReferenceConcrete) r).getHeapPosition()));
+					w.write('}');
+				}
+			} else {
+				final ReferenceSymbolic sr = (ReferenceSymbolic) r;
+				w.write("{\"sym\":");
+				writeString(w, sr.getValue());
+				if (s.resolved(sr)) {
+					w.write(",\"ref\":");
+					w.write(s.isNull(sr) ? "null" : Long.toString(s.getResolution(sr)));
+				}
+				w.write('}');
+			}
+		} else {
+			writeString(w, v.toString());
+		}
+	}
+
+	private static void writeString(Writer w, String str) throws IOException {
+		if (str == null) {
+			w.write("null");
+			return;
+		}
+		w.write('"');
+		for (int i = 0; i < str.length(); ++i) {
+			final char c = str.charAt(i);
+			if (c == '"' || c == '\\') {
+				w.write('\\');
+				w.write(c);
+			} else if (c < 0x20) {
+				w.write(String.format("\\u%04x", (int) c));
+			} else {
+				w.write(c);
+			}
+		}
+		w.write('"');
+	}
+}
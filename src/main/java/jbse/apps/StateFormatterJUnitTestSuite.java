@@ -10,6 +10,11 @@ import static jbse.common.Type.isPrimitiveIntegral;
 import static jbse.common.Type.splitParametersDescriptors;
 import static jbse.common.Type.splitReturnValueDescriptor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -47,49 +52,166 @@ import jbse.val.WideningConversion;
 
 /**
  * A {@link Formatter} that emits a JUnit test suite, with 
- * test cases covering the symbolic states.
+ * test cases covering the symbolic states. The suite is either
+ * emitted as a single class, or written to a directory as a
+ * sequence of classes with a maximum number of test cases each, 
+ * in which case each test case is written as soon as it is 
+ * formatted and nothing is emitted.
  * 
  * @author Esther Turati
  * @author Pietro Braione
  */
 public final class StateFormatterJUnitTestSuite implements Formatter {
+    private static final String CLASS_NAME = "TestSuite";
     private final Supplier<State> initialStateSupplier;
     private final Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier;
+    private final Path outputDirectory;
+    private final int testsPerClass;
     private StringBuilder output = new StringBuilder();
     private int testCounter = 0;
+    private Writer classWriter = null;
     
+    /**
+     * Constructor for a formatter that emits the
+     * suite as a single class.
+     * 
+     * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+     *        for the initial state.
+     * @param modelSupplier a {@link Supplier}{@code <}{@link Map}{@code <}{@link PrimitiveSymbolic}{@code , }{@link Simplex}{@code >>}
+     *        for the model of the formatted state. It is invoked
+     *        only for the states that need one (see {@link #needsModel(State)}).
+     */
     public StateFormatterJUnitTestSuite(Supplier<State> initialStateSupplier, 
                                         Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier) {
         this.initialStateSupplier = initialStateSupplier;
         this.modelSupplier = modelSupplier;
+        this.outputDirectory = null;
+        this.testsPerClass = 0;
+    }
+    
+    /**
+     * Constructor for a formatter that writes the
+     * suite as a sequence of classes {@code TestSuite0}, 
+     * {@code TestSuite1}... in a directory.
+     * 
+     * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+     *        for the initial state.
+     * @param modelSupplier a {@link Supplier}{@code <}{@link Map}{@code <}{@link PrimitiveSymbolic}{@code , }{@link Simplex}{@code >>}
+     *        for the model of the formatted state. It is invoked
+     *        only for the states that need one (see {@link #needsModel(State)}).
+     * @param outputDirectory the {@link Path} of the directory where
+     *        the classes are written.
+     * @param testsPerClass an {@code int}, the maximum number of 
+     *        test cases in each class. It must be positive.
+     */
+    public StateFormatterJUnitTestSuite(Supplier<State> initialStateSupplier, 
+                                        Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier,
+                                        Path outputDirectory, int testsPerClass) {
+        if (outputDirectory == null) {
+            throw new NullPointerException();
+        }
+        if (testsPerClass <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.initialStateSupplier = initialStateSupplier;
+        this.modelSupplier = modelSupplier;
+        this.outputDirectory = outputDirectory;
+        this.testsPerClass = testsPerClass;
+    }
+    
+    /**
+     * Checks whether the test case for a state 
+     * needs a model of the state's path condition, 
+     * i.e., whether the path condition has numeric
+     * assumptions.
+     * 
+     * @param state a {@link State}.
+     * @return {@code true} iff the test case 
+     *         for {@code state} needs a model.
+     */
+    public static boolean needsModel(State state) {
+        for (Clause c : state.getPathCondition()) {
+            if (c instanceof ClauseAssume) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public void formatPrologue() {
-        this.output.append(PROLOGUE);
+        if (this.outputDirectory == null) {
+            this.output.append(prologue(CLASS_NAME));
+        }
     }
 
     @Override
     public void formatState(State state) {
-        new JUnitTestCase(this.output, this.initialStateSupplier.get(), state, this.modelSupplier.get(), this.testCounter++);
+        final Map<PrimitiveSymbolic, Simplex> model = (needsModel(state) ? this.modelSupplier.get() : null);
+        if (this.outputDirectory == null) {
+            new JUnitTestCase(this.output, this.initialStateSupplier.get(), state, model, this.testCounter++);
+            return;
+        }
+        
+        //writes the test case in the current class, 
+        //possibly rolling to a new class
+        final StringBuilder testCase = new StringBuilder();
+        new JUnitTestCase(testCase, this.initialStateSupplier.get(), state, model, this.testCounter);
+        try {
+            if (this.testCounter % this.testsPerClass == 0) {
+                closeClass();
+                final String className = CLASS_NAME + (this.testCounter / this.testsPerClass);
+                this.classWriter = Files.newBufferedWriter(this.outputDirectory.resolve(className + ".java"));
+                this.classWriter.write(prologue(className));
+            }
+            this.classWriter.append(testCase);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ++this.testCounter;
     }
     
     @Override
     public void formatEpilogue() {
-        this.output.append("}\n");
+        if (this.outputDirectory == null) {
+            this.output.append("}\n");
+        } else {
+            try {
+                closeClass();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    private void closeClass() throws IOException {
+        if (this.classWriter != null) {
+            this.classWriter.write("}\n");
+            this.classWriter.close();
+            this.classWriter = null;
+        }
     }
     
     @Override
     public String emit() {
         return this.output.toString();
     }
+    
+    @Override
+    public void emit(Writer w) throws IOException {
+        w.append(this.output);
+    }
 
     @Override
     public void cleanup() {
         this.output = new StringBuilder();
     }
     
-    private static final String PROLOGUE =
+    private static String prologue(String className) {
+        return PROLOGUE_IMPORTS + "public class " + className + " {\n" + PROLOGUE_MEMBERS;
+    }
+    
+    private static final String PROLOGUE_IMPORTS =
         "import static java.lang.System.identityHashCode;\n" +
         "import static org.junit.Assert.*;\n" +
         "\n" +
@@ -99,8 +221,9 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         "import sun.misc.Unsafe;\n" +
         "\n" +
         "import org.junit.Test;\n" +
-        "\n" +
-        "public class TestSuite {\n" +
+        "\n";
+    
+    private static final String PROLOGUE_MEMBERS =
         "    private static class AccessibleObject {\n" +
         "        private final Object target;\n" +
         "        AccessibleObject(Object o) {\n" +
@@ -0,0 +1,33 @@
+package jbse.apps.dist;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A bidirectional channel for exchanging {@link Message}s
+ * between a {@link Coordinator} and a {@link Worker}.
+ * A channel can be used by one sending thread and one
+ * receiving thread at a time.
+ *
+ * @author Pietro Braione
+ */
+public interface Channel extends Closeable {
+	/**
+	 * Sends a message.
+	 *
+	 * @param m the {@link Message} to be sent.
+	 * @throws IOException if sending fails.
+	 */
+	void send(Message m) throws IOException;
+
+	/**
+	 * Receives a message, blocking until one is available.
+	 *
+	 * @return the received {@link Message}.
+	 * @throws EOFException if the other end closed the channel.
+	 * @throws IOException if receiving fails, or the receiving
+	 *         thread is interrupted.
+	 */
+	Message receive() throws IOException;
+}
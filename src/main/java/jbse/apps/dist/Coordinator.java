@@ -0,0 +1,266 @@
+package jbse.apps.dist;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import jbse.tree.StateTree;
+
+/**
+ * The coordinator of a distributed symbolic execution. The
+ * symbolic execution tree is partitioned in subtrees, each
+ * identified by the {@link StateTree.StateIdentificationMode#REPLICABLE}
+ * identifier of its root state, and the subtrees are assigned to
+ * the {@link Worker}s. Initially, the whole tree is assigned to
+ * one worker; when a worker is idle, the coordinator asks a busy
+ * worker to hand over some of its pending states, whose subtrees
+ * are then assigned to the idle workers. The exploration is over
+ * when all the workers are idle and no subtree is left. The
+ * statistics and the results of the workers are merged.
+ *
+ * @author Pietro Braione
+ */
+public final class Coordinator {
+	/** The channels to the workers. */
+	private final List<Channel> workers;
+
+	/** The subtrees that are not yet assigned. */
+	private final ArrayDeque<String> unassigned = new ArrayDeque<>();
+
+	/** The subtrees assigned to each worker, {@code null} if idle. */
+	private final List<List<String>> assigned;
+
+	/** Whether a worker has been asked to hand over states. */
+	private final boolean[] stealing;
+
+	/** Whether a worker is ready (sent its hello). */
+	private final boolean[] ready;
+
+	/** Whether a worker is disconnected. */
+	private final boolean[] disconnected;
+
+	/** The merged statistics. */
+	private final ExplorationStats stats = new ExplorationStats();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param workers a {@link List}{@code <}{@link Channel}{@code >},
+	 *        the channels to the workers. It must not be empty.
+	 * @throws IllegalArgumentException if {@code workers} is empty.
+	 */
+	public Coordinator(List<Channel> workers) {
+		if (workers.isEmpty()) {
+			throw new IllegalArgumentException();
+		}
+		this.workers = new ArrayList<>(workers);
+		this.assigned = new ArrayList<>(Collections.<List<String>>nCopies(workers.size(), null));
+		this.stealing = new boolean[workers.size()];
+		this.ready = new boolean[workers.size()];
+		this.disconnected = new boolean[workers.size()];
+	}
+
+	/**
+	 * Builds a coordinator for the workers that connect to
+	 * a server socket.
+	 *
+	 * @param server a {@link ServerSocket}. It is not closed.
+	 * @param numWorkers an {@code int}, the number of workers
+	 *        to wait for.
+	 * @return a {@link Coordinator} for the first {@code numWorkers}
+	 *         workers that connect to {@code server}.
+	 * @throws IOException if accepting a connection fails.
+	 * @throws IllegalArgumentException if {@code numWorkers <= 0}.
+	 */
+	public static Coordinator accept(ServerSocket server, int numWorkers) throws IOException {
+		if (numWorkers <= 0) {
+			throw new IllegalArgumentException();
+		}
+		final ArrayList<Channel> channels = new ArrayList<>();
+		for (int i = 0; i < numWorkers; ++i) {
+			channels.add(new SocketChannel(server.accept()));
+		}
+		return new Coordinator(channels);
+	}
+
+	/** A message received from a worker, or its disconnection. */
+	private static final class Event {
+		final int worker;
+		final Message message; //null iff disconnected
+
+		Event(int worker, Message message) {
+			this.worker = worker;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * Runs the exploration of the whole symbolic execution tree.
+	 *
+	 * @return the merged {@link ExplorationStats} of the workers.
+	 *         If some worker disconnected, the subtrees assigned to
+	 *         it are reported as unexplored.
+	 * @throws IOException if closing the channels fails.
+	 */
+	public ExplorationStats run() throws IOException {
+		final LinkedBlockingQueue<Event> events = new LinkedBlockingQueue<>();
+		for (int i = 0; i < this.workers.size(); ++i) {
+			final int worker = i;
+			final Channel c = this.workers.get(i);
+			final Thread t = new Thread(() -> {
+				try {
+					while (true) {
+						events.add(new Event(worker, c.receive()));
+					}
+				} catch (IOException e) {
+					events.add(new Event(worker, null));
+				}
+			}, "jbse-coordinator-" + i);
+			t.setDaemon(true);
+			t.start();
+		}
+
+		this.unassigned.add(StateTree.IDENTIFIER_DEFAULT_LONG);
+		try {
+			while (!finished()) {
+				final Event e;
+				try {
+					e = events.take();
+				} catch (InterruptedException exc) {
+					Thread.currentThread().interrupt();
+					throw new IOException(exc);
+				}
+				handle(e);
+				schedule();
+			}
+			for (int i = 0; i < this.workers.size(); ++i) {
+				send(i, Message.stop());
+			}
+		} finally {
+			for (Channel c : this.workers) {
+				c.close();
+			}
+		}
+
+		//whatever remains could not be explored
+		this.stats.unexplored.addAll(this.unassigned);
+		return this.stats;
+	}
+
+	private void handle(Event e) {
+		final int w = e.worker;
+		if (e.message == null) {
+			disconnect(w);
+			return;
+		}
+		switch (e.message.getKind()) {
+		case HELLO:
+			this.ready[w] = true;
+			break;
+		case DONATE:
+			this.stealing[w] = false;
+			this.unassigned.addAll(e.message.getIdentifiers());
+			break;
+		case DONE:
+			this.stats.merge(e.message.getStats());
+			this.assigned.set(w, null);
+			break;
+		default:
+			//ignores unexpected messages
+		}
+	}
+
+	private void schedule() {
+		//assigns the unassigned subtrees to the idle workers
+		int idle = 0;
+		for (int i = 0; i < this.workers.size(); ++i) {
+			if (isIdle(i)) {
+				if (this.unassigned.isEmpty()) {
+					++idle;
+				} else {
+					final List<String> subtrees = Collections.singletonList(this.unassigned.poll());
+					this.assigned.set(i, subtrees);
+					send(i, Message.assign(subtrees));
+				}
+			}
+		}
+
+		//asks as many busy workers as idle ones to hand over states
+		for (int i = 0; i < this.workers.size() && idle > 0; ++i) {
+			if (isBusy(i) && !this.stealing[i]) {
+				this.stealing[i] = true;
+				send(i, Message.steal());
+				--idle;
+			} else if (this.stealing[i]) {
+				--idle; //already asked
+			}
+		}
+	}
+
+	private boolean finished() {
+		if (!this.unassigned.isEmpty() && !someConnected()) {
+			return true;
+		}
+		if (!this.unassigned.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < this.workers.size(); ++i) {
+			if (isBusy(i) || this.stealing[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean someConnected() {
+		for (boolean d : this.disconnected) {
+			if (!d) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isIdle(int w) {
+		return (this.ready[w] && !this.disconnected[w] && this.assigned.get(w) == null);
+	}
+
+	private boolean isBusy(int w) {
+		return (!this.disconnected[w] && this.assigned.get(w) != null);
+	}
+
+	private void send(int w, Message m) {
+		if (this.disconnected[w]) {
+			return;
+		}
+		try {
+			this.workers.get(w).send(m);
+		} catch (IOException e) {
+			if (m.getKind() == Message.Kind.ASSIGN) {
+				//the worker did not start: gives back the subtrees
+				this.assigned.set(w, null);
+				this.unassigned.addAll(m.getIdentifiers());
+			}
+			disconnect(w);
+		}
+	}
+
+	/**
+	 * Handles the disconnection of a worker: the 
+	 * subtrees assigned to it are lost.
+	 * 
+	 * @param w an {@code int}, the worker.
+	 */
+	private void disconnect(int w) {
+		if (this.assigned.get(w) != null) {
+			this.stats.unexplored.addAll(this.assigned.get(w));
+		}
+		this.assigned.set(w, null);
+		this.stealing[w] = false;
+		this.disconnected[w] = true;
+	}
+}
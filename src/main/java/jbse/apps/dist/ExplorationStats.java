@@ -0,0 +1,119 @@
+package jbse.apps.dist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statistics and the results of the exploration of some
+ * subtrees of the symbolic execution tree. The statistics of
+ * disjoint subtrees can be {@link #merge(ExplorationStats) merged}.
+ *
+ * @author Pietro Braione
+ */
+public final class ExplorationStats {
+	long tracesTotal = 0;
+	long tracesUnsafe = 0;
+	long tracesContradictory = 0;
+	long tracesOutOfScope = 0;
+	long tracesPruned = 0;
+	long analyzedStates = 0;
+	final ArrayList<String> unsafeTraces = new ArrayList<>();
+	final ArrayList<String> unexplored = new ArrayList<>();
+
+	/**
+	 * Adds to this object the statistics of another
+	 * exploration.
+	 *
+	 * @param other an {@link ExplorationStats}.
+	 */
+	public void merge(ExplorationStats other) {
+		this.tracesTotal += other.tracesTotal;
+		this.tracesUnsafe += other.tracesUnsafe;
+		this.tracesContradictory += other.tracesContradictory;
+		this.tracesOutOfScope += other.tracesOutOfScope;
+		this.tracesPruned += other.tracesPruned;
+		this.analyzedStates += other.analyzedStates;
+		this.unsafeTraces.addAll(other.unsafeTraces);
+		this.unexplored.addAll(other.unexplored);
+	}
+
+	/**
+	 * Returns the total number of explored traces.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesTotal() {
+		return this.tracesTotal;
+	}
+
+	/**
+	 * Returns the number of explored traces that violate
+	 * some assertion.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesUnsafe() {
+		return this.tracesUnsafe;
+	}
+
+	/**
+	 * Returns the number of explored traces that violate
+	 * some assumption.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesContradictory() {
+		return this.tracesContradictory;
+	}
+
+	/**
+	 * Returns the number of explored traces that exhausted
+	 * some scope.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesOutOfScope() {
+		return this.tracesOutOfScope;
+	}
+
+	/**
+	 * Returns the number of traces pruned because subsumed
+	 * by already explored states.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesPruned() {
+		return this.tracesPruned;
+	}
+
+	/**
+	 * Returns the number of analyzed states, including the
+	 * ones that were replayed to reach the explored subtrees.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getAnalyzedStates() {
+		return this.analyzedStates;
+	}
+
+	/**
+	 * Returns the identifiers of the final states of the
+	 * traces that violate some assertion.
+	 *
+	 * @return an unmodifiable {@link List}{@code <}{@link String}{@code >}.
+	 */
+	public List<String> getUnsafeTraces() {
+		return Collections.unmodifiableList(this.unsafeTraces);
+	}
+
+	/**
+	 * Returns the identifiers of the states whose subtrees
+	 * were not (completely) explored because of some failure.
+	 *
+	 * @return an unmodifiable {@link List}{@code <}{@link String}{@code >}.
+	 */
+	public List<String> getUnexplored() {
+		return Collections.unmodifiableList(this.unexplored);
+	}
+}
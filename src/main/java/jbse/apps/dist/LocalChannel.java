@@ -0,0 +1,72 @@
+package jbse.apps.dist;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A {@link Channel} between two threads of the same process, 
+ * e.g., for running a {@link Coordinator} and its 
+ * {@link Worker}s in-process, or for testing.
+ *
+ * @author Pietro Braione
+ */
+public final class LocalChannel implements Channel {
+	/** Put in a queue when its sender closes the channel. */
+	private static final Message CLOSED = Message.stop();
+
+	private final LinkedBlockingQueue<Message> in;
+	private final LinkedBlockingQueue<Message> out;
+	private volatile boolean closed = false;
+
+	private LocalChannel(LinkedBlockingQueue<Message> in, LinkedBlockingQueue<Message> out) {
+		this.in = in;
+		this.out = out;
+	}
+
+	/**
+	 * Creates a pair of connected channels.
+	 *
+	 * @return a {@link LocalChannel}{@code []} with two
+	 *         elements; the messages sent on each one
+	 *         are received on the other one.
+	 */
+	public static LocalChannel[] pair() {
+		final LinkedBlockingQueue<Message> q0 = new LinkedBlockingQueue<>();
+		final LinkedBlockingQueue<Message> q1 = new LinkedBlockingQueue<>();
+		return new LocalChannel[] { new LocalChannel(q0, q1), new LocalChannel(q1, q0) };
+	}
+
+	@Override
+	public void send(Message m) throws IOException {
+		if (this.closed) {
+			throw new IOException("Channel closed.");
+		}
+		this.out.add(m);
+	}
+
+	@Override
+	public Message receive() throws IOException {
+		final Message retVal;
+		try {
+			retVal = this.in.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		if (retVal == CLOSED) {
+			this.in.add(CLOSED); //for subsequent receives
+			throw new EOFException();
+		}
+		return retVal;
+	}
+
+	@Override
+	public void close() {
+		if (!this.closed) {
+			this.closed = true;
+			this.out.add(CLOSED);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package jbse.apps.dist;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A message exchanged by a {@link Coordinator} and its
+ * {@link Worker}s.
+ *
+ * @author Pietro Braione
+ */
+public final class Message {
+	/**
+	 * The kinds of messages.
+	 *
+	 * @author Pietro Braione
+	 */
+	public enum Kind {
+		/** From a worker: the worker is ready. */
+		HELLO,
+
+		/** From the coordinator: explore the subtrees of some states. */
+		ASSIGN,
+
+		/** From the coordinator: hand over some pending states. */
+		STEAL,
+
+		/** From a worker: the pending states handed over (possibly none). */
+		DONATE,
+
+		/** From a worker: the assigned subtrees were explored. */
+		DONE,
+
+		/** From the coordinator: the exploration is over. */
+		STOP
+	}
+
+	private final Kind kind;
+	private final List<String> identifiers;
+	private final ExplorationStats stats;
+
+	private Message(Kind kind, List<String> identifiers, ExplorationStats stats) {
+		this.kind = kind;
+		this.identifiers = Collections.unmodifiableList(new ArrayList<>(identifiers));
+		this.stats = stats;
+	}
+
+	static Message hello() {
+		return new Message(Kind.HELLO, Collections.<String>emptyList(), null);
+	}
+
+	static Message assign(List<String> identifiers) {
+		return new Message(Kind.ASSIGN, identifiers, null);
+	}
+
+	static Message steal() {
+		return new Message(Kind.STEAL, Collections.<String>emptyList(), null);
+	}
+
+	static Message donate(List<String> identifiers) {
+		return new Message(Kind.DONATE, identifiers, null);
+	}
+
+	static Message done(ExplorationStats stats) {
+		return new Message(Kind.DONE, Collections.<String>emptyList(), stats);
+	}
+
+	static Message stop() {
+		return new Message(Kind.STOP, Collections.<String>emptyList(), null);
+	}
+
+	public Kind getKind() {
+		return this.kind;
+	}
+
+	/**
+	 * Returns the state identifiers carried by an
+	 * {@link Kind#ASSIGN} or {@link Kind#DONATE} message.
+	 *
+	 * @return an unmodifiable {@link List}{@code <}{@link String}{@code >}.
+	 */
+	public List<String> getIdentifiers() {
+		return this.identifiers;
+	}
+
+	/**
+	 * Returns the statistics carried by a {@link Kind#DONE}
+	 * message.
+	 *
+	 * @return an {@link ExplorationStats}, or {@code null}
+	 *         if this is not a {@link Kind#DONE} message.
+	 */
+	public ExplorationStats getStats() {
+		return this.stats;
+	}
+
+	void writeTo(DataOutputStream out) throws IOException {
+		out.writeByte(this.kind.ordinal());
+		writeList(out, this.identifiers);
+		if (this.kind == Kind.DONE) {
+			out.writeLong(this.stats.tracesTotal);
+			out.writeLong(this.stats.tracesUnsafe);
+			out.writeLong(this.stats.tracesContradictory);
+			out.writeLong(this.stats.tracesOutOfScope);
+			out.writeLong(this.stats.tracesPruned);
+			out.writeLong(this.stats.analyzedStates);
+			writeList(out, this.stats.unsafeTraces);
+			writeList(out, this.stats.unexplored);
+		}
+	}
+
+	static Message readFrom(DataInputStream in) throws IOException {
+		final int ordinal = in.readUnsignedByte();
+		if (ordinal >= Kind.values().length) {
+			throw new IOException("Unrecognized message kind " + ordinal + ".");
+		}
+		final Kind kind = Kind.values()[ordinal];
+		final List<String> identifiers = readList(in);
+		ExplorationStats stats = null;
+		if (kind == Kind.DONE) {
+			stats = new ExplorationStats();
+			stats.tracesTotal = in.readLong();
+			stats.tracesUnsafe = in.readLong();
+			stats.tracesContradictory = in.readLong();
+			stats.tracesOutOfScope = in.readLong();
+			stats.tracesPruned = in.readLong();
+			stats.analyzedStates = in.readLong();
+			stats.unsafeTraces.addAll(readList(in));
+			stats.unexplored.addAll(readList(in));
+		}
+		return new Message(kind, identifiers, stats);
+	}
+
+	private static void writeList(DataOutputStream out, List<String> l) throws IOException {
+		out.writeInt(l.size());
+		for (String s : l) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static List<String> readList(DataInputStream in) throws IOException {
+		final int size = in.readInt();
+		if (size < 0) {
+			throw new IOException("Negative list size " + size + ".");
+		}
+		final ArrayList<String> retVal = new ArrayList<>();
+		for (int i = 0; i < size; ++i) {
+			retVal.add(in.readUTF());
+		}
+		return retVal;
+	}
+
+	@Override
+	public String toString() {
+		return this.kind + (this.identifiers.isEmpty() ? "" : this.identifiers.toString());
+	}
+}
@@ -0,0 +1,53 @@
+package jbse.apps.dist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * A {@link Channel} over a TCP {@link Socket}, for running 
+ * the {@link Worker}s in different processes or hosts.
+ *
+ * @author Pietro Braione
+ */
+public final class SocketChannel implements Channel {
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param socket a connected {@link Socket}. It is 
+	 *        owned by this channel after the invocation.
+	 * @throws IOException if the streams of {@code socket}
+	 *         cannot be opened.
+	 */
+	public SocketChannel(Socket socket) throws IOException {
+		this.socket = socket;
+		this.socket.setTcpNoDelay(true);
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	@Override
+	public void send(Message m) throws IOException {
+		synchronized (this.out) {
+			m.writeTo(this.out);
+			this.out.flush();
+		}
+	}
+
+	@Override
+	public Message receive() throws IOException {
+		return Message.readFrom(this.in);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.socket.close();
+	}
+}
@@ -0,0 +1,299 @@
+package jbse.apps.dist;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+import jbse.algo.exc.CannotManageStateException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.exc.DecisionException;
+import jbse.jvm.Engine;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.jvm.Runner;
+import jbse.jvm.RunnerBuilder;
+import jbse.jvm.RunnerParameters;
+import jbse.jvm.exc.CannotBacktrackException;
+import jbse.jvm.exc.CannotBuildEngineException;
+import jbse.jvm.exc.EngineStuckException;
+import jbse.jvm.exc.FailureException;
+import jbse.jvm.exc.InitializationException;
+import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.exc.ContradictionException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.StateTree;
+import jbse.tree.StateTree.BranchPoint;
+
+/**
+ * A worker of a distributed symbolic execution. It explores the
+ * subtrees assigned by a {@link Coordinator} by replaying the
+ * {@link StateIdentificationMode#REPLICABLE} identifiers of their
+ * roots, and hands over some of its pending states whenever the
+ * coordinator asks it to. The subtrees of the handed over states
+ * are excluded from the exploration of the worker.
+ *
+ * @author Pietro Braione
+ */
+public final class Worker {
+	/** The channel to the coordinator. */
+	private final Channel channel;
+
+	/**
+	 * Produces the parameters of the symbolic execution;
+	 * it is invoked once for each assignment.
+	 */
+	private final Supplier<RunnerParameters> parametersSupplier;
+
+	/** The messages received from the coordinator. */
+	private final LinkedBlockingQueue<Message> inbox = new LinkedBlockingQueue<>();
+
+	/** The {@link Runner} of the current assignment. */
+	private Runner runner;
+
+	/** The {@link Engine} of the current assignment. */
+	private Engine engine;
+
+	/** The identifiers of the roots of the current assignment. */
+	private List<String> roots;
+
+	/** The statistics of the current assignment. */
+	private ExplorationStats stats;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param channel the {@link Channel} to the coordinator.
+	 * @param parametersSupplier a {@link Supplier}{@code <}{@link RunnerParameters}{@code >}
+	 *        producing the parameters of the symbolic execution. It must
+	 *        produce a fresh object at each invocation, with
+	 *        {@link StateIdentificationMode#REPLICABLE} state
+	 *        identification and no state merging, otherwise the
+	 *        assigned subtrees are reported as unexplored; its actions
+	 *        and replay targets are overwritten.
+	 */
+	public Worker(Channel channel, Supplier<RunnerParameters> parametersSupplier) {
+		this.channel = channel;
+		this.parametersSupplier = parametersSupplier;
+	}
+
+	/**
+	 * Runs this worker until the coordinator stops it or
+	 * disconnects.
+	 *
+	 * @throws IOException if communicating with the
+	 *         coordinator fails.
+	 */
+	public void run() throws IOException {
+		final Thread receiver = new Thread(() -> {
+			try {
+				while (true) {
+					this.inbox.add(this.channel.receive());
+				}
+			} catch (IOException e) {
+				this.inbox.add(Message.stop());
+			}
+		}, "jbse-worker-receiver");
+		receiver.setDaemon(true);
+		receiver.start();
+
+		try {
+			this.channel.send(Message.hello());
+			while (true) {
+				final Message m;
+				try {
+					m = this.inbox.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				switch (m.getKind()) {
+				case ASSIGN:
+					explore(m.getIdentifiers());
+					this.channel.send(Message.done(this.stats));
+					break;
+				case STEAL:
+					//idle, nothing to hand over
+					this.channel.send(Message.donate(new ArrayList<>()));
+					break;
+				case STOP:
+					return;
+				default:
+					//ignores unexpected messages
+				}
+			}
+		} finally {
+			this.channel.close();
+		}
+	}
+
+	/**
+	 * Explores the subtrees of some states.
+	 *
+	 * @param identifiers a {@link List}{@code <}{@link String}{@code >},
+	 *        the identifiers of the roots of the subtrees.
+	 */
+	private void explore(List<String> identifiers) {
+		this.roots = identifiers;
+		this.stats = new ExplorationStats();
+		this.runner = null;
+		final RunnerParameters parameters = this.parametersSupplier.get();
+		if (parameters.getStateIdentificationMode() != StateIdentificationMode.REPLICABLE ||
+			parameters.getDoStateMerging()) {
+			//the identifiers cannot be replayed, or the states
+			//parked for merging cannot be handed over
+			this.stats.unexplored.addAll(identifiers);
+			return;
+		}
+		parameters.setReplayTargets(identifiers);
+		parameters.setActions(new ActionsWorker());
+		final RunnerBuilder rb = new RunnerBuilder();
+		try {
+			this.runner = rb.build(parameters);
+			this.engine = rb.getEngine();
+			this.runner.run();
+		} catch (CannotBuildEngineException | DecisionException | InitializationException |
+				 InvalidClassFileFactoryClassException | NonexistingObservedVariablesException |
+				 ClasspathException | CannotBacktrackException | CannotManageStateException |
+				 ThreadStackEmptyException | ContradictionException | EngineStuckException |
+				 FailureException | UnexpectedInternalException e) {
+			//the subtrees might be partially explored, but
+			//we cannot tell which parts are missing
+			this.stats.unexplored.addAll(identifiers);
+		} finally {
+			final Engine builtEngine = rb.getEngine();
+			if (this.runner != null) {
+				this.stats.tracesTotal = this.runner.getTracesTotal();
+				this.stats.tracesOutOfScope = this.runner.getTracesOutOfScope();
+				this.stats.tracesPruned = this.runner.getTracesPruned();
+			}
+			if (builtEngine != null) {
+				this.stats.analyzedStates = builtEngine.getAnalyzedStates();
+				try {
+					builtEngine.close();
+				} catch (DecisionException e) {
+					//does nothing, the statistics are already collected
+				}
+			}
+			this.runner = null;
+			this.engine = null;
+		}
+	}
+
+	/**
+	 * Checks whether a state is in the assigned subtrees.
+	 *
+	 * @param identifier a {@link String}, the identifier of the state.
+	 * @return {@code true} iff {@code identifier} is the identifier of
+	 *         the root of an assigned subtree or of one of its descendants.
+	 */
+	private boolean inAssignedSubtrees(String identifier) {
+		for (String root : this.roots) {
+			if (identifier.equals(root) ||
+				identifier.startsWith(root + StateTree.IDENTIFIER_SEPARATOR_LONG)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Hands over to the coordinator the last half of the pending
+	 * states, if the coordinator asked it. These are the states
+	 * closest to the roots, that usually have the largest subtrees.
+	 * The pending states on the replay path above the roots are
+	 * not handed over, since only part of their subtrees is assigned.
+	 */
+	private void possiblyServeSteal() {
+		while (true) {
+			final Message m = this.inbox.peek();
+			if (m == null || m.getKind() != Message.Kind.STEAL) {
+				return;
+			}
+			this.inbox.poll();
+			final ArrayList<String> donated = new ArrayList<>();
+			final ArrayList<String> pending = new ArrayList<>();
+			for (String identifier : this.engine.getPendingStateIdentifiers()) {
+				if (inAssignedSubtrees(identifier) && !this.runner.isExcludedSubregion(identifier)) {
+					pending.add(identifier);
+				}
+			}
+			final int toDonate = (pending.size() + 1) / 2;
+			for (int i = pending.size() - toDonate; i < pending.size(); ++i) {
+				final String identifier = pending.get(i);
+				this.runner.excludeSubregion(identifier);
+				donated.add(identifier);
+			}
+			try {
+				this.channel.send(Message.donate(donated));
+			} catch (IOException e) {
+				//the coordinator is gone: the handed over subtrees
+				//are lost as the rest of the exploration
+			}
+		}
+	}
+
+	private class ActionsWorker extends Runner.Actions {
+		private boolean unsafe;
+
+		@Override
+		public boolean atTraceStart() {
+			this.unsafe = false;
+			possiblyServeSteal();
+			return false;
+		}
+
+		@Override
+		public boolean atBranch(BranchPoint bp) {
+			possiblyServeSteal();
+			return false;
+		}
+
+		@Override
+		public boolean atContradictionException(ContradictionException e) {
+			++Worker.this.stats.tracesContradictory;
+			return false;
+		}
+
+		@Override
+		public boolean atFailureException(FailureException e) {
+			this.unsafe = true;
+			return false;
+		}
+
+		@Override
+		public boolean atTraceEnd() {
+			if (this.unsafe) {
+				++Worker.this.stats.tracesUnsafe;
+				Worker.this.stats.unsafeTraces.add(getEngine().getCurrentState().getIdentifier());
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Runs a worker connected to a coordinator.
+	 *
+	 * @param args a {@link String}{@code []} with three elements: the
+	 *        host and port of the coordinator, and the name of a class
+	 *        implementing {@link Supplier}{@code <}{@link RunnerParameters}{@code >}
+	 *        with a public parameterless constructor.
+	 * @throws Exception if the worker cannot connect or the supplier
+	 *         class cannot be instantiated.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length != 3) {
+			System.err.println("Usage: Worker <host> <port> <parameters supplier class>");
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		final Supplier<RunnerParameters> supplier =
+			(Supplier<RunnerParameters>) Class.forName(args[2]).getDeclaredConstructor().newInstance();
+		try (final Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+			new Worker(new SocketChannel(socket), supplier).run();
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package jbse.apps.run;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jbse.tree.StateTree;
+
+/**
+ * A checkpoint of a symbolic execution, i.e., its frontier (the
+ * identifiers of the states that were discovered but not yet
+ * completely explored) and some counters. The exploration can be
+ * resumed from a checkpoint by replaying the states in the frontier,
+ * so the identifiers must be
+ * {@link StateTree.StateIdentificationMode#REPLICABLE}.
+ * A checkpoint is written in a compact binary format, where each
+ * identifier is stored as the number of branches it shares with the
+ * previous one, followed by its remaining branch numbers.
+ *
+ * @author Pietro Braione
+ */
+final class Checkpoint {
+	/** The magic number of checkpoint files. */
+	private static final int MAGIC = 0x4A42434B; //"JBCK"
+
+	/** The version of the checkpoint file format. */
+	private static final int VERSION = 1;
+
+	/** The counters. */
+	private final long[] counters;
+
+	/** The identifiers of the states in the frontier. */
+	private final List<String> frontier;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param counters a {@code long[]}, the counters,
+	 *        whose meaning is defined by the client.
+	 *        They must be nonnegative.
+	 * @param frontier a {@link List}{@code <}{@link String}{@code >}, the
+	 *        identifiers of the states in the frontier. If empty, the
+	 *        exploration is complete.
+	 */
+	Checkpoint(long[] counters, List<String> frontier) {
+		this.counters = counters.clone();
+		this.frontier = Collections.unmodifiableList(new ArrayList<>(frontier));
+	}
+
+	long[] getCounters() {
+		return this.counters.clone();
+	}
+
+	List<String> getFrontier() {
+		return this.frontier;
+	}
+
+	/**
+	 * Writes this checkpoint to a file. The file is
+	 * replaced atomically, so if writing fails
+	 * the previous checkpoint is not lost.
+	 *
+	 * @param file the {@link Path} of the file.
+	 * @throws IOException if writing fails.
+	 * @throws IllegalArgumentException if some identifier
+	 *         in the frontier is not replicable.
+	 */
+	void write(Path file) throws IOException {
+		final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			writeTo(tmp);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void writeTo(Path tmp) throws IOException {
+		try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			writeVarLong(out, this.counters.length);
+			for (long c : this.counters) {
+				writeVarLong(out, c);
+			}
+			writeVarLong(out, this.frontier.size());
+			int[] previous = new int[0];
+			for (String identifier : this.frontier) {
+				final int[] branches = branches(identifier);
+				int shared = 0;
+				while (shared < branches.length && shared < previous.length &&
+					   branches[shared] == previous[shared]) {
+					++shared;
+				}
+				writeVarLong(out, shared);
+				writeVarLong(out, branches.length - shared);
+				for (int i = shared; i < branches.length; ++i) {
+					writeVarLong(out, branches[i]);
+				}
+				previous = branches;
+			}
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from a file.
+	 *
+	 * @param file the {@link Path} of the file.
+	 * @return the {@link Checkpoint} read from {@code file}.
+	 * @throws IOException if reading fails, or {@code file}
+	 *         is not a checkpoint file.
+	 */
+	static Checkpoint read(Path file) throws IOException {
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+				throw new IOException("Not a checkpoint file: " + file + ".");
+			}
+			final long[] counters = new long[readLength(in)];
+			for (int i = 0; i < counters.length; ++i) {
+				counters[i] = readVarLong(in);
+			}
+			final int frontierSize = readLength(in);
+			final ArrayList<String> frontier = new ArrayList<>(frontierSize);
+			int[] previous = new int[0];
+			for (int i = 0; i < frontierSize; ++i) {
+				final int shared = readLength(in);
+				if (shared > previous.length) {
+					throw new IOException("Corrupted checkpoint file: " + file + ".");
+				}
+				final int[] branches = new int[shared + readLength(in)];
+				System.arraycopy(previous, 0, branches, 0, shared);
+				for (int j = shared; j < branches.length; ++j) {
+					branches[j] = readLength(in);
+				}
+				frontier.add(identifier(branches));
+				previous = branches;
+			}
+			return new Checkpoint(counters, frontier);
+		}
+	}
+
+	private static int[] branches(String identifier) {
+		if (!identifier.startsWith(StateTree.IDENTIFIER_DEFAULT_LONG)) {
+			throw new IllegalArgumentException("Not a replicable state identifier: " + identifier + ".");
+		}
+		final String suffix = identifier.substring(StateTree.IDENTIFIER_DEFAULT_LONG.length());
+		if (suffix.isEmpty()) {
+			return new int[0];
+		}
+		if (!suffix.startsWith(StateTree.IDENTIFIER_SEPARATOR_LONG)) {
+			throw new IllegalArgumentException("Not a replicable state identifier: " + identifier + ".");
+		}
+		final String[] parts = suffix.substring(1).split("\\" + StateTree.IDENTIFIER_SEPARATOR_LONG, -1);
+		final int[] retVal = new int[parts.length];
+		try {
+			for (int i = 0; i < parts.length; ++i) {
+				retVal[i] = Integer.parseInt(parts[i]);
+				if (retVal[i] < 0) {
+					throw new NumberFormatException();
+				}
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not a replicable state identifier: " + identifier + ".");
+		}
+		return retVal;
+	}
+
+	private static String identifier(int[] branches) {
+		final StringBuilder buf = new StringBuilder(StateTree.IDENTIFIER_DEFAULT_LONG);
+		for (int b : branches) {
+			buf.append(StateTree.IDENTIFIER_SEPARATOR_LONG);
+			buf.append(b);
+		}
+		return buf.toString();
+	}
+
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		long v = value;
+		while ((v & ~0x7FL) != 0) {
+			out.writeByte((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long retVal = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = in.readUnsignedByte();
+			retVal |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return retVal;
+			}
+		}
+		throw new IOException("Corrupted checkpoint file.");
+	}
+
+	private static int readLength(DataInputStream in) throws IOException {
+		final long retVal = readVarLong(in);
+		if (retVal < 0 || retVal > Integer.MAX_VALUE) {
+			throw new IOException("Corrupted checkpoint file.");
+		}
+		return (int) retVal;
+	}
+}
@@ -2,12 +2,22 @@ package jbse.apps.run;
 
 import static jbse.apps.Util.LINE_SEP;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import jbse.JBSE;
 import jbse.algo.exc.CannotInvokeNativeException;
@@ -15,11 +25,14 @@ import jbse.algo.exc.CannotManageStateException;
 import jbse.algo.exc.MetaUnsupportedException;
 import jbse.algo.exc.NotYetImplementedException;
 import jbse.algo.exc.UninterpretedUnsupportedException;
+import jbse.apps.DecisionProcedureDecoratorMetrics;
 import jbse.apps.DecisionProcedureDecoratorPrint;
 import jbse.apps.DecisionProcedureDecoratorTimer;
 import jbse.apps.IO;
 import jbse.apps.Formatter;
+import jbse.apps.OutputPipeline;
 import jbse.apps.StateFormatterGraphviz;
+import jbse.apps.StateFormatterJSON;
 import jbse.apps.StateFormatterJUnitTestSuite;
 import jbse.apps.StateFormatterText;
 import jbse.apps.StateFormatterTrace;
@@ -42,11 +55,16 @@ import jbse.dec.DecisionProcedureClassInit;
 import jbse.dec.DecisionProcedureEquality;
 import jbse.dec.DecisionProcedureLICS;
 import jbse.dec.DecisionProcedureSignAnalysis;
+import jbse.dec.DecisionProcedureExternal;
 import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
+import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRAPortfolio;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
 import jbse.jvm.Engine;
 import jbse.jvm.EngineParameters;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.jvm.Metrics;
+import jbse.jvm.MetricsDumper;
 import jbse.jvm.Runner;
 import jbse.jvm.RunnerBuilder;
 import jbse.jvm.RunnerParameters;
@@ -111,6 +129,27 @@ public final class Run {
 	/** The {@link PrintStream}s for errors (critical log information). */
 	private PrintStream[] err = null;
 
+	/** The {@link OutputPipeline} for the asynchronous output, or {@code null} if the output is synchronous. */
+	private OutputPipeline pipeline = null;
+
+	/** The {@link Writer} for the asynchronous output, copying on {@code out}. */
+	private Writer outWriter = null;
+
+	/** The {@link Writer} for the asynchronous log information, copying on {@code log}. */
+	private Writer logWriter = null;
+
+	/** The {@link Writer} for the asynchronous errors, copying on {@code err}. */
+	private Writer errWriter = null;
+
+	/** 
+	 * A copy of the initial state for the asynchronous formatting, 
+	 * only accessed by the pipeline after being set.
+	 */
+	private State initialStateEmitted = null;
+
+	/** The model of the state being asynchronously formatted. */
+	private Map<PrimitiveSymbolic, Simplex> modelEmitted = null;
+
 	/** The {@link Formatter} to output states at branches. */
 	private Formatter formatterBranches = null;
 
@@ -120,6 +159,12 @@ public final class Run {
 	/** The {@link Timer} for the decision procedure. */
 	private Timer timer = null;
 
+	/** The run {@link Metrics}, or {@code null} if no metrics are collected. */
+	private Metrics metrics = null;
+
+	/** The {@link MetricsDumper} that dumps {@code metrics}, or {@code null}. */
+	private MetricsDumper metricsDumper = null;
+
 	/** The {@link DecisionProcedureGuidance}, whenever this method is chosen for stepping the {@link Engine}. */
 	private DecisionProcedureGuidance guidance = null;
 	
@@ -153,6 +198,21 @@ public final class Run {
 	/** The time spent during the concretization checks. */
 	private long elapsedTimeConcretization = 0;
 
+	/** The {@link OutputPipeline} that writes the checkpoints, or {@code null}. */
+	private OutputPipeline checkpointPipeline = null;
+
+	/** The time of the last checkpoint. */
+	private long lastCheckpointTime = 0;
+
+	/** The checkpoint the symbolic execution resumed from, or {@code null}. */
+	private Checkpoint resumedFrom = null;
+
+	/** Whether the current trace has ended. */
+	private boolean traceEnded = false;
+
+	/** Whether the symbolic execution explored the whole tree. */
+	private boolean explorationComplete = false;
+
 	/**
 	 * Constructor.
 	 */
@@ -238,6 +298,10 @@ public final class Run {
 		
 		@Override
 		public boolean atTraceStart() {
+			//the frontier is consistent here
+			Run.this.traceEnded = false;
+			Run.this.possiblyCheckpoint();
+			
 			//scope not yet exhausted
 			this.endOfTraceMessage = null;
 
@@ -265,6 +329,7 @@ public final class Run {
 		
 		@Override
 		public void atEnd() {
+		    Run.this.explorationComplete = true;
 		    Run.this.emitEpilogue();
 		    super.atEnd();
 		}
@@ -308,6 +373,13 @@ public final class Run {
 			this.endOfTraceMessage = WARNING_SCOPE_EXHAUSTED_COUNT;
 			return super.atScopeExhaustionCount();
 		}
+		
+		@Override
+		public boolean atStatePruned() {
+			this.traceKind = TraceTypes.SUBSUMED;
+			this.endOfTraceMessage = MSG_SUBSUMED_TRACE;
+			return super.atStatePruned();
+		}
 
 		@Override
 		public boolean atCannotManageStateException(CannotManageStateException e)
@@ -379,6 +451,7 @@ public final class Run {
 
 		@Override
 		public boolean atTraceEnd() {
+			Run.this.traceEnded = true;
 			try {
                 final State currentState = Run.this.engine.getCurrentState();
 				//prints the leaf state if the case
@@ -430,6 +503,11 @@ public final class Run {
 					this.endOfTraceMessage = MSG_CONTRADICTORY_TRACE;
 					counterKind = null;
 					break;
+				case SUBSUMED:
+					//counter is provided by runner
+					//this.endOfTraceMessage already set
+					counterKind = null;
+					break;
 				default: //to keep compiler happy:
 					throw new AssertionError();
 				}
@@ -542,12 +620,23 @@ public final class Run {
 
 		// prints feedback
         if (this.parameters.getShowInfo()) {
+            if (this.resumedFrom != null) {
+                log(MSG_RESUME + this.parameters.getResumeFrom() + ".");
+            }
             log(MSG_START + this.parameters.getMethodSignature() + " at " + new Date() + ".");
         }
         
         // runs
 		try {
-			this.runner.run();
+			if (this.resumedFrom != null && this.resumedFrom.getFrontier().isEmpty()) {
+				//nothing left to explore
+				this.explorationComplete = true;
+				if (this.parameters.getShowInfo()) {
+					log(MSG_RESUME_COMPLETE);
+				}
+			} else {
+				this.runner.run();
+			}
 		} catch (ClasspathException | 
 		         DecisionException | CannotManageStateException | 
 				 EngineStuckException | CannotBacktrackException e) {
@@ -561,6 +650,11 @@ public final class Run {
 			retVal = 2;
 		}
 		
+		// writes the last checkpoint
+		if (!writeLastCheckpoint()) {
+			retVal = (retVal == 0 ? 1 : retVal);
+		}
+		
 		// prints statistics
         if (this.parameters.getShowInfo()) {
             log(MSG_END + new Date() + ".");
@@ -587,7 +681,7 @@ public final class Run {
 	 * @param s the text to be printed.
 	 */
 	public void out(String s) {
-		IO.println(this.out, s);
+		print(this.out, this.outWriter, s, true);
 	}
 
     /**
@@ -596,7 +690,7 @@ public final class Run {
      * @param s the text to be printed.
      */
     public void outNoBreak(String s) {
-        IO.print(this.out, s);
+        print(this.out, this.outWriter, s, false);
     }
 
 	/**
@@ -605,7 +699,7 @@ public final class Run {
 	 * @param s the text to be printed.
 	 */
 	public void log(String s) {
-		IO.println(this.log, s);
+		print(this.log, this.logWriter, s, true);
 	}
 
 	/**
@@ -614,7 +708,7 @@ public final class Run {
 	 * @param s the text to be printed.
 	 */
 	public void err(String s) {
-		IO.println(this.err, s);
+		print(this.err, this.errWriter, s, true);
 	}
 	
 	/**
@@ -623,8 +717,51 @@ public final class Run {
 	 * @param t the {@link Throwable} to be printed.
 	 */
 	public void err(Throwable t) {
+	    if (this.pipeline != null) {
+	        try {
+	            this.pipeline.submit(() -> {
+	                final PrintWriter w = new PrintWriter(this.errWriter);
+	                t.printStackTrace(w);
+	                w.flush();
+	            });
+	            return;
+	        } catch (UnexpectedInternalException e) {
+	            //the pipeline failed: falls back to synchronous output
+	        }
+	    }
 	    IO.printException(this.err, t);
 	}
+	
+	/**
+	 * Prints some text, either directly on some 
+	 * {@link PrintStream}s or through the pipeline.
+	 * 
+	 * @param ps the {@link PrintStream}s for the synchronous output.
+	 * @param w the {@link Writer} for the asynchronous output.
+	 * @param s the text to be printed.
+	 * @param lineBreak {@code true} iff a line break must follow
+	 *        {@code s}.
+	 */
+	private void print(PrintStream[] ps, Writer w, String s, boolean lineBreak) {
+	    if (this.pipeline != null) {
+	        try {
+	            this.pipeline.submit(() -> {
+	                w.write(s == null ? "null" : s);
+	                if (lineBreak) {
+	                    w.write(LINE_SEP);
+	                }
+	            });
+	            return;
+	        } catch (UnexpectedInternalException e) {
+	            //the pipeline failed: falls back to synchronous output
+	        }
+	    }
+	    if (lineBreak) {
+	        IO.println(ps, s);
+	    } else {
+	        IO.print(ps, s);
+	    }
+	}
 
     private static final String COMMANDLINE_LAUNCH_Z3   = System.getProperty("os.name").toLowerCase().contains("windows") ? " /smt2 /in /t:10" : " -smt2 -in -t:10";
     private static final String COMMANDLINE_LAUNCH_CVC4 = " --lang=smt2 --output-lang=smt2 --no-interactive --incremental --tlimit-per=10000";
@@ -653,9 +790,36 @@ public final class Run {
 			createFormatter();
 	        final RunnerParameters runnerParameters = this.parameters.getRunnerParameters();
 	        runnerParameters.setActions(new ActionsRun());
+	        if (this.parameters.getCheckpointFile() != null || this.parameters.getResumeFrom() != null) {
+	        	if (runnerParameters.getStateIdentificationMode() != StateIdentificationMode.REPLICABLE) {
+	        		err(ERROR_CHECKPOINT_MODE);
+	        		return 1;
+	        	}
+	        	if (runnerParameters.getDoStateMerging()) {
+	        		err(ERROR_CHECKPOINT_MERGING);
+	        		return 1;
+	        	}
+	        }
+	        if (this.parameters.getStateFormatMode() == StateFormatMode.JUNIT_TEST && runnerParameters.getUseArrayTheory()) {
+	        	//the tests need the initial array contents, but 
+	        	//the models have no values for the array terms
+	        	log(WARNING_ARRAY_THEORY_JUNIT);
+	        	runnerParameters.setUseArrayTheory(false);
+	        }
+	        if (this.parameters.getResumeFrom() != null) {
+	        	try {
+	        		this.resumedFrom = Checkpoint.read(this.parameters.getResumeFrom());
+	        	} catch (IOException | SecurityException e) {
+	        		err(ERROR_CHECKPOINT_READ + e + ".");
+	        		return 1;
+	        	}
+	        	runnerParameters.setReplayTargets(this.resumedFrom.getFrontier());
+	        }
             final CalculatorRewriting calc = createCalculator();
 	        final EngineParameters engineParameters = runnerParameters.getEngineParameters();
 			engineParameters.setCalculator(calc);
+			createMetrics();
+			engineParameters.setMetrics(this.metrics);
             createDecisionProcedure(calc);
 			engineParameters.setDecisionProcedure(this.decisionProcedure);
 			final RunnerBuilder rb = new RunnerBuilder();
@@ -664,6 +828,16 @@ public final class Run {
 			if (this.engine == null) {
 				return 1;
 			}
+			if (this.metricsDumper != null) {
+				this.metricsDumper.start();
+			}
+			if (this.resumedFrom != null) {
+				restoreCounters(this.resumedFrom.getCounters());
+			}
+			if (this.parameters.getCheckpointFile() != null) {
+				this.checkpointPipeline = new OutputPipeline(1, Collections.<Writer>emptyList());
+				this.lastCheckpointTime = System.currentTimeMillis();
+			}
             createHeapChecker(this.decisionProcedureConcretization);
         } catch (NonexistingObservedVariablesException e) {
             for (int i : e.getVariableIndices()) {
@@ -699,6 +873,106 @@ public final class Run {
 		return 0;
 	}
 	
+	/**
+	 * Writes a checkpoint if the checkpoint period 
+	 * elapsed since the last one. The checkpoint is 
+	 * written asynchronously, and it is skipped if the
+	 * previous one is still being written.
+	 */
+	private void possiblyCheckpoint() {
+		if (this.checkpointPipeline == null) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		if (now - this.lastCheckpointTime < this.parameters.getCheckpointPeriod()) {
+			return;
+		}
+		final Checkpoint c = makeCheckpoint();
+		final Path file = this.parameters.getCheckpointFile();
+		try {
+			if (this.checkpointPipeline.offer(() -> c.write(file))) {
+				this.lastCheckpointTime = now;
+			}
+		} catch (UnexpectedInternalException e) {
+			//some previous checkpoint failed
+			err(ERROR_CHECKPOINT_WRITE);
+			err(e.getCause());
+			this.checkpointPipeline = null;
+		}
+	}
+	
+	/**
+	 * Writes the last checkpoint, after waiting for the 
+	 * completion of the pending one.
+	 * 
+	 * @return {@code false} iff writing failed.
+	 */
+	private boolean writeLastCheckpoint() {
+		if (this.checkpointPipeline == null) {
+			return true; //no checkpoints, or already reported failure
+		}
+		final OutputPipeline p = this.checkpointPipeline;
+		this.checkpointPipeline = null;
+		try {
+			p.close();
+			makeCheckpoint().write(this.parameters.getCheckpointFile());
+			return true;
+		} catch (IOException | UnexpectedInternalException | SecurityException e) {
+			err(ERROR_CHECKPOINT_WRITE);
+			err(e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Builds a checkpoint of the current exploration.
+	 * 
+	 * @return a {@link Checkpoint}, whose frontier contains 
+	 *         the current state if its trace has not yet 
+	 *         ended, and all the pending states.
+	 */
+	private Checkpoint makeCheckpoint() {
+		final ArrayList<String> frontier = new ArrayList<>();
+		if (!this.explorationComplete) {
+			if (!this.traceEnded) {
+				frontier.add(this.engine.getCurrentState().getIdentifier());
+			}
+			frontier.addAll(this.engine.getPendingStateIdentifiers());
+		}
+		final long[] counters = {
+			this.runner.getTracesTotal(),
+			this.runner.getTracesOutOfScope(),
+			this.runner.getTracesPruned(),
+			this.tracesSafe,
+			this.tracesUnsafe,
+			this.tracesUnmanageable,
+			this.tracesConcretizableSafe,
+			this.tracesConcretizableUnsafe,
+			this.tracesConcretizableOutOfScope,
+			this.elapsedTimeConcretization
+		};
+		return new Checkpoint(counters, frontier);
+	}
+	
+	/**
+	 * Restores the counters saved by {@link #makeCheckpoint()}.
+	 * 
+	 * @param counters a {@code long[]}.
+	 */
+	private void restoreCounters(long[] counters) {
+		if (counters.length < 10) {
+			return; //not ours
+		}
+		this.runner.setTracesCounters(counters[0], counters[1], counters[2]);
+		this.tracesSafe = counters[3];
+		this.tracesUnsafe = counters[4];
+		this.tracesUnmanageable = counters[5];
+		this.tracesConcretizableSafe = counters[6];
+		this.tracesConcretizableUnsafe = counters[7];
+		this.tracesConcretizableOutOfScope = counters[8];
+		this.elapsedTimeConcretization = counters[9];
+	}
+	
 	private void setStreams() {
         // sets the output and error streams
         // first are to standard
@@ -731,6 +1005,58 @@ public final class Run {
         } else if (this.parameters.getTextMode() == TextMode.UNIX) {
             System.setProperty("line.separator", "\n");
         } //else it is platform: nothing to do
+        
+        // starts the pipeline if the output is asynchronous, 
+        // unless the user interacts or the decision procedure
+        // prints synchronously
+        if (this.parameters.getOutputQueueSize() > 0 && 
+            this.parameters.getInteractionMode() != InteractionMode.STEP_BY_STEP &&
+            !this.parameters.getShowDecisionProcedureInteraction()) {
+            final IdentityHashMap<PrintStream, Writer> sinks = new IdentityHashMap<>();
+            this.outWriter = sinksFor(this.out, sinks);
+            this.logWriter = sinksFor(this.log, sinks);
+            this.errWriter = sinksFor(this.err, sinks);
+            this.pipeline = new OutputPipeline(this.parameters.getOutputQueueSize(), new ArrayList<>(sinks.values()));
+        }
+	}
+	
+	/**
+	 * Returns a {@link Writer} copying on some {@link PrintStream}s.
+	 * 
+	 * @param ps the {@link PrintStream}s.
+	 * @param sinks a {@link Map}{@code <}{@link PrintStream}{@code , }{@link Writer}{@code >},
+	 *        the (buffered) {@link Writer}s on the {@link PrintStream}s. It is 
+	 *        updated with the {@link Writer}s for the {@link PrintStream}s in {@code ps}
+	 *        that are not yet in {@code sinks}.
+	 * @return a {@link Writer}.
+	 */
+	private static Writer sinksFor(PrintStream[] ps, Map<PrintStream, Writer> sinks) {
+	    final ArrayList<Writer> ws = new ArrayList<>();
+	    for (PrintStream p : ps) {
+	        if (p != null) {
+	            ws.add(sinks.computeIfAbsent(p, q -> new BufferedWriter(new OutputStreamWriter(q))));
+	        }
+	    }
+	    return OutputPipeline.tee(ws.toArray(new Writer[0]));
+	}
+	
+	/**
+	 * Creates the run metrics and their dumper, if 
+	 * the parameters require to collect metrics.
+	 */
+	private void createMetrics() {
+		if (this.parameters.getMetricsFileName() == null) {
+			return;
+		}
+		try {
+			final FileWriter w = new FileWriter(this.parameters.getMetricsFileName());
+			this.metrics = new Metrics();
+			this.metricsDumper = new MetricsDumper(this.metrics, w, this.parameters.getMetricsPeriod(), TimeUnit.MILLISECONDS);
+		} catch (IOException | SecurityException e) {
+			err(ERROR_METRICS_FILE_OPEN);
+			this.metrics = null;
+			this.metricsDumper = null;
+		}
 	}
 	
 	/**
@@ -770,6 +1096,27 @@ public final class Run {
         }
     }
     
+    /**
+     * Returns the initial state for the formatter. 
+     * Convenience for formatter creation.
+     * 
+     * @return the initial {@link State}.
+     */
+    private State getInitialStateEmitted() {
+        return (this.pipeline == null ? getInitialState() : this.initialStateEmitted.clone());
+    }
+    
+    /**
+     * Returns the model of the state being formatted.
+     * Convenience for formatter creation.
+     * 
+     * @return a {@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}{@link Simplex}{@code >}
+     *         or {@code null} 
+     */
+    private Map<PrimitiveSymbolic, Simplex> getModelEmitted() {
+        return (this.pipeline == null ? getModel() : this.modelEmitted);
+    }
+    
     /**
      * Creates the formatter.
      * 
@@ -799,12 +1146,18 @@ public final class Run {
                 }
             };
         } else if (type == StateFormatMode.GRAPHVIZ) {
-            this.formatterBranches = this.formatterOthers = new StateFormatterGraphviz();
+            this.formatterBranches = this.formatterOthers = 
+                new StateFormatterGraphviz(this.parameters.getGraphvizMaxDepth(), this.parameters.getGraphvizMaxObjects());
+        } else if (type == StateFormatMode.JSON) {
+            this.formatterBranches = this.formatterOthers = new StateFormatterJSON();
         } else if (type == StateFormatMode.TRACE) {
             this.formatterBranches = this.formatterOthers = new StateFormatterTrace();
         } else if (type == StateFormatMode.JUNIT_TEST) {
-            this.formatterBranches = this.formatterOthers = 
-                new StateFormatterJUnitTestSuite(this::getInitialState, this::getModel);
+            final Path testSuiteDirectory = this.parameters.getTestSuiteDirectory();
+            this.formatterBranches = this.formatterOthers = (testSuiteDirectory == null ?
+                new StateFormatterJUnitTestSuite(this::getInitialStateEmitted, this::getModelEmitted) :
+                new StateFormatterJUnitTestSuite(this::getInitialStateEmitted, this::getModelEmitted, 
+                                                 testSuiteDirectory, this.parameters.getTestsPerClass()));
         } else {
             throw new CannotBuildFormatterException(ERROR_UNDEF_STATE_FORMAT);
         }
@@ -853,6 +1206,31 @@ public final class Run {
 		return calc;
 	}
 	
+	/**
+	 * Creates an SMTLIB2 decision procedure, slicing 
+	 * its queries if required.
+	 * 
+	 * @param next the next {@link DecisionProcedure} in the chain.
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param solverCommandLines a {@link String}{@code []}, the command
+	 *        lines that launch the solvers; if more than one 
+	 *        the solvers are raced as a portfolio.
+	 * @return a {@link DecisionProcedureExternal}.
+	 * @throws DecisionException upon failure.
+	 */
+	private DecisionProcedureExternal createDecisionProcedureSMTLIB2(DecisionProcedure next, CalculatorRewriting calc, String... solverCommandLines) 
+	throws DecisionException {
+		final DecisionProcedureExternal retVal = (solverCommandLines.length == 1 ?
+		    new DecisionProcedureSMTLIB2_AUFNIRA(next, calc, solverCommandLines[0]) :
+		    new DecisionProcedureSMTLIB2_AUFNIRAPortfolio(next, calc, solverCommandLines));
+		retVal.setSlicing(this.parameters.getDoSlicing());
+		//the JUnit tests take the model of a leaf from the model of
+		//the last satisfiability check, whenever it is a model of the leaf
+		final int modelCacheSize = this.parameters.getModelCacheSize();
+		retVal.setModelCacheSize(this.parameters.getStateFormatMode() == StateFormatMode.JUNIT_TEST ? Math.max(1, modelCacheSize) : modelCacheSize);
+		return retVal;
+	}
+	
 	/**
 	 * Creates the decision procedures in {@code this.decisionProcedure}
 	 * and {@code this.decisionProcedureConcretization}. 
@@ -870,6 +1248,8 @@ public final class Run {
                 log(MSG_TRY_Z3 + (path == null ? "default" : path.toString()) + ".");
             } else if (this.parameters.getDecisionProcedureType() == DecisionProcedureType.CVC4) {
                 log(MSG_TRY_CVC4 + (path == null ? "default" : path.toString()) + ".");
+            } else if (this.parameters.getDecisionProcedureType() == DecisionProcedureType.PORTFOLIO) {
+                log(MSG_TRY_PORTFOLIO + (path == null ? "default" : path.toString()) + ".");
             } else if (this.parameters.getInteractionMode() == InteractionMode.NO_INTERACTION) {
                 log(MSG_DECISION_BASIC);
             } else {
@@ -889,12 +1269,18 @@ public final class Run {
 		        //do nothing
 		    } else if (type == DecisionProcedureType.Z3) {
 		        final String z3 = (path == null ? "z3" : path.toString()) + COMMANDLINE_LAUNCH_Z3;
-		        core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, z3);
-		        coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, z3) : null);
+		        core = createDecisionProcedureSMTLIB2(core, calc, z3);
+		        coreNumeric = (needHeapCheck ? createDecisionProcedureSMTLIB2(coreNumeric, calc, z3) : null);
 		    } else if (type == DecisionProcedureType.CVC4) {
                 final String cvc4 = (path == null ? "cvc4" : path.toString()) + COMMANDLINE_LAUNCH_CVC4;
-		        core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, cvc4);
-		        coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, cvc4) : null);
+		        core = createDecisionProcedureSMTLIB2(core, calc, cvc4);
+		        coreNumeric = (needHeapCheck ? createDecisionProcedureSMTLIB2(coreNumeric, calc, cvc4) : null);
+		    } else if (type == DecisionProcedureType.PORTFOLIO) {
+		        //the path, if any, is the directory of both executables
+		        final String z3 = (path == null ? "z3" : path.resolve("z3").toString()) + COMMANDLINE_LAUNCH_Z3;
+		        final String cvc4 = (path == null ? "cvc4" : path.resolve("cvc4").toString()) + COMMANDLINE_LAUNCH_CVC4;
+		        core = createDecisionProcedureSMTLIB2(core, calc, z3, cvc4);
+		        coreNumeric = (needHeapCheck ? createDecisionProcedureSMTLIB2(coreNumeric, calc, z3, cvc4) : null);
 		    } else {
 		        core.close();
 		        if (coreNumeric != null) {
@@ -948,6 +1334,11 @@ public final class Run {
 			core = c.createAndWrap(core, calc);
 		}
 
+		//wraps with metrics recorder
+		if (this.metrics != null) {
+			core = new DecisionProcedureDecoratorMetrics(core, this.metrics);
+		}
+
 		//wraps with timer
 		final DecisionProcedureDecoratorTimer tCore = new DecisionProcedureDecoratorTimer(core);
 		this.timer = tCore;
@@ -1000,9 +1391,18 @@ public final class Run {
 	 * Emits the prologue of the symbolic execution.
 	 */
 	private void emitPrologue() {
-        this.formatterOthers.cleanup();
-        this.formatterOthers.formatPrologue();
-        outNoBreak(this.formatterOthers.emit());
+	    final Formatter f = this.formatterOthers;
+	    if (this.pipeline == null) {
+	        f.cleanup();
+	        f.formatPrologue();
+	        outNoBreak(f.emit());
+	    } else {
+	        this.pipeline.submit(() -> {
+	            f.cleanup();
+	            f.formatPrologue();
+	            f.emit(this.outWriter);
+	        });
+	    }
 	}
 
 	/**
@@ -1015,18 +1415,45 @@ public final class Run {
 	private void emitState(State s, boolean isRootBranch) {
 		final Formatter f = 
 			(isRootBranch ? this.formatterBranches : this.formatterOthers);
-        f.cleanup();
-		f.formatState(s);
-		outNoBreak(f.emit());
+		if (this.pipeline == null) {
+	        f.cleanup();
+			f.formatState(s);
+			outNoBreak(f.emit());
+		} else {
+		    //the engine goes on modifying s, so the pipeline 
+		    //formats a snapshot of it (and of the model)
+		    final State snapshot = s.clone();
+		    final Map<PrimitiveSymbolic, Simplex> model = 
+		        (this.parameters.getStateFormatMode() == StateFormatMode.JUNIT_TEST && 
+		         StateFormatterJUnitTestSuite.needsModel(s) ? getModel() : null);
+		    if (this.initialStateEmitted == null) {
+		        this.initialStateEmitted = getInitialState();
+		    }
+		    this.pipeline.submit(() -> {
+		        this.modelEmitted = model;
+		        f.cleanup();
+		        f.formatState(snapshot);
+		        f.emit(this.outWriter);
+		    });
+		}
 	}
     
     /**
      * Emits the epilogue of the symbolic execution.
      */
 	private void emitEpilogue() {
-        this.formatterOthers.cleanup();
-        this.formatterOthers.formatEpilogue();
-        outNoBreak(this.formatterOthers.emit());
+	    final Formatter f = this.formatterOthers;
+	    if (this.pipeline == null) {
+	        f.cleanup();
+	        f.formatEpilogue();
+	        outNoBreak(f.emit());
+	    } else {
+	        this.pipeline.submit(() -> {
+	            f.cleanup();
+	            f.formatEpilogue();
+	            f.emit(this.outWriter);
+	        });
+	    }
 	}
     
 	/**
@@ -1039,6 +1466,7 @@ public final class Run {
                 - this.tracesSafe 
                 - this.tracesUnsafe
                 - this.runner.getTracesOutOfScope()
+                - this.runner.getTracesPruned()
                 - this.tracesUnmanageable;
         log(MSG_END_STATES + this.engine.getAnalyzedStates() + ", "
             + MSG_END_TRACES_TOT + this.runner.getTracesTotal() + ", "
@@ -1059,7 +1487,11 @@ public final class Run {
             + ", "
             + MSG_END_TRACES_VIOLATING_ASSUMPTION + tracesContradictory
             + ", "
-            + MSG_END_TRACES_UNMANAGEABLE + this.tracesUnmanageable + ".");
+            + MSG_END_TRACES_UNMANAGEABLE + this.tracesUnmanageable
+            + (this.parameters.getDoSubsumptionPruning() ? 
+                    ", " + MSG_END_TRACES_SUBSUMED + this.runner.getTracesPruned()
+                : "")
+            + ".");
         final long elapsedTimeDecisionProcedure = (this.timer == null ? 0 : this.timer.getTime());
         log(MSG_END_ELAPSED + Util.formatTime(elapsedTime) + ", "
             + MSG_END_SPEED + this.engine.getAnalyzedStates() * 1000 / elapsedTime + " states/sec"
@@ -1108,6 +1540,29 @@ public final class Run {
             retVal = 2;
         }
 
+        // stops dumping the metrics
+        if (this.metricsDumper != null) {
+            try {
+                this.metricsDumper.close();
+            } catch (IOException e) {
+                err(ERROR_METRICS_FILE_CLOSE);
+            }
+            this.metricsDumper = null;
+        }
+
+        // emits the pending output
+        if (this.pipeline != null) {
+            final OutputPipeline p = this.pipeline;
+            this.pipeline = null;
+            try {
+                p.close();
+            } catch (IOException | UnexpectedInternalException e) {
+                err(ERROR_OUTPUT);
+                err(e);
+                retVal = 2;
+            }
+        }
+
         // closes all the output streams with the exception of
         // stdout/err
         for (PrintStream p : this.out) {
@@ -1141,6 +1596,9 @@ public final class Run {
     /** Message: trying to connect to CVC4. */
     private static final String MSG_TRY_CVC4 = "Connecting to CVC4 at ";
 
+    /** Message: trying to connect to the solver portfolio. */
+    private static final String MSG_TRY_PORTFOLIO = "Connecting to a portfolio of Z3 and CVC4 at ";
+
 	/** Message: trying to initialize guidance. */
 	private static final String MSG_TRY_GUIDANCE = "Initializing guidance by driver method ";
 
@@ -1156,12 +1614,21 @@ public final class Run {
 	/** Message: the trace violated an assumption. */
 	private static final String MSG_CONTRADICTORY_TRACE = " trace violates an assumption.";
 
+	/** Message: the trace is subsumed by an explored state. */
+	private static final String MSG_SUBSUMED_TRACE = " trace is subsumed by an already explored state.";
+
 	/** Message: the trace violated an assumption. */
 	private static final String MSG_CONCRETIZABLE_TRACE = " trace has a concretizable final state.";
 
 	/** Message: the trace violated an assumption. */
 	private static final String MSG_NOT_CONCRETIZABLE_TRACE = " trace has not a concretizable final state.";
 
+	/** Message: resuming from a checkpoint. */
+	private static final String MSG_RESUME = "Resuming from checkpoint ";
+
+	/** Message: the resumed execution is complete. */
+	private static final String MSG_RESUME_COMPLETE = "The checkpointed symbolic execution is already complete.";
+
 	/** Message: end of symbolic execution. */
 	private static final String MSG_END = "Symbolic execution finished at ";
 
@@ -1198,6 +1665,9 @@ public final class Run {
 	/** Message: total traces. */
 	private static final String MSG_END_TRACES_OUT_OF_SCOPE = "Out of scope: ";
 
+	/** Message: total traces pruned by subsumption. */
+	private static final String MSG_END_TRACES_SUBSUMED = "Subsumed: ";
+
 	/** Message: will consider all the clauses satisfiable. */
 	private static final String MSG_DECISION_BASIC = "Will use a noninteractive, always-sat decision procedure when necessary.";
 
@@ -1211,6 +1681,9 @@ public final class Run {
 	private static final String WARNING_PARTIAL_REFERENCE_RESOLUTION = " not expanded. It may be a " +
 			"hint of too strong user-defined constraints, possibly correct when enforcing redundancy by representation invariant.";
 
+	/** Warning: no theory of arrays when generating tests. */
+	private static final String WARNING_ARRAY_THEORY_JUNIT = "The theory of arrays will not be used, since the JUnit tests need a model of the initial array contents.";
+
 	/** Warning: timeout. */
 	private static final String WARNING_TIMEOUT = "Timeout.";
 
@@ -1238,6 +1711,27 @@ public final class Run {
 	/** Error: unable to open dump file. */
 	private static final String ERROR_DUMP_FILE_OPEN = "Could not open the dump file. The session will be displayed on console only.";
 
+	/** Error: unable to open metrics file. */
+	private static final String ERROR_METRICS_FILE_OPEN = "Could not open the metrics file. No metrics will be collected.";
+
+	/** Error: unable to close metrics file. */
+	private static final String ERROR_METRICS_FILE_CLOSE = "Could not close the metrics file. The last metrics may be lost.";
+
+	/** Error: unable to emit the asynchronous output. */
+	private static final String ERROR_OUTPUT = "Could not emit the output. Some output may be lost.";
+
+	/** Error: checkpoints need replicable identifiers. */
+	private static final String ERROR_CHECKPOINT_MODE = "Checkpoints require the REPLICABLE state identification mode.";
+
+	/** Error: checkpoints do not record the states waiting to be merged. */
+	private static final String ERROR_CHECKPOINT_MERGING = "Checkpoints cannot be used together with state merging.";
+
+	/** Error: cannot read the checkpoint file. */
+	private static final String ERROR_CHECKPOINT_READ = "Could not read the checkpoint file, cause: ";
+
+	/** Error: cannot write the checkpoint file. */
+	private static final String ERROR_CHECKPOINT_WRITE = "Could not write the checkpoint file. The last checkpoint may be stale.";
+
 	/** Error: unable to connect with decision procedure. */
 	private static final String ERROR_DECISION_PROCEDURE_FAILED = "Connection failed, cause: ";
 
@@ -87,7 +87,14 @@ public final class RunParameters implements Cloneable {
 		Z3,
 		
 		/** Uses CVC4. */
-		CVC4
+		CVC4,
+		
+		/** 
+		 * Races Z3 and CVC4 on every query; both are found 
+		 * in the directory set with {@link #setExternalDecisionProcedurePath(String)},
+		 * or on the system path if it is not set. 
+		 */
+		PORTFOLIO
 	}
 
 	/**
@@ -188,7 +195,14 @@ public final class RunParameters implements Cloneable {
 		 * state of a trace that violates an 
 		 * assumption.
 		 */
-		CONTRADICTORY
+		CONTRADICTORY,
+		
+		/**
+		 * A subsumed leaf, i.e., the final state 
+		 * of a trace that is pruned because it is 
+		 * subsumed by an already explored state.
+		 */
+		SUBSUMED
 	}
 
 	/**
@@ -264,7 +278,13 @@ public final class RunParameters implements Cloneable {
 		 * covers all the symbolic states according to the
 		 * step show mode.  
 		 */
-		JUNIT_TEST
+		JUNIT_TEST,
+		
+		/** 
+		 * Dumps the states as compact JSON objects, 
+		 * one per line. 
+		 */
+		JSON
 	}
 
 	/** The runner parameters. */
@@ -291,6 +311,12 @@ public final class RunParameters implements Cloneable {
 	/** Whether the engine should do sign analysis before invoking the decision procedure. */
 	private boolean doEqualityAnalysis = false;
 	
+	/** Whether the queries to the external decision procedure should be sliced. */
+	private boolean doSlicing = false;
+	
+	/** The number of models of the external decision procedure that are cached, {@code 0} for none. */
+	private int modelCacheSize = 0;
+	
 	/** 
 	 * Whether the engine should use the LICS decision procedure.
 	 * Set to true by default because the LICS decision procedure
@@ -334,6 +360,15 @@ public final class RunParameters implements Cloneable {
 	/** The name of the output file. */
 	private String outFileName = null;
 
+	/** The capacity of the output queue, {@code 0} iff the output is synchronous. */
+	private int outputQueueSize = 0;
+
+	/** The name of the metrics file, {@code null} iff no metrics must be collected. */
+	private String metricsFileName = null;
+
+	/** The period (in milliseconds) of the metrics dumps. */
+	private long metricsPeriod = 1000L;
+
 	/** The text mode. */
 	private TextMode textMode = TextMode.PLATFORM;
 
@@ -348,6 +383,30 @@ public final class RunParameters implements Cloneable {
 
 	/** The format mode. */
 	private StateFormatMode stateFormatMode = StateFormatMode.FULLTEXT;
+
+	/** 
+	 * The directory where the JUnit test suite classes are written, 
+	 * {@code null} iff the suite is emitted on the output. 
+	 */
+	private Path testSuiteDirectory = null;
+
+	/** The maximum number of test cases in each JUnit test suite class. */
+	private int testsPerClass = 0;
+
+	/** The maximum distance from the roots of the objects displayed as DOT graphs, {@code 0} for unlimited. */
+	private int graphvizMaxDepth = 0;
+
+	/** The maximum number of objects displayed as DOT graphs, {@code 0} for unlimited. */
+	private int graphvizMaxObjects = 0;
+
+	/** The checkpoint file, {@code null} iff no checkpoint must be written. */
+	private Path checkpointFile = null;
+
+	/** The period (in milliseconds) of the checkpoints. */
+	private long checkpointPeriod = 0L;
+
+	/** The checkpoint file to resume from, {@code null} iff the exploration starts from the root. */
+	private Path resumeFile = null;
 	
 	/** 
 	 * Maximum stack depth to which we show code;
@@ -448,6 +507,114 @@ public final class RunParameters implements Cloneable {
 		this.runnerParameters.setBreadthMode(breadthMode);
 	}
 
+	/**
+	 * Sets whether the arrays with primitive members must be 
+	 * represented in the SMT theory of arrays. In this case
+	 * accessing an array with a symbolic index yields a single
+	 * symbolic value, rather than one branch for each entry 
+	 * of the array. Requires an SMT solver as decision procedure. 
+	 * The models of the array terms are not available, so the 
+	 * theory of arrays is not used when the {@link StateFormatMode}
+	 * is {@link StateFormatMode#JUNIT_TEST JUNIT_TEST}.
+	 * 
+	 * @param useArrayTheory a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setUseArrayTheory(boolean useArrayTheory) {
+		this.runnerParameters.setUseArrayTheory(useArrayTheory);
+	}
+
+	/**
+	 * Gets whether arrays must be represented in the
+	 * SMT theory of arrays.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setUseArrayTheory(boolean)}.
+	 */
+	public boolean getUseArrayTheory() {
+		return this.runnerParameters.getUseArrayTheory();
+	}
+
+	/**
+	 * Sets whether the sibling states produced by a branching
+	 * bytecode must be merged when they reach the join point 
+	 * of the branch, yielding a single state with if-then-else 
+	 * values. This reduces the number of explored paths in code 
+	 * with sequences of independent branches, at the price of 
+	 * harder queries to the decision procedure, and makes the 
+	 * traces less precise. Requires an SMT solver as decision 
+	 * procedure.
+	 * 
+	 * @param doStateMerging a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setDoStateMerging(boolean doStateMerging) {
+		this.runnerParameters.setDoStateMerging(doStateMerging);
+	}
+
+	/**
+	 * Gets whether the states must be merged at the 
+	 * join points of branches.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setDoStateMerging(boolean)}.
+	 */
+	public boolean getDoStateMerging() {
+		return this.runnerParameters.getDoStateMerging();
+	}
+
+	/**
+	 * Sets whether the states that are subsumed by an already
+	 * explored state must be pruned. This avoids re-exploring 
+	 * the iterations of loops whose symbolic state has stabilized 
+	 * until some scope bound cuts them. Subsumption is checked at 
+	 * loop heads, and requires the decision procedure to decide 
+	 * the implication between path conditions.
+	 * 
+	 * @param doSubsumptionPruning a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setDoSubsumptionPruning(boolean doSubsumptionPruning) {
+		this.runnerParameters.setDoSubsumptionPruning(doSubsumptionPruning);
+	}
+
+	/**
+	 * Gets whether the states subsumed by already 
+	 * explored states must be pruned.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setDoSubsumptionPruning(boolean)}.
+	 */
+	public boolean getDoSubsumptionPruning() {
+		return this.runnerParameters.getDoSubsumptionPruning();
+	}
+
+	/**
+	 * Sets the state whose subtree must be replayed, e.g., for 
+	 * reproducing a trace without exploring the rest of the tree.
+	 * Only the branches on the path from the root to the target 
+	 * state, and the subtree of the target state, are explored.
+	 * Requires the {@link StateIdentificationMode#REPLICABLE} state
+	 * identification mode.
+	 * 
+	 * @param replayTarget a {@link String}, the identifier of the 
+	 *        target state, as displayed by a previous run, or 
+	 *        {@code null} (default) for exploring the whole tree.
+	 */
+	public void setReplayTarget(String replayTarget) {
+		this.runnerParameters.setReplayTarget(replayTarget);
+	}
+
+	/**
+	 * Gets the state whose subtree must be replayed.
+	 * 
+	 * @return the {@link String} set by the last call
+	 *         to {@link #setReplayTarget(String)}.
+	 */
+	public String getReplayTarget() {
+		return this.runnerParameters.getReplayTarget();
+	}
+
 	/**
 	 * Sets the symbolic execution's classpath; the 
 	 * default classpath is {@code "."}.
@@ -546,6 +713,39 @@ public final class RunParameters implements Cloneable {
 		this.runnerParameters.addUninterpreted(className, parametersSignature, methodName, functionName);
 	}
 
+	/**
+	 * Specifies that the invocations of a static method must be managed 
+	 * by instantiating its summary, rather than by executing its bytecode.
+	 * The method must have primitive parameters and return value, and
+	 * must not have side effects on the objects existing upon its invocation. 
+	 * 
+	 * @param className the name of the class containing the method.
+	 * @param parametersSignature the types of the method parameters and of
+	 *        the return value.
+	 * @param methodName the name of the method.
+	 * @throws NullPointerException if any of the above parameters is {@code null}.
+	 */
+	public void addSummarized(String className, String parametersSignature, String methodName) {
+		this.runnerParameters.addSummarized(className, parametersSignature, methodName);
+	}
+
+	/**
+	 * Sets the directory where the method summaries are cached
+	 * across runs.
+	 * 
+	 * @param summariesCacheDirectory a {@link String} containing a valid 
+	 *        pathname for the directory.
+	 * @throws NullPointerException if {@code summariesCacheDirectory == null}.
+	 * @throws InvalidPathException if {@code summariesCacheDirectory} is not
+	 *         a valid path file name.
+	 */
+	public void setSummariesCacheDirectory(String summariesCacheDirectory) {
+		if (summariesCacheDirectory == null) {
+			throw new NullPointerException();
+		}
+		this.runnerParameters.setSummariesCacheDirectory(Paths.get(summariesCacheDirectory));
+	}
+
 	/**
 	 * Sets a timeout for execution.
 	 * 
@@ -734,6 +934,8 @@ public final class RunParameters implements Cloneable {
 	 * Sets the pathname of the executable
 	 * of the decision procedure (should match 
 	 * {@link #setDecisionProcedureType(DecisionProcedureType)}).
+	 * For {@link DecisionProcedureType#PORTFOLIO} it is the 
+	 * pathname of the directory containing the executables.
 	 * 
 	 * @param externalDecisionProcedurePath a {@link String} containing a valid 
 	 *        pathname for the decision procedure executable.
@@ -831,6 +1033,57 @@ public final class RunParameters implements Cloneable {
     public boolean getDoEqualityAnalysis() {
         return this.doEqualityAnalysis;
     }
+
+	/**
+	 * Sets whether the queries to the external decision procedure
+	 * should be sliced, i.e., each query should be sent with the 
+	 * only path condition clauses that share symbols with it 
+	 * (directly or transitively), rather than with the whole path 
+	 * condition. 
+	 * 
+	 * @param doSlicing {@code true} iff the queries must be sliced.
+	 */
+	public void setDoSlicing(boolean doSlicing) {
+		this.doSlicing = doSlicing;
+	}
+
+	/**
+	 * Gets whether the queries to the external decision 
+	 * procedure should be sliced.
+	 * 
+	 * @return {@code true} iff the queries must be sliced.
+	 */
+    public boolean getDoSlicing() {
+        return this.doSlicing;
+    }
+    
+	/**
+	 * Sets the number of the most recent models produced by the 
+	 * external decision procedure that are cached, and used to 
+	 * answer the subsequent satisfiable queries without invoking it. 
+	 * 
+	 * When the {@link StateFormatMode} is {@link StateFormatMode#JUNIT_TEST JUNIT_TEST}
+	 * at least one model is cached, so that the models of the leaves 
+	 * are usually obtained together with their last satisfiability 
+	 * check.
+	 * 
+	 * @param modelCacheSize an {@code int}, the number of cached 
+	 *        models; {@code 0} (default) means that models
+	 *        are not cached.
+	 */
+	public void setModelCacheSize(int modelCacheSize) {
+		this.modelCacheSize = modelCacheSize;
+	}
+
+	/**
+	 * Gets the number of the most recent models produced by the 
+	 * external decision procedure that are cached.
+	 * 
+	 * @return an {@code int}, {@code 0} if models are not cached.
+	 */
+    public int getModelCacheSize() {
+        return this.modelCacheSize;
+    }
     
 	/**
 	 * Sets whether the engine shall invoke or not the conservative
@@ -1436,6 +1689,110 @@ public final class RunParameters implements Cloneable {
 	public String getOutputFileName() {
 	    return this.outFileName;
 	}
+	
+	/**
+	 * Sets the output to be asynchronous. The states 
+	 * and the messages are queued and emitted in order 
+	 * by a separate thread, while symbolic execution 
+	 * proceeds. When the queue is full, symbolic execution
+	 * waits. The output is synchronous anyway when the 
+	 * interaction mode is {@link InteractionMode#STEP_BY_STEP}
+	 * or the interaction with the decision procedure is
+	 * shown.
+	 * 
+	 * @param outputQueueSize an {@code int}, the maximum 
+	 *        number of queued outputs.
+	 * @throws IllegalArgumentException if {@code outputQueueSize <= 0}.
+	 */
+	public void setOutputAsynchronous(int outputQueueSize) {
+		if (outputQueueSize <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.outputQueueSize = outputQueueSize;
+	}
+	
+	/**
+	 * Sets the output to be synchronous, i.e., emitted 
+	 * while symbolic execution waits. This is the default 
+	 * behaviour.
+	 */
+	public void setOutputSynchronous() {
+		this.outputQueueSize = 0;
+	}
+	
+	/**
+	 * Returns the capacity of the output queue.
+	 * 
+	 * @return an {@code int}, the maximum number of 
+	 *         queued outputs, or {@code 0} if the output
+	 *         is synchronous.
+	 */
+	public int getOutputQueueSize() {
+		return this.outputQueueSize;
+	}
+	
+	/**
+	 * Sets the name of the metrics file, and instructs
+	 * to collect run metrics. The metrics will be 
+	 * periodically dumped to the file in JSON-lines 
+	 * format (one JSON object per line).
+	 * 
+	 * @param s A {@link String} representing the pathname of a 
+	 *          file where the metrics will be dumped.
+	 * @throws NullPointerException if {@code s == null}.
+	 */
+	public void setMetricsFileName(String s) {
+		if (s == null) {
+			throw new NullPointerException();
+		}
+		this.metricsFileName = s;
+	}
+	
+	/**
+	 * Instructs not to collect run metrics, cancelling
+	 * any previous invocation of the {@link #setMetricsFileName}
+	 * method. This is the default behaviour. 
+	 */
+	public void setMetricsFileNone() {
+		this.metricsFileName = null;
+	}
+	
+	/**
+	 * Returns the name of the metrics file.
+	 * 
+	 * @return a {@link String} representing the pathname of a 
+	 *         file where the metrics will be dumped, or 
+	 *         {@code null} if none was previously specified.
+	 */
+	public String getMetricsFileName() {
+		return this.metricsFileName;
+	}
+	
+	/**
+	 * Sets the period of the metrics dumps.
+	 * 
+	 * @param metricsPeriod a {@code long}, the time in 
+	 *        milliseconds between two subsequent dumps
+	 *        of the metrics. By default it is {@code 1000}.
+	 * @throws IllegalArgumentException if {@code metricsPeriod <= 0}.
+	 */
+	public void setMetricsPeriod(long metricsPeriod) {
+		if (metricsPeriod <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.metricsPeriod = metricsPeriod;
+	}
+	
+	/**
+	 * Returns the period of the metrics dumps.
+	 * 
+	 * @return a {@code long}, the time in 
+	 *         milliseconds between two subsequent dumps
+	 *         of the metrics.
+	 */
+	public long getMetricsPeriod() {
+		return this.metricsPeriod;
+	}
 
 	/**
 	 * Sets the line separation text mode.
@@ -1684,6 +2041,201 @@ public final class RunParameters implements Cloneable {
 	    return this.stateFormatMode;
 	}
 	
+	/**
+	 * Limits the heap displayed as a DOT graph (see {@link StateFormatMode#GRAPHVIZ})
+	 * to the objects that are reachable from the thread stack and the static
+	 * method area. If both the parameters are {@code 0}, the whole heap is
+	 * displayed, which is the default behaviour.
+	 * 
+	 * @param maxDepth an {@code int}, the maximum number of steps from 
+	 *        the thread stack and the static method area of the displayed 
+	 *        objects, or {@code 0} for no limit.
+	 * @param maxObjects an {@code int}, the maximum number of displayed 
+	 *        objects, or {@code 0} for no limit.
+	 * @throws IllegalArgumentException if {@code maxDepth < 0} or 
+	 *         {@code maxObjects < 0}.
+	 */
+	public void setGraphvizLimits(int maxDepth, int maxObjects) {
+		if (maxDepth < 0 || maxObjects < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.graphvizMaxDepth = maxDepth;
+		this.graphvizMaxObjects = maxObjects;
+	}
+	
+	/**
+	 * Gets the maximum number of steps from the roots
+	 * of the objects displayed as DOT graphs.
+	 * 
+	 * @return an {@code int}, or {@code 0} for no limit.
+	 */
+	public int getGraphvizMaxDepth() {
+		return this.graphvizMaxDepth;
+	}
+	
+	/**
+	 * Gets the maximum number of objects displayed 
+	 * as DOT graphs.
+	 * 
+	 * @return an {@code int}, or {@code 0} for no limit.
+	 */
+	public int getGraphvizMaxObjects() {
+		return this.graphvizMaxObjects;
+	}
+	
+	/**
+	 * Sets the JUnit test suite (see {@link StateFormatMode#JUNIT_TEST})
+	 * to be written to a directory rather than emitted on the output. 
+	 * The suite is written as a sequence of classes {@code TestSuite0}, 
+	 * {@code TestSuite1}..., each test case being written as soon as 
+	 * it is generated.
+	 * 
+	 * @param testSuiteDirectory a {@link String}, the path of 
+	 *        the directory.
+	 * @param testsPerClass an {@code int}, the maximum number of 
+	 *        test cases in each class.
+	 * @throws NullPointerException if {@code testSuiteDirectory == null}.
+	 * @throws InvalidPathException if {@code testSuiteDirectory} is not
+	 *         a valid path.
+	 * @throws IllegalArgumentException if {@code testsPerClass <= 0}.
+	 */
+	public void setTestSuiteDirectory(String testSuiteDirectory, int testsPerClass) {
+		if (testSuiteDirectory == null) {
+			throw new NullPointerException();
+		}
+		if (testsPerClass <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.testSuiteDirectory = Paths.get(testSuiteDirectory);
+		this.testsPerClass = testsPerClass;
+	}
+	
+	/**
+	 * Sets the JUnit test suite to be emitted on the output
+	 * as a single class. This is the default behaviour.
+	 */
+	public void setTestSuiteDirectoryNone() {
+		this.testSuiteDirectory = null;
+		this.testsPerClass = 0;
+	}
+	
+	/**
+	 * Gets the directory where the JUnit test suite is written.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the suite 
+	 *         is emitted on the output.
+	 */
+	public Path getTestSuiteDirectory() {
+		return this.testSuiteDirectory;
+	}
+	
+	/**
+	 * Gets the maximum number of test cases in each
+	 * JUnit test suite class.
+	 * 
+	 * @return an {@code int}, meaningful only if 
+	 *         {@link #getTestSuiteDirectory()}{@code != null}.
+	 */
+	public int getTestsPerClass() {
+		return this.testsPerClass;
+	}
+	
+	/**
+	 * Sets the symbolic execution to periodically write a checkpoint,
+	 * i.e., the identifiers of the states that are not yet explored, 
+	 * and the counters of the explored traces. A checkpoint is also
+	 * written when the symbolic execution ends, also because of a 
+	 * failure. The exploration can be resumed from the last checkpoint
+	 * (see {@link #setResumeFrom(String)}). Requires the 
+	 * {@link StateIdentificationMode#REPLICABLE} state identification 
+	 * mode, and no state merging (see {@link #setDoStateMerging(boolean)}), 
+	 * since the states waiting to be merged are not in the checkpoint.
+	 * 
+	 * @param checkpointFile a {@link String}, the path of the file
+	 *        where the checkpoints are written. Each checkpoint 
+	 *        replaces the previous one.
+	 * @param checkpointPeriod a {@code long}, the minimum time 
+	 *        between two checkpoints.
+	 * @param unit the {@link TimeUnit} of {@code checkpointPeriod}.
+	 * @throws NullPointerException if {@code checkpointFile == null} or
+	 *         {@code unit == null}.
+	 * @throws InvalidPathException if {@code checkpointFile} is not
+	 *         a valid path.
+	 * @throws IllegalArgumentException if {@code checkpointPeriod <= 0}.
+	 */
+	public void setCheckpoint(String checkpointFile, long checkpointPeriod, TimeUnit unit) {
+		if (checkpointFile == null || unit == null) {
+			throw new NullPointerException();
+		}
+		if (checkpointPeriod <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.checkpointFile = Paths.get(checkpointFile);
+		this.checkpointPeriod = unit.toMillis(checkpointPeriod);
+	}
+	
+	/**
+	 * Sets the symbolic execution not to write checkpoints. 
+	 * This is the default behaviour.
+	 */
+	public void setCheckpointNone() {
+		this.checkpointFile = null;
+		this.checkpointPeriod = 0L;
+	}
+	
+	/**
+	 * Gets the file where the checkpoints are written.
+	 * 
+	 * @return a {@link Path}, or {@code null} if no 
+	 *         checkpoint must be written.
+	 */
+	public Path getCheckpointFile() {
+		return this.checkpointFile;
+	}
+	
+	/**
+	 * Gets the period of the checkpoints.
+	 * 
+	 * @return a {@code long}, the minimum time in milliseconds
+	 *         between two checkpoints.
+	 */
+	public long getCheckpointPeriod() {
+		return this.checkpointPeriod;
+	}
+	
+	/**
+	 * Sets the symbolic execution to resume from a checkpoint 
+	 * (see {@link #setCheckpoint(String, long, TimeUnit)}) written
+	 * by a previous run with the same parameters. Only the 
+	 * subtrees of the states that were not yet explored are 
+	 * explored, after replaying the paths leading to them, 
+	 * and the counters of the explored traces restart from 
+	 * the checkpointed values. Requires the 
+	 * {@link StateIdentificationMode#REPLICABLE} state identification 
+	 * mode and no state merging, and overrides any replay target (see 
+	 * {@link #setReplayTarget(String)}).
+	 * 
+	 * @param resumeFile a {@link String}, the path of the 
+	 *        checkpoint file, or {@code null} (default) for 
+	 *        starting the exploration from the root. 
+	 * @throws InvalidPathException if {@code resumeFile} is not
+	 *         a valid path.
+	 */
+	public void setResumeFrom(String resumeFile) {
+		this.resumeFile = (resumeFile == null ? null : Paths.get(resumeFile));
+	}
+	
+	/**
+	 * Gets the checkpoint file the symbolic execution 
+	 * resumes from.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the
+	 *         exploration starts from the root.
+	 */
+	public Path getResumeFrom() {
+		return this.resumeFile;
+	}
+	
 	/**
 	 * Sets the path of the source files.
 	 * 
@@ -584,7 +584,7 @@ public abstract class ClassFile {
         //if no LocalVariableTable attribute is found, tries to create the local 
         //variable table from information on the method's signature
     	boolean isStatic = isMethodStatic(methodSignature);
-    	final String[] parDescList = Type.splitParametersDescriptors(methodSignature.getDescriptor());
+    	final MethodDescriptor methodDescriptor = methodSignature.getMethodDescriptor();
     	final LocalVariableTable lvt = new LocalVariableTable(getLocalVariableLength(methodSignature));
     	int i = 0;
     	short slot = 0;
@@ -593,13 +593,10 @@ public abstract class ClassFile {
         			     "this", 0, this.getCodeLength(methodSignature));
     		++i; ++slot;
     	}
-    	for (String descriptor : parDescList) {
-    		lvt.setEntry(slot, descriptor, 
+    	for (int j = 0; j < methodDescriptor.getParametersNumber(); ++j) {
+    		lvt.setEntry(slot + methodDescriptor.getParameterSlot(j), methodDescriptor.getParameterDescriptor(j), 
     				     "__PARAM[" + i + "]", 0, this.getCodeLength(methodSignature));
-    		++i; ++slot;
-    		if (!Type.isCat_1(descriptor.charAt(0))) {
-    			++slot;
-    		}
+    		++i;
     	}
     	return lvt;
     }
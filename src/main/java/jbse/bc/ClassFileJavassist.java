@@ -1,6 +1,7 @@
 package jbse.bc;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +35,7 @@ public class ClassFileJavassist extends ClassFile {
 	private ConstPool cp;
 	private ArrayList<Signature> fieldsStatic;
 	private ArrayList<Signature> fieldsObject;
+	private final HashMap<Signature, LineNumberTable> lineNumberTables = new HashMap<>();
 	
 	ClassFileJavassist(String className, ClassPool cpool) throws BadClassFileException {
 		try {
@@ -433,15 +435,23 @@ public class ClassFileJavassist extends ClassFile {
 	@Override
 	public LineNumberTable getLineNumberTable(Signature methodSignature) 
 	throws MethodNotFoundException, MethodCodeNotFoundException {
+		final LineNumberTable cached = this.lineNumberTables.get(methodSignature);
+		if (cached != null) {
+			return cached;
+		}
 		CodeAttribute ca = this.getMethodCodeAttribute(methodSignature);
 		LineNumberAttribute lnJA = (LineNumberAttribute) ca.getAttribute("LineNumberTable");
 		
-		if (lnJA == null)
-			return this.defaultLineNumberTable();
-		LineNumberTable LN = new LineNumberTable(lnJA.tableLength());
-		for (int i = 0; i < lnJA.tableLength(); ++i) {
-			LN.addRow(lnJA.startPc(i), lnJA.lineNumber(i));
-        }
+		final LineNumberTable LN;
+		if (lnJA == null) {
+			LN = this.defaultLineNumberTable();
+		} else {
+			LN = new LineNumberTable(lnJA.tableLength());
+			for (int i = 0; i < lnJA.tableLength(); ++i) {
+				LN.addRow(lnJA.startPc(i), lnJA.lineNumber(i));
+			}
+		}
+		this.lineNumberTables.put(methodSignature, LN);
         return LN;
 	}
 
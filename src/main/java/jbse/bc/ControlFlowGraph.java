@@ -0,0 +1,281 @@
+package jbse.bc;
+
+import static jbse.bc.Opcodes.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The control flow graph of the bytecode of a method, with
+ * one node for each instruction plus a virtual exit node
+ * reached by the return and athrow instructions. Exception
+ * edges are not considered. It is used to calculate the
+ * immediate post-dominators of the instructions, i.e., the
+ * join points of the branches starting from them.
+ *
+ * @author Pietro Braione
+ */
+public final class ControlFlowGraph {
+	/** The value returned when an instruction has no post-dominator. */
+	public static final int NO_POST_DOMINATOR = -1;
+
+	/** The program counters of the instructions, in increasing order. */
+	private final int[] pcs;
+
+	/** Maps program counters to node indices. */
+	private final HashMap<Integer, Integer> nodes = new HashMap<>();
+
+	/**
+	 * The immediate post-dominator of each node, {@code -1}
+	 * if it is undefined.
+	 */
+	private final int[] ipdom;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param code a {@code byte[]}, the bytecode of a method.
+	 */
+	public ControlFlowGraph(byte[] code) {
+		//finds the instructions
+		final ArrayList<Integer> pcsList = new ArrayList<>();
+		boolean supported = true;
+		try {
+			for (int pc = 0; pc < code.length; pc += length(code, pc)) {
+				pcsList.add(pc);
+				final byte opcode = code[pc];
+				if (opcode == OP_JSR || opcode == OP_JSR_W || opcode == OP_RET) {
+					supported = false; //subroutines are not supported
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			supported = false; //malformed bytecode
+		}
+		this.pcs = new int[pcsList.size()];
+		for (int i = 0; i < this.pcs.length; ++i) {
+			this.pcs[i] = pcsList.get(i);
+			this.nodes.put(this.pcs[i], i);
+		}
+		this.ipdom = new int[this.pcs.length + 1];
+		Arrays.fill(this.ipdom, -1);
+		if (supported) {
+			try {
+				calculatePostDominators(code);
+			} catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+				//malformed bytecode (e.g., a jump in the
+				//middle of an instruction)
+				Arrays.fill(this.ipdom, -1);
+			}
+		}
+	}
+
+	/**
+	 * Returns the immediate post-dominator of an instruction.
+	 *
+	 * @param pc an {@code int}, the program counter of an instruction.
+	 * @return the program counter of the immediate post-dominator
+	 *         of the instruction at {@code pc}, or {@link #NO_POST_DOMINATOR}
+	 *         if {@code pc} is not the program counter of an instruction,
+	 *         or the instruction is post-dominated only by the
+	 *         method exit, or it does not reach it.
+	 */
+	public int immediatePostDominator(int pc) {
+		final Integer node = this.nodes.get(pc);
+		if (node == null) {
+			return NO_POST_DOMINATOR;
+		}
+		final int pdom = this.ipdom[node];
+		return (pdom < 0 || pdom == this.pcs.length ? NO_POST_DOMINATOR : this.pcs[pdom]);
+	}
+
+	/**
+	 * Calculates the post-dominators as the dominators of the
+	 * reverse graph with the algorithm by Cooper, Harvey and Kennedy.
+	 */
+	private void calculatePostDominators(byte[] code) {
+		final int exit = this.pcs.length;
+
+		//builds the predecessors lists (successors in the reverse graph)
+		//and the successors lists (predecessors in the reverse graph)
+		final int[][] succ = new int[exit + 1][];
+		final ArrayList<ArrayList<Integer>> pred = new ArrayList<>();
+		for (int i = 0; i <= exit; ++i) {
+			pred.add(new ArrayList<>());
+		}
+		succ[exit] = new int[0];
+		for (int i = 0; i < exit; ++i) {
+			succ[i] = successors(code, this.pcs[i], (i + 1 < exit ? i + 1 : -1));
+			for (int j : succ[i]) {
+				pred.get(j).add(i);
+			}
+		}
+
+		//postorder of the reverse graph from exit
+		final int[] postorder = new int[exit + 1];
+		Arrays.fill(postorder, -1);
+		final int[] order = new int[exit + 1];
+		int numVisited = 0;
+		final boolean[] visited = new boolean[exit + 1];
+		final int[] stack = new int[exit + 1];
+		final int[] next = new int[exit + 1];
+		int top = 0;
+		stack[top] = exit;
+		visited[exit] = true;
+		while (top >= 0) {
+			final int n = stack[top];
+			final ArrayList<Integer> nPred = pred.get(n);
+			if (next[n] < nPred.size()) {
+				final int m = nPred.get(next[n]++);
+				if (!visited[m]) {
+					visited[m] = true;
+					stack[++top] = m;
+				}
+			} else {
+				postorder[n] = numVisited;
+				order[numVisited] = n;
+				++numVisited;
+				--top;
+			}
+		}
+
+		//iterative dominators calculation
+		this.ipdom[exit] = exit;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int k = numVisited - 2; k >= 0; --k) { //reverse postorder, exit excluded
+				final int b = order[k];
+				int newIpdom = -1;
+				for (int p : succ[b]) {
+					if (this.ipdom[p] < 0) {
+						continue; //not yet processed
+					}
+					newIpdom = (newIpdom < 0 ? p : intersect(p, newIpdom, postorder));
+				}
+				if (newIpdom != this.ipdom[b]) {
+					this.ipdom[b] = newIpdom;
+					changed = true;
+				}
+			}
+		}
+	}
+
+	private int intersect(int b1, int b2, int[] postorder) {
+		int finger1 = b1, finger2 = b2;
+		while (finger1 != finger2) {
+			while (postorder[finger1] < postorder[finger2]) {
+				finger1 = this.ipdom[finger1];
+			}
+			while (postorder[finger2] < postorder[finger1]) {
+				finger2 = this.ipdom[finger2];
+			}
+		}
+		return finger1;
+	}
+
+	/**
+	 * Returns the successor nodes of an instruction.
+	 *
+	 * @param code the bytecode.
+	 * @param pc the program counter of the instruction.
+	 * @param fallthrough the node of the next instruction, or
+	 *        {@code -1} if the instruction is the last one.
+	 * @return an {@code int[]}, the successor nodes.
+	 */
+	private int[] successors(byte[] code, int pc, int fallthrough) {
+		final int exit = this.pcs.length;
+		final byte opcode = code[pc];
+		final int op = opcode & 0xFF;
+		if (opcode == OP_GOTO) {
+			return new int[] { node(pc + s2(code, pc + 1)) };
+		} else if (opcode == OP_GOTO_W) {
+			return new int[] { node(pc + s4(code, pc + 1)) };
+		} else if ((op >= (OP_IFEQ & 0xFF) && op <= (OP_IF_ACMPNE & 0xFF)) ||
+				   opcode == OP_IFNULL || opcode == OP_IFNONNULL) {
+			return new int[] { node(pc + 3), node(pc + s2(code, pc + 1)) };
+		} else if (opcode == OP_TABLESWITCH || opcode == OP_LOOKUPSWITCH) {
+			final int base = pc + 1 + padding(pc);
+			final ArrayList<Integer> targets = new ArrayList<>();
+			targets.add(node(pc + s4(code, base)));
+			if (opcode == OP_TABLESWITCH) {
+				final int low = s4(code, base + 4);
+				final int high = s4(code, base + 8);
+				for (int i = 0; i <= high - low; ++i) {
+					targets.add(node(pc + s4(code, base + 12 + 4 * i)));
+				}
+			} else {
+				final int npairs = s4(code, base + 4);
+				for (int i = 0; i < npairs; ++i) {
+					targets.add(node(pc + s4(code, base + 12 + 8 * i)));
+				}
+			}
+			final int[] retVal = new int[targets.size()];
+			for (int i = 0; i < retVal.length; ++i) {
+				retVal[i] = targets.get(i);
+			}
+			return retVal;
+		} else if ((op >= (OP_IRETURN & 0xFF) && op <= (OP_RETURN & 0xFF)) || opcode == OP_ATHROW) {
+			return new int[] { exit };
+		} else if (fallthrough < 0) {
+			return new int[0];
+		} else {
+			return new int[] { fallthrough };
+		}
+	}
+
+	private int node(int pc) {
+		return this.nodes.get(pc); //NullPointerException if pc is not an instruction
+	}
+
+	/**
+	 * Returns the length of an instruction.
+	 *
+	 * @param code the bytecode.
+	 * @param pc the program counter of the instruction.
+	 * @return an {@code int}, the number of bytes
+	 *         of the instruction at {@code pc}.
+	 */
+	private static int length(byte[] code, int pc) {
+		final int op = code[pc] & 0xFF;
+		if (op == (OP_TABLESWITCH & 0xFF)) {
+			final int base = pc + 1 + padding(pc);
+			final int low = s4(code, base + 4);
+			final int high = s4(code, base + 8);
+			return 1 + padding(pc) + 12 + 4 * (high - low + 1);
+		} else if (op == (OP_LOOKUPSWITCH & 0xFF)) {
+			final int base = pc + 1 + padding(pc);
+			final int npairs = s4(code, base + 4);
+			return 1 + padding(pc) + 8 + 8 * npairs;
+		} else if (op == (OP_WIDE & 0xFF)) {
+			return (code[pc + 1] == OP_IINC ? 6 : 4);
+		} else if (op == 0x10 || op == 0x12 || (op >= 0x15 && op <= 0x19) ||
+				   (op >= 0x36 && op <= 0x3a) || op == 0xa9 || op == 0xbc) {
+			return 2;
+		} else if (op == 0x11 || op == 0x13 || op == 0x14 || op == 0x84 ||
+				   (op >= 0x99 && op <= 0xa8) || (op >= 0xb2 && op <= 0xb8) ||
+				   op == 0xbb || op == 0xbd || op == 0xc0 || op == 0xc1 ||
+				   op == 0xc6 || op == 0xc7) {
+			return 3;
+		} else if (op == 0xc5) {
+			return 4;
+		} else if (op == 0xb9 || op == 0xba || op == 0xc8 || op == 0xc9) {
+			return 5;
+		} else {
+			return 1;
+		}
+	}
+
+	private static int padding(int pc) {
+		return (4 - ((pc + 1) % 4)) % 4;
+	}
+
+	private static int s2(byte[] code, int pos) {
+		return (short) (((code[pos] & 0xFF) << 8) | (code[pos + 1] & 0xFF));
+	}
+
+	private static int s4(byte[] code, int pos) {
+		return ((code[pos] & 0xFF) << 24) | ((code[pos + 1] & 0xFF) << 16) |
+		       ((code[pos + 2] & 0xFF) << 8) | (code[pos + 3] & 0xFF);
+	}
+}
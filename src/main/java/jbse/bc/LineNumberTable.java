@@ -17,6 +17,13 @@ public class LineNumberTable implements Iterable<LineNumberTable.Row> {
 	private Row[] rows;
 	private int next;
 	
+	/** 
+	 * Caches the source rows by program counter, up to the 
+	 * greatest start program counter; {@code null} when it 
+	 * must be (re)built. 
+	 */
+	private int[] sourceRows;
+	
 	public LineNumberTable(int rowsNumber) {
 		this.rows = new Row[rowsNumber];
 		this.next = 0;
@@ -28,6 +35,49 @@ public class LineNumberTable implements Iterable<LineNumberTable.Row> {
 			return;
 		this.rows[this.next] = new Row(start, lineNumber);
 		this.next++;
+		this.sourceRows = null;
+	}
+	
+	/**
+	 * Returns the source code row of a program counter.
+	 * 
+	 * @param programCounter an {@code int}, a program counter.
+	 * @return the source code row of the last row that starts
+	 *         before or at {@code programCounter} (the rows are
+	 *         scanned in order of addition until one starts 
+	 *         after {@code programCounter}), or {@code -1} 
+	 *         iff there is no such row. 
+	 */
+	public int getSourceRow(int programCounter) {
+		if (this.sourceRows == null) {
+			this.sourceRows = buildSourceRows();
+		}
+		if (programCounter < 0) {
+			return -1;
+		}
+		if (programCounter < this.sourceRows.length) {
+			return this.sourceRows[programCounter];
+		}
+		//beyond all the start program counters
+		return (this.next == 0 ? -1 : this.rows[this.next - 1].lineNumber);
+	}
+	
+	private int[] buildSourceRows() {
+		int maxStart = -1;
+		for (int i = 0; i < this.next; ++i) {
+			maxStart = Math.max(maxStart, this.rows[i].start);
+		}
+		final int[] retVal = new int[maxStart + 1];
+		//for increasing program counters, the first row 
+		//that starts after the program counter never moves back
+		int firstAfter = 0;
+		for (int pc = 0; pc < retVal.length; ++pc) {
+			while (firstAfter < this.next && this.rows[firstAfter].start <= pc) {
+				++firstAfter;
+			}
+			retVal[pc] = (firstAfter == 0 ? -1 : this.rows[firstAfter - 1].lineNumber);
+		}
+		return retVal;
 	}
 	
 	public Iterator<Row> iterator() {
@@ -0,0 +1,197 @@
+package jbse.bc;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import jbse.common.Type;
+
+/**
+ * The parsed descriptor of a method. {@link MethodDescriptor}s are
+ * immutable and interned, so a method descriptor is parsed only once
+ * during the whole execution; use {@link #of(String)} or
+ * {@link Signature#getMethodDescriptor()} to get them.
+ *
+ * @author Pietro Braione
+ */
+public final class MethodDescriptor {
+    /** The interned {@link MethodDescriptor}s, by descriptor string. */
+    private static final ConcurrentHashMap<String, MethodDescriptor> INTERNED = new ConcurrentHashMap<>();
+
+    /** The descriptor string. */
+    private final String descriptor;
+
+    /** The descriptors of the parameters. */
+    private final String[] parametersDescriptors;
+
+    /**
+     * The local variable slots of the parameters, as if
+     * the method were static (i.e., the first parameter
+     * has slot 0).
+     */
+    private final int[] parametersSlots;
+
+    /** The number of local variable slots taken by the parameters. */
+    private final int parametersSlotsNumber;
+
+    /** The descriptor of the return value. */
+    private final String returnValueDescriptor;
+
+    /**
+     * Returns the {@link MethodDescriptor} for a method
+     * descriptor string.
+     *
+     * @param descriptor a {@link String}, the descriptor of a
+     *        method.
+     * @return the interned {@link MethodDescriptor} for
+     *         {@code descriptor}.
+     * @throws NullPointerException if {@code descriptor == null}.
+     */
+    public static MethodDescriptor of(String descriptor) {
+        final MethodDescriptor retVal = INTERNED.get(descriptor);
+        if (retVal != null) {
+            return retVal;
+        }
+        return INTERNED.computeIfAbsent(descriptor, MethodDescriptor::new);
+    }
+
+    private MethodDescriptor(String descriptor) {
+        this.descriptor = descriptor;
+        this.parametersDescriptors = Type.splitParametersDescriptors(descriptor);
+        this.parametersSlots = new int[this.parametersDescriptors.length];
+        int slot = 0;
+        for (int i = 0; i < this.parametersDescriptors.length; ++i) {
+            this.parametersSlots[i] = slot;
+            slot += (Type.isCat_1(this.parametersDescriptors[i].charAt(0)) ? 1 : 2);
+        }
+        this.parametersSlotsNumber = slot;
+        this.returnValueDescriptor = Type.splitReturnValueDescriptor(descriptor);
+    }
+
+    /**
+     * Returns the descriptor string.
+     *
+     * @return a {@link String}.
+     */
+    public String getDescriptor() {
+        return this.descriptor;
+    }
+
+    /**
+     * Returns the number of parameters.
+     *
+     * @return an {@code int}, the number of declared
+     *         parameters (the receiver excluded).
+     */
+    public int getParametersNumber() {
+        return this.parametersDescriptors.length;
+    }
+
+    /**
+     * Returns the descriptor of a parameter.
+     *
+     * @param i an {@code int}, the position of a parameter.
+     * @return a {@link String}, the descriptor of the
+     *         {@code i}-th parameter.
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is
+     *         not a valid position.
+     */
+    public String getParameterDescriptor(int i) {
+        return this.parametersDescriptors[i];
+    }
+
+    /**
+     * Returns the descriptors of all the parameters.
+     *
+     * @return a {@link String}{@code []}, whose i-th
+     *         element is the descriptor of the method's i-th
+     *         parameter (a fresh copy).
+     */
+    public String[] getParametersDescriptors() {
+        return this.parametersDescriptors.clone();
+    }
+
+    /**
+     * Returns the first character of the descriptor of
+     * a parameter.
+     *
+     * @param i an {@code int}, the position of a parameter.
+     * @return a {@code char}, the type of the {@code i}-th
+     *         parameter.
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is
+     *         not a valid position.
+     */
+    public char getParameterType(int i) {
+        return this.parametersDescriptors[i].charAt(0);
+    }
+
+    /**
+     * Checks whether a parameter has category 2, i.e.,
+     * it takes two local variable slots.
+     *
+     * @param i an {@code int}, the position of a parameter.
+     * @return {@code true} iff the {@code i}-th parameter
+     *         is a {@code long} or a {@code double}.
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is
+     *         not a valid position.
+     */
+    public boolean isParameterCat_2(int i) {
+        return !Type.isCat_1(getParameterType(i));
+    }
+
+    /**
+     * Returns the local variable slot of a parameter.
+     *
+     * @param i an {@code int}, the position of a parameter.
+     * @return an {@code int}, the slot of the {@code i}-th
+     *         parameter when the method is static. For
+     *         nonstatic methods add one.
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is
+     *         not a valid position.
+     */
+    public int getParameterSlot(int i) {
+        return this.parametersSlots[i];
+    }
+
+    /**
+     * Returns the number of local variable slots
+     * taken by the parameters.
+     *
+     * @return an {@code int}, the receiver excluded.
+     */
+    public int getParametersSlotsNumber() {
+        return this.parametersSlotsNumber;
+    }
+
+    /**
+     * Returns the descriptor of the return value.
+     *
+     * @return a {@link String}.
+     */
+    public String getReturnValueDescriptor() {
+        return this.returnValueDescriptor;
+    }
+
+    /**
+     * Returns the first character of the descriptor
+     * of the return value.
+     *
+     * @return a {@code char}.
+     */
+    public char getReturnValueType() {
+        return this.returnValueDescriptor.charAt(0);
+    }
+
+    /**
+     * Checks whether the method returns no value.
+     *
+     * @return {@code true} iff the return value
+     *         descriptor is {@code V}.
+     */
+    public boolean isVoid() {
+        return getReturnValueType() == Type.VOID;
+    }
+
+    @Override
+    public String toString() {
+        return this.descriptor;
+    }
+}
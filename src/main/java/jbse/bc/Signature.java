@@ -10,6 +10,9 @@ public class Signature {
     private final String descriptor;
     private final String name;
     
+    /** Cache for {@link #getMethodDescriptor()}. */
+    private MethodDescriptor methodDescriptor = null;
+    
     /**
      * Constructor; given the class, the descriptor and the name of a 
      * method or field creates a signature for it.
@@ -51,6 +54,21 @@ public class Signature {
         return this.name;
     }
     
+    /**
+     * Returns the parsed descriptor of a method.
+     * 
+     * @return the interned {@link MethodDescriptor} of 
+     *         {@link #getDescriptor()}. It is meaningful
+     *         only if this is the signature of a method.
+     */
+    public MethodDescriptor getMethodDescriptor() {
+        //benign race: MethodDescriptors are immutable and interned
+        if (this.methodDescriptor == null) {
+            this.methodDescriptor = MethodDescriptor.of(this.descriptor);
+        }
+        return this.methodDescriptor;
+    }
+    
     @Override
     public String toString() {
         return this.containerClass + SIGNATURE_SEPARATOR + this.descriptor + SIGNATURE_SEPARATOR + this.name;
@@ -0,0 +1,255 @@
+package jbse.common;
+
+/**
+ * An immutable map with structural sharing (a hash array
+ * mapped trie). Updating a {@link PersistentMap} yields a
+ * new {@link PersistentMap} that shares all the unmodified
+ * parts with the original one, so the cost of an update is
+ * logarithmic in the size of the map, and the original
+ * map can be kept with no need to copy it.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values. {@code null} values
+ *        are not allowed.
+ */
+public final class PersistentMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentMap EMPTY = new PersistentMap<>(null, 0);
+
+    /** The root of the trie, {@code null} iff the map is empty. */
+    private final Node root;
+
+    /** The number of mappings in the map. */
+    private final int size;
+
+    /**
+     * Returns the empty {@link PersistentMap}.
+     *
+     * @return a {@link PersistentMap} with no mappings.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return an {@code int}.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this map is empty.
+     *
+     * @return {@code true} iff {@link #size()}{@code  == 0}.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Checks whether a key is mapped.
+     *
+     * @param key an {@link Object}. It must not be {@code null}.
+     * @return {@code true} iff {@code key} has a mapping in
+     *         this map.
+     * @throws NullPointerException if {@code key == null}.
+     */
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value a key is mapped to.
+     *
+     * @param key an {@link Object}. It must not be {@code null}.
+     * @return the value {@code key} is mapped to, or {@code null}
+     *         if {@code key} has no mapping in this map.
+     * @throws NullPointerException if {@code key == null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final int hash = key.hashCode();
+        if (this.root == null) {
+            return null;
+        }
+        final Leaf leaf = this.root.find(0, hash, key);
+        return (leaf == null ? null : (V) leaf.value);
+    }
+
+    /**
+     * Returns a map with an additional mapping. This map
+     * is not modified.
+     *
+     * @param key a {@code K}. It must not be {@code null}.
+     * @param value a {@code V}. It must not be {@code null}.
+     * @return a {@link PersistentMap} that has the same mappings
+     *         of this map, but where {@code key} is mapped to
+     *         {@code value}.
+     * @throws NullPointerException if {@code key == null || value == null}.
+     */
+    public PersistentMap<K, V> put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        final int hash = key.hashCode();
+        if (this.root == null) {
+            return new PersistentMap<>(new Leaf(hash, key, value), 1);
+        }
+        final boolean[] added = new boolean[1];
+        final Node newRoot = this.root.assoc(0, hash, key, value, added);
+        if (newRoot == this.root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, (added[0] ? this.size + 1 : this.size));
+    }
+
+    private static abstract class Node {
+        abstract Leaf find(int shift, int hash, Object key);
+        abstract Node assoc(int shift, int hash, Object key, Object value, boolean[] added);
+    }
+
+    private static final class Leaf extends Node {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        Leaf find(int shift, int hash, Object key) {
+            return (this.hash == hash && this.key.equals(key) ? this : null);
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (this.hash == hash) {
+                if (this.key.equals(key)) {
+                    return (this.value == value ? this : new Leaf(hash, key, value));
+                }
+                added[0] = true;
+                return new Collision(hash, new Leaf[] { this, new Leaf(hash, key, value) });
+            }
+            added[0] = true;
+            return merge(shift, this, this.hash, new Leaf(hash, key, value));
+        }
+    }
+
+    private static final class Collision extends Node {
+        final int hash;
+        final Leaf[] leaves;
+
+        Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        Leaf find(int shift, int hash, Object key) {
+            if (this.hash != hash) {
+                return null;
+            }
+            for (Leaf leaf : this.leaves) {
+                if (leaf.key.equals(key)) {
+                    return leaf;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (this.hash != hash) {
+                added[0] = true;
+                return merge(shift, this, this.hash, new Leaf(hash, key, value));
+            }
+            for (int i = 0; i < this.leaves.length; ++i) {
+                if (this.leaves[i].key.equals(key)) {
+                    if (this.leaves[i].value == value) {
+                        return this;
+                    }
+                    final Leaf[] newLeaves = this.leaves.clone();
+                    newLeaves[i] = new Leaf(hash, key, value);
+                    return new Collision(hash, newLeaves);
+                }
+            }
+            final Leaf[] newLeaves = new Leaf[this.leaves.length + 1];
+            System.arraycopy(this.leaves, 0, newLeaves, 0, this.leaves.length);
+            newLeaves[this.leaves.length] = new Leaf(hash, key, value);
+            added[0] = true;
+            return new Collision(hash, newLeaves);
+        }
+    }
+
+    private static final class Branch extends Node {
+        final int bitmap;
+        final Node[] children;
+
+        Branch(int bitmap, Node[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        @Override
+        Leaf find(int shift, int hash, Object key) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((this.bitmap & bit) == 0) {
+                return null;
+            }
+            return this.children[Integer.bitCount(this.bitmap & (bit - 1))].find(shift + BITS, hash, key);
+        }
+
+        @Override
+        Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            final int index = Integer.bitCount(this.bitmap & (bit - 1));
+            if ((this.bitmap & bit) == 0) {
+                final Node[] newChildren = new Node[this.children.length + 1];
+                System.arraycopy(this.children, 0, newChildren, 0, index);
+                newChildren[index] = new Leaf(hash, key, value);
+                System.arraycopy(this.children, index, newChildren, index + 1, this.children.length - index);
+                added[0] = true;
+                return new Branch(this.bitmap | bit, newChildren);
+            }
+            final Node child = this.children[index];
+            final Node newChild = child.assoc(shift + BITS, hash, key, value, added);
+            if (newChild == child) {
+                return this;
+            }
+            final Node[] newChildren = this.children.clone();
+            newChildren[index] = newChild;
+            return new Branch(this.bitmap, newChildren);
+        }
+    }
+
+    /**
+     * Builds the smallest subtrie containing two nodes
+     * with different hashes.
+     */
+    private static Node merge(int shift, Node node, int nodeHash, Leaf leaf) {
+        final int nodeIndex = (nodeHash >>> shift) & MASK;
+        final int leafIndex = (leaf.hash >>> shift) & MASK;
+        if (nodeIndex == leafIndex) {
+            return new Branch(1 << nodeIndex, new Node[] { merge(shift + BITS, node, nodeHash, leaf) });
+        } else if (nodeIndex < leafIndex) {
+            return new Branch((1 << nodeIndex) | (1 << leafIndex), new Node[] { node, leaf });
+        } else {
+            return new Branch((1 << nodeIndex) | (1 << leafIndex), new Node[] { leaf, node });
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package jbse.dec;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassHierarchy;
@@ -128,6 +129,38 @@ public interface DecisionProcedure extends AutoCloseable {
     boolean isSat(ClassHierarchy hier, Expression expression) 
     throws InvalidInputException, DecisionException;
     
+    /**
+     * Determines the satisfiability of a number of alternative
+     * {@link Expression}s, each taken separately, under the 
+     * current assumption. It is equivalent to invoking 
+     * {@link #isSat(ClassHierarchy, Expression)} on each 
+     * alternative, but implementations may decide all the 
+     * alternatives at once, e.g., in a single session with 
+     * an external solver.
+     * 
+     * @param hier a {@link ClassHierarchy}. It must not be {@code null}.
+     * @param alternatives a {@link List}{@code <}{@link Expression}{@code >}
+     *        of boolean expressions. It must not be {@code null}, nor 
+     *        have {@code null} elements.
+     * @return a {@code boolean[]} with same size as {@code alternatives}, 
+     *         whose {@code i}-th element is {@code true} iff 
+     *         {@code alternatives.get(i)} is satisfiable under
+     *         the current assumptions.
+     * @throws InvalidInputException when one of the parameters is incorrect.
+     * @throws DecisionException upon failure.
+     */
+    default boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+    throws InvalidInputException, DecisionException {
+        if (hier == null || alternatives == null) {
+            throw new InvalidInputException("isSatAlternatives invoked with a null parameter.");
+        }
+        final boolean[] retVal = new boolean[alternatives.size()];
+        for (int i = 0; i < retVal.length; ++i) {
+            retVal[i] = isSat(hier, alternatives.get(i));
+        }
+        return retVal;
+    }
+    
     /**
      * Determines the satisfiability of a resolution by null under the
      * current assumptions.
@@ -1,7 +1,12 @@
 package jbse.dec;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -213,10 +218,136 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 	
 	private final Calculator calc;
 	
+	/**
+	 * The satisfiability of the alternatives decided by the last 
+	 * invocations of {@link #isSatAlternatives(ClassHierarchy, List)}, 
+	 * so that {@link #isSat(ClassHierarchy, Expression)} can answer 
+	 * for them with no further query. It is cleared whenever the 
+	 * current assumptions change.
+	 */
+	private final IdentityHashMap<Expression, Boolean> decidedAlternatives = new IdentityHashMap<>();
+	
+	/** 
+	 * Whether the satisfiability queries must be answered
+	 * positively without querying the component.
+	 */
+	private boolean skipSatChecks = false;
+	
 	public DecisionProcedureAlgorithms(DecisionProcedure component, Calculator calc) {
 		super(component);
 		this.calc = calc;
 	}
+	
+	@Override
+	public void pushAssumption(Clause c) 
+	throws InvalidInputException, DecisionException {
+		this.decidedAlternatives.clear();
+		super.pushAssumption(c);
+	}
+	
+	@Override
+	public void clearAssumptions() throws DecisionException {
+		this.decidedAlternatives.clear();
+		super.clearAssumptions();
+	}
+	
+	@Override
+	public void addAssumptions(Iterable<Clause> assumptionsToAdd) 
+	throws InvalidInputException, DecisionException {
+		this.decidedAlternatives.clear();
+		super.addAssumptions(assumptionsToAdd);
+	}
+	
+	@Override
+	public void setAssumptions(Collection<Clause> newAssumptions) 
+	throws InvalidInputException, DecisionException {
+		this.decidedAlternatives.clear();
+		super.setAssumptions(newAssumptions);
+	}
+	
+	/**
+	 * Sets whether the satisfiability queries must be answered 
+	 * positively without querying the component decision procedure,
+	 * e.g., because the algorithms are deciding the alternatives of a
+	 * branch that is being replayed, where only one alternative, that is 
+	 * known to be satisfiable, will be explored. It must not be 
+	 * set for the decisions whose alternatives are numbered 
+	 * based on their satisfiability, i.e., the XALOAD ones.
+	 * 
+	 * @param skipSatChecks a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setSkipSatChecks(boolean skipSatChecks) {
+		this.skipSatChecks = skipSatChecks;
+	}
+	
+	@Override
+	public boolean isSat(ClassHierarchy hier, Expression exp) 
+	throws InvalidInputException, DecisionException {
+		if (this.skipSatChecks) {
+			return true;
+		}
+		final Boolean decided = this.decidedAlternatives.get(exp);
+		if (decided != null) {
+			return decided.booleanValue();
+		}
+		return super.isSat(hier, exp);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The answers are remembered until the current assumptions
+	 * change, so a subsequent invocation of {@link #isSat(ClassHierarchy, Expression)}
+	 * on one of the alternatives does not query the component 
+	 * decision procedure again. This allows the algorithms to 
+	 * decide in advance, with a single query, all the alternatives 
+	 * of a decision.
+	 */
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		if (this.skipSatChecks) {
+			final boolean[] retVal = new boolean[alternatives.size()];
+			Arrays.fill(retVal, true);
+			return retVal;
+		}
+		final boolean[] retVal = super.isSatAlternatives(hier, alternatives);
+		for (int i = 0; i < retVal.length; ++i) {
+			this.decidedAlternatives.put(alternatives.get(i), retVal[i]);
+		}
+		return retVal;
+	}
+
+	@Override
+	public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
+	throws InvalidInputException, DecisionException {
+		return (this.skipSatChecks || super.isSatNull(hier, r));
+	}
+
+	@Override
+	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
+	throws InvalidInputException, DecisionException {
+		return (this.skipSatChecks || super.isSatAliases(hier, r, heapPos, o));
+	}
+
+	@Override
+	public boolean isSatExpands(ClassHierarchy hier, ReferenceSymbolic r, String className)
+	throws InvalidInputException, DecisionException {
+		return (this.skipSatChecks || super.isSatExpands(hier, r, className));
+	}
+
+	@Override
+	public boolean isSatInitialized(ClassHierarchy hier, String className) 
+	throws InvalidInputException, DecisionException {
+		return (this.skipSatChecks || super.isSatInitialized(hier, className));
+	}
+
+	@Override
+	public boolean isSatNotInitialized(ClassHierarchy hier, String className) 
+	throws InvalidInputException, DecisionException {
+		return (this.skipSatChecks || super.isSatNotInitialized(hier, className));
+	}
 
 	/**
 	 * Decides a condition for "branch if integer comparison" bytecodes.
@@ -450,17 +581,30 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 	throws DecisionException {
 		try {
 	        final boolean isAny = (selector instanceof Any);
+	        
+	        //decides all the entries and the default at once
+	        final boolean[] alternativeSat;
+	        if (isAny) {
+	        	alternativeSat = null;
+	        } else {
+	        	final ArrayList<Expression> alternatives = new ArrayList<>();
+	        	for (int i : tab) {
+	        		alternatives.add((Expression) selector.eq(this.calc.valInt(i)));
+	        	}
+	        	alternatives.add(tab.getDefaultClause(selector));
+	        	alternativeSat = isSatAlternatives(hier, alternatives);
+	        }
+	        
 	        int branchCounter = 1;
-	        boolean noEntryIsSat = true; //allows to skip the last sat check
+	        boolean noEntryIsSat = true; //if no entry is sat, the default surely is
 			for (int i : tab) {
-				final Expression exp = (isAny ? null : (Expression) selector.eq(this.calc.valInt(i)));
-				if (isAny || isSat(hier, exp)) { 
+				if (isAny || alternativeSat[branchCounter - 1]) { 
 					result.add(DecisionAlternative_XSWITCH.toNonconcrete(i, branchCounter));
 					noEntryIsSat = false;
 				}
 				++branchCounter;
 			}
-			if (isAny || noEntryIsSat || isSat(hier, tab.getDefaultClause(selector))) { 
+			if (isAny || noEntryIsSat || alternativeSat[branchCounter - 1]) { 
 				result.add(DecisionAlternative_XSWITCH.toNonconcreteDefault(branchCounter));
 			}
 			final boolean shouldRefine = (!isAny && (result.size() > 1));
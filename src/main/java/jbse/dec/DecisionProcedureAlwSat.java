@@ -1,8 +1,10 @@
 package jbse.dec;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -158,6 +160,13 @@ public class DecisionProcedureAlwSat implements DecisionProcedure {
 		return true;
 	}
 
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) {
+		final boolean[] retVal = new boolean[alternatives.size()];
+		Arrays.fill(retVal, true);
+		return retVal;
+	}
+
 	@Override
 	public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) {
 		return true;
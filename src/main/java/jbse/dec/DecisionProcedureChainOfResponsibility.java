@@ -1,7 +1,9 @@
 package jbse.dec;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassHierarchy;
@@ -17,6 +19,7 @@ import jbse.mem.ClauseAssumeClassInitialized;
 import jbse.mem.ClauseAssumeClassNotInitialized;
 import jbse.mem.ClauseAssumeExpands;
 import jbse.mem.ClauseAssumeNull;
+import jbse.mem.ClauseList;
 import jbse.mem.ClauseVisitor;
 import jbse.mem.Objekt;
 import jbse.rewr.CalculatorRewriting;
@@ -49,6 +52,19 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 	 * if the rewriters are created by the decision procedure itself). 
 	 */
 	protected Rewriter[] rewriters;
+	
+	/** 
+	 * The last {@link ClauseList} passed to {@link #setAssumptions(Collection)}, 
+	 * or {@code null} if the current assumptions were not set from a 
+	 * {@link ClauseList}. 
+	 */
+	private ClauseList assumptionsBase = null;
+	
+	/** 
+	 * The (unsimplified) {@link Clause}s that were added to the current 
+	 * assumptions after {@link #assumptionsBase}. 
+	 */
+	private final ArrayList<Clause> assumptionsPushed = new ArrayList<>();
 
 	/**
 	 * Constructor.
@@ -130,6 +146,7 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 		}
 		final Clause cSimpl = simplifyLocal(c);
 		pushAssumptionLocal(cSimpl);
+		this.assumptionsPushed.add(c);
 		if (hasNext()) {
 			this.next.pushAssumption(cSimpl);
 		}
@@ -274,6 +291,8 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 	@Override
 	public final void clearAssumptions() throws DecisionException {
 		clearAssumptionsLocal();
+		this.assumptionsBase = null;
+		this.assumptionsPushed.clear();
 		if (hasNext()) {
 			this.next.clearAssumptions();
 		}
@@ -296,35 +315,61 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 		if (newAssumptions == null) {
 			throw new InvalidInputException("setAssumptions invoked with a null parameter.");
 		}
-		Collection<Clause> currentAssumptions;
-		try {
-			currentAssumptions = getAssumptionsLocal();
-		} catch (DecisionException e) {
-			//sorry, no locally stored assumptions
-			currentAssumptions = getAssumptions(); //queries the successor (best effort)
-		}
-		final int common = numCommonAssumptions(currentAssumptions, newAssumptions);
-		final int toPop = currentAssumptions.size() - common;
+		final int current = (this.assumptionsBase == null ? 0 : this.assumptionsBase.size()) + this.assumptionsPushed.size();
+		final int common = numCommonAssumptions(newAssumptions);
+		final int toPop = current - common;
 		final int toPush = newAssumptions.size() - common;
-		if (canPopAssumptions() && toPop < common) { //TODO toPop < common is a guess! Implement better heuristics
+		if (toPop == 0 || (canPopAssumptions() && toPop < common)) { //TODO toPop < common is a guess! Implement better heuristics
 			setAssumptionsLocalConservatively(newAssumptions, toPop, toPush);
 		} else {
 			setAssumptionsLocalDestructively(newAssumptions);
 		}
+		if (newAssumptions instanceof ClauseList) {
+			this.assumptionsBase = (ClauseList) newAssumptions;
+			this.assumptionsPushed.clear();
+		} else {
+			this.assumptionsBase = null;
+			this.assumptionsPushed.clear();
+			this.assumptionsPushed.addAll(newAssumptions);
+		}
 		if (hasNext()) {
 			this.next.setAssumptions(newAssumptions);
 		}
 	}
 
-	private static int numCommonAssumptions(Collection<Clause> oldAssumptions, Collection<Clause> newAssumptions) {
-		final Iterator<Clause> iterOld = oldAssumptions.iterator();
-		final Iterator<Clause> iterNew = newAssumptions.iterator();
+	/**
+	 * Calculates the number of initial clauses that the current 
+	 * assumptions have in common with some new assumptions. If
+	 * the current assumptions were set from a {@link ClauseList}
+	 * and the new assumptions are a {@link ClauseList}, the 
+	 * shared part is found by pointer identity.
+	 * 
+	 * @param newAssumptions see {@link #setAssumptions}.
+	 * @return an {@code int}, the length of the common prefix.
+	 */
+	private int numCommonAssumptions(Collection<Clause> newAssumptions) {
+		final Iterator<Clause> iterNew;
 		int retVal = 0;
-		while (iterOld.hasNext() && iterNew.hasNext()) {
-			final Clause oldAssumption = iterOld.next();
-			final Clause newAssumption = iterNew.next();
-			if (!oldAssumption.equals(newAssumption)) {
-				break;
+		if (this.assumptionsBase == null) {
+			iterNew = newAssumptions.iterator();
+		} else if (newAssumptions instanceof ClauseList) {
+			retVal = ClauseList.commonPrefixLength(this.assumptionsBase, (ClauseList) newAssumptions);
+			if (retVal < this.assumptionsBase.size()) {
+				return retVal;
+			}
+			iterNew = ((ClauseList) newAssumptions).suffix(retVal).iterator();
+		} else {
+			iterNew = newAssumptions.iterator();
+			for (Clause oldAssumption : this.assumptionsBase) {
+				if (!iterNew.hasNext() || !oldAssumption.equals(iterNew.next())) {
+					return retVal;
+				}
+				++retVal;
+			}
+		}
+		for (Clause oldAssumption : this.assumptionsPushed) {
+			if (!iterNew.hasNext() || !oldAssumption.equals(iterNew.next())) {
+				return retVal;
 			}
 			++retVal;
 		}
@@ -349,13 +394,20 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 
 		//pushes
 		final int common = newAssumptions.size() - toPush;
-		int i = 1;
-		for (Clause c : newAssumptions) {
-			if (i > common) {
+		if (newAssumptions instanceof ClauseList) {
+			for (Clause c : ((ClauseList) newAssumptions).suffix(common)) {
 				final Clause cSimpl = simplifyLocal(c);
 				pushAssumptionLocal(cSimpl);
 			}
-			++i;
+		} else {
+			int i = 1;
+			for (Clause c : newAssumptions) {
+				if (i > common) {
+					final Clause cSimpl = simplifyLocal(c);
+					pushAssumptionLocal(cSimpl);
+				}
+				++i;
+			}
 		}
 	}
 
@@ -500,6 +552,102 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 		throw new DecisionException(NO_DELEGATE_ERROR);
 	}
 
+	@Override
+	public final boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		if (hier == null || alternatives == null) {
+			throw new InvalidInputException("isSatAlternatives invoked with a null parameter.");
+		}
+		
+		//simplifies the alternatives and decides the ones
+		//that become concrete after simplification
+		final boolean[] retVal = new boolean[alternatives.size()];
+		final ArrayList<Integer> undecided = new ArrayList<>();
+		final ArrayList<Expression> exps = new ArrayList<>();
+		final ArrayList<Expression> expsSimpl = new ArrayList<>();
+		for (int i = 0; i < retVal.length; ++i) {
+			final Expression exp = alternatives.get(i);
+			if (exp == null) {
+				throw new InvalidInputException("isSatAlternatives invoked with a null alternative.");
+			}
+			if (exp.getType() != Type.BOOLEAN) {
+				throw new DecisionException("isSatAlternatives alternative has type " + exp.getType());
+			}
+			final Primitive expSimpl = simplifyLocal(exp);
+			if (expSimpl instanceof Simplex) {
+				retVal[i] = ((Simplex) expSimpl).surelyTrue();
+			} else if (expSimpl instanceof Expression) {
+				undecided.add(i);
+				exps.add(exp);
+				expsSimpl.add((Expression) expSimpl);
+			} else {
+				throw new DecisionException("the simplified " + expSimpl + " is neither a Simplex nor an Expression"); //TODO throw a better exception
+			}
+		}
+		if (exps.isEmpty()) {
+			return retVal;
+		}
+		
+		//decides the other ones locally, and delegates the 
+		//ones that are not surely unsat to the next in chain
+		final boolean[] localDecidesSat = isSatAlternativesLocal(hier, exps, expsSimpl);
+		final ArrayList<Integer> toDelegate = new ArrayList<>();
+		final ArrayList<Expression> expsToDelegate = new ArrayList<>();
+		for (int j = 0; j < localDecidesSat.length; ++j) {
+			if (localDecidesSat[j]) {
+				toDelegate.add(undecided.get(j));
+				expsToDelegate.add(exps.get(j));
+			} //else, surely unsat, retVal[undecided.get(j)] is already false
+		}
+		if (!expsToDelegate.isEmpty()) {
+			final boolean[] delegateDecidesSat = delegateIsSatAlternatives(hier, expsToDelegate);
+			for (int k = 0; k < delegateDecidesSat.length; ++k) {
+				retVal[toDelegate.get(k)] = delegateDecidesSat[k];
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * May be overridden by subclasses to implement 
+	 * {@link #isSatAlternatives(ClassHierarchy, List)}.
+	 * The default implementation invokes 
+	 * {@link #isSatLocal(ClassHierarchy, Expression, Expression)}
+	 * on each alternative.
+	 *  
+	 * @param hier see {@link #isSatAlternatives(ClassHierarchy, List) isSatAlternatives}.
+	 * @param exps a {@link List}{@code <}{@link Expression}{@code >}, 
+	 *        the alternatives that are still {@link Expression}s after
+	 *        local simplification. Note that they are <em>not</em> 
+	 *        locally simplified.
+	 * @param expsSimpl a {@link List}{@code <}{@link Expression}{@code >}, 
+	 *        {@code exps} after local simplification.
+	 * @return a {@code boolean[]} whose {@code i}-th element is 
+	 *         {@code false} iff {@code exps.get(i)} is surely unsat.
+	 * @throws DecisionException upon failure.
+	 */
+	protected boolean[] isSatAlternativesLocal(ClassHierarchy hier, List<Expression> exps, List<Expression> expsSimpl) 
+	throws DecisionException {
+		final boolean[] retVal = new boolean[exps.size()];
+		for (int i = 0; i < retVal.length; ++i) {
+			retVal[i] = isSatLocal(hier, exps.get(i), expsSimpl.get(i));
+		}
+		return retVal;
+	}
+
+	private final boolean[] delegateIsSatAlternatives(ClassHierarchy hier, List<Expression> exps) 
+	throws DecisionException {
+		if (hasNext()) {
+			try {
+				return this.next.isSatAlternatives(hier, exps);
+			} catch (InvalidInputException e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+		}
+		throw new DecisionException(NO_DELEGATE_ERROR);
+	}
+
 	@Override
 	public final boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
 	throws InvalidInputException, DecisionException {
@@ -1,6 +1,7 @@
 package jbse.dec;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassHierarchy;
@@ -79,6 +80,12 @@ public class DecisionProcedureDecorator implements DecisionProcedure {
 		return this.component.isSat(hier, exp);
 	}
 
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) 
+	throws InvalidInputException, DecisionException {
+		return this.component.isSatAlternatives(hier, alternatives);
+	}
+
 	@Override
 	public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
 	throws InvalidInputException, DecisionException {
@@ -2,9 +2,18 @@ package jbse.dec;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import jbse.bc.ClassHierarchy;
+import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
 import jbse.dec.exc.ExternalProtocolInterfaceException;
 import jbse.mem.Clause;
@@ -17,10 +26,18 @@ import jbse.mem.ClauseAssumeNull;
 import jbse.mem.Objekt;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
+import jbse.val.Any;
 import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Operator;
+import jbse.val.Primitive;
 import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveVisitor;
 import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
 
 /**
  * A {@link DecisionProcedureExternal} is a {@link DecisionProcedureChainOfResponsibility} 
@@ -34,6 +51,15 @@ import jbse.val.Simplex;
  * interface returns unsat as an answer, this decision procedure returns unsat, but when the
  * external interface returns sat, this decision procedures delegates the query to the next 
  * in the chain.
+ * Optionally, a {@link DecisionProcedureExternal} can <em>slice</em> the 
+ * queries: In this case the current assumptions are not kept by the 
+ * external decision procedure, and every query is sent together with 
+ * the numeric assumptions that (transitively) share symbols with it, 
+ * which suffice to decide it. 
+ * Optionally, a {@link DecisionProcedureExternal} can also keep a
+ * bounded cache of the most recent models produced by the external 
+ * decision procedure, and answer sat without contacting it whenever 
+ * a cached model satisfies a query and the assumptions it depends on.
  * 
  * @author Pietro Braione
  */
@@ -55,11 +81,84 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	/** true iff the external decision procedure has not yet received the current assumption. */
 	private boolean notInSynch = false;
 	
+	/** true iff the queries must be sliced. */
+	private boolean slicing = false;
+	
+	/** The maximum number of cached models, {@code 0} if models are not cached. */
+	private int modelCacheSize = 0;
+	
+	/** The cached models, the most recently used first. */
+	private final ArrayDeque<Map<PrimitiveSymbolic, Simplex>> models = new ArrayDeque<>();
+	
+	/** Evaluates queries under the cached models. */
+	private final ModelEvaluator evaluator = new ModelEvaluator();
+	
+	/** 
+	 * When slicing or caching models, the symbols of the clauses in 
+	 * {@code this.clauses}, in the same order; empty for the clauses 
+	 * that are not numeric. 
+	 */
+	private final ArrayDeque<Set<Object>> clausesSymbols = new ArrayDeque<>();
+	
+	/** 
+	 * When slicing or caching models, partitions the symbols in {@code this.clausesSymbols} 
+	 * in sets of symbols that occur together in some clause; {@code null} 
+	 * when it must be rebuilt. 
+	 */
+	private SymbolPartition partition = new SymbolPartition();
+
+	/** When slicing, the answers to the queries that depend on no assumption. */
+	private final LinkedHashMap<Expression, Boolean> independentAnswers = new LinkedHashMap<Expression, Boolean>(16, 0.75f, true) {
+		private static final long serialVersionUID = 4469014512958474519L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Expression, Boolean> eldest) {
+			return size() > MAX_INDEPENDENT_ANSWERS;
+		}
+	};
+	
+	/** The maximum number of cached answers to independent queries. */
+	private static final int MAX_INDEPENDENT_ANSWERS = 4096;
+	
 	protected DecisionProcedureExternal(DecisionProcedure next, CalculatorRewriting calc, Rewriter... rewriters) {
 		super(next, calc, rewriters);
 		this.clauses = new ArrayDeque<>();
 	}
 	
+	/**
+	 * Sets whether the queries must be sliced, i.e., whether
+	 * each query must be sent to the external decision procedure
+	 * together with the only assumptions it depends on, rather 
+	 * than in the context of all the current assumptions. 
+	 * It must be invoked before any assumption is pushed.
+	 * 
+	 * @param slicing a {@code boolean}; by default it 
+	 *        is {@code false}.
+	 */
+	public final void setSlicing(boolean slicing) {
+		this.slicing = slicing;
+	}
+	
+	/**
+	 * Sets the maximum number of models of previous queries 
+	 * that are cached and used to answer the subsequent ones
+	 * without contacting the external decision procedure. 
+	 * It must be invoked before any assumption is pushed.
+	 * 
+	 * @param modelCacheSize an {@code int}; by default it 
+	 *        is {@code 0}, meaning that models are not cached.
+	 */
+	public final void setModelCacheSize(int modelCacheSize) {
+		this.modelCacheSize = Math.max(0, modelCacheSize);
+	}
+	
+	/**
+	 * Returns whether the symbols of the assumptions must be tracked.
+	 */
+	private boolean tracksSymbols() {
+		return this.slicing || this.modelCacheSize > 0;
+	}
+	
 	/**
 	 * Resynchs the external decision procedure with this.bs.
 	 * 
@@ -93,7 +192,16 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	protected final void pushAssumptionLocal(Clause cSimpl) 
 	throws DecisionException {
 		this.clauses.push(cSimpl);
-		if (this.fast) {
+		if (tracksSymbols()) {
+			final Set<Object> symbols = (cSimpl instanceof ClauseAssume ? symbols(((ClauseAssume) cSimpl).getCondition()) : null);
+			this.clausesSymbols.push(symbols == null ? Collections.emptySet() : symbols);
+			if (this.partition != null && symbols != null) {
+				this.partition.union(symbols);
+			}
+		}
+		if (this.slicing) {
+			//the assumption is sent only when needed by a query
+		} else if (this.fast) {
 			this.notInSynch = true;
 		} else {
 			try {
@@ -176,7 +284,13 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	protected final void clearAssumptionsLocal() 
 	throws DecisionException {
     	this.clauses.clear();
-		if (this.fast) {
+		if (tracksSymbols()) {
+			this.clausesSymbols.clear();
+			this.partition = new SymbolPartition();
+		}
+		if (this.slicing) {
+			//nothing to do
+		} else if (this.fast) {
 			this.notInSynch = true;
 		} else {
 			try {
@@ -197,7 +311,13 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	protected final void popAssumptionLocal() 
 	throws DecisionException {
 		this.clauses.pop();
-		if (this.fast) {
+		if (tracksSymbols()) {
+			this.clausesSymbols.pop();
+			this.partition = null; //a partition cannot be split, rebuilds it upon need
+		}
+		if (this.slicing) {
+			//nothing to do
+		} else if (this.fast) {
 			this.notInSynch = true;
 		} else {
 			try {
@@ -215,13 +335,19 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	@Override
 	protected final boolean isSatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl) 
 	throws DecisionException {
+		if (this.slicing) {
+			return isSatSliced(hier, expSimpl);
+		}
 	    try {
 	        if (this.extIf.isWorking()) {
+	        	if (this.modelCacheSize > 0 && isSatByCachedModel(expSimpl, symbols(expSimpl))) {
+	        		return true;
+	        	}
 	        	if (this.notInSynch) {
 	        		resynch();
 	        	}
 	        	this.extIf.sendClauseAssume(expSimpl);
-	        	final boolean retVal = this.extIf.checkSat(hier, true); 
+	        	final boolean retVal = checkSat(hier); 
 	        	this.extIf.retractClause();
 	            return retVal;
 	        } else {
@@ -232,12 +358,66 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 		}
 	}
 	
+	@Override
+	protected final boolean[] isSatAlternativesLocal(ClassHierarchy hier, List<Expression> exps, List<Expression> expsSimpl) 
+	throws DecisionException {
+	    try {
+	        if (this.extIf.isWorking()) {
+	        	//answers with the cached models the alternatives they can
+	        	final boolean[] retVal = new boolean[expsSimpl.size()];
+	        	final ArrayList<Expression> toCheck = new ArrayList<>();
+	        	final ArrayList<Integer> toCheckPositions = new ArrayList<>();
+	        	for (int i = 0; i < expsSimpl.size(); ++i) {
+	        		final Expression expSimpl = expsSimpl.get(i);
+	        		if (this.modelCacheSize > 0 && isSatByCachedModel(expSimpl, symbols(expSimpl))) {
+	        			retVal[i] = true;
+	        		} else {
+	        			toCheck.add(expSimpl);
+	        			toCheckPositions.add(i);
+	        		}
+	        	}
+	        	if (toCheck.isEmpty()) {
+	        		return retVal;
+	        	}
+	        	
+	        	final boolean[] checked;
+	        	if (this.slicing) {
+	        		final HashSet<Object> symbols = new HashSet<>();
+	        		for (Expression expSimpl : toCheck) {
+	        			symbols.addAll(symbols(expSimpl));
+	        		}
+	        		final int sliceSize = pushSlice(symbols);
+	        		try {
+	        			checked = this.extIf.checkSatAlternatives(hier, toCheck);
+	        		} finally {
+	        			if (sliceSize > 0) {
+	        				this.extIf.clear();
+	        			}
+	        		}
+	        	} else {
+	        		if (this.notInSynch) {
+	        			resynch();
+	        		}
+	        		checked = this.extIf.checkSatAlternatives(hier, toCheck);
+	        	}
+	        	for (int j = 0; j < checked.length; ++j) {
+	        		retVal[toCheckPositions.get(j)] = checked[j];
+	        	}
+	        	return retVal;
+	        } else {
+	        	throw new DecisionException(NOT_WORKING);
+	        }
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+	
 	@Override
 	protected final boolean isSatAliasesLocal(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o) 
 	throws DecisionException {
 	    try {
 	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
+	        	if (this.notInSynch && !this.slicing) {
 	        		resynch();
 	        	}
 	        	this.extIf.sendClauseAssumeAliases(r, heapPos, o);
@@ -257,7 +437,7 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	throws DecisionException {
 	    try {
 	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
+	        	if (this.notInSynch && !this.slicing) {
 	        		resynch();
 	        	}
 	        	this.extIf.sendClauseAssumeExpands(r, className);
@@ -277,7 +457,7 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	throws DecisionException {
 	    try {
 	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
+	        	if (this.notInSynch && !this.slicing) {
 	        		resynch();
 	        	}
 	        	this.extIf.sendClauseAssumeNull(r);
@@ -292,16 +472,357 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 		}
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * When models are cached, this implementation first looks
+	 * for a cached model that satisfies all the current assumptions,
+	 * so that the model of a state is usually the one produced by 
+	 * the last satisfiability check, and costs no further invocation
+	 * of the external decision procedure.
+	 */
 	@Override
 	protected Map<PrimitiveSymbolic, Simplex> getModelLocal()
 	throws DecisionException {
+		if (this.modelCacheSize > 0) {
+			final Map<PrimitiveSymbolic, Simplex> model = cachedModelOfAssumptions();
+			if (model != null) {
+				return model;
+			}
+		}
         try {
+        	if (this.slicing) {
+        		//the model must satisfy all the assumptions
+        		resynch();
+        		try {
+        			return this.extIf.getModel();
+        		} finally {
+        			this.extIf.clear();
+        		}
+        	}
             return this.extIf.getModel();
         } catch (ExternalProtocolInterfaceException | IOException e) {
             throw new DecisionException(e);
         }
 	}
 	
+	/**
+	 * Returns a cached model that satisfies all the 
+	 * current numeric assumptions.
+	 * 
+	 * @return a {@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}{@link Simplex}{@code >},
+	 *         or {@code null} if no cached model surely satisfies 
+	 *         all the assumptions.
+	 */
+	private Map<PrimitiveSymbolic, Simplex> cachedModelOfAssumptions() {
+		for (Map<PrimitiveSymbolic, Simplex> model : this.models) {
+			boolean satisfiesAll = true;
+			for (Clause c : this.clauses) {
+				if (c instanceof ClauseAssume && !this.evaluator.satisfies(model, ((ClauseAssume) c).getCondition())) {
+					satisfiesAll = false;
+					break;
+				}
+			}
+			if (satisfiesAll) {
+				return new HashMap<>(model);
+			}
+		}
+		return null;
+	}
+	
+	private boolean isSatSliced(ClassHierarchy hier, Expression expSimpl) 
+	throws DecisionException {
+		try {
+			if (!this.extIf.isWorking()) {
+				throw new DecisionException(NOT_WORKING);
+			}
+			final Set<Object> symbols = symbols(expSimpl);
+			final boolean independent = !dependsOnAssumptions(symbols);
+			if (independent) {
+				if (isTriviallySat(expSimpl)) {
+					return true;
+				}
+				final Boolean answer = this.independentAnswers.get(expSimpl);
+				if (answer != null) {
+					return answer.booleanValue();
+				}
+			}
+			if (this.modelCacheSize > 0 && isSatByCachedModel(expSimpl, symbols)) {
+				return true;
+			}
+			final int sliceSize = (independent ? 0 : pushSlice(symbols));
+			try {
+				this.extIf.sendClauseAssume(expSimpl);
+				final boolean retVal = checkSat(hier); 
+				this.extIf.retractClause();
+				if (independent) {
+					this.independentAnswers.put(expSimpl, retVal);
+				}
+				return retVal;
+			} finally {
+				if (sliceSize > 0) {
+					this.extIf.clear();
+				}
+			}
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+	
+	/**
+	 * Checks the current clause on the external decision procedure
+	 * and, if models are cached, caches its model.
+	 */
+	private boolean checkSat(ClassHierarchy hier) 
+	throws ExternalProtocolInterfaceException, IOException {
+		if (this.modelCacheSize == 0) {
+			return this.extIf.checkSat(hier, true);
+		}
+		final Map<PrimitiveSymbolic, Simplex> model = this.extIf.checkSatAndGetModel(hier, true);
+		if (model == null) {
+			return false;
+		}
+		if (!model.isEmpty()) {
+			this.models.addFirst(model);
+			if (this.models.size() > this.modelCacheSize) {
+				this.models.removeLast();
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks whether some cached model satisfies a query and
+	 * all the numeric assumptions it depends on. In this 
+	 * case the query is satisfiable together with all the 
+	 * current assumptions, because the assumptions it does 
+	 * not depend on share no symbol with it and are satisfiable.
+	 * 
+	 * @param expSimpl the query.
+	 * @param symbols the symbols of {@code expSimpl}.
+	 * @return {@code true} iff some cached model satisfies 
+	 *         {@code expSimpl} and its slice.
+	 */
+	private boolean isSatByCachedModel(Expression expSimpl, Set<Object> symbols) {
+		if (this.models.isEmpty()) {
+			return false;
+		}
+		final List<Clause> slice = slice(symbols);
+		for (Iterator<Map<PrimitiveSymbolic, Simplex>> it = this.models.iterator(); it.hasNext(); ) {
+			final Map<PrimitiveSymbolic, Simplex> model = it.next();
+			if (satisfies(model, expSimpl, slice)) {
+				if (model != this.models.peekFirst()) {
+					it.remove();
+					this.models.addFirst(model);
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private boolean satisfies(Map<PrimitiveSymbolic, Simplex> model, Expression expSimpl, List<Clause> slice) {
+		if (!this.evaluator.satisfies(model, expSimpl)) {
+			return false;
+		}
+		for (Clause c : slice) {
+			if (!this.evaluator.satisfies(model, ((ClauseAssume) c).getCondition())) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks whether an independent query is trivially 
+	 * satisfiable, i.e., whether it compares a symbol 
+	 * with a constant. This holds because the external
+	 * decision procedure models numbers with unbounded 
+	 * integers and reals.
+	 */
+	private static boolean isTriviallySat(Expression e) {
+		final Operator operator = e.getOperator();
+		if (operator == Operator.EQ || operator == Operator.NE ||
+		    operator == Operator.LT || operator == Operator.LE ||
+		    operator == Operator.GT || operator == Operator.GE) {
+			final Primitive first = e.getFirstOperand();
+			final Primitive second = e.getSecondOperand();
+			return (first instanceof PrimitiveSymbolic && second instanceof Simplex) ||
+			       (first instanceof Simplex && second instanceof PrimitiveSymbolic);
+		}
+		return false;
+	}
+	
+	private boolean dependsOnAssumptions(Set<Object> symbols) {
+		final SymbolPartition partition = partition();
+		for (Object symbol : symbols) {
+			if (partition.contains(symbol)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Pushes on the external decision procedure the assumptions 
+	 * that a query depends on.
+	 * 
+	 * @param symbols the symbols of the query.
+	 * @return the number of pushed assumptions.
+	 */
+	private int pushSlice(Set<Object> symbols) 
+	throws DecisionException, ExternalProtocolInterfaceException, IOException {
+		final List<Clause> slice = slice(symbols);
+		for (Clause c : slice) {
+			super.pushAssumptionLocal(c); //redispatches
+			this.extIf.pushAssumption(true);
+		}
+		return slice.size();
+	}
+	
+	/**
+	 * Returns the assumptions that a query depends on.
+	 * 
+	 * @param symbols the symbols of the query.
+	 * @return a {@link List}{@code <}{@link Clause}{@code >}, 
+	 *         the {@link ClauseAssume}s that (transitively) share
+	 *         symbols with the query, the oldest first.
+	 */
+	private List<Clause> slice(Set<Object> symbols) {
+		final SymbolPartition partition = partition();
+		final HashSet<Object> roots = new HashSet<>();
+		for (Object symbol : symbols) {
+			if (partition.contains(symbol)) {
+				roots.add(partition.find(symbol));
+			}
+		}
+		if (roots.isEmpty()) {
+			return Collections.emptyList();
+		}
+		final ArrayList<Clause> retVal = new ArrayList<>();
+		final Iterator<Clause> itClauses = this.clauses.descendingIterator();
+		final Iterator<Set<Object>> itSymbols = this.clausesSymbols.descendingIterator();
+		while (itClauses.hasNext()) {
+			final Clause c = itClauses.next();
+			final Set<Object> clauseSymbols = itSymbols.next();
+			if (!clauseSymbols.isEmpty() && roots.contains(partition.find(clauseSymbols.iterator().next()))) {
+				retVal.add(c);
+			}
+		}
+		return retVal;
+	}
+	
+	private SymbolPartition partition() {
+		if (this.partition == null) {
+			this.partition = new SymbolPartition();
+			for (Set<Object> symbols : this.clausesSymbols) {
+				this.partition.union(symbols);
+			}
+		}
+		return this.partition;
+	}
+	
+	/**
+	 * Returns the symbols of a {@link Primitive}, i.e., the 
+	 * identifiers of its {@link PrimitiveSymbolic}s and the 
+	 * values of its {@link Term}s.
+	 */
+	private static Set<Object> symbols(Primitive p) {
+		final HashSet<Object> retVal = new HashSet<>();
+		final PrimitiveVisitor v = new PrimitiveVisitor() {
+			@Override
+			public void visitAny(Any x) { }
+
+			@Override
+			public void visitExpression(Expression e) throws Exception {
+				if (e.isUnary()) {
+					e.getOperand().accept(this);
+				} else {
+					e.getFirstOperand().accept(this);
+					e.getSecondOperand().accept(this);
+				}
+			}
+
+			@Override
+			public void visitFunctionApplication(FunctionApplication x) throws Exception {
+				for (Primitive arg : x.getArgs()) {
+					arg.accept(this);
+				}
+			}
+
+			@Override
+			public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
+				retVal.add(s.getId());
+			}
+
+			@Override
+			public void visitSimplex(Simplex x) { }
+
+			@Override
+			public void visitTerm(Term x) {
+				retVal.add(x.getValue());
+			}
+
+			@Override
+			public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+				x.getArg().accept(this);
+			}
+
+			@Override
+			public void visitWideningConversion(WideningConversion x) throws Exception {
+				x.getArg().accept(this);
+			}
+		};
+		try {
+			p.accept(v);
+		} catch (Exception e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		return retVal;
+	}
+	
+	/**
+	 * A union-find partition of symbols.
+	 * 
+	 * @author Pietro Braione
+	 */
+	private static final class SymbolPartition {
+		private final HashMap<Object, Object> parent = new HashMap<>();
+		
+		boolean contains(Object symbol) {
+			return this.parent.containsKey(symbol);
+		}
+		
+		Object find(Object symbol) {
+			Object current = symbol;
+			Object next = this.parent.get(current);
+			while (!next.equals(current)) {
+				//path halving
+				final Object nextNext = this.parent.get(next);
+				this.parent.put(current, nextNext);
+				current = nextNext;
+				next = this.parent.get(current);
+			}
+			return current;
+		}
+		
+		void union(Set<Object> symbols) {
+			Object root = null;
+			for (Object symbol : symbols) {
+				if (!this.parent.containsKey(symbol)) {
+					this.parent.put(symbol, symbol);
+				}
+				final Object symbolRoot = find(symbol);
+				if (root == null) {
+					root = symbolRoot;
+				} else if (!root.equals(symbolRoot)) {
+					this.parent.put(symbolRoot, root);
+				}
+			}
+		}
+	}
+	
 	@Override
 	protected final void closeLocal() throws DecisionException {
 		if (this.extIf.isWorking()) {
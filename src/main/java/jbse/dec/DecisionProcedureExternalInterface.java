@@ -1,7 +1,10 @@
 package jbse.dec;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import jbse.bc.ClassHierarchy;
 import jbse.dec.exc.ExternalProtocolInterfaceException;
@@ -152,6 +155,108 @@ public abstract class DecisionProcedureExternalInterface {
 	public abstract boolean checkSat(ClassHierarchy hier, boolean positive)
 	throws ExternalProtocolInterfaceException, IOException;
 	
+	/**
+	 * Verifies whether the current assumption is satisfiable 
+	 * when put in logical and with each of a number of 
+	 * predicates, taken separately. It must be invoked when
+	 * there is no current predicate, and leaves the interface
+	 * with no current predicate. The default implementation
+	 * sends, checks and retracts each predicate in turn; 
+	 * subclasses may override it to check all the predicates 
+	 * in a single interaction with the external decision 
+	 * procedure.
+	 * 
+	 * @param hier a {@link ClassHierarchy}.
+	 * @param predicates a {@link List}{@code <}{@link Primitive}{@code >}
+	 *        of boolean predicates.
+	 * @return a {@code boolean[]} whose {@code i}-th element is 
+	 *         {@code false} if the decision procedure proves that the 
+	 *         current assumption and {@code predicates.get(i)} are not 
+	 *         satisfiable, {@code true} otherwise. 
+	 * @throws ExternalProtocolInterfaceException if this method is 
+	 *         invoked when there is a current predicate.
+	 * @throws IOException if communication with the external 
+	 *         decision procedure fails. 
+	 */
+	public boolean[] checkSatAlternatives(ClassHierarchy hier, List<? extends Primitive> predicates)
+	throws ExternalProtocolInterfaceException, IOException {
+		final boolean[] retVal = new boolean[predicates.size()];
+		for (int i = 0; i < retVal.length; ++i) {
+			sendClauseAssume(predicates.get(i));
+			retVal[i] = checkSat(hier, true);
+			retractClause();
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Checks whether the current assumption and the current clause
+	 * are satisfiable, as {@link #checkSat(ClassHierarchy, boolean) checkSat}
+	 * does, and if so returns a model for them. 
+	 * 
+	 * @param hier a {@link ClassHierarchy}.
+	 * @param positive if {@code true} the current clause is 
+	 *        checked, otherwise its negation is checked.
+	 * @return {@code null} if the decision procedure proves that 
+	 *         the current assumption and the current clause are not
+	 *         satisfiable, otherwise a {@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}
+	 *         {@link Simplex}{@code >} associating concrete values to 
+	 *         (some of) the numeric symbols in the check. This 
+	 *         implementation returns an empty model.
+	 * @throws ExternalProtocolInterfaceException if this method is 
+	 *         invoked when there is no current predicate.
+	 * @throws IOException if communication with the external 
+	 *         decision procedure fails. 
+	 */
+	public Map<PrimitiveSymbolic, Simplex> checkSatAndGetModel(ClassHierarchy hier, boolean positive)
+	throws ExternalProtocolInterfaceException, IOException {
+		return (checkSat(hier, positive) ? Collections.emptyMap() : null);
+	}
+	
+	/**
+	 * Checks whether the answer to the last satisfiability check
+	 * (by {@link #checkSat(ClassHierarchy, boolean) checkSat},
+	 * {@link #checkSatAlternatives(ClassHierarchy, List) checkSatAlternatives}
+	 * or {@link #checkSatAndGetModel(ClassHierarchy, boolean) checkSatAndGetModel})
+	 * was not definitive, i.e., whether the external decision 
+	 * procedure could not decide some formula, that was therefore 
+	 * conservatively reported as satisfiable. 
+	 * 
+	 * @return {@code true} iff the last check was not definitive. 
+	 *         This implementation returns {@code false}.
+	 */
+	public boolean wasLastCheckUnknown() {
+		return false;
+	}
+	
+	/**
+	 * Asks the external decision procedure to abandon the 
+	 * satisfiability check in progress, if any, as soon as this 
+	 * can be done without breaking the protocol. The abandoned
+	 * check conservatively reports all the formulas as satisfiable,
+	 * and is not definitive (see {@link #wasLastCheckUnknown()}). 
+	 * This method can be invoked by a thread different from the 
+	 * one that is performing the check. This implementation does 
+	 * nothing.
+	 */
+	public void interrupt() {
+		//does nothing
+	}
+
+	/**
+	 * Sets the interruption token of the next satisfiability check.
+	 * The check is abandoned as by {@link #interrupt()} as soon as 
+	 * the token is set to {@code true}, also if this happens before 
+	 * the check starts, and the token is not reused by the checks 
+	 * that follow. This method must be invoked by the thread that 
+	 * performs the check. This implementation does nothing.
+	 * 
+	 * @param interruption an {@link AtomicBoolean}.
+	 */
+	public void setInterruption(AtomicBoolean interruption) {
+		//does nothing
+	}
+	
     /**
      * Returns a model of the last sent clause whose satisfiability
      * was checked with {@link #checkSat(ClassHierarchy, boolean) checkSat}.
@@ -0,0 +1,608 @@
+package jbse.dec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jbse.bc.ClassHierarchy;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.dec.exc.NoModelException;
+import jbse.mem.Objekt;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+
+/**
+ * {@link DecisionProcedureExternalInterface} to a portfolio of
+ * external decision procedures working in parallel. Every decision
+ * procedure in the portfolio receives all the clauses and assumptions
+ * through a dedicated thread, so they are all kept in synch without
+ * waiting for them. Every satisfiability check is raced by the
+ * decision procedures, and the first definitive answer is returned,
+ * i.e., an answer where no formula is unknown; if no decision procedure
+ * gives a definitive answer, the first answer is returned. The losers
+ * skip the check if they did not start it yet, and are interrupted
+ * otherwise through the interruption token of the check (see 
+ * {@link DecisionProcedureExternalInterface#setInterruption(AtomicBoolean)}), 
+ * so they can catch up with the commands received in the meantime. A decision procedure that
+ * lags too much behind is excluded from the races until it catches up.
+ * The interface also records which decision procedure wins on each
+ * shape of query, i.e., on the set of the operators it contains:
+ * When a decision procedure consistently wins on a shape, the
+ * subsequent queries with that shape are sent to it only, and
+ * are raced again periodically to keep the statistics current.
+ *
+ * @author Pietro Braione
+ */
+final class DecisionProcedureExternalInterfacePortfolio extends DecisionProcedureExternalInterface {
+	/** The number of races on a shape before routing its queries. */
+	private static final int MIN_RACES = 8;
+
+	/** The fraction of the races on a shape that a decision procedure must win to be routed the shape. */
+	private static final double ROUTE_THRESHOLD = 0.9;
+
+	/** A routed shape is raced again every this number of queries. */
+	private static final int RACE_PERIOD = 16;
+
+	/** The maximum number of pending commands of a decision procedure that takes part in a race. */
+	private static final int MAX_BACKLOG = 64;
+
+	/** The shape of the queries that check reference clauses. */
+	private static final String SHAPE_REFERENCE = "ref";
+
+	/** The shape of the queries that check alternatives. */
+	private static final String SHAPE_ALTERNATIVES = "alt";
+
+	private static final String NOT_WORKING = "No decision procedure in the portfolio is working.";
+
+	private final DecisionProcedureExternalInterface[] solvers;
+	private final ExecutorService[] executors;
+	private final AtomicBoolean[] working;
+	private final AtomicInteger[] backlog;
+	private final HashMap<String, ShapeStatistics> statistics = new HashMap<>();
+	private boolean hasCurrentClause = false;
+	private String currentShape;
+	private boolean lastCheckUnknown = false;
+
+	/** The index of the decision procedure that answered the last check, or -1. */
+	private int lastAnswering = -1;
+
+	/**
+	 * A command or query to a decision procedure.
+	 *
+	 * @param <T> the type of its answer.
+	 */
+	@FunctionalInterface
+	private interface Command<T> {
+		T execute(DecisionProcedureExternalInterface solver) throws Exception;
+	}
+
+	/**
+	 * The answer of a decision procedure to a raced query.
+	 *
+	 * @param <T> the type of the answer.
+	 */
+	private static final class Answer<T> {
+		final int solver;
+		final T value;
+		final boolean definitive;
+		final Exception exception;
+
+		Answer(int solver, T value, boolean definitive, Exception exception) {
+			this.solver = solver;
+			this.value = value;
+			this.definitive = definitive;
+			this.exception = exception;
+		}
+	}
+
+	/**
+	 * The statistics of the races on a shape of query.
+	 */
+	private static final class ShapeStatistics {
+		final int[] wins;
+		int races = 0;
+		int queries = 0;
+
+		ShapeStatistics(int nSolvers) {
+			this.wins = new int[nSolvers];
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param solvers the {@link DecisionProcedureExternalInterface}s
+	 *        in the portfolio. They are given away to this object,
+	 *        and must not be used by the caller after the invocation.
+	 */
+	DecisionProcedureExternalInterfacePortfolio(DecisionProcedureExternalInterface... solvers) {
+		this.solvers = solvers.clone();
+		this.executors = new ExecutorService[solvers.length];
+		this.working = new AtomicBoolean[solvers.length];
+		this.backlog = new AtomicInteger[solvers.length];
+		for (int i = 0; i < solvers.length; ++i) {
+			final String threadName = "jbse-portfolio-" + i;
+			this.executors[i] = Executors.newSingleThreadExecutor(r -> {
+				final Thread t = new Thread(r, threadName);
+				t.setDaemon(true);
+				return t;
+			});
+			this.working[i] = new AtomicBoolean(solvers[i].isWorking());
+			this.backlog[i] = new AtomicInteger(0);
+		}
+	}
+
+	/**
+	 * Returns the number of races won by each decision procedure
+	 * on each shape of query.
+	 *
+	 * @return a {@link Map} from the query shapes to an {@code int[]}
+	 *         whose {@code i}-th element is the number of races
+	 *         won by the {@code i}-th decision procedure.
+	 */
+	Map<String, int[]> getWinStatistics() {
+		final HashMap<String, int[]> retVal = new HashMap<>();
+		for (Map.Entry<String, ShapeStatistics> e : this.statistics.entrySet()) {
+			retVal.put(e.getKey(), e.getValue().wins.clone());
+		}
+		return retVal;
+	}
+
+	@Override
+	public boolean isWorking() {
+		for (AtomicBoolean w : this.working) {
+			if (w.get()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void sendClauseAssume(Primitive predicate)
+	throws ExternalProtocolInterfaceException {
+		setCurrentClause(shape(predicate));
+		broadcast(s -> { s.sendClauseAssume(predicate); return null; });
+	}
+
+	@Override
+	public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o)
+	throws ExternalProtocolInterfaceException {
+		setCurrentClause(SHAPE_REFERENCE);
+		broadcast(s -> { s.sendClauseAssumeAliases(r, heapPos, o); return null; });
+	}
+
+	@Override
+	public void sendClauseAssumeExpands(ReferenceSymbolic r, String className)
+	throws ExternalProtocolInterfaceException {
+		setCurrentClause(SHAPE_REFERENCE);
+		broadcast(s -> { s.sendClauseAssumeExpands(r, className); return null; });
+	}
+
+	@Override
+	public void sendClauseAssumeNull(ReferenceSymbolic r)
+	throws ExternalProtocolInterfaceException {
+		setCurrentClause(SHAPE_REFERENCE);
+		broadcast(s -> { s.sendClauseAssumeNull(r); return null; });
+	}
+
+	@Override
+	public void sendClauseAssumeClassInitialized(String className)
+	throws ExternalProtocolInterfaceException {
+		setCurrentClause(SHAPE_REFERENCE);
+		broadcast(s -> { s.sendClauseAssumeClassInitialized(className); return null; });
+	}
+
+	@Override
+	public void sendClauseAssumeClassNotInitialized(String className)
+	throws ExternalProtocolInterfaceException {
+		setCurrentClause(SHAPE_REFERENCE);
+		broadcast(s -> { s.sendClauseAssumeClassNotInitialized(className); return null; });
+	}
+
+	@Override
+	public void retractClause() throws ExternalProtocolInterfaceException {
+		if (!this.hasCurrentClause) {
+			throw new ExternalProtocolInterfaceException("Attempted to retract a clause with no current clause.");
+		}
+		this.hasCurrentClause = false;
+		this.currentShape = null;
+		broadcast(s -> { s.retractClause(); return null; });
+	}
+
+	@Override
+	public boolean checkSat(ClassHierarchy hier, boolean positive)
+	throws ExternalProtocolInterfaceException, IOException {
+		if (!this.hasCurrentClause) {
+			throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
+		}
+		return race(this.currentShape, s -> s.checkSat(hier, positive));
+	}
+
+	@Override
+	public boolean[] checkSatAlternatives(ClassHierarchy hier, List<? extends Primitive> predicates)
+	throws ExternalProtocolInterfaceException, IOException {
+		if (this.hasCurrentClause) {
+			throw new ExternalProtocolInterfaceException("Attempted to check alternatives when a current clause already exists.");
+		}
+		return race(SHAPE_ALTERNATIVES, s -> s.checkSatAlternatives(hier, predicates));
+	}
+
+	@Override
+	public Map<PrimitiveSymbolic, Simplex> checkSatAndGetModel(ClassHierarchy hier, boolean positive)
+	throws ExternalProtocolInterfaceException, IOException {
+		if (!this.hasCurrentClause) {
+			throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
+		}
+		return race(this.currentShape, s -> s.checkSatAndGetModel(hier, positive));
+	}
+
+	@Override
+	public boolean wasLastCheckUnknown() {
+		return this.lastCheckUnknown;
+	}
+
+	@Override
+	public void interrupt() {
+		for (DecisionProcedureExternalInterface solver : this.solvers) {
+			solver.interrupt();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * This implementation asks first the decision procedure
+	 * that answered the last check, so the request is not 
+	 * queued behind the checks of the losers, and then the 
+	 * others in the order they were passed to the constructor,
+	 * until one produces a model.
+	 */
+	@Override
+	public Map<PrimitiveSymbolic, Simplex> getModel()
+	throws NoModelException, ExternalProtocolInterfaceException, IOException {
+		final ArrayList<Integer> order = new ArrayList<>();
+		if (this.lastAnswering >= 0) {
+			order.add(this.lastAnswering);
+		}
+		for (int i = 0; i < this.solvers.length; ++i) {
+			if (i != this.lastAnswering) {
+				order.add(i);
+			}
+		}
+		for (int i : order) {
+			if (!this.working[i].get()) {
+				continue;
+			}
+			try {
+				return enqueue(i, s -> s.getModel(), null, null).get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof NoModelException) {
+					continue;
+				}
+				throw new ExternalProtocolInterfaceException(e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+		}
+		throw new NoModelException("No decision procedure in the portfolio produced a model.");
+	}
+
+	@Override
+	public void pushAssumption(boolean positive)
+	throws ExternalProtocolInterfaceException {
+		if (!this.hasCurrentClause) {
+			throw new ExternalProtocolInterfaceException("Attempted to push assumption with no current clause.");
+		}
+		this.hasCurrentClause = false;
+		this.currentShape = null;
+		broadcast(s -> { s.pushAssumption(positive); return null; });
+	}
+
+	@Override
+	public void popAssumption() throws ExternalProtocolInterfaceException {
+		broadcast(s -> { s.popAssumption(); return null; });
+	}
+
+	@Override
+	public void clear() throws ExternalProtocolInterfaceException {
+		this.hasCurrentClause = false;
+		this.currentShape = null;
+		broadcast(s -> { s.clear(); return null; });
+	}
+
+	@Override
+	public void quit() throws ExternalProtocolInterfaceException, IOException {
+		ExternalProtocolInterfaceException failure = null;
+		for (int i = 0; i < this.solvers.length; ++i) {
+			if (this.working[i].get()) {
+				enqueue(i, s -> { s.quit(); return null; }, null, null);
+			}
+			this.executors[i].shutdown();
+		}
+		for (int i = 0; i < this.solvers.length; ++i) {
+			try {
+				if (!this.executors[i].awaitTermination(1, TimeUnit.MINUTES)) {
+					failure = new ExternalProtocolInterfaceException("Decision procedure " + i + " in the portfolio did not quit.");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+		}
+		if (failure != null) {
+			fail();
+			throw failure;
+		}
+	}
+
+	@Override
+	public void fail() {
+		for (int i = 0; i < this.solvers.length; ++i) {
+			this.working[i].set(false);
+			this.solvers[i].fail();
+			this.executors[i].shutdownNow();
+		}
+	}
+
+	private void setCurrentClause(String shape) throws ExternalProtocolInterfaceException {
+		if (this.hasCurrentClause) {
+			throw new ExternalProtocolInterfaceException("Attempted to send a clause when a current clause already exists.");
+		}
+		this.hasCurrentClause = true;
+		this.currentShape = shape;
+	}
+
+	/**
+	 * Sends a command to all the working decision procedures,
+	 * without waiting for them.
+	 */
+	private void broadcast(Command<Void> command) throws ExternalProtocolInterfaceException {
+		boolean sent = false;
+		for (int i = 0; i < this.solvers.length; ++i) {
+			if (this.working[i].get()) {
+				enqueue(i, command, null, null);
+				sent = true;
+			}
+		}
+		if (!sent) {
+			throw new ExternalProtocolInterfaceException(NOT_WORKING);
+		}
+	}
+
+	/**
+	 * Enqueues a command to a decision procedure. A decision
+	 * procedure that fails the protocol stops working.
+	 *
+	 * @param i the index of the decision procedure.
+	 * @param command the {@link Command}.
+	 * @param answers a {@link LinkedBlockingQueue} where the
+	 *        {@link Answer} must be put, or {@code null}.
+	 * @param decided an {@link AtomicBoolean} that is set when 
+	 *        the query has a definitive answer, in which case
+	 *        the command is skipped, or {@code null}.
+	 * @return the {@link Future} of the answer.
+	 */
+	private <T> Future<T> enqueue(int i, Command<T> command, LinkedBlockingQueue<Answer<T>> answers, AtomicBoolean decided) {
+		this.backlog[i].incrementAndGet();
+		return this.executors[i].submit(() -> {
+			try {
+				if (!this.working[i].get()) {
+					throw new ExternalProtocolInterfaceException(NOT_WORKING);
+				}
+				if (decided != null) {
+					if (decided.get()) {
+						//lost the race before starting
+						return null;
+					}
+					this.solvers[i].setInterruption(decided);
+				}
+				final T value = command.execute(this.solvers[i]);
+				if (answers != null) {
+					answers.add(new Answer<>(i, value, !this.solvers[i].wasLastCheckUnknown(), null));
+				}
+				return value;
+			} catch (ExternalProtocolInterfaceException | IOException | RuntimeException e) {
+				this.working[i].set(false);
+				if (answers != null) {
+					answers.add(new Answer<>(i, null, false, e));
+				}
+				throw e;
+			} catch (Exception e) {
+				if (answers != null) {
+					answers.add(new Answer<>(i, null, false, e));
+				}
+				throw e;
+			} finally {
+				this.backlog[i].decrementAndGet();
+			}
+		});
+	}
+
+	/**
+	 * Races a query on the decision procedures selected
+	 * for its shape, and returns the first definitive answer,
+	 * skipping or interrupting the check of the other decision
+	 * procedures. If all the selected decision procedures fail
+	 * or do not give a definitive answer, the query is raced 
+	 * on the remaining working ones. If no decision procedure
+	 * gives a definitive answer, the first answer is returned.
+	 */
+	private <T> T race(String shape, Command<T> query)
+	throws ExternalProtocolInterfaceException, IOException {
+		final HashSet<Integer> tried = new HashSet<>();
+		Answer<T> unknown = null;
+		Exception failure = null;
+		while (true) {
+			final List<Integer> candidates = candidates(shape, tried);
+			if (candidates.isEmpty()) {
+				break;
+			}
+			final LinkedBlockingQueue<Answer<T>> answers = new LinkedBlockingQueue<>();
+			final AtomicBoolean decided = new AtomicBoolean(false);
+			for (int i : candidates) {
+				enqueue(i, query, answers, decided);
+				tried.add(i);
+			}
+			for (int pending = candidates.size(); pending > 0; --pending) {
+				final Answer<T> answer;
+				try {
+					answer = answers.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(e);
+				}
+				if (answer.exception == null && answer.definitive) {
+					//skips or interrupts the check of the losers
+					decided.set(true);
+					if (candidates.size() > 1) {
+						recordWin(shape, answer.solver);
+					}
+					this.lastCheckUnknown = false;
+					this.lastAnswering = answer.solver;
+					return answer.value;
+				} else if (answer.exception == null) {
+					if (unknown == null) {
+						unknown = answer;
+					}
+				} else {
+					failure = answer.exception;
+				}
+			}
+		}
+		if (unknown != null) {
+			this.lastCheckUnknown = true;
+			this.lastAnswering = unknown.solver;
+			return unknown.value;
+		}
+		if (failure instanceof ExternalProtocolInterfaceException) {
+			throw (ExternalProtocolInterfaceException) failure;
+		} else if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure != null) {
+			throw new ExternalProtocolInterfaceException(failure);
+		}
+		throw new ExternalProtocolInterfaceException(NOT_WORKING);
+	}
+
+	/**
+	 * Selects the decision procedures that must race a query.
+	 */
+	private List<Integer> candidates(String shape, HashSet<Integer> excluded) {
+		final ShapeStatistics stats = this.statistics.computeIfAbsent(shape, k -> new ShapeStatistics(this.solvers.length));
+		++stats.queries;
+
+		//routes the query if a decision procedure consistently wins its shape
+		if (stats.races >= MIN_RACES && stats.queries % RACE_PERIOD != 0) {
+			for (int i = 0; i < this.solvers.length; ++i) {
+				if (stats.wins[i] >= ROUTE_THRESHOLD * stats.races &&
+				    this.working[i].get() && !excluded.contains(i)) {
+					final ArrayList<Integer> retVal = new ArrayList<>();
+					retVal.add(i);
+					return retVal;
+				}
+			}
+		}
+
+		//otherwise races all the decision procedures that are not lagging behind
+		final ArrayList<Integer> retVal = new ArrayList<>();
+		final ArrayList<Integer> lagging = new ArrayList<>();
+		for (int i = 0; i < this.solvers.length; ++i) {
+			if (this.working[i].get() && !excluded.contains(i)) {
+				if (this.backlog[i].get() < MAX_BACKLOG) {
+					retVal.add(i);
+				} else {
+					lagging.add(i);
+				}
+			}
+		}
+		return (retVal.isEmpty() ? lagging : retVal);
+	}
+
+	private void recordWin(String shape, int solver) {
+		final ShapeStatistics stats = this.statistics.get(shape);
+		++stats.races;
+		++stats.wins[solver];
+	}
+
+	/**
+	 * Returns the shape of a predicate, i.e., the
+	 * sorted set of the operators it contains.
+	 */
+	private static String shape(Primitive predicate) {
+		final TreeSet<String> operators = new TreeSet<>();
+		final PrimitiveVisitor v = new PrimitiveVisitor() {
+			@Override
+			public void visitAny(Any x) { }
+
+			@Override
+			public void visitExpression(Expression e) throws Exception {
+				operators.add(e.getOperator().toString());
+				if (e.isUnary()) {
+					e.getOperand().accept(this);
+				} else {
+					e.getFirstOperand().accept(this);
+					e.getSecondOperand().accept(this);
+				}
+			}
+
+			@Override
+			public void visitFunctionApplication(FunctionApplication x) throws Exception {
+				operators.add(x.getOperator());
+				for (Primitive arg : x.getArgs()) {
+					arg.accept(this);
+				}
+			}
+
+			@Override
+			public void visitPrimitiveSymbolic(PrimitiveSymbolic s) { }
+
+			@Override
+			public void visitSimplex(Simplex x) { }
+
+			@Override
+			public void visitTerm(Term x) { }
+
+			@Override
+			public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+				operators.add("narrow");
+				x.getArg().accept(this);
+			}
+
+			@Override
+			public void visitWideningConversion(WideningConversion x) throws Exception {
+				operators.add("widen");
+				x.getArg().accept(this);
+			}
+		};
+		try {
+			predicate.accept(v);
+		} catch (Exception e) {
+			//this should never happen
+			return "";
+		}
+		return operators.toString();
+	}
+}
@@ -6,11 +6,14 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import jbse.bc.ClassHierarchy;
 import jbse.common.Type;
@@ -53,6 +56,8 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     private static final String POP_END = ")\n";
     private static final String POP_1 = "(pop 1)\n";
     private static final String CHECKSAT = "(check-sat)\n";
+    private static final String CHECKSAT_ASSUMING_BEGIN = "(check-sat-assuming (";
+    private static final String CHECKSAT_ASSUMING_END = "))\n";
     private static final String GETVALUE_BEGIN = "(get-value (";
     private static final String GETVALUE_END = "))\n";
     private static final String EXIT = "(exit)\n";
@@ -65,6 +70,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     
     //etc
     private static final String OTHER = "";
+    private static final String INDICATOR = "__alt";
 
     private final CalculatorRewriting calc;
     private final ExpressionMangler m;
@@ -79,6 +85,9 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     private ArrayList<Integer> nSymPushed; 
     private int nSymCurrent;
     private int nTotalSymbols;
+    private boolean lastCheckUnknown;
+    private volatile AtomicBoolean interruption = new AtomicBoolean(false);
+    private AtomicBoolean nextInterruption = null;
 
     /** 
      * Costructor.
@@ -202,20 +211,89 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
         }
         
+        startCheck();
         final String queryPush = (value ? this.currentClausePositive : this.currentClauseNegative);
         if (queryPush == null) {
             return true;
         }
         sendAndCheckAnswer(queryPush);
-        final boolean isSat = sendAndCheckAnswerChecksat();
+        final boolean isSat = sendAndCheckAnswerChecksatUnlessInterrupted(CHECKSAT);
         sendAndCheckAnswer(POP_1);
         return isSat;
     }
     
+    @Override
+    public boolean wasLastCheckUnknown() {
+        return this.lastCheckUnknown;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Since a {@code check-sat} command cannot be interrupted,
+     * this implementation abandons the check before sending 
+     * the next {@code check-sat} command.
+     */
+    @Override
+    public void interrupt() {
+        this.interruption.set(true);
+    }
+    
+    @Override
+    public void setInterruption(AtomicBoolean interruption) {
+        this.nextInterruption = interruption;
+    }
+    
+    private void startCheck() {
+        this.lastCheckUnknown = false;
+        this.interruption = (this.nextInterruption == null ? new AtomicBoolean(false) : this.nextInterruption);
+        this.nextInterruption = null;
+    }
+    
     @Override
     public Map<PrimitiveSymbolic, Simplex> getModel() 
     throws NoModelException, ExternalProtocolInterfaceException, IOException {
-        sendAndCheckAnswerChecksat(); //always need a checksat before reading a model
+        sendAndCheckAnswerChecksat(CHECKSAT); //always need a checksat before reading a model
+        return readModel();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * This implementation reads the model before retracting the
+     * current clause, so it needs no further satisfiability check.
+     * If the model cannot be read it returns an empty model.
+     */
+    @Override
+    public Map<PrimitiveSymbolic, Simplex> checkSatAndGetModel(ClassHierarchy hier, boolean value) 
+    throws ExternalProtocolInterfaceException, IOException {
+        if (!this.hasCurrentClause) {
+            throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
+        }
+        
+        startCheck();
+        final String queryPush = (value ? this.currentClausePositive : this.currentClauseNegative);
+        if (queryPush == null) {
+            return Collections.emptyMap();
+        }
+        sendAndCheckAnswer(queryPush);
+        Map<PrimitiveSymbolic, Simplex> retVal = null;
+        if (this.interruption.get()) {
+            this.lastCheckUnknown = true;
+            retVal = Collections.emptyMap();
+        } else if (sendAndCheckAnswerChecksat(CHECKSAT)) {
+            try {
+                retVal = readModel();
+            } catch (NoModelException e) {
+                retVal = Collections.emptyMap();
+            }
+        }
+        sendAndCheckAnswer(POP_1);
+        return retVal;
+    }
+    
+    private Map<PrimitiveSymbolic, Simplex> readModel() 
+    throws NoModelException, ExternalProtocolInterfaceException, IOException {
         final String smtlib2Model = sendAndCheckAnswerGetmodel();
         if (smtlib2Model == null || smtlib2Model.startsWith("(error")) {
             throw new NoModelException();
@@ -372,6 +450,61 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * This implementation pushes all the predicates at once, each 
+     * guarded by a fresh boolean indicator literal, and then checks 
+     * each predicate by a {@code check-sat-assuming} over its 
+     * indicator, so the solver decides all the alternatives in the 
+     * same context.
+     */
+    @Override
+    public boolean[] checkSatAlternatives(ClassHierarchy hier, List<? extends Primitive> predicates)
+    throws ExternalProtocolInterfaceException, IOException {
+        if (this.hasCurrentClause) {
+            throw new ExternalProtocolInterfaceException("Attempted to check alternatives when a current clause already exists.");
+        }
+        if (predicates.size() < 2) {
+            return super.checkSatAlternatives(hier, predicates);
+        }
+        startCheck();
+        
+        final StringBuilder queryAsserts = new StringBuilder();
+        for (int i = 0; i < predicates.size(); ++i) {
+            final Primitive predicate = predicates.get(i);
+            if (predicate == null || predicate.getType() != Type.BOOLEAN) {
+                forgetPushedDeclarations();
+                throw new ExternalProtocolInterfaceException("Attempted to send an invalid clause.");
+            }       
+            try {
+                predicate.accept(this.v);
+            } catch (ExternalProtocolInterfaceException | RuntimeException e) {
+                forgetPushedDeclarations();
+                throw e;
+            } catch (Exception e) {
+                //this should never happen
+                this.working = false;
+                throw new UnexpectedInternalException(e);
+            }
+            queryAsserts.append("(declare-fun " + INDICATOR + i + " () Bool)\n");
+            queryAsserts.append("(assert (=> " + INDICATOR + i + " " + this.v.getQueryAssertClause() + "))\n");
+        }
+        final String queryPush = PUSH_1 + this.v.getQueryDeclarations() + queryAsserts.toString();
+        
+        try {
+            sendAndCheckAnswer(queryPush);
+            final boolean[] retVal = new boolean[predicates.size()];
+            for (int i = 0; i < retVal.length; ++i) {
+                retVal[i] = sendAndCheckAnswerChecksatUnlessInterrupted(CHECKSAT_ASSUMING_BEGIN + INDICATOR + i + CHECKSAT_ASSUMING_END);
+            }
+            sendAndCheckAnswer(POP_1);
+            return retVal;
+        } finally {
+            forgetPushedDeclarations();
+        }
+    }
+
     @Override
     public void pushAssumption(boolean value) 
     throws ExternalProtocolInterfaceException, IOException {
@@ -452,16 +585,28 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         return answer;
     }
     
-    private boolean sendAndCheckAnswerChecksat() throws IOException, ExternalProtocolInterfaceException {
-        send(CHECKSAT);
+    private boolean sendAndCheckAnswerChecksat(String query) throws IOException, ExternalProtocolInterfaceException {
+        send(query);
         final String answer = read();
         if (!answer.equals(SAT) && !answer.equals(UNSAT) && !answer.equals(UNKNOWN)) {
             this.working = false;
             throw new ExternalProtocolInterfaceException("unrecognized answer from solver when checking satisfiability. Message: " + answer);
         }
+        if (answer.equals(UNKNOWN)) {
+            this.lastCheckUnknown = true;
+        }
         return !answer.equals(UNSAT); //conservatively returns true if answer is unknown
     }
     
+    private boolean sendAndCheckAnswerChecksatUnlessInterrupted(String query) throws IOException, ExternalProtocolInterfaceException {
+        if (this.interruption.get()) {
+            //abandons the check, conservatively
+            this.lastCheckUnknown = true;
+            return true;
+        }
+        return sendAndCheckAnswerChecksat(query);
+    }
+    
     private String sendAndCheckAnswerGetmodel() 
     throws IOException, ExternalProtocolInterfaceException {
         final StringBuilder query = new StringBuilder(GETVALUE_BEGIN);
@@ -578,6 +723,14 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
     }
 
+    /**
+     * returns the SMTLIB2 sort of the arrays whose 
+     * members have a given java type
+     */
+    private static String toSMTLIB2ArrayType(char memberType) {
+        return "(Array Int " + toSMTLIB2Type(memberType) + ")";
+    }
+
     /**
      * Builds a SMTLIB2 string representing an expression.
      */
@@ -697,10 +850,31 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             }
             final String operator = x.getOperator();
             final char type = x.getType();
+            if (operator.equals(FunctionApplication.ARRAY_INITIAL)) {
+                putArraySymbol(x);
+                return;
+            } else if (operator.equals(FunctionApplication.ARRAY_CONST)) {
+                x.getArgs()[0].accept(new SMTLIB2ExpressionVisitor(this, false));
+                this.clauseStack.push("((as const " + toSMTLIB2ArrayType(type) + ") " + this.clauseStack.pop() + ")");
+                return;
+            } else if (operator.equals(FunctionApplication.ITE)) {
+                final Primitive[] args = x.getArgs();
+                args[0].accept(new SMTLIB2ExpressionVisitor(this, true));
+                final String condition = this.clauseStack.pop();
+                args[1].accept(new SMTLIB2ExpressionVisitor(this, type == Type.BOOLEAN));
+                final String valueThen = this.clauseStack.pop();
+                args[2].accept(new SMTLIB2ExpressionVisitor(this, type == Type.BOOLEAN));
+                final String valueElse = this.clauseStack.pop();
+                this.clauseStack.push("(ite " + condition + " " + valueThen + " " + valueElse + ")");
+                return;
+            }
             final StringBuilder clause = new StringBuilder();
             final StringBuilder smtlib2Signature = new StringBuilder();
             boolean builtIn = false;
-            if (operator.equals(FunctionApplication.ABS)) {
+            if (operator.equals(FunctionApplication.SELECT) || operator.equals(FunctionApplication.STORE)) {
+                builtIn = true;
+                clause.append("(" + operator + " ");
+            } else if (operator.equals(FunctionApplication.ABS)) {
                 if (Type.isPrimitiveIntegral(x.getType())) {
                     builtIn = true;
                     clause.append("(abs ");
@@ -838,6 +1012,25 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             putSymbol(x);
         }
 
+        private void putArraySymbol(FunctionApplication arrayInitial) {
+            //the initial array is identified by its symbolic length
+            final String lengthToString = arrayInitial.getArgs()[0].toString();
+            final String smtlib2Variable = "ARRAY_" + (lengthToString.charAt(0) == '{' ? 
+                                                       lengthToString.substring(1, lengthToString.length() - 1) :
+                                                       lengthToString);
+            if (this.smtlib2DeclaredSymbols.contains(smtlib2Variable)) {
+                // does nothing
+            } else {
+                this.smtlib2DeclaredSymbols.add(smtlib2Variable);
+                //not added to smtlib2VarsToJBSESymbols, no model for arrays
+                //(the array terms have no JBSE symbol to map to)
+                this.queryDeclarations.append("(declare-fun " + smtlib2Variable + " () " + toSMTLIB2ArrayType(arrayInitial.getType()) + ")\n");
+                ++nSymCurrent;
+                ++nTotalSymbols;
+            }
+            this.clauseStack.push(smtlib2Variable);
+        }
+
         private void putSymbol(Primitive symbol) {
             final char type = symbol.getType();
             final String symbolToString = symbol.toString();
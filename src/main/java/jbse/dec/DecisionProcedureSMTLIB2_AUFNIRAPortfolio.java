@@ -0,0 +1,40 @@
+package jbse.dec;
+
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.rewr.CalculatorRewriting;
+
+import java.io.IOException;
+
+/**
+ * A decision procedure that races a portfolio of solvers compatible 
+ * with SMTLIB 2 specification supporting the AUFNIRA logic and 
+ * interactive mode, e.g., Z3 and CVC4. Each query is answered by 
+ * the first solver that decides it. 
+ * 
+ * @author Pietro Braione
+ */
+public final class DecisionProcedureSMTLIB2_AUFNIRAPortfolio extends DecisionProcedureExternal {
+	public DecisionProcedureSMTLIB2_AUFNIRAPortfolio(DecisionProcedure next, CalculatorRewriting calc, String... solverPaths) throws DecisionException {
+		super(next, calc);
+		final DecisionProcedureExternalInterface[] solvers = new DecisionProcedureExternalInterface[solverPaths.length];
+		try {
+			for (int i = 0; i < solverPaths.length; ++i) {
+				solvers[i] = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(calc, solverPaths[i]);
+			}
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			for (DecisionProcedureExternalInterface solver : solvers) {
+				if (solver != null) {
+					solver.fail();
+				}
+			}
+			throw new DecisionException(e);
+		}
+		this.extIf = new DecisionProcedureExternalInterfacePortfolio(solvers);
+	}
+	
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+}
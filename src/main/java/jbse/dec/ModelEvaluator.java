@@ -0,0 +1,271 @@
+package jbse.dec;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import jbse.common.Type;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+
+/**
+ * Evaluates {@link Primitive}s under a model, i.e., an assignment
+ * of concrete values to {@link PrimitiveSymbolic}s, with the semantics
+ * the external decision procedure gives them: integral values are
+ * unbounded integers, and integral division and remainder are the
+ * SMT-LIB {@code div} and {@code mod}. Since these semantics agree
+ * with Java's only as long as no value leaves the range of its type,
+ * the result of the evaluation is unknown whenever this happens, as
+ * well as whenever the evaluation involves floating point values,
+ * bitwise operators, or functions other than if-then-else.
+ *
+ * @author Pietro Braione
+ */
+final class ModelEvaluator implements PrimitiveVisitor {
+	private Map<PrimitiveSymbolic, Simplex> model;
+	private Object value; //the result, either a Boolean or a BigInteger, or null if unknown
+
+	/**
+	 * Checks whether a model satisfies a predicate.
+	 *
+	 * @param model a {@link Map}{@code <}{@link PrimitiveSymbolic}{@code , }{@link Simplex}{@code >}.
+	 * @param predicate a {@link Primitive} with boolean type.
+	 * @return {@code true} iff all the symbols in {@code predicate} are
+	 *         assigned by {@code model}, and {@code predicate} surely
+	 *         evaluates to {@code true}; {@code false} if it evaluates
+	 *         to {@code false} or its value is unknown.
+	 */
+	boolean satisfies(Map<PrimitiveSymbolic, Simplex> model, Primitive predicate) {
+		this.model = model;
+		try {
+			predicate.accept(this);
+		} catch (Exception e) {
+			//this should never happen, anyway unknown
+			this.value = null;
+		}
+		this.model = null;
+		return Boolean.TRUE.equals(this.value);
+	}
+
+	@Override
+	public void visitAny(Any x) {
+		this.value = null;
+	}
+
+	@Override
+	public void visitExpression(Expression e) throws Exception {
+		if (e.isUnary()) {
+			e.getOperand().accept(this);
+			final Object operandValue = this.value;
+			if (operandValue == null) {
+				return;
+			}
+			if (e.getOperator() == Operator.NOT && operandValue instanceof Boolean) {
+				this.value = !((Boolean) operandValue);
+			} else if (e.getOperator() == Operator.NEG && operandValue instanceof BigInteger) {
+				this.value = inRange(((BigInteger) operandValue).negate(), e.getType());
+			} else {
+				this.value = null;
+			}
+			return;
+		}
+
+		e.getFirstOperand().accept(this);
+		final Object first = this.value;
+		if (first == null) {
+			return;
+		}
+		e.getSecondOperand().accept(this);
+		final Object second = this.value;
+		if (second == null) {
+			return;
+		}
+		this.value = null;
+		final Operator operator = e.getOperator();
+		if (first instanceof Boolean && second instanceof Boolean) {
+			final boolean a = (Boolean) first;
+			final boolean b = (Boolean) second;
+			if (operator == Operator.AND) {
+				this.value = (a && b);
+			} else if (operator == Operator.OR) {
+				this.value = (a || b);
+			} else if (operator == Operator.EQ) {
+				this.value = (a == b);
+			} else if (operator == Operator.NE) {
+				this.value = (a != b);
+			}
+		} else if (first instanceof BigInteger && second instanceof BigInteger) {
+			final BigInteger a = (BigInteger) first;
+			final BigInteger b = (BigInteger) second;
+			if (operator == Operator.ADD) {
+				this.value = inRange(a.add(b), e.getType());
+			} else if (operator == Operator.SUB) {
+				this.value = inRange(a.subtract(b), e.getType());
+			} else if (operator == Operator.MUL) {
+				this.value = inRange(a.multiply(b), e.getType());
+			} else if (operator == Operator.DIV) {
+				this.value = (b.signum() == 0 ? null : inRange(div(a, b), e.getType()));
+			} else if (operator == Operator.REM) {
+				this.value = (b.signum() == 0 ? null : inRange(a.subtract(b.multiply(div(a, b))), e.getType()));
+			} else if (operator == Operator.EQ) {
+				this.value = (a.compareTo(b) == 0);
+			} else if (operator == Operator.NE) {
+				this.value = (a.compareTo(b) != 0);
+			} else if (operator == Operator.LT) {
+				this.value = (a.compareTo(b) < 0);
+			} else if (operator == Operator.LE) {
+				this.value = (a.compareTo(b) <= 0);
+			} else if (operator == Operator.GT) {
+				this.value = (a.compareTo(b) > 0);
+			} else if (operator == Operator.GE) {
+				this.value = (a.compareTo(b) >= 0);
+			} //else, shifts and bitwise operators: unknown
+		}
+	}
+
+	/**
+	 * The SMT-LIB integer division, i.e., the quotient {@code q}
+	 * such that {@code a == b * q + r} with {@code 0 <= r < |b|}.
+	 */
+	private static BigInteger div(BigInteger a, BigInteger b) {
+		final BigInteger[] qr = a.divideAndRemainder(b); //truncating
+		if (qr[1].signum() < 0) {
+			return (b.signum() > 0 ? qr[0].subtract(BigInteger.ONE) : qr[0].add(BigInteger.ONE));
+		}
+		return qr[0];
+	}
+
+	@Override
+	public void visitFunctionApplication(FunctionApplication x) throws Exception {
+		if (!FunctionApplication.ITE.equals(x.getOperator())) {
+			//the external decision procedure may interpret
+			//the function differently
+			this.value = null;
+			return;
+		}
+		final Primitive[] args = x.getArgs();
+		args[0].accept(this);
+		if (!(this.value instanceof Boolean)) {
+			this.value = null;
+			return;
+		}
+		args[((Boolean) this.value) ? 1 : 2].accept(this);
+	}
+
+	@Override
+	public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
+		final Simplex modelValue = this.model.get(s);
+		this.value = (modelValue == null ? null : fromSimplex(modelValue, s.getType()));
+	}
+
+	@Override
+	public void visitSimplex(Simplex x) {
+		this.value = fromSimplex(x, x.getType());
+	}
+
+	@Override
+	public void visitTerm(Term x) {
+		this.value = null;
+	}
+
+	@Override
+	public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+		x.getArg().accept(this);
+		if (this.value instanceof BigInteger) {
+			//the external decision procedure does not wrap around
+			this.value = inRange((BigInteger) this.value, x.getType());
+		} else {
+			this.value = null;
+		}
+	}
+
+	@Override
+	public void visitWideningConversion(WideningConversion x) throws Exception {
+		x.getArg().accept(this);
+		if (this.value instanceof BigInteger) {
+			this.value = inRange((BigInteger) this.value, x.getType());
+		} else {
+			this.value = null;
+		}
+	}
+
+	/**
+	 * Converts a concrete value to the representation
+	 * used by this evaluator.
+	 *
+	 * @param x a {@link Simplex}.
+	 * @param type a {@code char}, the type of the value.
+	 * @return a {@link Boolean} or a {@link BigInteger}, or
+	 *         {@code null} if {@code x} has floating point type,
+	 *         or does not fit {@code type}.
+	 */
+	private static Object fromSimplex(Simplex x, char type) {
+		final Object actual = x.getActualValue();
+		if (type == Type.BOOLEAN) {
+			if (actual instanceof Boolean) {
+				return actual;
+			}
+			if (isIntegralNumber(actual)) {
+				final long l = ((Number) actual).longValue();
+				return (l == 0 || l == 1 ? Boolean.valueOf(l == 1) : null);
+			}
+			return null;
+		}
+		if (actual instanceof Character) {
+			return inRange(BigInteger.valueOf((Character) actual), type);
+		}
+		if (isIntegralNumber(actual)) {
+			return inRange(BigInteger.valueOf(((Number) actual).longValue()), type);
+		}
+		return null;
+	}
+
+	private static boolean isIntegralNumber(Object o) {
+		return (o instanceof Byte || o instanceof Short || o instanceof Integer || o instanceof Long);
+	}
+
+	/**
+	 * Checks that an integral value fits a type.
+	 *
+	 * @param v a {@link BigInteger}.
+	 * @param type a {@code char}.
+	 * @return {@code v} if {@code type} is integral and {@code v}
+	 *         is in its range, otherwise {@code null}.
+	 */
+	private static BigInteger inRange(BigInteger v, char type) {
+		final long min, max;
+		switch (type) {
+		case Type.BYTE:
+			min = Byte.MIN_VALUE;
+			max = Byte.MAX_VALUE;
+			break;
+		case Type.SHORT:
+			min = Short.MIN_VALUE;
+			max = Short.MAX_VALUE;
+			break;
+		case Type.CHAR:
+			min = Character.MIN_VALUE;
+			max = Character.MAX_VALUE;
+			break;
+		case Type.INT:
+			min = Integer.MIN_VALUE;
+			max = Integer.MAX_VALUE;
+			break;
+		case Type.LONG:
+			min = Long.MIN_VALUE;
+			max = Long.MAX_VALUE;
+			break;
+		default:
+			return null;
+		}
+		return (v.bitLength() < 64 && v.longValue() >= min && v.longValue() <= max ? v : null);
+	}
+}
@@ -1,13 +1,24 @@
 package jbse.jvm;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import jbse.algo.Algorithm;
 import jbse.algo.ContinuationException;
 import jbse.algo.ExecutionContext;
 import jbse.algo.Algo_INIT;
 import jbse.algo.exc.CannotManageStateException;
+import jbse.bc.ControlFlowGraph;
+import jbse.bc.Offsets;
 import jbse.bc.Opcodes;
+import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -20,10 +31,17 @@ import jbse.jvm.exc.FailureException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
 import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseList;
 import jbse.mem.State;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.StateTree;
 import jbse.tree.StateTree.BranchPoint;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
 
 /**
  * An {@code Engine} is a JVM able to symbolically execute the 
@@ -97,6 +115,147 @@ public class Engine implements AutoCloseable {
 	
 	/** The total number of {@link State}s analyzed by the {@link Engine}. */
 	private long analyzedStates = 0L;
+	
+	/** The {@link Metrics} where the run metrics are recorded, or {@code null}. */
+	private final Metrics metrics;
+	
+	/** The step counters, one per opcode, lazily populated. */
+	private final Metrics.Counter[] metricsSteps;
+	
+	/** The branch points counter. */
+	private final Metrics.Counter metricsBranchPoints;
+	
+	/** The backtracks counter. */
+	private final Metrics.Counter metricsBacktracks;
+	
+	/** The cloned states counter. */
+	private final Metrics.Counter metricsClones;
+	
+	/** 
+	 * The cloned heap objects counter, that approximates 
+	 * the amount of memory copied by state cloning.
+	 */
+	private final Metrics.Counter metricsClonedHeapObjects;
+	
+	/** The histogram of the number of pending states. */
+	private final Metrics.Histogram metricsPendingStates;
+	
+	/** The merged states counter. */
+	private final Metrics.Counter metricsMergedStates;
+	
+	/** The pruned states counter. */
+	private final Metrics.Counter metricsPrunedStates;
+	
+	//State merging
+	
+	/** Whether the states must be merged at the join points of branches. */
+	private final boolean doStateMerging;
+	
+	/** The control flow graphs of the methods, lazily built. */
+	private final HashMap<Signature, ControlFlowGraph> cfgs = new HashMap<>();
+	
+	/** The pending merge points, the innermost on top. */
+	private final ArrayDeque<MergePoint> mergePoints = new ArrayDeque<>();
+	
+	/**
+	 * The join point of a branch, where the states 
+	 * of the branch wait for their siblings to be
+	 * merged with them.
+	 * 
+	 * @author Pietro Braione
+	 */
+	private static final class MergePoint {
+		/** The {@link BranchPoint} of the branch. */
+		final BranchPoint bp;
+		
+		/** The signature of the method where the branch is. */
+		final Signature method;
+		
+		/** The size of the thread stack at the branch. */
+		final int stackSize;
+		
+		/** The program counter of the join point. */
+		final int joinPC;
+		
+		/** The number of symbols created at the branch. */
+		final int numSymbols;
+		
+		/** The states of the branch that reached the join point. */
+		final ArrayList<State> parked = new ArrayList<>();
+		
+		MergePoint(BranchPoint bp, Signature method, int stackSize, int joinPC, int numSymbols) {
+			this.bp = bp;
+			this.method = method;
+			this.stackSize = stackSize;
+			this.joinPC = joinPC;
+			this.numSymbols = numSymbols;
+		}
+	}
+	
+	//Subsumption pruning
+	
+	/** Whether the states subsumed by already explored states must be pruned. */
+	private final boolean doSubsumptionPruning;
+	
+	/** 
+	 * The explored states at loop heads, by method and program
+	 * counter of the loop head. 
+	 */
+	private final HashMap<Signature, HashMap<Integer, VisitedStates>> visitedStates = new HashMap<>();
+	
+	/** 
+	 * The maximum number of canonical forms of the explored states
+	 * that are recorded for a loop head. 
+	 */
+	private static final int MAX_VISITED_CANONICAL_FORMS = 256;
+	
+	/** 
+	 * The maximum number of path conditions of the explored states
+	 * that are recorded for a canonical form. 
+	 */
+	private static final int MAX_VISITED_PATH_CONDITIONS = 16;
+	
+	/** The number of pruned states. */
+	private long prunedStates = 0L;
+	
+	/** Whether the current state was pruned by the last step. */
+	private boolean currentStatePruned = false;
+	
+	/**
+	 * The states explored at a loop head, i.e., the path conditions
+	 * of the states by their canonical forms. The least recently
+	 * used canonical forms are evicted, so pruning is best effort.
+	 * 
+	 * @author Pietro Braione
+	 */
+	private static final class VisitedStates extends LinkedHashMap<List<Object>, ArrayDeque<ClauseList>> {
+		private static final long serialVersionUID = -5284395212740913427L;
+
+		VisitedStates() {
+			super(16, 0.75f, true);
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, ArrayDeque<ClauseList>> eldest) {
+			return size() > MAX_VISITED_CANONICAL_FORMS;
+		}
+	}
+	
+	/** The mnemonics of the opcodes, indexed by unsigned opcode. */
+	private static final String[] OPCODE_NAMES = new String[256];
+	
+	static {
+		for (Field f : Opcodes.class.getFields()) {
+			if (Modifier.isStatic(f.getModifiers()) && f.getType() == byte.class && f.getName().startsWith("OP_")) {
+				try {
+					OPCODE_NAMES[f.getByte(null) & 0xFF] = f.getName().substring(3);
+				} catch (IllegalAccessException e) {
+					//this should never happen
+					throw new UnexpectedInternalException(e);
+				}
+			}
+		}
+	}
 
 
 	//Construction.
@@ -105,10 +264,40 @@ public class Engine implements AutoCloseable {
 	 * Constructor. Used by the builder.
 	 * 
 	 * @param ctx an {@link ExecutionContext}.
+	 * @param vom a {@link VariableObserverManager}.
+	 * @param metrics a {@link Metrics} where the run metrics 
+	 *        will be recorded, or {@code null} if no metrics
+	 *        must be recorded.
+	 * @param doStateMerging {@code true} iff the states must 
+	 *        be merged at the join points of branches.
+	 * @param doSubsumptionPruning {@code true} iff the states 
+	 *        subsumed by already explored states must be pruned.
 	 */
-	Engine(ExecutionContext ctx, VariableObserverManager vom) {
+	Engine(ExecutionContext ctx, VariableObserverManager vom, Metrics metrics, boolean doStateMerging, boolean doSubsumptionPruning) {
 		this.ctx = ctx;
 		this.vom = vom;
+		this.metrics = metrics;
+		this.doStateMerging = doStateMerging;
+		this.doSubsumptionPruning = doSubsumptionPruning;
+		if (metrics == null) {
+			this.metricsSteps = null;
+			this.metricsBranchPoints = null;
+			this.metricsBacktracks = null;
+			this.metricsClones = null;
+			this.metricsClonedHeapObjects = null;
+			this.metricsPendingStates = null;
+			this.metricsMergedStates = null;
+			this.metricsPrunedStates = null;
+		} else {
+			this.metricsSteps = new Metrics.Counter[256];
+			this.metricsBranchPoints = metrics.counter("engine.branchPoints");
+			this.metricsBacktracks = metrics.counter("engine.backtracks");
+			this.metricsClones = metrics.counter("engine.clones");
+			this.metricsClonedHeapObjects = metrics.counter("engine.clonedHeapObjects");
+			this.metricsPendingStates = metrics.histogram("engine.pendingStates");
+			this.metricsMergedStates = metrics.counter("engine.mergedStates");
+			this.metricsPrunedStates = metrics.counter("engine.prunedStates");
+		}
 	}
 	
 	
@@ -233,6 +422,10 @@ public class Engine implements AutoCloseable {
 		//updates the information about the state before the step
 		this.preStepSourceRow = this.currentState.getSourceRow();
 		this.preStepStackSize = this.currentState.getStackSize();
+		final byte preStepInstruction = (this.metrics == null && !this.doStateMerging ? 0 : this.currentState.getInstruction());
+		final int preStepPC = (this.doStateMerging || this.doSubsumptionPruning ? this.currentState.getPC() : 0);
+		this.currentStatePruned = false;
+		final int preStepPendingStates = (this.metrics == null ? 0 : this.ctx.stateTree.getNumPendingStates());
 		
 		//steps
 		Algorithm<?, ?, ?, ?, ?> algo, continuation = null;
@@ -286,16 +479,258 @@ public class Engine implements AutoCloseable {
 
 		//manages variable observation
 		this.vom.notifyObservers(retVal);
+		
+		//manages state merging
+		if (this.doStateMerging) {
+			if (retVal != null) {
+				possiblyAddMergePoint(retVal, preStepInstruction, preStepPC);
+			}
+			possiblyMerge();
+		}
+		
+		//manages subsumption pruning at the targets of backward jumps
+		if (this.doSubsumptionPruning && !this.currentState.isStuck() &&
+			this.currentState.getStackSize() == this.preStepStackSize &&
+			this.currentState.getPC() < preStepPC) {
+			possiblyPrune();
+		}
 
 		//updates stats
 		if (this.analyzedStates < Long.MAX_VALUE) { 
 			++this.analyzedStates;
 		}
+		if (this.metrics != null) {
+			recordStepMetrics(preStepInstruction, preStepPendingStates, retVal != null);
+		}
 
 		//returns
 		return retVal;
 	}
 	
+	/**
+	 * Adds a merge point for a branch created by a 
+	 * comparison bytecode if the branch has some
+	 * state yet to be emitted, and its join point 
+	 * is known.
+	 */
+	private void possiblyAddMergePoint(BranchPoint bp, byte instruction, int pc) 
+	throws ThreadStackEmptyException {
+		final int opcode = instruction & 0xFF;
+		final boolean isIfx = (opcode >= (Opcodes.OP_IFEQ & 0xFF) && opcode <= (Opcodes.OP_IF_ICMPLE & 0xFF));
+		final boolean isXcmpy = (opcode >= (Opcodes.OP_LCMP & 0xFF) && opcode <= (Opcodes.OP_DCMPG & 0xFF));
+		if (!(isIfx || isXcmpy) || this.currentState.isStuck() || 
+			this.ctx.stateTree.nextBranch() != bp) {
+			return;
+		}
+		final Signature method = this.currentState.getCurrentMethodSignature();
+		ControlFlowGraph cfg = this.cfgs.get(method);
+		if (cfg == null) {
+			cfg = new ControlFlowGraph(this.currentState.getCurrentFrame().getCode());
+			this.cfgs.put(method, cfg);
+		}
+		int joinPC = cfg.immediatePostDominator(pc);
+		if (isXcmpy && joinPC == pc + Offsets.XCMPY_OFFSET) {
+			//the comparison is followed by a conditional jump 
+			//on its result: joins where the jump joins
+			joinPC = cfg.immediatePostDominator(joinPC);
+		}
+		if (joinPC != ControlFlowGraph.NO_POST_DOMINATOR) {
+			this.mergePoints.push(new MergePoint(bp, method, this.currentState.getStackSize(), joinPC, this.currentState.getNumCreatedSymbols()));
+		}
+	}
+	
+	/**
+	 * Checks whether the current state is at the join point of
+	 * the innermost merge point. In this case, if some sibling of 
+	 * the current state must still be emitted, it suspends the 
+	 * current state and switches to the sibling, otherwise it 
+	 * merges the current state with all the suspended siblings.
+	 */
+	private void possiblyMerge() throws ThreadStackEmptyException, DecisionException {
+		while (!this.mergePoints.isEmpty()) {
+			final MergePoint mp = this.mergePoints.peek();
+			if (this.currentState.isStuck() ||
+				this.currentState.getStackSize() != mp.stackSize ||
+				this.currentState.getPC() != mp.joinPC ||
+				!this.currentState.getCurrentMethodSignature().equals(mp.method)) {
+				return;
+			}
+			if (this.ctx.stateTree.nextBranch() == mp.bp) {
+				mp.parked.add(this.currentState);
+				nextPendingState();
+			} else {
+				this.mergePoints.pop();
+				mergeParked(mp);
+			}
+		}
+	}
+	
+	/**
+	 * Merges the current state with the states suspended 
+	 * at a merge point. The states that cannot be merged 
+	 * are resumed later.
+	 */
+	private void mergeParked(MergePoint mp) throws DecisionException {
+		if (mp.parked.isEmpty()) {
+			return;
+		}
+		final ArrayList<State> toMerge = new ArrayList<>(mp.parked);
+		toMerge.add(this.currentState);
+		State merged = null;
+		int numMerged = 0;
+		final ArrayList<State> notMerged = new ArrayList<>();
+		for (State s : toMerge) {
+			if (s.getNumCreatedSymbols() != mp.numSymbols) {
+				notMerged.add(s);
+			} else if (merged == null) {
+				merged = s;
+			} else {
+				final State m = merged.mergeWith(s, mp.numSymbols);
+				if (m == null) {
+					notMerged.add(s);
+				} else {
+					merged = m;
+					++numMerged;
+				}
+			}
+		}
+		if (merged == null || merged == this.currentState) {
+			notMerged.remove(this.currentState);
+			merged = this.currentState;
+		}
+		for (int i = notMerged.size() - 1; i >= 0; --i) {
+			this.ctx.stateTree.addSuspendedState(notMerged.get(i));
+		}
+		if (merged != this.currentState) {
+			this.currentState = merged;
+			try {
+				this.ctx.decisionProcedure.setAssumptions(this.currentState.getPathCondition());
+			} catch (InvalidInputException e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+			this.currentState.resetLastPathConditionClauses();
+		}
+		if (this.metrics != null && numMerged > 0) {
+			this.metricsMergedStates.add(numMerged);
+		}
+	}
+	
+	/**
+	 * Resumes the states suspended at the merge points whose
+	 * siblings will not be emitted next, and drops these merge
+	 * points.
+	 */
+	private void resumeSuspendedStates() {
+		final BranchPoint next = this.ctx.stateTree.nextBranch();
+		final ArrayList<State> resumed = new ArrayList<>();
+		while (!this.mergePoints.isEmpty() && this.mergePoints.peek().bp != next) {
+			resumed.addAll(this.mergePoints.pop().parked);
+		}
+		for (int i = resumed.size() - 1; i >= 0; --i) {
+			this.ctx.stateTree.addSuspendedState(resumed.get(i));
+		}
+	}
+	
+	/**
+	 * Checks whether the current state is subsumed by a state 
+	 * already explored, i.e., whether they have the same canonical 
+	 * form and the path condition of the current state implies the
+	 * path condition of the explored state. In this case it stops
+	 * the current trace, otherwise it records the current state 
+	 * as explored at its loop head, possibly forgetting the least
+	 * recently matched states explored there.
+	 */
+	private void possiblyPrune() throws DecisionException, ThreadStackEmptyException {
+		HashMap<Integer, VisitedStates> visitedInMethod = this.visitedStates.get(this.currentState.getCurrentMethodSignature());
+		if (visitedInMethod == null) {
+			visitedInMethod = new HashMap<>();
+			this.visitedStates.put(this.currentState.getCurrentMethodSignature(), visitedInMethod);
+		}
+		VisitedStates visitedAtPC = visitedInMethod.get(this.currentState.getPC());
+		if (visitedAtPC == null) {
+			visitedAtPC = new VisitedStates();
+			visitedInMethod.put(this.currentState.getPC(), visitedAtPC);
+		}
+		final List<Object> canonicalForm = this.currentState.canonicalForm();
+		ArrayDeque<ClauseList> visited = visitedAtPC.get(canonicalForm);
+		if (visited == null) {
+			visited = new ArrayDeque<>();
+			visitedAtPC.put(canonicalForm, visited);
+		}
+		for (ClauseList pathCondition : visited) {
+			if (currentPathConditionImplies(pathCondition)) {
+				stopCurrentTrace();
+				this.currentStatePruned = true;
+				++this.prunedStates;
+				if (this.metrics != null) {
+					this.metricsPrunedStates.inc();
+				}
+				return;
+			}
+		}
+		if (visited.size() == MAX_VISITED_PATH_CONDITIONS) {
+			visited.removeFirst();
+		}
+		visited.addLast(this.currentState.getPathConditionList());
+	}
+	
+	/**
+	 * Checks whether the path condition of the current state 
+	 * implies another path condition with the same clauses
+	 * but for the numeric assumptions. Only the assumptions 
+	 * that are not shared by the two path conditions are 
+	 * passed to the decision procedure, that must be 
+	 * synchronized with the path condition of the current state.
+	 */
+	private boolean currentPathConditionImplies(ClauseList other) throws DecisionException {
+		final int prefixLength = ClauseList.commonPrefixLength(this.currentState.getPathConditionList(), other);
+		try {
+			Primitive condition = this.currentState.getCalculator().valBoolean(true);
+			for (Clause c : other.suffix(prefixLength)) {
+				if (c instanceof ClauseAssume) {
+					final Primitive assumption = ((ClauseAssume) c).getCondition();
+					condition = (condition.surelyTrue() ? assumption : condition.and(assumption));
+				}
+			}
+			if (condition.surelyTrue()) {
+				return true;
+			}
+			final Primitive negation = condition.not();
+			if (negation.surelyFalse()) {
+				return true;
+			}
+			return (negation instanceof Expression && 
+					!this.ctx.decisionProcedure.isSat(this.currentState.getClassHierarchy(), (Expression) negation));
+		} catch (InvalidInputException | InvalidOperandException | InvalidTypeException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+	}
+	
+	private void recordStepMetrics(byte instruction, int preStepPendingStates, boolean createdBranch) {
+		final int opcode = instruction & 0xFF;
+		Metrics.Counter steps = this.metricsSteps[opcode];
+		if (steps == null) {
+			steps = this.metrics.counter("engine.steps." + (OPCODE_NAMES[opcode] == null ? Integer.toString(opcode) : OPCODE_NAMES[opcode]));
+			this.metricsSteps[opcode] = steps;
+		}
+		steps.inc();
+		if (createdBranch) {
+			//all the states in the branch but the last one are clones
+			//of the pre-step state, and the current state was taken
+			//from the pending ones
+			final int pendingStates = this.ctx.stateTree.getNumPendingStates();
+			final int clones = pendingStates - preStepPendingStates;
+			this.metricsBranchPoints.inc();
+			if (clones > 0) {
+				this.metricsClones.add(clones);
+				this.metricsClonedHeapObjects.add(((long) clones) * this.currentState.getHeap().size());
+			}
+			this.metricsPendingStates.record(pendingStates);
+		}
+	}
+	
 	/**
 	 * Returns the engine's current JVM state 
 	 * (<em>not</em> a copy).
@@ -306,6 +741,29 @@ public class Engine implements AutoCloseable {
 		return this.currentState;
 	}
 	
+	/**
+	 * Returns the identifiers of the states that have
+	 * been discovered but not yet analyzed.
+	 * 
+	 * @return a {@link List}{@code <}{@link String}{@code >}, 
+	 *         in the order they will be analyzed.
+	 */
+	public List<String> getPendingStateIdentifiers() {
+		return this.ctx.stateTree.getPendingStateIdentifiers();
+	}
+	
+	/**
+	 * Parses a state identifier into branch numbers.
+	 * 
+	 * @param identifier a {@link String}, a state identifier.
+	 * @return an {@code int[]}, the branch numbers in {@code identifier}, 
+	 *         or {@code null} if they cannot be determined (see 
+	 *         {@link StateTree#branches(String)}).
+	 */
+	public int[] parseStateIdentifier(String identifier) {
+		return this.ctx.stateTree.branches(identifier);
+	}
+	
 	/**
 	 * Returns the number of analyzed symbolic states.
 	 * 
@@ -316,6 +774,39 @@ public class Engine implements AutoCloseable {
 		return this.analyzedStates;
 	}
 	
+	/**
+	 * Returns the number of states pruned because 
+	 * subsumed by already explored states.
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getPrunedStates() {
+		return this.prunedStates;
+	}
+	
+	/**
+	 * Checks whether the last step pruned the current
+	 * state because it is subsumed by an already 
+	 * explored state. In this case the current state
+	 * is stuck.
+	 * 
+	 * @return a {@code boolean}.
+	 */
+	public boolean currentStatePruned() {
+		return this.currentStatePruned;
+	}
+	
+	/**
+	 * Returns the run metrics.
+	 * 
+	 * @return the {@link Metrics} where this engine
+	 *         records its run metrics, or {@code null}
+	 *         if the engine does not record them.
+	 */
+	public Metrics getMetrics() {
+		return this.metrics;
+	}
+	
     /**
      * Returns the number of assumed object of a given class.
      * 
@@ -354,7 +845,15 @@ public class Engine implements AutoCloseable {
 	 *         pending backtrack point.
 	 */
 	public boolean canBacktrack() {
-		return this.ctx.stateTree.hasStates();
+		if (this.ctx.stateTree.hasStates()) {
+			return true;
+		}
+		for (MergePoint mp : this.mergePoints) {
+			if (!mp.parked.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -369,6 +868,7 @@ public class Engine implements AutoCloseable {
 		if (!this.canBacktrack()) {
 			throw new CannotBacktrackException();
 		}
+		resumeSuspendedStates();
 		return this.ctx.stateTree.nextIsLastInCurrentBranch();
 	}
 
@@ -387,7 +887,23 @@ public class Engine implements AutoCloseable {
 		if (!this.canBacktrack()) {
 			throw new CannotBacktrackException();
 		}
-
+		resumeSuspendedStates();
+		final BranchPoint retVal = nextPendingState();
+		if (this.metrics != null) {
+			this.metricsBacktracks.inc();
+			this.metricsPendingStates.record(this.ctx.stateTree.getNumPendingStates());
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Makes the next pending state the current state.
+	 * 
+	 * @return the {@link BranchPoint} of the next pending branch.
+	 * @throws DecisionBacktrackException iff the decision procedure fails for 
+	 *         any reason. 
+	 */
+	private BranchPoint nextPendingState() throws DecisionBacktrackException {
 		final boolean isLast = this.ctx.stateTree.nextIsLastInCurrentBranch();
 		final BranchPoint bp = this.ctx.stateTree.nextBranch();
 		
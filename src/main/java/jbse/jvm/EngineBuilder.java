@@ -13,6 +13,7 @@ import jbse.dec.exc.DecisionException;
 import jbse.jvm.exc.CannotBuildEngineException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.rewr.CalculatorRewriting;
 import jbse.tree.DecisionAlternativeComparators;
 
 /**
@@ -57,6 +58,10 @@ public class EngineBuilder {
 		if (parameters.getMethodSignature() == null && parameters.getInitialState() == null) {
 			throw new CannotBuildEngineException(new NullPointerException());
 		}
+		if (!parameters.getReplayTargets().isEmpty() && 
+			parameters.getStateIdentificationMode() != EngineParameters.StateIdentificationMode.REPLICABLE) {
+			throw new CannotBuildEngineException("Replay requires the REPLICABLE state identification mode.");
+		}
 
 		//creates the engine
 		final Engine engine = bootEngineArchitecture(parameters);
@@ -78,18 +83,33 @@ public class EngineBuilder {
 				parameters.getExpansionBackdoor(), 
 				parameters.getTriggerRulesRepo(),
 				new DecisionAlternativeComparators(),     //default 
-				new NativeInvokerPure()                   //default
+				new NativeInvokerPure(),                  //default
+				parameters.getUseArrayTheory()
 				);
 		
 		//sets the meta-level directives
 		setMeta(ctx, parameters);
 		
+		//sets the replayed subtree
+		ctx.stateTree.setReplayTargets(parameters.getReplayTargets());
+		
 		final VariableObserverManager vom = new VariableObserverManager(parameters.getMethodSignature().getClassName());
 
         //sets the observers
         setObservers(vom, parameters);
 
-		return new Engine(ctx, vom);
+        //times the rewritings
+        final Metrics metrics = parameters.getMetrics();
+        if (metrics != null && parameters.getCalculator() instanceof CalculatorRewriting) {
+        	final Metrics.Histogram rewritingTime = metrics.histogram("rewriter.nanos");
+        	((CalculatorRewriting) parameters.getCalculator()).setRewritingTimeListener(rewritingTime::record);
+        }
+
+		//the observed variables are saved at branch points, so
+		//states cannot be merged in presence of observers
+		final boolean doStateMerging = parameters.getDoStateMerging() && parameters.getObservedFields().isEmpty();
+
+		return new Engine(ctx, vom, metrics, doStateMerging, parameters.getDoSubsumptionPruning());
 	}
 	
 	private static void setMeta(ExecutionContext ctx, EngineParameters parameters) {
@@ -103,6 +123,9 @@ public class EngineBuilder {
 		for (String[] rule : parameters.getUninterpreted()) {
 			ctx.addUninterpreted(new Signature(rule[0], rule[1], rule[2]), rule[3]);
 		}
+		if (!parameters.getSummarized().isEmpty()) {
+			ctx.setMethodSummaryProvider(new MethodSummarizer(parameters));
+		}
 	}
 	
 	private static void setObservers(VariableObserverManager vom, EngineParameters parameters) {
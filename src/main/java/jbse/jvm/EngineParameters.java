@@ -1,5 +1,6 @@
 package jbse.jvm;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -145,6 +146,21 @@ public final class EngineParameters implements Cloneable {
 	/** The breadth mode. */
 	private BreadthMode breadthMode = BreadthMode.MORE_THAN_ONE;
 
+	/** Whether arrays must be represented in the SMT theory of arrays. */
+	private boolean useArrayTheory = false;
+
+	/** Whether the states must be merged at the join points of branches. */
+	private boolean doStateMerging = false;
+
+	/** Whether the states subsumed by already explored states must be pruned. */
+	private boolean doSubsumptionPruning = false;
+
+	/** 
+	 * The (unmodifiable) identifiers of the states whose subtrees 
+	 * must be replayed, empty if the whole tree must be explored.
+	 */
+	private List<String> replayTargets = Collections.emptyList();
+
 	/** 
 	 * The initial {@link State} of the symbolic execution, or
 	 * {@code null} iff an initial state for a method invocation 
@@ -167,6 +183,9 @@ public final class EngineParameters implements Cloneable {
 	/** The decision procedure. */
 	private DecisionProcedureAlgorithms decisionProcedure = null;
 	
+	/** The {@link Metrics}, {@code null} iff metrics must not be collected. */
+	private Metrics metrics = null;
+	
 	/** The signatures of the variables observed by {@code this.observers}. */
 	private ArrayList<Signature> observedVars = new ArrayList<>();
 
@@ -185,6 +204,12 @@ public final class EngineParameters implements Cloneable {
     /** The methods to be handled as uninterpreted functions. */
 	private ArrayList<String[]> uninterpreted = new ArrayList<>();
 
+	/** The methods whose invocations must be managed by instantiating their summaries. */
+	private ArrayList<String[]> summarized = new ArrayList<>();
+
+	/** The directory where the method summaries are cached, or {@code null} for no cache. */
+	private Path summariesCacheDirectory = null;
+
 	/**  
 	 * The signature of the method to be executed; overridden by {@code initialState}'s 
 	 * current method when {@code initialState != null}.
@@ -213,6 +238,27 @@ public final class EngineParameters implements Cloneable {
 	public DecisionProcedureAlgorithms getDecisionProcedure() {
 		return this.decisionProcedure;
 	}
+	
+	/**
+	 * Sets the {@link Metrics} where the engine will
+	 * record its run metrics.
+	 * 
+	 * @param metrics a {@link Metrics}, or {@code null}
+	 *        (default) if no metrics must be collected.
+	 */
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Gets the {@link Metrics}.
+	 * 
+	 * @return the {@link Metrics} set by the last call
+	 *         to {@link #setMetrics(Metrics)}, or {@code null}.
+	 */
+	public Metrics getMetrics() {
+		return this.metrics;
+	}
 
 	/**
 	 * Sets the state identification mode, i.e., how a state will be
@@ -262,6 +308,147 @@ public final class EngineParameters implements Cloneable {
 		return this.breadthMode;
 	}
 
+	/**
+	 * Sets whether the arrays with primitive members must be 
+	 * represented in the SMT theory of arrays. In this case
+	 * accessing an array with a symbolic index yields a single
+	 * symbolic value (a select term over the array), rather 
+	 * than one branch for each entry of the array.
+	 * 
+	 * @param useArrayTheory a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setUseArrayTheory(boolean useArrayTheory) {
+		this.useArrayTheory = useArrayTheory;
+	}
+
+	/**
+	 * Gets whether arrays must be represented in the
+	 * SMT theory of arrays.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setUseArrayTheory(boolean)}.
+	 */
+	public boolean getUseArrayTheory() {
+		return this.useArrayTheory;
+	}
+
+	/**
+	 * Sets whether the sibling states produced by a branching
+	 * bytecode must be merged when they reach the join point 
+	 * (immediate post-dominator) of the branch. Merged states 
+	 * carry if-then-else terms for the values that differ in
+	 * the siblings, and the disjunction of their path conditions.
+	 * States are merged only when their heaps have the same 
+	 * shape, and no symbol was created after the branch, and
+	 * never when some variable is observed.
+	 * 
+	 * @param doStateMerging a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setDoStateMerging(boolean doStateMerging) {
+		this.doStateMerging = doStateMerging;
+	}
+
+	/**
+	 * Gets whether the states must be merged at the 
+	 * join points of branches.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setDoStateMerging(boolean)}.
+	 */
+	public boolean getDoStateMerging() {
+		return this.doStateMerging;
+	}
+
+	/**
+	 * Sets whether the states that are subsumed by an already 
+	 * explored state must be pruned. A state is subsumed by 
+	 * another one when they are at the same program point with 
+	 * the same call stack, their heaps are isomorphic and their 
+	 * values are equal, and its path condition implies the path 
+	 * condition of the other state. The check is performed at 
+	 * the targets of backward jumps, i.e., at loop heads, against
+	 * a bounded number of the most recently explored states at
+	 * the same loop head.
+	 * 
+	 * @param doSubsumptionPruning a {@code boolean}; by default 
+	 *        it is {@code false}.
+	 */
+	public void setDoSubsumptionPruning(boolean doSubsumptionPruning) {
+		this.doSubsumptionPruning = doSubsumptionPruning;
+	}
+
+	/**
+	 * Gets whether the states subsumed by already 
+	 * explored states must be pruned.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setDoSubsumptionPruning(boolean)}.
+	 */
+	public boolean getDoSubsumptionPruning() {
+		return this.doSubsumptionPruning;
+	}
+
+	/**
+	 * Sets the state whose subtree must be replayed. At each 
+	 * branch point above the target state only the branch leading 
+	 * to it is explored, and all the subtree of the target state is
+	 * explored. Requires the {@link StateIdentificationMode#REPLICABLE}
+	 * state identification mode. If the breadth mode is not 
+	 * {@link BreadthMode#MORE_THAN_ONE} the decision procedure is 
+	 * not queried at all above the target state.
+	 * 
+	 * @param replayTarget a {@link String}, the identifier of the 
+	 *        target state (e.g., {@code "ROOT|2|1"}), or {@code null} 
+	 *        (default) for exploring the whole tree.
+	 */
+	public void setReplayTarget(String replayTarget) {
+		this.replayTargets = (replayTarget == null ? 
+				Collections.<String>emptyList() : 
+				Collections.singletonList(replayTarget));
+	}
+
+	/**
+	 * Gets the state whose subtree must be replayed.
+	 * 
+	 * @return the {@link String} set by the last call
+	 *         to {@link #setReplayTarget(String)}, or 
+	 *         {@code null} if there is no replay target, 
+	 *         or there are many.
+	 */
+	public String getReplayTarget() {
+		return (this.replayTargets.size() == 1 ? this.replayTargets.get(0) : null);
+	}
+
+	/**
+	 * Sets the states whose subtrees must be replayed, e.g., 
+	 * for resuming an exploration from a checkpointed frontier.
+	 * Same as {@link #setReplayTarget(String)}, but the branches 
+	 * on the paths to all the target states, and the subtrees of
+	 * all the target states, are explored.
+	 * 
+	 * @param replayTargets a {@link List}{@code <}{@link String}{@code >}, 
+	 *        the identifiers of the target states; if empty 
+	 *        (default), the whole tree is explored.
+	 * @throws NullPointerException if {@code replayTargets == null}.
+	 */
+	public void setReplayTargets(List<String> replayTargets) {
+		this.replayTargets = Collections.unmodifiableList(new ArrayList<>(replayTargets));
+	}
+
+	/**
+	 * Gets the states whose subtrees must be replayed.
+	 * 
+	 * @return an unmodifiable {@link List}{@code <}{@link String}{@code >}, 
+	 *         the target states set by the last call to 
+	 *         {@link #setReplayTarget(String)} or 
+	 *         {@link #setReplayTargets(List)}.
+	 */
+	public List<String> getReplayTargets() {
+		return this.replayTargets;
+	}
+
 	/** 
 	 * Adds an {@link ExecutionObserver} performing additional
 	 * actions when a field changes its value.
@@ -653,6 +840,71 @@ public final class EngineParameters implements Cloneable {
 	public List<String[]> getUninterpreted() {
 	    return new ArrayList<>(this.uninterpreted);
 	}
+
+	/**
+	 * Specifies that the invocations of a method must be managed by 
+	 * instantiating a summary of the method, rather than by executing 
+	 * its bytecode. The summary is calculated by symbolically executing 
+	 * the method with symbolic arguments upon its first invocation. Only 
+	 * static methods with primitive parameters and return value, that 
+	 * do not modify the objects existing at their invocation and never 
+	 * raise an exception, are actually summarized; the other methods 
+	 * are executed as usual. 
+	 * 
+	 * @param className the name of the class containing the method.
+	 * @param parametersSignature the types of the method parameters.
+	 * @param methodName the name of the method.
+	 * @throws NullPointerException if any of the above parameters is {@code null}.
+	 */
+	public void addSummarized(String className, String parametersSignature, String methodName) {
+		if (className == null || parametersSignature == null || methodName == null) {
+			throw new NullPointerException();
+		}
+		this.summarized.add(new String[] { className, parametersSignature, methodName });
+	}
+
+	/**
+	 * Clears the methods whose invocations must be managed
+	 * by instantiating their summaries.
+	 */
+	public void clearSummarized() {
+	    this.summarized.clear();
+	}
+
+	/**
+	 * Returns the methods whose invocations must be managed
+	 * by instantiating their summaries.
+	 * 
+	 * @return A {@link List}{@code <}{@link String}{@code []>}, 
+	 *         where each array is a 3-ple (method class name, 
+	 *         method parameters, method name).
+	 */
+	public List<String[]> getSummarized() {
+	    return new ArrayList<>(this.summarized);
+	}
+
+	/**
+	 * Sets the directory where the method summaries are cached
+	 * across runs. The cached summary of a method is reused as long 
+	 * as the bytecode of the class of the method, and of the classes 
+	 * whose code the method executed, does not change.
+	 * 
+	 * @param summariesCacheDirectory a {@link Path}, or {@code null}
+	 *        (default) if the summaries must not be cached.
+	 */
+	public void setSummariesCacheDirectory(Path summariesCacheDirectory) {
+		this.summariesCacheDirectory = summariesCacheDirectory;
+	}
+
+	/**
+	 * Gets the directory where the method summaries are cached.
+	 * 
+	 * @return the {@link Path} set by the last call to 
+	 *         {@link #setSummariesCacheDirectory(Path)}, or {@code null}.
+	 */
+	public Path getSummariesCacheDirectory() {
+		return this.summariesCacheDirectory;
+	}
 	
 	/**
 	 * Sets the signature of the method which must be symbolically executed, 
@@ -704,15 +956,17 @@ public final class EngineParameters implements Cloneable {
 			o.initialState = this.initialState.clone();
 		}
 		o.paths = (ArrayList<String>) this.paths.clone();
-		//calc and decisionProcedure are *not* cloned
+		//calc, decisionProcedure and metrics are *not* cloned
 		o.observedVars = (ArrayList<Signature>) this.observedVars.clone();
+		o.observers = (ArrayList<ExecutionObserver>) this.observers.clone();
 		o.repoTrigger = this.repoTrigger.clone();
 		o.expansionBackdoor = new HashMap<>();
-		for (Map.Entry<String, Set<String>> e : o.expansionBackdoor.entrySet()) {
+		for (Map.Entry<String, Set<String>> e : this.expansionBackdoor.entrySet()) {
 		    o.expansionBackdoor.put(e.getKey(), new HashSet<>(e.getValue()));
 		}
 		o.metaOverridden = (ArrayList<String[]>) this.metaOverridden.clone();
 		o.uninterpreted = (ArrayList<String[]>) this.uninterpreted.clone();
+		o.summarized = (ArrayList<String[]>) this.summarized.clone();
 		return o;
 	}
 }
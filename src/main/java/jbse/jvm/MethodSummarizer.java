@@ -0,0 +1,528 @@
+package jbse.jvm;
+
+import static jbse.bc.Opcodes.OP_AALOAD;
+import static jbse.bc.Opcodes.OP_ARRAYLENGTH;
+import static jbse.bc.Opcodes.OP_BALOAD;
+import static jbse.bc.Opcodes.OP_CALOAD;
+import static jbse.bc.Opcodes.OP_DALOAD;
+import static jbse.bc.Opcodes.OP_FALOAD;
+import static jbse.bc.Opcodes.OP_GETFIELD;
+import static jbse.bc.Opcodes.OP_GETSTATIC;
+import static jbse.bc.Opcodes.OP_IALOAD;
+import static jbse.bc.Opcodes.OP_LALOAD;
+import static jbse.bc.Opcodes.OP_SALOAD;
+import static jbse.common.Type.isCat_1;
+import static jbse.common.Type.isPrimitive;
+import static jbse.common.Type.splitParametersDescriptors;
+import static jbse.common.Type.splitReturnValueDescriptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import jbse.algo.MethodSummary;
+import jbse.algo.MethodSummaryProvider;
+import jbse.algo.exc.CannotManageStateException;
+import jbse.bc.ClassFile;
+import jbse.bc.Signature;
+import jbse.bc.exc.BadClassFileException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.bc.exc.MethodCodeNotFoundException;
+import jbse.bc.exc.MethodNotFoundException;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
+import jbse.jvm.exc.CannotBacktrackException;
+import jbse.jvm.exc.CannotBuildEngineException;
+import jbse.jvm.exc.EngineStuckException;
+import jbse.jvm.exc.FailureException;
+import jbse.jvm.exc.InitializationException;
+import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.Frame;
+import jbse.mem.State;
+import jbse.mem.exc.ContradictionException;
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+import jbse.mem.exc.InvalidSlotException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.val.Calculator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Reference;
+import jbse.val.ReferenceConcrete;
+import jbse.val.Value;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * A {@link MethodSummaryProvider} that calculates the summary
+ * of a method upon its first invocation, by running a nested
+ * {@link Engine} that symbolically executes the method with
+ * symbolic arguments, starting from the state where the method
+ * is invoked. Since a summary is reused at all the invocations
+ * of its method, a method is not summarized if it reads a static
+ * field or an object that exists at the invocation, whose values
+ * may differ at another invocation. Only static methods with 
+ * primitive parameters and return value are summarized, and their
+ * summaries have no effects on the heap. The summaries are kept in
+ * memory, and possibly cached on disk in files whose names depend 
+ * on the bytecode of the class of the summarized method. Each file 
+ * also records the classes whose code the summarized method executed,
+ * and the digest of their bytecode, so that a cached summary is not 
+ * reused after any of these classes changes.
+ *
+ * @author Pietro Braione
+ */
+final class MethodSummarizer implements MethodSummaryProvider {
+	/** The maximum number of cases of a summary. */
+	private static final int MAX_CASES = 64;
+
+	/** The maximum number of steps of the nested engine for calculating a summary. */
+	private static final long MAX_STEPS = 100_000L;
+
+	/** The extension of the files of the cached summaries. */
+	private static final String SUMMARY_FILE_EXTENSION = ".summary";
+
+	/** 
+	 * The first word of the first line of the files of the cached 
+	 * summaries, followed by the digest and the names of the classes 
+	 * whose code the summarized method executed. 
+	 */
+	private static final String DEPENDS = "depends";
+
+	/** The {@link EngineParameters} for the nested engines. */
+	private final EngineParameters parameters;
+
+	/** The shared decision procedure. */
+	private final DecisionProcedureAlgorithms decisionProcedure;
+
+	/** The methods that must be summarized. */
+	private final HashSet<Signature> summarized = new HashSet<>();
+
+	/** The directory of the cached summaries, or {@code null}. */
+	private final Path cacheDirectory;
+
+	/**
+	 * The summaries calculated so far; a method is mapped
+	 * onto {@code null} if it cannot be summarized.
+	 */
+	private final HashMap<Signature, MethodSummary> summaries = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parameters the {@link EngineParameters} of the
+	 *        {@link Engine} whose method invocations must be
+	 *        summarized.
+	 */
+	MethodSummarizer(EngineParameters parameters) {
+		for (String[] method : parameters.getSummarized()) {
+			this.summarized.add(new Signature(method[0], method[1], method[2]));
+		}
+		this.cacheDirectory = parameters.getSummariesCacheDirectory();
+		this.decisionProcedure = parameters.getDecisionProcedure();
+
+		//the nested engines do not summarize, observe
+		//variables, record metrics nor replay
+		this.parameters = parameters.clone();
+		this.parameters.clearSummarized();
+		this.parameters.clearExecutionObservers();
+		this.parameters.setMetrics(null);
+		this.parameters.setReplayTarget(null);
+	}
+
+	@Override
+	public MethodSummary getSummary(State state, Signature methodSignature)
+	throws DecisionException {
+		if (!this.summarized.contains(methodSignature)) {
+			return null;
+		}
+		if (this.summaries.containsKey(methodSignature)) {
+			return this.summaries.get(methodSignature);
+		}
+
+		final ClassFile classFile;
+		try {
+			classFile = state.getClassHierarchy().getClassFile(methodSignature.getClassName());
+			if (!isSummarizable(classFile, methodSignature)) {
+				this.summaries.put(methodSignature, null);
+				return null;
+			}
+		} catch (BadClassFileException | MethodNotFoundException e) {
+			//this should never happen after resolution
+			throw new UnexpectedInternalException(e);
+		}
+
+		final Path cacheFile = cacheFile(classFile, methodSignature);
+		MethodSummary summary = load(cacheFile, methodSignature, state);
+		if (summary == null) {
+			final TreeSet<String> executedClasses = new TreeSet<>();
+			try {
+				summary = summarize(state, methodSignature, executedClasses);
+			} finally {
+				//synchronizes the decision procedure with the path condition
+				try {
+					this.decisionProcedure.setAssumptions(state.getPathCondition());
+				} catch (InvalidInputException e) {
+					//this should never happen
+					throw new UnexpectedInternalException(e);
+				}
+			}
+			if (summary != null) {
+				store(cacheFile, summary, executedClasses, state);
+			}
+		}
+		this.summaries.put(methodSignature, summary);
+		return summary;
+	}
+
+	private static boolean isSummarizable(ClassFile classFile, Signature methodSignature)
+	throws MethodNotFoundException {
+		if (!classFile.isMethodStatic(methodSignature) ||
+			classFile.isMethodNative(methodSignature) ||
+			classFile.isMethodAbstract(methodSignature)) {
+			return false;
+		}
+		for (String paramDescriptor : splitParametersDescriptors(methodSignature.getDescriptor())) {
+			if (!isPrimitive(paramDescriptor)) {
+				return false;
+			}
+		}
+		return isPrimitive(splitReturnValueDescriptor(methodSignature.getDescriptor()));
+	}
+
+	/**
+	 * Summarizes a method by running a nested engine.
+	 *
+	 * @param state the {@link State} where the method is invoked.
+	 * @param methodSignature the {@link Signature} of the method.
+	 * @param executedClasses a {@link Set}{@code <}{@link String}{@code >},
+	 *        where the names of the classes whose code is executed 
+	 *        are added.
+	 * @return its {@link MethodSummary}, or {@code null} if
+	 *         it cannot be summarized.
+	 * @throws DecisionException if the decision procedure fails.
+	 */
+	private MethodSummary summarize(State state, Signature methodSignature, Set<String> executedClasses)
+	throws DecisionException {
+		//the initial state has the heap and static method area of the
+		//invocation state, and a single frame for the method with
+		//symbolic arguments
+		final State initialState = state.clone();
+		initialState.clearStack();
+		final PrimitiveSymbolic[] params;
+		try {
+			initialState.pushFrameSymbolic(methodSignature);
+			params = params(initialState.getRootFrame(), methodSignature);
+		} catch (BadClassFileException | MethodNotFoundException | MethodCodeNotFoundException |
+				 ThreadStackEmptyException | InvalidSlotException e) {
+			//this should never happen after resolution
+			throw new UnexpectedInternalException(e);
+		}
+		final int prefixLength = initialState.getPathCondition().size();
+		final Set<Long> initialObjects = new HashSet<>(initialState.getHeap().keySet());
+
+		//builds the nested engine; note that it must not be closed,
+		//because it shares the decision procedure with the outer one
+		final EngineParameters nestedParameters = this.parameters.clone();
+		nestedParameters.setInitialState(initialState);
+		final Engine engine;
+		try {
+			engine = new EngineBuilder().build(nestedParameters);
+		} catch (CannotBuildEngineException | InitializationException |
+				 InvalidClassFileFactoryClassException | NonexistingObservedVariablesException |
+				 ClasspathException e) {
+			return null;
+		}
+
+		//explores all the paths, and turns the leaves into the cases of the summary
+		final Calculator calc = state.getCalculator();
+		final ArrayList<Primitive> preconditions = new ArrayList<>();
+		final ArrayList<Primitive> returnValues = new ArrayList<>();
+		long steps = 0;
+		try {
+			while (true) {
+				boolean contradiction = false;
+				while (engine.canStep()) {
+					if (++steps > MAX_STEPS ||
+						readsInitialState(engine.getCurrentState(), initialObjects)) {
+						return null;
+					}
+					executedClasses.add(engine.getCurrentState().getCurrentMethodSignature().getClassName());
+					try {
+						engine.step();
+					} catch (ContradictionException e) {
+						//the path violates some assumption
+						contradiction = true;
+						break;
+					}
+				}
+				if (!contradiction) {
+					if (preconditions.size() == MAX_CASES ||
+						!addCase(engine.getCurrentState(), initialState, prefixLength, calc, preconditions, returnValues)) {
+						return null;
+					}
+				}
+				if (!engine.canBacktrack()) {
+					break;
+				}
+				engine.backtrack();
+			}
+		} catch (EngineStuckException | CannotManageStateException | ClasspathException |
+				 ThreadStackEmptyException | FailureException | CannotBacktrackException e) {
+			return null;
+		}
+		return MethodSummary.make(methodSignature, calc, params, preconditions, returnValues);
+	}
+
+	/**
+	 * Checks whether the next bytecode of a state reads a static
+	 * field or an object of the initial state of the nested engine.
+	 *
+	 * @param current the current {@link State} of the nested engine.
+	 * @param initialObjects a {@link Set}{@code <}{@link Long}{@code >},
+	 *        the heap positions of the objects of the initial state.
+	 * @return {@code true} iff the next bytecode of {@code current} is
+	 *         a {@code getstatic}, or a {@code getfield}, {@code *aload}
+	 *         or {@code arraylength} on a symbolic reference or on a
+	 *         concrete reference to an object in {@code initialObjects}.
+	 * @throws ThreadStackEmptyException if {@code current} has an
+	 *         empty stack.
+	 */
+	private static boolean readsInitialState(State current, Set<Long> initialObjects)
+	throws ThreadStackEmptyException {
+		final Value read;
+		try {
+			switch (current.getInstruction()) {
+			case OP_GETSTATIC:
+				return true;
+			case OP_GETFIELD:
+			case OP_ARRAYLENGTH:
+				read = current.topOperand();
+				break;
+			case OP_IALOAD:
+			case OP_LALOAD:
+			case OP_FALOAD:
+			case OP_DALOAD:
+			case OP_AALOAD:
+			case OP_BALOAD:
+			case OP_CALOAD:
+			case OP_SALOAD:
+				read = current.getCurrentFrame().operands(2)[0];
+				break;
+			default:
+				return false;
+			}
+		} catch (InvalidNumberOfOperandsException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		if (!(read instanceof Reference)) {
+			return false;
+		}
+		if (read instanceof ReferenceConcrete) {
+			//null does not refer to any object
+			return (!((ReferenceConcrete) read).isNull() &&
+					initialObjects.contains(((ReferenceConcrete) read).getHeapPosition()));
+		}
+		//a symbolic reference may refer to any object of the initial state
+		return true;
+	}
+
+	private static PrimitiveSymbolic[] params(Frame rootFrame, Signature methodSignature)
+	throws InvalidSlotException {
+		final String[] paramsDescriptors = splitParametersDescriptors(methodSignature.getDescriptor());
+		final PrimitiveSymbolic[] retVal = new PrimitiveSymbolic[paramsDescriptors.length];
+		for (int i = 0, slot = 0; i < retVal.length; ++i) {
+			retVal[i] = (PrimitiveSymbolic) rootFrame.getLocalVariableValue(slot);
+			slot += (isCat_1(retVal[i].getType()) ? 1 : 2);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Adds a case to a summary.
+	 *
+	 * @param leaf the {@link State} at the end of a path.
+	 * @param initialState the initial {@link State} of the path.
+	 * @param prefixLength the length of the path condition of
+	 *        {@code initialState}.
+	 * @param calc a {@link Calculator}.
+	 * @param preconditions the preconditions of the summary,
+	 *        where the path condition of {@code leaf} is added.
+	 * @param returnValues the return values of the summary,
+	 *        where the return value of {@code leaf} is added.
+	 * @return {@code false} iff {@code leaf} cannot be summarized,
+	 *         because it raised an exception, or it modified some
+	 *         object of {@code initialState}, or it resolved some
+	 *         symbolic reference.
+	 */
+	private static boolean addCase(State leaf, State initialState, int prefixLength, Calculator calc,
+								   ArrayList<Primitive> preconditions, ArrayList<Primitive> returnValues) {
+		final Value returnValue = leaf.getStuckReturn();
+		if (leaf.getStuckException() != null || !(returnValue instanceof Primitive) ||
+			!leaf.preservesObjectsOf(initialState)) {
+			return false;
+		}
+		Primitive precondition = calc.valBoolean(true);
+		try {
+			for (Clause c : leaf.getPathConditionList().suffix(prefixLength)) {
+				if (!(c instanceof ClauseAssume)) {
+					return false;
+				}
+				final Primitive condition = ((ClauseAssume) c).getCondition();
+				precondition = (precondition.surelyTrue() ? condition : precondition.and(condition));
+			}
+		} catch (InvalidOperandException | InvalidTypeException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		preconditions.add(precondition);
+		returnValues.add((Primitive) returnValue);
+		return true;
+	}
+
+	/**
+	 * Returns the file where the summary of a method is cached.
+	 *
+	 * @param classFile the {@link ClassFile} of the method class.
+	 * @param methodSignature the {@link Signature} of the method.
+	 * @return a {@link Path}, or {@code null} if there is no cache.
+	 *         The file name is the digest of the bytecode of all the
+	 *         methods in {@code classFile}, and of {@code methodSignature}.
+	 */
+	private Path cacheFile(ClassFile classFile, Signature methodSignature) {
+		if (this.cacheDirectory == null) {
+			return null;
+		}
+		final MessageDigest digest = newDigest();
+		digest.update(methodSignature.toString().getBytes(StandardCharsets.UTF_8));
+		update(digest, classFile);
+		return this.cacheDirectory.resolve(hex(digest.digest()) + SUMMARY_FILE_EXTENSION);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+	}
+
+	/**
+	 * Updates a digest with the bytecode of all the 
+	 * methods of a class.
+	 */
+	private static void update(MessageDigest digest, ClassFile classFile) {
+		final Signature[] methods = classFile.getMethodSignatures();
+		Arrays.sort(methods, Comparator.comparing(Signature::toString));
+		for (Signature method : methods) {
+			digest.update(method.toString().getBytes(StandardCharsets.UTF_8));
+			try {
+				digest.update(classFile.getMethodCodeBySignature(method));
+			} catch (MethodNotFoundException | MethodCodeNotFoundException e) {
+				//abstract or native method: no bytecode
+			}
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		final StringBuilder retVal = new StringBuilder();
+		for (byte b : bytes) {
+			retVal.append(String.format("%02x", b));
+		}
+		return retVal.toString();
+	}
+
+	/**
+	 * Returns the digest of the bytecode of some classes.
+	 *
+	 * @param classNames a {@link Collection}{@code <}{@link String}{@code >},
+	 *        the names of the classes.
+	 * @param state a {@link State}, whose class hierarchy 
+	 *        provides the classes.
+	 * @return a {@link String}, or {@code null} if some class 
+	 *         is missing.
+	 */
+	private static String digest(Collection<String> classNames, State state) {
+		final MessageDigest digest = newDigest();
+		for (String className : new TreeSet<>(classNames)) {
+			digest.update(className.getBytes(StandardCharsets.UTF_8));
+			try {
+				update(digest, state.getClassHierarchy().getClassFile(className));
+			} catch (BadClassFileException e) {
+				return null;
+			}
+		}
+		return hex(digest.digest());
+	}
+
+	/**
+	 * Loads a cached summary, provided the classes whose 
+	 * code the summarized method executed are unchanged.
+	 */
+	private static MethodSummary load(Path cacheFile, Signature methodSignature, State state) {
+		if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+			return null;
+		}
+		final String text;
+		try {
+			text = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			//unreadable cache file: recalculates the summary
+			return null;
+		}
+		final int endOfHeader = text.indexOf('\n');
+		if (endOfHeader < 0) {
+			return null;
+		}
+		final String[] header = text.substring(0, endOfHeader).split(" ");
+		if (header.length < 2 || !DEPENDS.equals(header[0])) {
+			return null;
+		}
+		final String digest = digest(Arrays.asList(header).subList(2, header.length), state);
+		if (!header[1].equals(digest)) {
+			//some class changed: recalculates the summary
+			return null;
+		}
+		return MethodSummary.fromText(methodSignature, state.getCalculator(), text.substring(endOfHeader + 1));
+	}
+
+	private static void store(Path cacheFile, MethodSummary summary, Set<String> executedClasses, State state) {
+		if (cacheFile == null) {
+			return;
+		}
+		final String text = summary.toText();
+		final String digest = digest(executedClasses, state);
+		if (text == null || digest == null) {
+			return;
+		}
+		final StringBuilder header = new StringBuilder(DEPENDS + " " + digest);
+		for (String className : executedClasses) {
+			header.append(' ');
+			header.append(className);
+		}
+		header.append('\n');
+		try {
+			Files.createDirectories(cacheFile.getParent());
+			Files.write(cacheFile, (header + text).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			//the summary is not cached
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package jbse.jvm;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A registry of named run metrics, i.e., {@link Counter}s and
+ * {@link Histogram}s. Counters and histograms are built on
+ * striped accumulators ({@link LongAdder}), so updating them
+ * is cheap and does not require synchronization, and they
+ * can be read (e.g., by a {@link MetricsDumper}) while the
+ * engine runs.
+ *
+ * @author Pietro Braione
+ */
+public final class Metrics {
+	/**
+	 * A monotonic counter.
+	 */
+	public static final class Counter {
+		private final LongAdder value = new LongAdder();
+
+		private Counter() { }
+
+		/**
+		 * Increments the counter by one.
+		 */
+		public void inc() {
+			this.value.increment();
+		}
+
+		/**
+		 * Increments the counter.
+		 *
+		 * @param delta a {@code long}, the increment.
+		 */
+		public void add(long delta) {
+			this.value.add(delta);
+		}
+
+		/**
+		 * Returns the current value of the counter.
+		 *
+		 * @return a {@code long}.
+		 */
+		public long get() {
+			return this.value.sum();
+		}
+	}
+
+	/**
+	 * A histogram of nonnegative {@code long} samples
+	 * with exponential (power of two) buckets. Bucket
+	 * {@code i > 0} counts the samples {@code v} such that
+	 * {@code 2^(i - 1) <= v < 2^i}, bucket {@code 0} counts
+	 * the samples equal to {@code 0}.
+	 */
+	public static final class Histogram {
+		private static final int BUCKETS = 64;
+		private final LongAdder[] buckets = new LongAdder[BUCKETS];
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+		private Histogram() {
+			for (int i = 0; i < BUCKETS; ++i) {
+				this.buckets[i] = new LongAdder();
+			}
+		}
+
+		/**
+		 * Records a sample.
+		 *
+		 * @param value a {@code long}; negative values are
+		 *        recorded as {@code 0}.
+		 */
+		public void record(long value) {
+			final long v = (value < 0 ? 0 : value);
+			this.buckets[BUCKETS - Long.numberOfLeadingZeros(v)].increment();
+			this.count.increment();
+			this.sum.add(v);
+			this.max.accumulate(v);
+		}
+
+		/**
+		 * Returns the number of recorded samples.
+		 *
+		 * @return a {@code long}.
+		 */
+		public long count() {
+			return this.count.sum();
+		}
+
+		/**
+		 * Returns the sum of the recorded samples.
+		 *
+		 * @return a {@code long}.
+		 */
+		public long sum() {
+			return this.sum.sum();
+		}
+
+		/**
+		 * Returns the maximum recorded sample.
+		 *
+		 * @return a {@code long}, {@code 0} if no
+		 *         sample was recorded.
+		 */
+		public long max() {
+			return this.max.get();
+		}
+
+		/**
+		 * Returns an approximation of a percentile of
+		 * the recorded samples.
+		 *
+		 * @param p a {@code double} between {@code 0} and {@code 1}.
+		 * @return a {@code long}, the upper bound of the bucket
+		 *         that contains the {@code p}-th percentile.
+		 */
+		public long percentile(double p) {
+			final long tot = count();
+			if (tot == 0) {
+				return 0L;
+			}
+			final long rank = (long) Math.ceil(p * tot);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; ++i) {
+				seen += this.buckets[i].sum();
+				if (seen >= rank) {
+					return Math.min(max(), (i == 0 ? 0L : (i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1)));
+				}
+			}
+			return max();
+		}
+	}
+
+	private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+	private final long creationTime = System.currentTimeMillis();
+
+	/**
+	 * Constructor.
+	 */
+	public Metrics() { }
+
+	/**
+	 * Returns a {@link Counter}, creating it if
+	 * it does not exist.
+	 *
+	 * @param name a {@link String}, the name of
+	 *        the counter.
+	 * @return the {@link Counter} with name {@code name}.
+	 */
+	public Counter counter(String name) {
+		return this.counters.computeIfAbsent(name, k -> new Counter());
+	}
+
+	/**
+	 * Returns a {@link Histogram}, creating it if
+	 * it does not exist.
+	 *
+	 * @param name a {@link String}, the name of
+	 *        the histogram.
+	 * @return the {@link Histogram} with name {@code name}.
+	 */
+	public Histogram histogram(String name) {
+		return this.histograms.computeIfAbsent(name, k -> new Histogram());
+	}
+
+	/**
+	 * Returns the current values of all the counters.
+	 *
+	 * @return a sorted {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}
+	 *         mapping each counter name to its value.
+	 */
+	public Map<String, Long> counterValues() {
+		final TreeMap<String, Long> retVal = new TreeMap<>();
+		for (Map.Entry<String, Counter> e : this.counters.entrySet()) {
+			retVal.put(e.getKey(), e.getValue().get());
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns all the histograms.
+	 *
+	 * @return a sorted {@link Map}{@code <}{@link String}{@code , }{@link Histogram}{@code >}
+	 *         mapping each histogram name to the histogram.
+	 */
+	public Map<String, Histogram> histograms() {
+		return new TreeMap<>(this.histograms);
+	}
+
+	/**
+	 * Returns a snapshot of all the metrics as a
+	 * single-line JSON object.
+	 *
+	 * @return a {@link String}.
+	 */
+	public String toJson() {
+		final StringBuilder buf = new StringBuilder();
+		buf.append("{\"time\":");
+		buf.append(System.currentTimeMillis() - this.creationTime);
+		buf.append(",\"counters\":{");
+		boolean first = true;
+		for (Map.Entry<String, Long> e : counterValues().entrySet()) {
+			if (!first) {
+				buf.append(',');
+			}
+			first = false;
+			appendName(buf, e.getKey());
+			buf.append(e.getValue());
+		}
+		buf.append("},\"histograms\":{");
+		first = true;
+		for (Map.Entry<String, Histogram> e : histograms().entrySet()) {
+			if (!first) {
+				buf.append(',');
+			}
+			first = false;
+			final Histogram h = e.getValue();
+			appendName(buf, e.getKey());
+			buf.append("{\"count\":").append(h.count());
+			buf.append(",\"sum\":").append(h.sum());
+			buf.append(",\"max\":").append(h.max());
+			buf.append(",\"p50\":").append(h.percentile(0.5));
+			buf.append(",\"p90\":").append(h.percentile(0.9));
+			buf.append(",\"p99\":").append(h.percentile(0.99));
+			buf.append('}');
+		}
+		buf.append("}}");
+		return buf.toString();
+	}
+
+	private static void appendName(StringBuilder buf, String name) {
+		buf.append('"');
+		for (int i = 0; i < name.length(); ++i) {
+			final char c = name.charAt(i);
+			if (c == '"' || c == '\\') {
+				buf.append('\\');
+			}
+			buf.append(c);
+		}
+		buf.append("\":");
+	}
+}
@@ -0,0 +1,80 @@
+package jbse.jvm;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically dumps a {@link Metrics} registry to a
+ * {@link Writer} in JSON-lines format, i.e., one line
+ * with a JSON object (as produced by {@link Metrics#toJson()})
+ * per dump. The dump is done by a daemon thread, so the
+ * engine is never blocked by it.
+ *
+ * @author Pietro Braione
+ */
+public final class MetricsDumper implements AutoCloseable {
+	private final Metrics metrics;
+	private final Writer out;
+	private final long period;
+	private final TimeUnit unit;
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * Constructor. Dumping starts upon invocation
+	 * of {@link #start()}.
+	 *
+	 * @param metrics the {@link Metrics} to dump.
+	 * @param out the {@link Writer} where the metrics
+	 *        will be written.
+	 * @param period a {@code long}, the dump period.
+	 * @param unit the {@link TimeUnit} of {@code period}.
+	 */
+	public MetricsDumper(Metrics metrics, Writer out, long period, TimeUnit unit) {
+		this.metrics = metrics;
+		this.out = out;
+		this.period = period;
+		this.unit = unit;
+		this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread t = new Thread(r, "jbse-metrics-dumper");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Starts dumping.
+	 */
+	public void start() {
+		this.executor.scheduleAtFixedRate(this::dump, this.period, this.period, this.unit);
+	}
+
+	/**
+	 * Writes a line with the current metrics.
+	 */
+	public synchronized void dump() {
+		try {
+			this.out.write(this.metrics.toJson());
+			this.out.write('\n');
+			this.out.flush();
+		} catch (IOException e) {
+			//best effort, stops dumping
+			this.executor.shutdown();
+		}
+	}
+
+	/**
+	 * Stops dumping, writes a final line with the
+	 * current metrics and closes the {@link Writer}.
+	 *
+	 * @throws IOException if closing the {@link Writer} fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.executor.shutdownNow();
+		dump();
+		this.out.close();
+	}
+}
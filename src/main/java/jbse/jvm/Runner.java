@@ -1,5 +1,8 @@
 package jbse.jvm;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 import jbse.algo.exc.CannotManageStateException;
@@ -10,6 +13,7 @@ import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
 import jbse.mem.State;
+import jbse.mem.StateIdentifier;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.StateTree.BranchPoint;
@@ -116,6 +120,16 @@ public class Runner {
 		 */
 		public boolean atScopeExhaustionCount() { return false; }
 
+		/**
+		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
+		 * whenever after a step the current state has been pruned 
+		 * because it is subsumed by an already explored state.
+		 * 
+		 * @return {@code true} iff the {@link Runner} must stop
+		 *         {@link Runner#run run}ning.
+		 */
+		public boolean atStatePruned() { return false; }
+
 		/**
 		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
 		 * whenever execution times out.
@@ -364,6 +378,53 @@ public class Runner {
 
 	/** he identifier of the branch state in the state space subregion we want to explore (null for everything). */
 	private String identifierSubregion;
+	
+	/** 
+	 * The branch numbers of {@link #identifierSubregion}, or {@code null} 
+	 * if it is {@code null} or they cannot be determined (e.g., with
+	 * {@link StateIdentificationMode#LONG} state identification), in 
+	 * which case the identifiers are compared as strings.
+	 */
+	private final int[] branchesSubregion;
+	
+	/** 
+	 * The identifiers of the states whose subtrees must not be explored, 
+	 * e.g., because they were handed over to some other runner.
+	 */
+	private final HashSet<String> excludedSubregions = new HashSet<>();
+	
+	/** 
+	 * The branch numbers of the {@link #excludedSubregions}, 
+	 * by their number. 
+	 */
+	private final HashMap<Integer, ArrayList<int[]>> branchesExcluded = new HashMap<>();
+	
+	/** 
+	 * Whether the branch numbers of some of the {@link #excludedSubregions} 
+	 * cannot be determined, so they must be compared as strings. 
+	 */
+	private boolean excludedAsStrings = false;
+	
+	/** The identifier of the state last checked by {@link #currentStateIsInRunSubregion()}. */
+	private StateIdentifier checkedIdentifier = null;
+	
+	/** Whether the state last checked is in the run subregion. */
+	private boolean checkedInSubregion;
+	
+	/** 
+	 * Whether the identifier of the state last checked has 
+	 * {@link #identifierSubregion} as a prefix. 
+	 */
+	private boolean checkedBelowSubregion;
+	
+	/** 
+	 * Whether the identifier of the state last checked is 
+	 * a prefix of {@link #identifierSubregion}. 
+	 */
+	private boolean checkedAboveSubregion;
+	
+	/** The number of branch numbers of the identifier of the state last checked. */
+	private int checkedNumBranches;
 
 	/** The heap scope. */
 	private final Map<String, Integer> heapScope;
@@ -382,6 +443,9 @@ public class Runner {
 
 	/** Counter for the number of analyzed traces stopped because of scope exhaustion. */
 	private long tracesOutOfScope;
+
+	/** Counter for the number of analyzed traces pruned because of subsumption. */
+	private long tracesPruned;
 	
 	/** Stores the start time. */
 	private long startTime;
@@ -389,6 +453,24 @@ public class Runner {
     /** Stores the stop time. */
     private long stopTime;
     
+    /** The timeout is checked every this number of steps. */
+    private static final int TIMEOUT_CHECK_STRIDE = 64;
+    
+    /** The number of steps since the last timeout check. */
+    private int stepsSinceTimeoutCheck;
+    
+    /** Whether {@link #actions} overrides {@link Actions#atMethodPre()}. */
+    private final boolean hookMethodPre;
+    
+    /** Whether {@link #actions} overrides {@link Actions#atSourceRowPre()}. */
+    private final boolean hookSourceRowPre;
+    
+    /** Whether {@link #actions} overrides {@link Actions#atMethodPost()}. */
+    private final boolean hookMethodPost;
+    
+    /** Whether {@link #actions} overrides {@link Actions#atSourceRowPost()}. */
+    private final boolean hookSourceRowPost;
+    
 	/**
 	 * Constructor.
 	 * 
@@ -418,24 +500,183 @@ public class Runner {
 		this.actions = actions;
 		this.actions.engine = engine;
 		this.identifierSubregion = identifierSubregion;
+		this.branchesSubregion = (identifierSubregion == null ? null : engine.parseStateIdentifier(identifierSubregion));
 		this.timeout = timeout;
 		this.heapScope = heapScope;
 		this.depthScope = depthScope;
 		this.countScope = countScope;
 		this.tracesOutOfScope = 0;
+		this.tracesPruned = 0;
 		this.tracesTot = 0;
+		
+		//the checks that trigger the hooks are done only if 
+		//some hook consumes them
+		this.hookMethodPre = overrides(actions, "atMethodPre");
+		this.hookSourceRowPre = overrides(actions, "atSourceRowPre");
+		this.hookMethodPost = overrides(actions, "atMethodPost");
+		this.hookSourceRowPost = overrides(actions, "atSourceRowPost");
+	}
+	
+	/**
+	 * Checks whether an {@link Actions} overrides one of 
+	 * its parameterless methods.
+	 * 
+	 * @param actions an {@link Actions}.
+	 * @param methodName the name of the method.
+	 * @return {@code true} iff the class of {@code actions}
+	 *         overrides the method, or the method cannot
+	 *         be inspected.
+	 */
+	private static boolean overrides(Actions actions, String methodName) {
+		try {
+			return (actions.getClass().getMethod(methodName).getDeclaringClass() != Actions.class);
+		} catch (NoSuchMethodException | SecurityException e) {
+			return true;
+		}
 	}
 
+	/**
+	 * Checks whether the current state is in the run subregion.
+	 * The identifiers are compared as paths of branch numbers, 
+	 * that are updated incrementally as the execution goes down
+	 * the tree, and are rendered as strings only if their branch 
+	 * numbers cannot be determined.
+	 */
 	private boolean currentStateIsInRunSubregion() {
-		if (identifierSubregion == null) {
+		if (this.identifierSubregion == null && this.excludedSubregions.isEmpty()) {
 			return true;
 		}
-		final String currentRegion = this.engine.getCurrentState().getIdentifier();
-		final boolean retVal = (currentRegion.startsWith(identifierSubregion) || 
-				identifierSubregion.startsWith(currentRegion));
+		
+		//the identifier changes only at branches, so in most
+		//cases the result of the previous check can be reused
+		final StateIdentifier currentIdentifier = this.engine.getCurrentState().getIdentifierPath();
+		if (currentIdentifier == this.checkedIdentifier) {
+			return this.checkedInSubregion;
+		}
+		final boolean isChild = (this.checkedIdentifier != null && currentIdentifier.getParent() == this.checkedIdentifier);
+		final boolean isNewBranch = (isChild && isBranch(currentIdentifier));
+		this.checkedIdentifier = currentIdentifier;
+		if (isNewBranch) {
+			++this.checkedNumBranches;
+		} else if (!isChild) {
+			this.checkedNumBranches = numBranches(currentIdentifier);
+		}
+		
+		final boolean compareStrings = (this.excludedAsStrings || (this.identifierSubregion != null && this.branchesSubregion == null));
+		final String currentRegion = (compareStrings ? currentIdentifier.toString() : null);
+		if (this.identifierSubregion == null) {
+			this.checkedBelowSubregion = true;
+			this.checkedInSubregion = true;
+		} else if (this.branchesSubregion == null) {
+			this.checkedBelowSubregion = ((isChild && this.checkedBelowSubregion) || currentRegion.startsWith(this.identifierSubregion));
+			this.checkedInSubregion = (this.checkedBelowSubregion || this.identifierSubregion.startsWith(currentRegion));
+		} else if (isChild) {
+			if (isNewBranch) {
+				this.checkedAboveSubregion = (this.checkedAboveSubregion && 
+											  this.checkedNumBranches <= this.branchesSubregion.length &&
+											  currentIdentifier.getBranch() == this.branchesSubregion[this.checkedNumBranches - 1]);
+				this.checkedBelowSubregion = (this.checkedBelowSubregion || 
+											  (this.checkedAboveSubregion && this.checkedNumBranches == this.branchesSubregion.length));
+			} //else, same as the parent
+			this.checkedInSubregion = (this.checkedBelowSubregion || this.checkedAboveSubregion);
+		} else {
+			final int[] branches = branches(currentIdentifier, this.checkedNumBranches);
+			final int common = Math.min(branches.length, this.branchesSubregion.length);
+			boolean agree = true;
+			for (int i = 0; i < common && agree; ++i) {
+				agree = (branches[i] == this.branchesSubregion[i]);
+			}
+			this.checkedAboveSubregion = (agree && branches.length <= this.branchesSubregion.length);
+			this.checkedBelowSubregion = (agree && branches.length >= this.branchesSubregion.length);
+			this.checkedInSubregion = (this.checkedBelowSubregion || this.checkedAboveSubregion);
+		}
+		
+		if (isExcluded(currentIdentifier, currentRegion)) {
+			this.checkedInSubregion = false;
+		}
+		return this.checkedInSubregion;
+	}
+	
+	/**
+	 * Checks whether a segment of a {@link StateIdentifier} 
+	 * is a branch number (rather than a label).
+	 */
+	private static boolean isBranch(StateIdentifier identifier) {
+		return (identifier.getLabel() == null);
+	}
+	
+	/**
+	 * Returns the number of segments of a {@link StateIdentifier} 
+	 * that are branch numbers.
+	 */
+	private static int numBranches(StateIdentifier identifier) {
+		int retVal = 0;
+		for (StateIdentifier s = identifier; s != null; s = s.getParent()) {
+			if (isBranch(s)) {
+				++retVal;
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Returns the branch numbers of a {@link StateIdentifier}.
+	 * 
+	 * @param identifier a {@link StateIdentifier}.
+	 * @param numBranches an {@code int}, the number of 
+	 *        segments of {@code identifier} that are 
+	 *        branch numbers.
+	 * @return an {@code int[]}, the numbers of the segments 
+	 *         of {@code identifier} that are branch numbers.
+	 */
+	private static int[] branches(StateIdentifier identifier, int numBranches) {
+		final int[] retVal = new int[numBranches];
+		for (StateIdentifier s = identifier; s != null; s = s.getParent()) {
+			if (isBranch(s)) {
+				retVal[--numBranches] = s.getBranch();
+			}
+		}
 		return retVal;
 	}
 	
+	/**
+	 * Checks whether the subtree of a state was excluded.
+	 * 
+	 * @param identifier the {@link StateIdentifier} of the state,
+	 *        with {@link #checkedNumBranches} branch numbers.
+	 * @param rendered the rendering of {@code identifier}, or 
+	 *        {@code null} if {@link #excludedAsStrings} is {@code false}.
+	 * @return {@code true} iff the state is the root of an 
+	 *         excluded subregion.
+	 */
+	private boolean isExcluded(StateIdentifier identifier, String rendered) {
+		if (this.excludedSubregions.isEmpty()) {
+			return false;
+		}
+		if (rendered != null && this.excludedSubregions.contains(rendered)) {
+			return true;
+		}
+		final ArrayList<int[]> candidates = this.branchesExcluded.get(this.checkedNumBranches);
+		if (candidates == null) {
+			return false;
+		}
+		for (int[] candidate : candidates) {
+			//compares from the last branch, where the 
+			//identifiers of the pending states differ
+			int i = candidate.length - 1;
+			boolean same = true;
+			for (StateIdentifier s = identifier; s != null && same; s = s.getParent()) {
+				if (isBranch(s)) {
+					same = (s.getBranch() == candidate[i--]);
+				}
+			}
+			if (same) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	private boolean outOfScope() {
 		return (outOfScopeHeap() || outOfScopeDepth() || outOfScopeCount());
 	}
@@ -479,6 +720,7 @@ public class Runner {
 	ContradictionException, DecisionException, EngineStuckException, 
 	FailureException  {
 		this.startTime = System.currentTimeMillis();
+		this.stepsSinceTimeoutCheck = 0;
 		
 		try {
 		    doRun();
@@ -500,10 +742,10 @@ public class Runner {
 
 			//explores the trace
 			while (this.engine.canStep() && currentStateIsInRunSubregion()) {
-				if (this.engine.currentMethodChanged()) {
+				if (this.hookMethodPre && this.engine.currentMethodChanged()) {
 					if (this.actions.atMethodPre()) { return; }
 				}
-				if (this.engine.sourceRowChanged()) {
+				if (this.hookSourceRowPre && this.engine.sourceRowChanged()) {
 					if (this.actions.atSourceRowPre()) { return; }
 				}
 				if (this.actions.atStepPre()) { return; }
@@ -531,7 +773,10 @@ public class Runner {
 					if (this.actions.atStepFinally()) { return; }
 				}
 
-				if (outOfScope()) {
+				if (this.engine.currentStatePruned()) {
+					++this.tracesPruned;
+					if (this.actions.atStatePruned()) { return; }
+				} else if (outOfScope()) {
 					++this.tracesOutOfScope; 
 					this.engine.stopCurrentTrace();
 					if (outOfScopeHeap()) { 
@@ -545,7 +790,8 @@ public class Runner {
 					}
 				}
 				
-				if (this.timeout > 0) {
+				if (this.timeout > 0 && ++this.stepsSinceTimeoutCheck >= TIMEOUT_CHECK_STRIDE) {
+					this.stepsSinceTimeoutCheck = 0;
 					if (System.currentTimeMillis() - this.startTime > this.timeout) {
 						this.actions.atTimeout();
 						return;
@@ -553,10 +799,10 @@ public class Runner {
 				}
 
 				if (this.actions.atStepPost()) { return; }
-				if (this.engine.sourceRowChanged() || this.engine.atFrameChanger()) {
+				if (this.hookSourceRowPost && (this.engine.sourceRowChanged() || this.engine.atFrameChanger())) {
 					if (this.actions.atSourceRowPost()) { return; }
 				}
-				if (this.engine.currentMethodChanged() || this.engine.atFrameChanger()) {
+				if (this.hookMethodPost && (this.engine.currentMethodChanged() || this.engine.atFrameChanger())) {
 					if (this.actions.atMethodPost()) { return; }
 				}
 
@@ -601,6 +847,66 @@ public class Runner {
 		}
 	}
 	
+	/**
+	 * Excludes the subtree of a pending state from the exploration, 
+	 * e.g., because it is explored by some other {@link Runner}. The 
+	 * state will be skipped when backtracking. It must be invoked by 
+	 * the thread that {@link #run()}s this runner, e.g., by the 
+	 * {@link Actions}.
+	 * 
+	 * @param identifier a {@link String}, the identifier of a 
+	 *        state that was not yet emitted (see 
+	 *        {@link Engine#getPendingStateIdentifiers()}).
+	 */
+	public void excludeSubregion(String identifier) {
+		if (!this.excludedSubregions.add(identifier)) {
+			return;
+		}
+		final int[] branches = this.engine.parseStateIdentifier(identifier);
+		if (branches == null) {
+			this.excludedAsStrings = true;
+		} else {
+			ArrayList<int[]> sameLength = this.branchesExcluded.get(branches.length);
+			if (sameLength == null) {
+				sameLength = new ArrayList<>();
+				this.branchesExcluded.put(branches.length, sameLength);
+			}
+			sameLength.add(branches);
+		}
+		this.checkedIdentifier = null;
+	}
+	
+	/**
+	 * Checks whether the subtree of a state was excluded 
+	 * from the exploration.
+	 * 
+	 * @param identifier a {@link String}, the identifier of a state.
+	 * @return {@code true} iff {@link #excludeSubregion(String) excludeSubregion(identifier)}
+	 *         was invoked.
+	 */
+	public boolean isExcludedSubregion(String identifier) {
+		return this.excludedSubregions.contains(identifier);
+	}
+	
+	/**
+	 * Sets the counters of the explored traces, e.g., when
+	 * the exploration resumes from a checkpoint where some 
+	 * traces were already explored. The counters are 
+	 * incremented from these values by {@link #run()}.
+	 * 
+	 * @param tracesTot a {@code long}, the total number 
+	 *        of traces (see {@link #getTracesTotal()}).
+	 * @param tracesOutOfScope a {@code long}, the number 
+	 *        of out-of-scope traces (see {@link #getTracesOutOfScope()}).
+	 * @param tracesPruned a {@code long}, the number of
+	 *        pruned traces (see {@link #getTracesPruned()}).
+	 */
+	public void setTracesCounters(long tracesTot, long tracesOutOfScope, long tracesPruned) {
+		this.tracesTot = tracesTot;
+		this.tracesOutOfScope = tracesOutOfScope;
+		this.tracesPruned = tracesPruned;
+	}
+	
 	/**
 	 * Returns the start time, i.e., the time when
 	 * the method {@link #run()} was invoked.
@@ -642,5 +948,15 @@ public class Runner {
 	public long getTracesOutOfScope() {
 		return this.tracesOutOfScope;
 	}
+
+	/**
+	 * Returns the total number of traces pruned because 
+	 * subsumed by already explored states until its invocation.
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getTracesPruned() {
+		return this.tracesPruned;
+	}
 }
 
@@ -1,6 +1,8 @@
 package jbse.jvm;
 
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -147,6 +149,111 @@ public final class RunnerParameters implements Cloneable {
 		return this.engineParameters.getBreadthMode();
 	}
 
+	/**
+	 * Sets whether the arrays with primitive members must be 
+	 * represented in the SMT theory of arrays.
+	 * 
+	 * @param useArrayTheory a {@code boolean}.
+	 */
+	public void setUseArrayTheory(boolean useArrayTheory) {
+		this.engineParameters.setUseArrayTheory(useArrayTheory);
+	}
+
+	/**
+	 * Gets whether arrays must be represented in the
+	 * SMT theory of arrays.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setUseArrayTheory(boolean)}.
+	 */
+	public boolean getUseArrayTheory() {
+		return this.engineParameters.getUseArrayTheory();
+	}
+
+	/**
+	 * Sets whether the sibling states produced by a branching
+	 * bytecode must be merged at the join point of the branch.
+	 * 
+	 * @param doStateMerging a {@code boolean}.
+	 */
+	public void setDoStateMerging(boolean doStateMerging) {
+		this.engineParameters.setDoStateMerging(doStateMerging);
+	}
+
+	/**
+	 * Gets whether the states must be merged at the 
+	 * join points of branches.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setDoStateMerging(boolean)}.
+	 */
+	public boolean getDoStateMerging() {
+		return this.engineParameters.getDoStateMerging();
+	}
+
+	/**
+	 * Sets whether the states subsumed by already 
+	 * explored states must be pruned.
+	 * 
+	 * @param doSubsumptionPruning a {@code boolean}.
+	 */
+	public void setDoSubsumptionPruning(boolean doSubsumptionPruning) {
+		this.engineParameters.setDoSubsumptionPruning(doSubsumptionPruning);
+	}
+
+	/**
+	 * Gets whether the states subsumed by already 
+	 * explored states must be pruned.
+	 * 
+	 * @return the {@code boolean} set by the last call
+	 *         to {@link #setDoSubsumptionPruning(boolean)}.
+	 */
+	public boolean getDoSubsumptionPruning() {
+		return this.engineParameters.getDoSubsumptionPruning();
+	}
+
+	/**
+	 * Sets the state whose subtree must be replayed.
+	 * 
+	 * @param replayTarget a {@link String}, the identifier of the 
+	 *        target state, or {@code null} for exploring the whole tree.
+	 */
+	public void setReplayTarget(String replayTarget) {
+		this.engineParameters.setReplayTarget(replayTarget);
+	}
+
+	/**
+	 * Gets the state whose subtree must be replayed.
+	 * 
+	 * @return the {@link String} set by the last call
+	 *         to {@link #setReplayTarget(String)}.
+	 */
+	public String getReplayTarget() {
+		return this.engineParameters.getReplayTarget();
+	}
+
+	/**
+	 * Sets the states whose subtrees must be replayed.
+	 * 
+	 * @param replayTargets a {@link List}{@code <}{@link String}{@code >}, 
+	 *        the identifiers of the target states, or an empty list 
+	 *        for exploring the whole tree.
+	 * @throws NullPointerException if {@code replayTargets == null}.
+	 */
+	public void setReplayTargets(List<String> replayTargets) {
+		this.engineParameters.setReplayTargets(replayTargets);
+	}
+
+	/**
+	 * Gets the states whose subtrees must be replayed.
+	 * 
+	 * @return the {@link List}{@code <}{@link String}{@code >} set 
+	 *         by the last call to {@link #setReplayTargets(List)}.
+	 */
+	public List<String> getReplayTargets() {
+		return this.engineParameters.getReplayTargets();
+	}
+
 	/**
 	 * Sets the initial state of the symbolic execution, and cancels the 
 	 * effect of any previous call to {@link #addClasspath(String...)},
@@ -263,6 +370,31 @@ public final class RunnerParameters implements Cloneable {
 	public void addUninterpreted(String className, String parametersSignature, String methodName, String functionName) {
 		this.engineParameters.addUninterpreted(className, parametersSignature, methodName, functionName);
 	}
+
+	/**
+	 * Specifies that the invocations of a static method must be managed 
+	 * by instantiating its summary, calculated upon the first invocation, 
+	 * rather than by executing its bytecode. 
+	 * 
+	 * @param className the name of the class containing the method.
+	 * @param parametersSignature the types of the method parameters.
+	 * @param methodName the name of the method.
+	 * @throws NullPointerException if any of the above parameters is {@code null}.
+	 */
+	public void addSummarized(String className, String parametersSignature, String methodName) {
+		this.engineParameters.addSummarized(className, parametersSignature, methodName);
+	}
+
+	/**
+	 * Sets the directory where the method summaries are cached
+	 * across runs.
+	 * 
+	 * @param summariesCacheDirectory a {@link Path}, or {@code null}
+	 *        (default) if the summaries must not be cached.
+	 */
+	public void setSummariesCacheDirectory(Path summariesCacheDirectory) {
+		this.engineParameters.setSummariesCacheDirectory(summariesCacheDirectory);
+	}
     
     /**
      * Adds a trigger method that fires when some references are resolved by
@@ -1,15 +1,16 @@
 package jbse.jvm;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import jbse.bc.Signature;
 import jbse.common.Type;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
-import jbse.mem.Instance;
 import jbse.mem.Klass;
+import jbse.mem.Objekt;
+import jbse.mem.State;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.StateTree.BranchPoint;
 import jbse.val.Reference;
@@ -18,7 +19,10 @@ import jbse.val.Value;
 /**
  * A {@link VariableObserverManager} is the manager (see the classical GoF Observer pattern)
  * of the subscriptions and notifications of the {@link ExecutionObserver}s that are 
- * interested in variable value changes.
+ * interested in variable value changes. The values of the observed variables are 
+ * read only when the root object or the root class were written since the previous
+ * step, and are saved at branch points as shared arrays that are copied only when 
+ * some observed variable changes.
  * 
  * @author Pietro Braione
  *
@@ -31,16 +35,34 @@ class VariableObserverManager {
 	private Reference rootObjectReference = null;
 
 	/** The {@link Signature}s of the variables under observation. */
-	private LinkedList<Signature> varSigs = new LinkedList<>();
+	private ArrayList<Signature> varSigs = new ArrayList<>();
 
 	/** The {@link ExecutionObserver}s of the variables {@link varSigs}. */
-	private LinkedList<ExecutionObserver> obs = new LinkedList<>();
+	private ArrayList<ExecutionObserver> obs = new ArrayList<>();
 
-	/** Cache for the current {@link Value}s of the variables under observation. */
-	private LinkedList<Value> values = new LinkedList<>();
+	/** 
+	 * Cache for the current {@link Value}s of the variables under observation.
+	 * It can be shared with {@link #savedValues}.
+	 */
+	private Value[] values;
+	
+	/** Whether {@link #values} must be copied before being modified. */
+	private boolean valuesShared = false;
 
 	/** Cache for the {@link Value}s of the variables under observation (for backtrack). */
-	private Map<BranchPoint, LinkedList<Value>> savedValues;
+	private Map<BranchPoint, Value[]> savedValues;
+	
+	/** The root object whose field values are cached in {@link #values}. */
+	private Objekt lastRootObject = null;
+	
+	/** The number of writes to {@link #lastRootObject} when its values were cached. */
+	private long lastRootObjectWrites = 0;
+	
+	/** The root class whose field values are cached in {@link #values}. */
+	private Objekt lastRootKlass = null;
+	
+	/** The number of writes to {@link #lastRootKlass} when its values were cached. */
+	private long lastRootKlassWrites = 0;
 	
 	/** Backlink to the {@link Engine}; will be initialized later. */
 	private Engine engine;
@@ -66,16 +88,19 @@ class VariableObserverManager {
 		this.rootObjectReference = this.engine.getCurrentState().getRootObjectReference();
 		
 		//saves the values of the observed variables
-		final List<Integer> nonexistingVariables = new LinkedList<Integer>();
+		final List<Integer> nonexistingVariables = new ArrayList<Integer>();
 		if (this.hasObservers()) {
+			this.values = new Value[this.numObservers()];
+			final Objekt rootObject = currentRootObject();
+			final Objekt rootKlass = currentRootKlass();
 			for (int i = 0; i < this.numObservers(); ++i) {
-				this.values.add(this.getObservedVariableValue(i));
-				if (this.values.get(i) == null) {
+				this.values[i] = this.getObservedVariableValue(i, rootObject, rootKlass);
+				if (this.values[i] == null) {
 					nonexistingVariables.add(i);
-					this.obs.add(null);
+					this.obs.set(i, null);
 				}
 			}
-			this.savedValues = new HashMap<BranchPoint, LinkedList<Value>>();
+			this.savedValues = new HashMap<BranchPoint, Value[]>();
 		}
 		
 		//if some of the observed variables does not exist, throws 
@@ -90,25 +115,40 @@ class VariableObserverManager {
 			//if may backtrack, saves last observed values
 			final boolean mayBacktrack = (branch != null);
 			if (mayBacktrack) {
-				final LinkedList<Value> toSave = new LinkedList<Value>();
-				for (Value v : this.values) { 
-					if (v != null) {
-						toSave.add(v);
-					}
-				}
-				this.savedValues.put(branch, toSave);
+				saveObservedVariablesValues(branch);
+			}
+			
+			//if the root object and class were not written, 
+			//the observed variables did not change
+			final Objekt rootObject = currentRootObject();
+			final Objekt rootKlass = currentRootKlass();
+			if (rootObject == this.lastRootObject && rootKlass == this.lastRootKlass &&
+				(rootObject == null || rootObject.getFieldWrites() == this.lastRootObjectWrites) &&
+				(rootKlass == null || rootKlass.getFieldWrites() == this.lastRootKlassWrites)) {
+				return;
 			}
+			this.lastRootObject = rootObject;
+			this.lastRootObjectWrites = (rootObject == null ? 0 : rootObject.getFieldWrites());
+			this.lastRootKlass = rootKlass;
+			this.lastRootKlassWrites = (rootKlass == null ? 0 : rootKlass.getFieldWrites());
 			
 			//updates values of observed variables and notifies 
 			//observers
-			for (int i = 0; i < this.obs.size(); ++i) {
+			for (int i = 0; i < this.values.length; ++i) {
 				final ExecutionObserver o = this.obs.get(i);
-				final Value vOld = this.values.get(i);
-				final Value vNew = this.getObservedVariableValue(i);
-				if (o == null || vNew == null || vOld.equals(vNew)) {
+				if (o == null) {
+					continue;
+				}
+				final Value vOld = this.values[i];
+				final Value vNew = this.getObservedVariableValue(i, rootObject, rootKlass);
+				if (vNew == null || vOld.equals(vNew)) {
 					; //does nothing
 				} else {
-					this.values.set(i, vNew);
+					if (this.valuesShared) {
+						this.values = this.values.clone();
+						this.valuesShared = false;
+					}
+					this.values[i] = vNew;
 					o.update(this.engine);
 				}
 			}
@@ -117,20 +157,22 @@ class VariableObserverManager {
 	
 	void saveObservedVariablesValues(BranchPoint bp) {
 		if (this.hasObservers()) {
-			final LinkedList<Value> toSave = new LinkedList<Value>();
-			for (int i = 0; i < this.values.size(); ++i) {
-				toSave.add(this.values.get(i));
-			}
-			this.savedValues.put(bp, toSave);
+			this.savedValues.put(bp, this.values);
+			this.valuesShared = true;
 		}
 	}
 	
 	void restoreObservedVariablesValues(BranchPoint bp, boolean delete) {
 		if (this.hasObservers()) {
 			this.values = this.savedValues.get(bp);
+			this.valuesShared = true;
 			if (delete) {
 				this.savedValues.remove(bp);
 			}
+			
+			//the current state changed
+			this.lastRootObject = null;
+			this.lastRootKlass = null;
 		}
 	}
 
@@ -152,29 +194,52 @@ class VariableObserverManager {
 	private int numObservers() {
 		return (this.varSigs.size());
 	}
+	
+	/**
+	 * Gets the root object in the current state.
+	 * 
+	 * @return the root {@link Objekt}, or {@code null}
+	 *         if the state is stuck because of a return 
+	 *         from the root method.
+	 */
+	private Objekt currentRootObject() {
+		final State currentState = this.engine.getCurrentState();
+		return (currentState.getStackSize() > 0 ? currentState.getObject(this.rootObjectReference) : null);
+	}
+	
+	/**
+	 * Gets the root class in the current state.
+	 * 
+	 * @return the root {@link Klass}.
+	 */
+	private Objekt currentRootKlass() {
+		return this.engine.getCurrentState().getKlass(this.rootClassName);
+	}
 
 	/**
 	 * Gets the current value of a variable under observation.
 	 * 
 	 * @param i the ordinal number of the observed variable as 
 	 *        set by initialization.
+	 * @param rootObject the root object in the current state
+	 *        (see {@link #currentRootObject()}).
+	 * @param rootKlass the root class in the current state
+	 *        (see {@link #currentRootKlass()}).
 	 * @return the current value of {@code this.varSigs[i]}, or 
 	 *         {@code null} if the variable does not exist
 	 *         neither in the root object nor in its class.
 	 */
-	private Value getObservedVariableValue(int i) {
+	private Value getObservedVariableValue(int i, Objekt rootObject, Objekt rootKlass) {
 		final Signature obsVarSignature = this.varSigs.get(i);
 		Value retVal = null;
-		if (this.engine.getCurrentState().getStackSize() > 0) {
+		if (rootObject != null) {
 			//if the state is not stuck because of a return 
 			//from the root method, looks in the root object
-			final Instance rootObject = (Instance) this.engine.getCurrentState().getObject(this.rootObjectReference);
 			retVal = rootObject.getFieldValue(obsVarSignature);
 		}
 		if (retVal == null) {
 			//not in the root object? Let's see if it is a static variable 
 			//in the root class 
-			final Klass rootKlass = this.engine.getCurrentState().getKlass(rootClassName);
 			retVal = rootKlass.getFieldValue(obsVarSignature);
 		}
 		return retVal;
@@ -3,12 +3,14 @@ package jbse.mem;
 import static jbse.common.Type.getArrayMemberType;
 import static jbse.common.Type.isPrimitive;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.function.Consumer;
 
 import jbse.bc.Signature;
@@ -17,8 +19,10 @@ import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.exc.FastArrayAccessNotAllowedException;
 import jbse.val.Calculator;
 import jbse.val.Expression;
+import jbse.val.FunctionApplication;
 import jbse.val.MemoryPath;
 import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
 import jbse.val.Reference;
 import jbse.val.ReferenceArrayImmaterial;
 import jbse.val.Simplex;
@@ -69,8 +73,13 @@ public final class Array extends Objekt {
 	/** An {@link Expression} stating that {@code INDEX} is in range. */
 	private final Expression indexInRange;
 
-	/** Describes the values stored in the array. */
-	private LinkedList<AccessOutcomeIn> entries; //TODO do not use AccessOutcome..., but define a suitable private Entry class
+	/** 
+	 * Describes the values stored in the array. It is an {@link ArrayList}
+	 * as long as the array has a simple representation, so the fast accesses 
+	 * get the entries by index in constant time, and a {@link LinkedList}
+	 * afterwards, since the entries are then removed while iterating.
+	 */
+	private List<AccessOutcomeIn> entries; //TODO do not use AccessOutcome..., but define a suitable private Entry class
 	
 	/** 
 	 * Indicates whether the array has a simple representation, i.e., 
@@ -80,6 +89,23 @@ public final class Array extends Objekt {
 	 */ 
 	private boolean simpleRep;
 
+	/**
+	 * Indicates whether the array is also represented as a term
+	 * of the SMT theory of arrays; in this case an access with 
+	 * a symbolic index yields a single inbound outcome whose value
+	 * is a {@link FunctionApplication#SELECT} term, rather than 
+	 * one outcome for each entry. 
+	 */
+	private boolean arrayTheory;
+
+	/**
+	 * The term of the theory of arrays denoting the contents of
+	 * the array, meaningful only when {@code arrayTheory}. When
+	 * {@code null} the array has a simple representation and
+	 * the term must be built from the entries.
+	 */
+	private Primitive contents;
+
 	/**
 	 * The outcome of an array access. An 
 	 * {@link AccessOutcome} is a pair (condition, result), 
@@ -362,6 +388,32 @@ public final class Array extends Objekt {
 	 * @throws InvalidTypeException iff {@code type} is invalid. 
 	 */
 	public Array(Calculator calc, boolean initSymbolic, Value initValue, Primitive length, String type, MemoryPath origin, Epoch epoch) 
+	throws InvalidTypeException {
+		this(calc, initSymbolic, initValue, length, type, origin, epoch, false);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param calc a {@code Calculator}.  
+	 * @param initSymbolic {@code true} iff the array must be initialized 
+	 *        with symbolic values.
+	 * @param initValue a {@link Value} for initializing the array (ignored
+	 *        whenever {@code initSymbolic == true}); if {@code initValue == null}
+	 *        the default value for the array member type is used for initialization.
+	 * @param length a {@link Primitive}, the number of elements in the array.
+	 * @param type a {@link String}, the type of the array.
+     * @param origin a {@link MemoryPath}, the
+     *        chain of memory accesses which allowed to discover
+     *        the {@link Array} for the first time. It can be null when
+     *        {@code epoch == }{@link Epoch#EPOCH_AFTER_START}.
+	 * @param epoch the creation {@link Epoch} of the {@link Array}.
+	 * @param arrayTheory {@code true} iff the array must be represented
+	 *        in the SMT theory of arrays. It is honored only for arrays
+	 *        with primitive, nonboolean members.
+	 * @throws InvalidTypeException iff {@code type} is invalid. 
+	 */
+	public Array(Calculator calc, boolean initSymbolic, Value initValue, Primitive length, String type, MemoryPath origin, Epoch epoch, boolean arrayTheory) 
 	throws InvalidTypeException {
 		super(calc, type, origin, epoch, false, 0, new Signature(type, "" + Type.INT, "length"));
 		this.lengthSignature = new Signature(type, "" + Type.INT, "length");
@@ -399,9 +451,10 @@ public final class Array extends Objekt {
 			//this should never happen
 			throw new UnexpectedInternalException(e);
 		}
-		this.entries = new LinkedList<AccessOutcomeIn>();
 		this.simpleRep = (length instanceof Simplex);
+		this.entries = (this.simpleRep ? new ArrayList<AccessOutcomeIn>() : new LinkedList<AccessOutcomeIn>());
 		this.setEntriesInit(initSymbolic, initValue);
+		this.setContentsInit(initSymbolic, initValue, arrayTheory);
 	}
 
 	private void setEntriesInit(boolean initSymbolic, Value initValue) {
@@ -436,6 +489,133 @@ public final class Array extends Objekt {
 		}
 	}
 	
+	private void setContentsInit(boolean initSymbolic, Value initValue, boolean arrayTheory) {
+		final String memberType = getArrayMemberType(this.type);
+		//a symbolic array is represented in the theory of arrays 
+		//only when it is identified by its symbolic length
+		this.arrayTheory = arrayTheory && isPrimitive(memberType) && memberType.charAt(0) != Type.BOOLEAN &&
+		                   (!initSymbolic || getLength() instanceof PrimitiveSymbolic);
+		if (this.arrayTheory && !this.simpleRep) {
+			try {
+				final char memberTypeChar = memberType.charAt(0);
+				if (initSymbolic) {
+					this.contents = new FunctionApplication(memberTypeChar, this.calc, FunctionApplication.ARRAY_INITIAL, getLength());
+				} else {
+					final Primitive entryValue = (Primitive) (initValue == null ? this.calc.createDefault(memberType) : initValue);
+					this.contents = new FunctionApplication(memberTypeChar, this.calc, FunctionApplication.ARRAY_CONST, entryValue);
+				}
+			} catch (InvalidOperandException | InvalidTypeException e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+		} else {
+			this.contents = null;
+		}
+	}
+
+	/**
+	 * Returns the term of the theory of arrays denoting
+	 * the contents of this array, possibly building
+	 * it from the entries.
+	 * 
+	 * @return a {@link Primitive}.
+	 */
+	private Primitive contents() {
+		if (this.contents == null) {
+			//the array has a simple representation:
+			//stores all the values different from the
+			//default in a constant, default array
+			try {
+				final char memberType = getArrayMemberType(this.type).charAt(0);
+				final Value defaultValue = this.calc.createDefault("" + memberType);
+				Primitive retVal = new FunctionApplication(memberType, this.calc, FunctionApplication.ARRAY_CONST, (Primitive) defaultValue);
+				int index = 0;
+				for (AccessOutcomeIn e : this.entries) {
+					if (!defaultValue.equals(e.returnedValue)) {
+						retVal = store(retVal, this.calc.valInt(index), e.returnedValue);
+					}
+					++index;
+				}
+				this.contents = retVal;
+			} catch (InvalidOperandException | InvalidTypeException e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+		}
+		return this.contents;
+	}
+
+	private Primitive store(Primitive arrayTerm, Primitive index, Value valToSet) 
+	throws InvalidOperandException, InvalidTypeException {
+		return new FunctionApplication(arrayTerm.getType(), this.calc, FunctionApplication.STORE, arrayTerm, index, (Primitive) valToSet);
+	}
+
+	/**
+	 * Builds the read of an array term. The reads of the 
+	 * {@link FunctionApplication#ARRAY_COPY} terms, and of the 
+	 * {@link FunctionApplication#STORE}s above them, are resolved 
+	 * into {@link FunctionApplication#ITE} terms, so the returned 
+	 * term is in the theory of arrays.
+	 * 
+	 * @param arrayTerm a {@link Primitive}, an array term.
+	 * @param index a {@link Primitive}, the index.
+	 * @return a {@link Primitive}.
+	 */
+	private Primitive select(Primitive arrayTerm, Primitive index) 
+	throws InvalidOperandException, InvalidTypeException {
+		if (containsCopy(arrayTerm)) {
+			final Primitive[] args = ((FunctionApplication) arrayTerm).getArgs();
+			if (((FunctionApplication) arrayTerm).getOperator().equals(FunctionApplication.ARRAY_COPY)) {
+				final Primitive destPos = args[3];
+				final Primitive inCopyRange = index.ge(destPos).and(index.lt(destPos.add(args[4])));
+				return ite(inCopyRange, select(args[1], index.sub(destPos).add(args[2])), select(args[0], index));
+			} else { //STORE
+				return ite(index.eq(args[1]), args[2], select(args[0], index));
+			}
+		}
+		return new FunctionApplication(arrayTerm.getType(), this.calc, FunctionApplication.SELECT, arrayTerm, index);
+	}
+	
+	private Primitive ite(Primitive condition, Primitive valueThen, Primitive valueElse) 
+	throws InvalidOperandException, InvalidTypeException {
+		if (condition.surelyTrue()) {
+			return valueThen;
+		} else if (condition.surelyFalse()) {
+			return valueElse;
+		}
+		return new FunctionApplication(valueThen.getType(), this.calc, FunctionApplication.ITE, condition, valueThen, valueElse);
+	}
+	
+	/**
+	 * Checks whether an array term is a chain of 
+	 * {@link FunctionApplication#STORE}s on a 
+	 * {@link FunctionApplication#ARRAY_COPY}.
+	 * 
+	 * @param arrayTerm a {@link Primitive}, an array term.
+	 * @return a {@code boolean}.
+	 */
+	private static boolean containsCopy(Primitive arrayTerm) {
+		Primitive t = arrayTerm;
+		while (t instanceof FunctionApplication && 
+			   ((FunctionApplication) t).getOperator().equals(FunctionApplication.STORE)) {
+			t = ((FunctionApplication) t).getArgs()[0];
+		}
+		return (t instanceof FunctionApplication && 
+				((FunctionApplication) t).getOperator().equals(FunctionApplication.ARRAY_COPY));
+	}
+
+	/**
+	 * Checks whether the array is represented in the 
+	 * SMT theory of arrays.
+	 * 
+	 * @return {@code true} iff accesses to the array with 
+	 *         a symbolic index yield a single inbound
+	 *         {@link AccessOutcomeIn}.
+	 */
+	public boolean hasArrayTheoryRep() {
+		return this.arrayTheory;
+	}
+
 	/**
 	 * Returns the length of the array.
 	 * 
@@ -499,6 +679,17 @@ public final class Array extends Objekt {
 			} else {
 				retVal.add(new AccessOutcomeOut()); 
 			}
+		} else if (this.arrayTheory) {
+			//a single inbound case, reading the array term
+			final Primitive valueRead = select(contents(), index);
+			if (inRange.surelyTrue()) {
+				retVal.add(new AccessOutcomeIn(valueRead));
+			} else if (inRange.surelyFalse()) {
+				//do nothing
+			} else {
+				retVal.add(new AccessOutcomeIn((Expression) inRange, valueRead));
+			}
+			addOutcomeOut(retVal, inRange);
 		} else {
 			//scans the entries and adds all the (possibly) satisfiable 
 		    //inbound cases
@@ -513,19 +704,23 @@ public final class Array extends Objekt {
 				}
 			}
 
-			//manages the out-of-bounds case
-			final Primitive outOfRange = inRange.not();
-			if (outOfRange.surelyTrue()) {
-				retVal.add(new AccessOutcomeOut());
-			} else if (outOfRange.surelyFalse()) {
-				//do nothing
-			} else { //outOfRange is possibly satisfiable
-				retVal.add(new AccessOutcomeOut((Expression) outOfRange));
-			}
+			addOutcomeOut(retVal, inRange);
 		}
 				
 		return retVal;
 	}
+
+	private void addOutcomeOut(Collection<AccessOutcome> outcomes, Primitive inRange) 
+	throws InvalidOperandException, InvalidTypeException {
+		final Primitive outOfRange = inRange.not();
+		if (outOfRange.surelyTrue()) {
+			outcomes.add(new AccessOutcomeOut());
+		} else if (outOfRange.surelyFalse()) {
+			//do nothing
+		} else { //outOfRange is possibly satisfiable
+			outcomes.add(new AccessOutcomeOut((Expression) outOfRange));
+		}
+	}
 	
 	/**
 	 * Sets an element of the array when the array has a simple 
@@ -540,6 +735,50 @@ public final class Array extends Objekt {
 	 * a simple representation.
 	 */
 	public void setFast(Simplex index, Value item) 
+	throws InvalidOperandException, InvalidTypeException, FastArrayAccessNotAllowedException {
+		if (inRangeFast(index)) {
+			this.entries.get((Integer) index.getActualValue()).returnedValue = item;
+			if (this.contents != null) {
+				this.contents = store(this.contents, index, item);
+			}
+		} 	//TODO else throw an exception???
+	}
+	
+	/**
+	 * Gets an element of the array when the array has a simple 
+	 * representation and the index is a {@link Simplex}, without
+	 * building the {@link AccessOutcome}s.
+	 * 
+	 * @param index the position of the array element to get.  
+	 * @return the {@link Value} at {@code index}, or {@code null} 
+	 *         if {@code index} is not in range or the element has
+	 *         no value yet (see {@link #get(Primitive)}).
+	 * @throws InvalidOperandException if {@code index} is {@code null}.
+	 * @throws InvalidTypeException if {@code index} is not an int.
+	 * @throws FastArrayAccessNotAllowedException if the array has not
+	 * a simple representation.
+	 */
+	public Value getFast(Simplex index) 
+	throws InvalidOperandException, InvalidTypeException, FastArrayAccessNotAllowedException {
+		if (inRangeFast(index)) {
+			return this.entries.get((Integer) index.getActualValue()).returnedValue;
+		}
+		return null;
+	}
+	
+	/**
+	 * Checks whether an index is in range when the array has a simple 
+	 * representation and the index is a {@link Simplex}, without
+	 * building the {@link Primitive} returned by {@link #inRange(Primitive)}.
+	 * 
+	 * @param index the position of an array element.  
+	 * @return {@code true} iff {@code index} is in range.
+	 * @throws InvalidOperandException if {@code index} is {@code null}.
+	 * @throws InvalidTypeException if {@code index} is not an int.
+	 * @throws FastArrayAccessNotAllowedException if the array has not
+	 * a simple representation.
+	 */
+	public boolean inRangeFast(Simplex index) 
 	throws InvalidOperandException, InvalidTypeException, FastArrayAccessNotAllowedException {
 		if (index == null) {
 			throw new InvalidOperandException("attempted array access with null index");
@@ -552,9 +791,7 @@ public final class Array extends Objekt {
 		}
 		final int actualIndex = (Integer) index.getActualValue();
 		final int actualLength = (Integer) ((Simplex) this.getLength()).getActualValue();
-		if (actualIndex >= 0 && actualIndex < actualLength) {
-			this.entries.get(actualIndex).returnedValue = item;
-		} 	//TODO else throw an exception???
+		return (actualIndex >= 0 && actualIndex < actualLength);
 	}
 	
 	/** An iterator that terminates instantaneously. */
@@ -586,12 +823,22 @@ public final class Array extends Objekt {
         if (index.getType() != Type.INT) {
             throw new InvalidTypeException("attempted array access with an index with type " + index.getType());
         }
-	    this.simpleRep = false;
+	    if (this.arrayTheory) {
+	        this.contents = store(contents(), index, valToSet);
+	    }
+	    dropSimpleRep();
 	    final Expression formalIndexIsSetIndex = (Expression) INDEX.eq(index);
 	    final Expression accessExpression = (Expression) this.indexInRange.and(formalIndexIsSetIndex); //if we assume that index may be in range, this is an Expression
 	    this.entries.add(new AccessOutcomeIn(accessExpression, valToSet));
 	}
 	
+	private void dropSimpleRep() {
+		if (this.simpleRep) {
+			this.simpleRep = false;
+			this.entries = new LinkedList<AccessOutcomeIn>(this.entries);
+		}
+	}
+	
 	/**
 	 * Returns an iterator to the entries that are possibly affected by 
 	 * a set operation on this array.
@@ -718,9 +965,34 @@ public final class Array extends Objekt {
                 }
                 this.entries.get(destPosInt + ofst).returnedValue = srcValue;
             }
+            this.contents = null; //rebuilt from the entries upon need
             return EMPTY_ITERATOR;
         } else {
-            this.simpleRep = false;
+            if (this.arrayTheory) {
+                if (!src.arrayTheory) {
+                    //this should never happen, since the arrays have 
+                    //the same primitive member type
+                    throw new UnexpectedInternalException("attempted arraycopy to an array represented in the theory of arrays from one that is not");
+                }
+                final Primitive srcContents = src.contents();
+                if (length instanceof Simplex) {
+                    //stores the copied members one by one
+                    Primitive destContents = contents();
+                    final int lengthInt = (Integer) ((Simplex) length).getActualValue();
+                    for (int ofst = 0; ofst < lengthInt; ++ofst) {
+                        final Primitive ofstPrimitive = this.calc.valInt(ofst);
+                        destContents = store(destContents, destPos.add(ofstPrimitive), select(srcContents, srcPos.add(ofstPrimitive)));
+                    }
+                    this.contents = destContents;
+                } else {
+                    //no bounded store chain represents the copy: the
+                    //reads of the term are resolved by select, so the
+                    //values previously read stay related to the contents
+                    final Primitive destContents = contents();
+                    this.contents = new FunctionApplication(destContents.getType(), this.calc, FunctionApplication.ARRAY_COPY, destContents, srcContents, srcPos, destPos, length);
+                }
+            }
+            dropSimpleRep();
 
             final Expression indexInDestRange = (Expression) INDEX.ge(destPos).and(INDEX.lt(destPos.add(length)));
             final Expression indexNotInDestRange = (Expression) indexInDestRange.not();
@@ -832,13 +1104,50 @@ public final class Array extends Objekt {
 		return str;
 	}
 
+	/**
+	 * Returns the entries of this array.
+	 * 
+	 * @return an unmodifiable {@link List}{@code <}{@link AccessOutcomeIn}{@code >}.
+	 */
+	List<AccessOutcomeIn> entries() {
+		return Collections.unmodifiableList(this.entries);
+	}
+
+	/**
+	 * Checks whether this array has the same
+	 * contents as another one.
+	 * 
+	 * @param other an {@link Array}.
+	 * @return {@code true} iff {@code this} and {@code other}
+	 *         have same type, length, representation and entries.
+	 */
+	boolean sameAs(Array other) {
+		if (!this.type.equals(other.type) || 
+			!this.getLength().equals(other.getLength()) ||
+			this.simpleRep != other.simpleRep || 
+			this.arrayTheory != other.arrayTheory ||
+			!Objects.equals(this.contents, other.contents) ||
+			this.entries.size() != other.entries.size()) {
+			return false;
+		}
+		final Iterator<AccessOutcomeIn> it = other.entries.iterator();
+		for (AccessOutcomeIn e : this.entries) {
+			final AccessOutcomeIn eOther = it.next();
+			if (!Objects.equals(e.accessCondition, eOther.accessCondition) ||
+				!Objects.equals(e.returnedValue, eOther.returnedValue)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public Array clone() {
 		final Array o = (Array) super.clone();
 
 		//TODO being Values immutable it should not be necessary to clone this.length and this.indexInRange, refinement shouldn't change the situation as both are primitive. However, should investigate correctness.
 
-		o.entries = new LinkedList<AccessOutcomeIn>();
+		o.entries = (this.simpleRep ? new ArrayList<AccessOutcomeIn>(this.entries.size()) : new LinkedList<AccessOutcomeIn>());
 		for (AccessOutcomeIn e : this.entries) {
 			o.entries.add(e.clone());
 		}
@@ -63,7 +63,6 @@ public class ClauseAssumeAliases extends ClauseAssumeReferenceSymbolic {
 	public int hashCode() {
 		int result = super.hashCode();
 		result = 61 * result + (int) this.heapPosition;
-		result = 907 * result + this.object.hashCode();
 		return result;
 	}
 
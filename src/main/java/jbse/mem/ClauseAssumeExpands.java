@@ -55,8 +55,8 @@ public class ClauseAssumeExpands extends ClauseAssumeReferenceSymbolic {
 	@Override
 	public int hashCode() {
 		int result = super.hashCode();
-		result = 11 * result + this.object.hashCode();
 		result = 23 * result + (int) this.heapPosition;
+		result = 23 * result + this.object.getType().hashCode();
 		return result;
 	}
 
@@ -71,15 +71,12 @@ public class ClauseAssumeExpands extends ClauseAssumeReferenceSymbolic {
 		if (getClass() != obj.getClass()) {
 			return false;
 		}
+		//the fresh object is determined by the reference and
+		//its class, since sibling states expanding the reference
+		//to different classes put the object at the same position
 		final ClauseAssumeExpands other = (ClauseAssumeExpands) obj;
-		if (object == null) {
-			if (other.object != null) {
-				return false;
-			}
-		} else if (!object.equals(other.object)) {
-			return false;
-		}
-		return true;
+		return (this.heapPosition == other.heapPosition && 
+				this.object.getType().equals(other.object.getType()));
 	}
 
 	@Override
@@ -0,0 +1,179 @@
+package jbse.mem;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * An immutable, persistent sequence of {@link Clause}s.
+ * Each {@link ClauseList} is a pointer to the {@link ClauseList}
+ * it extends plus its last {@link Clause}, so that the
+ * path conditions of the states in a symbolic execution
+ * tree share all their common prefixes, and extending or
+ * copying a path condition has constant cost. The nodes
+ * keep no array of their clauses: Iterating a list builds
+ * an array of its clauses that lives as long as the iterator,
+ * and a random access walks the list back from its end.
+ *
+ * @author Pietro Braione
+ *
+ */
+public final class ClauseList extends AbstractList<Clause> {
+	/** The empty {@link ClauseList}. */
+	static final ClauseList EMPTY = new ClauseList(null, null);
+
+	/** The {@link ClauseList} this one extends, {@code null} iff {@code this == EMPTY}. */
+	private final ClauseList parent;
+
+	/** The last {@link Clause} in the list. */
+	private final Clause last;
+
+	/** The number of {@link Clause}s in the list. */
+	private final int size;
+
+	private ClauseList(ClauseList parent, Clause last) {
+		this.parent = parent;
+		this.last = last;
+		this.size = (parent == null ? 0 : parent.size + 1);
+	}
+
+	/**
+	 * Returns the {@link ClauseList} obtained by
+	 * appending a {@link Clause} to this one.
+	 * {@code this} is not modified.
+	 *
+	 * @param clause a {@link Clause}.
+	 * @return a {@link ClauseList}.
+	 */
+	ClauseList append(Clause clause) {
+		return new ClauseList(this, clause);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Clause get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		ClauseList l = this;
+		while (l.size > index + 1) {
+			l = l.parent;
+		}
+		return l.last;
+	}
+
+	@Override
+	public Iterator<Clause> iterator() {
+		return listIterator(0);
+	}
+
+	@Override
+	public ListIterator<Clause> listIterator(int index) {
+		if (index < 0 || index > this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return Collections.unmodifiableList(Arrays.asList(suffixArray(0))).listIterator(index);
+	}
+
+	private Clause[] suffixArray(int fromIndex) {
+		final Clause[] retVal = new Clause[this.size - fromIndex];
+		ClauseList l = this;
+		for (int i = retVal.length - 1; i >= 0; --i) {
+			retVal[i] = l.last;
+			l = l.parent;
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the {@link Clause}s in this list starting
+	 * from a given position. The cost of the operation
+	 * is proportional to the number of returned clauses,
+	 * not to the size of the list.
+	 *
+	 * @param fromIndex an {@code int}, the position of the
+	 *        first returned {@link Clause}.
+	 * @return an unmodifiable {@link List}{@code <}{@link Clause}{@code >}
+	 *         containing the {@link Clause}s from position {@code fromIndex}
+	 *         (inclusive) to the end of this list.
+	 * @throws IndexOutOfBoundsException if {@code fromIndex < 0 || fromIndex > }{@link #size()}.
+	 */
+	public List<Clause> suffix(int fromIndex) {
+		if (fromIndex < 0 || fromIndex > this.size) {
+			throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + this.size);
+		}
+		if (fromIndex == this.size) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(suffixArray(fromIndex)));
+	}
+
+	/**
+	 * Returns the {@link ClauseList} made by the first
+	 * clauses of this one. The returned list is shared
+	 * with {@code this}, not copied.
+	 *
+	 * @param length an {@code int}, the number of clauses
+	 *        in the prefix.
+	 * @return a {@link ClauseList} with size {@code length}.
+	 * @throws IndexOutOfBoundsException if {@code length < 0 || length > }{@link #size()}.
+	 */
+	ClauseList prefix(int length) {
+		if (length < 0 || length > this.size) {
+			throw new IndexOutOfBoundsException("Length: " + length + ", Size: " + this.size);
+		}
+		ClauseList retVal = this;
+		while (retVal.size > length) {
+			retVal = retVal.parent;
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the length of the longest common prefix of
+	 * two {@link ClauseList}s. The shared part of the two
+	 * lists is detected by pointer identity, and only the
+	 * clauses after it are compared by {@link Clause#equals(Object)}.
+	 *
+	 * @param first a {@link ClauseList}.
+	 * @param second a {@link ClauseList}.
+	 * @return an {@code int}, the number of initial {@link Clause}s
+	 *         that {@code first} and {@code second} have in common.
+	 */
+	public static int commonPrefixLength(ClauseList first, ClauseList second) {
+		//finds the deepest shared node
+		ClauseList a = first, b = second;
+		while (a.size > b.size) {
+			a = a.parent;
+		}
+		while (b.size > a.size) {
+			b = b.parent;
+		}
+		while (a != b && a.size > 0) {
+			a = a.parent;
+			b = b.parent;
+		}
+		final int shared = a.size;
+		if (shared == first.size || shared == second.size) {
+			return shared;
+		}
+
+		//past the shared node the lists may still have
+		//equal (albeit not identical) clauses
+		final int length = Math.min(first.size, second.size) - shared;
+		final Clause[] firstSuffix = first.suffixArray(shared);
+		final Clause[] secondSuffix = second.suffixArray(shared);
+		int retVal = shared;
+		for (int i = 0; i < length && firstSuffix[i].equals(secondSuffix[i]); ++i) {
+			++retVal;
+		}
+		return retVal;
+	}
+}
@@ -0,0 +1,73 @@
+package jbse.mem;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * A table of immutable values that is shared among its
+ * clones, and that is copied the first time it is modified
+ * after cloning. It fits the tables of a {@link State} that
+ * are filled during the startup and rarely modified
+ * afterwards, as the string literals.
+ *
+ * @author Pietro Braione
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values. They must be immutable.
+ */
+final class CopyOnWriteTable<K, V> implements Cloneable {
+	/** The table. */
+	private HashMap<K, V> table = new HashMap<>();
+
+	/** Whether {@link #table} might be shared with some clone. */
+	private boolean shared = false;
+
+	boolean containsKey(K key) {
+		return this.table.containsKey(key);
+	}
+
+	V get(K key) {
+		return this.table.get(key);
+	}
+
+	void put(K key, V value) {
+		if (this.shared) {
+			this.table = new HashMap<>(this.table);
+			this.shared = false;
+		}
+		this.table.put(key, value);
+	}
+
+	Collection<V> values() {
+		return Collections.unmodifiableCollection(this.table.values());
+	}
+
+	@Override
+	public int hashCode() {
+		return this.table.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final CopyOnWriteTable<?, ?> other = (CopyOnWriteTable<?, ?>) obj;
+		return (this.table == other.table || this.table.equals(other.table));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public CopyOnWriteTable<K, V> clone() {
+		this.shared = true;
+		try {
+			return (CopyOnWriteTable<K, V>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new InternalError(e);
+		}
+	}
+}
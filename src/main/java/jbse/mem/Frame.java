@@ -79,6 +79,16 @@ public class Frame implements Cloneable {
     	return this.operandStack.values();
     }
     
+    /**
+     * Returns the values of the local variables.
+     * 
+     * @return an unmodifiable {@link SortedMap} mapping
+     *         the slot numbers to the local variables values.
+     */
+    SortedMap<Integer, Value> localVariablesValues() {
+    	return this.localVariables.values();
+    }
+    
     /**
      * Returns the source code row corresponding to the 
      * frame's program counter.
@@ -88,14 +98,7 @@ public class Frame implements Cloneable {
      *         iff no debug information is available. 
      */
 	public int getSourceRow() {
-    	int retVal = -1;
-    	for (LineNumberTable.Row r : this.lnt) {
-    		if (r.start > this.programCounter) {
-    			break;
-    		}
-    		retVal = r.lineNumber;
-    	}
-    	return retVal;
+    	return this.lnt.getSourceRow(this.programCounter);
     }
     
     /**
@@ -369,6 +372,25 @@ public class Frame implements Cloneable {
 		this.localVariables.setArgs(args);
 	}
 
+    /**
+     * Merges the values of this frame with those of another 
+     * frame for the same method, at the same program counter.
+     * 
+     * @param other a {@link Frame}.
+     * @param merger the {@link StateMerger} that merges the values.
+     * @return {@code false} iff the frames cannot be merged,
+     *         in which case {@code this} may have been partially modified.
+     */
+    boolean merge(Frame other, StateMerger merger) {
+    	if (!this.mySignature.equals(other.mySignature) || 
+    		this.programCounter != other.programCounter ||
+    		this.returnProgramCounter != other.returnProgramCounter) {
+    		return false;
+    	}
+    	return this.localVariables.merge(other.localVariables, merger) && 
+    	       this.operandStack.merge(other.operandStack, merger);
+    }
+
 	@Override
     public Frame clone() {
         final Frame o;
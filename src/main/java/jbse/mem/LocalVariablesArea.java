@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -148,6 +149,39 @@ class LocalVariablesArea implements Cloneable {
         return retVal;
     }
     
+    /**
+     * Merges the values of this local variable area with those of 
+     * another one, having the same slots.
+     * 
+     * @param other a {@link LocalVariablesArea}.
+     * @param merger the {@link StateMerger} that merges the values.
+     * @return {@code false} iff the local variable areas cannot be merged,
+     *         in which case {@code this} may have been partially modified.
+     */
+    boolean merge(LocalVariablesArea other, StateMerger merger) {
+    	if (!this.values.keySet().equals(other.values.keySet())) {
+    		return false;
+    	}
+    	for (Map.Entry<Integer, Value> e : this.values.entrySet()) {
+    		final Value merged = merger.mergeValues(e.getValue(), other.values.get(e.getKey()));
+    		if (merged == null) {
+    			return false;
+    		}
+    		e.setValue(merged);
+    	}
+    	return true;
+    }
+    
+    /**
+     * Returns the values of the local variable area.
+     * 
+     * @return an unmodifiable {@link SortedMap} mapping 
+     *         the slot numbers to their values.
+     */
+    SortedMap<Integer, Value> values() {
+    	return Collections.unmodifiableSortedMap(this.values);
+    }
+    
     /**
      * Returns all the slots of the local variable area.
      * 
@@ -72,6 +72,13 @@ public abstract class Objekt implements Cloneable {
      */
     protected HashMap<String, Variable> fields;
     
+    /** 
+     * The number of writes to the fields of this object 
+     * (also updated by {@link StateMerger}). 
+     * Allows to detect changes without reading the fields.
+     */
+    long fieldWrites = 0;
+    
     /**
      * Constructor.
      * 
@@ -236,6 +243,19 @@ public abstract class Objekt implements Cloneable {
     //TODO throw a better exception in the case a field does not exist or is immutable
     public final void setFieldValue(Signature field, Value item) {
         this.fields.get(field.toString()).setValue(item); //toString() is necessary, type erasure doesn't play well
+        ++this.fieldWrites;
+    }
+    
+    /**
+     * Returns the number of writes to the fields of this
+     * object. 
+     * 
+     * @return a {@code long}. If it is the same as in a 
+     *         previous invocation, the fields of this object 
+     *         have not been set in between.
+     */
+    public final long getFieldWrites() {
+        return this.fieldWrites;
     }
     
     /**
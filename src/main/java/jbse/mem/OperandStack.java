@@ -3,6 +3,7 @@ package jbse.mem;
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 
 import jbse.mem.exc.InvalidNumberOfOperandsException;
 import jbse.val.Value;
@@ -111,6 +112,32 @@ final class OperandStack implements Cloneable {
     	return Collections.unmodifiableCollection(this.valueStack);
     }
     
+    /**
+     * Merges the values of this operand stack with those of 
+     * another one, having the same size.
+     * 
+     * @param other an {@link OperandStack}.
+     * @param merger the {@link StateMerger} that merges the values.
+     * @return {@code false} iff the operand stacks cannot be merged,
+     *         in which case {@code this} is not modified.
+     */
+    boolean merge(OperandStack other, StateMerger merger) {
+    	if (this.valueStack.size() != other.valueStack.size()) {
+    		return false;
+    	}
+    	final ArrayDeque<Value> merged = new ArrayDeque<Value>();
+    	final Iterator<Value> it = other.valueStack.iterator();
+    	for (Value v : this.valueStack) {
+    		final Value m = merger.mergeValues(v, it.next());
+    		if (m == null) {
+    			return false;
+    		}
+    		merged.addLast(m);
+    	}
+    	this.valueStack = merged;
+    	return true;
+    }
+    
     /**
      * Returns a string representation for the operand stack
      */
@@ -1,12 +1,9 @@
 package jbse.mem;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 
+import jbse.common.PersistentMap;
 import jbse.val.Primitive;
 import jbse.val.ReferenceSymbolic;
 
@@ -14,30 +11,33 @@ import jbse.val.ReferenceSymbolic;
  * A path condition. It retains all the clauses gathered at the 
  * different branch points traversed during execution as a 
  * suitable {@link Collection}{@code <}{@link Clause}{@code >}. 
+ * All its internal data structures are persistent, so that 
+ * cloning a path condition has constant cost, and the clones 
+ * share their common prefix with the original. 
  */
 final class PathCondition implements Cloneable {
-	/** {@link ArrayList} of all the {@link Clause}s forming the path condition. */
-	private ArrayList<Clause> clauses;
+	/** {@link ClauseList} of all the {@link Clause}s forming the path condition. */
+	private ClauseList clauses;
 	
 	/** 
 	 * Maps symbolic reference identifiers to their respective heap positions.
 	 * It is just a cache of information already contained in {@code clauses}.
 	 */
-	private HashMap<Integer, Long> referenceResolutionMap;
+	private PersistentMap<Integer, Long> referenceResolutionMap;
 	
 	/**
 	 * Maps each class with the number of assumed objects in it. 
 	 * It is just a cache of information already contained in {@code clauses}.
 	 */
-	private HashMap<String, Integer> objectCounters;
+	private PersistentMap<String, Integer> objectCounters;
 
     /**
      * Constructor.
      */
     PathCondition() {
-    	this.clauses = new ArrayList<>();
-    	this.referenceResolutionMap = new HashMap<>();
-    	this.objectCounters = new HashMap<>();
+    	this.clauses = ClauseList.EMPTY;
+    	this.referenceResolutionMap = PersistentMap.empty();
+    	this.objectCounters = PersistentMap.empty();
     }
     
     /**
@@ -47,7 +47,7 @@ final class PathCondition implements Cloneable {
      * @param condition the additional condition as a {@link Primitive}.
      */
     void addClauseAssume(Primitive condition) {
-		this.clauses.add(new ClauseAssume(condition));
+		this.clauses = this.clauses.append(new ClauseAssume(condition));
     }
 
     /**
@@ -62,15 +62,12 @@ final class PathCondition implements Cloneable {
      *        is expanded.
      */
     void addClauseAssumeExpands(ReferenceSymbolic reference, long heapPosition, Objekt object) {
-    	this.clauses.add(new ClauseAssumeExpands(reference, heapPosition, object));
-    	this.referenceResolutionMap.put(reference.getId(), heapPosition);
+    	this.clauses = this.clauses.append(new ClauseAssumeExpands(reference, heapPosition, object));
+    	this.referenceResolutionMap = this.referenceResolutionMap.put(reference.getId(), heapPosition);
     	
     	//increments objectCounters
-    	if (!this.objectCounters.containsKey(object.getType())) {
-    		this.objectCounters.put(object.getType(), 0);
-    	}
-    	final int nobjects = this.objectCounters.get(object.getType());
-    	this.objectCounters.put(object.getType(), nobjects + 1);
+    	final Integer nobjects = this.objectCounters.get(object.getType());
+    	this.objectCounters = this.objectCounters.put(object.getType(), (nobjects == null ? 1 : nobjects + 1));
     }
 
     /**
@@ -85,8 +82,8 @@ final class PathCondition implements Cloneable {
 	 *        at the time of its assumption.
      */
     void addClauseAssumeAliases(ReferenceSymbolic reference, long heapPosition, Objekt object) {
-    	this.clauses.add(new ClauseAssumeAliases(reference, heapPosition, object));
-    	this.referenceResolutionMap.put(reference.getId(), heapPosition);
+    	this.clauses = this.clauses.append(new ClauseAssumeAliases(reference, heapPosition, object));
+    	this.referenceResolutionMap = this.referenceResolutionMap.put(reference.getId(), heapPosition);
     }
 
     /**
@@ -96,8 +93,8 @@ final class PathCondition implements Cloneable {
      * @param reference the {@link ReferenceSymbolic} which is resolved. 
      */
     void addClauseAssumeNull(ReferenceSymbolic reference) {
-		this.clauses.add(new ClauseAssumeNull(reference));
-		this.referenceResolutionMap.put(reference.getId(), Util.POS_NULL);
+		this.clauses = this.clauses.append(new ClauseAssumeNull(reference));
+		this.referenceResolutionMap = this.referenceResolutionMap.put(reference.getId(), Util.POS_NULL);
     }
 
     /**
@@ -109,7 +106,7 @@ final class PathCondition implements Cloneable {
      * is resolved.
      */
     void addClauseAssumeClassInitialized(String className, Klass klass) {
-   		this.clauses.add(new ClauseAssumeClassInitialized(className, klass));
+   		this.clauses = this.clauses.append(new ClauseAssumeClassInitialized(className, klass));
     }
 
     /**
@@ -119,7 +116,7 @@ final class PathCondition implements Cloneable {
      * @param className the concrete class name as a {@link String}.
      */
     void addClauseAssumeClassNotInitialized(String className) {
-   		this.clauses.add(new ClauseAssumeClassNotInitialized(className));
+   		this.clauses = this.clauses.append(new ClauseAssumeClassNotInitialized(className));
     }
 
 	/**
@@ -148,9 +145,33 @@ final class PathCondition implements Cloneable {
     	return this.referenceResolutionMap.get(reference.getId());
     }
     
+    /**
+     * Replaces the clauses after a given position with a
+     * single clause over primitive values. All the replaced
+     * clauses must be {@link ClauseAssume}s.
+     *
+     * @param prefixLength an {@code int}, the number of initial
+     *        clauses that are kept.
+     * @param condition the replacing condition as a {@link Primitive},
+     *        or {@code null} for dropping the replaced clauses without
+     *        adding any other clause.
+     */
+    void replaceAssumptions(int prefixLength, Primitive condition) {
+    	//the caches are not affected, as they record
+    	//information about reference resolution only
+    	this.clauses = this.clauses.prefix(prefixLength);
+    	if (condition != null) {
+    		this.clauses = this.clauses.append(new ClauseAssume(condition));
+    	}
+    }
+
     /**
      * Tests whether this path condition refines, i.e., 
-     * if it has more clauses than, another one.
+     * if it has more clauses than, another one. The clauses
+     * shared with {@code pathCondition} are detected by 
+     * pointer identity, so the cost of the operation does 
+     * not depend on the length of the common prefix when 
+     * {@code this} was cloned from {@code pathCondition}.
      * 
      * @param pathCondition the {@link PathCondition} to be compared against.
      * @return an {@link Iterator}{@code <}{@link Clause}{@code >} 
@@ -160,17 +181,12 @@ final class PathCondition implements Cloneable {
      *         {@code pathCondition} returns {@code null}.
      */
     Iterator<Clause> refines(PathCondition pathCondition) {
-    	final Iterator<Clause> i = this.clauses.iterator();
-    	for (Clause c : pathCondition.clauses) {
-    		if (!i.hasNext()) {
-    			return null;
-    		}
-    		final Clause cc = i.next();
-    		if (!cc.equals(c)) {
-    			return null;
-    		}
+    	final int otherSize = pathCondition.clauses.size();
+    	if (this.clauses.size() < otherSize || 
+    	    ClauseList.commonPrefixLength(this.clauses, pathCondition.clauses) < otherSize) {
+    		return null;
     	}
-    	return i;
+    	return this.clauses.suffix(otherSize).iterator();
     }
     
     /**
@@ -181,21 +197,20 @@ final class PathCondition implements Cloneable {
      * assumed by this path condition.
      */
     int getNumAssumed(String className) {
-    	if (this.objectCounters.containsKey(className)) {
-    		return this.objectCounters.get(className);
-    	}
-    	return 0;
+    	final Integer retVal = this.objectCounters.get(className);
+    	return (retVal == null ? 0 : retVal);
     }
     
     /**
      * Returns all the {@link Clause}s of the path condition.
      *  
-     * @return a read-only {@link List}{@code <}{@link Clause}{@code >} 
-     * representing all the {@link Clause}s cumulated in {@code this}. 
-     * It is valid until {@code this} is modified.
+     * @return an immutable {@link ClauseList} 
+     * representing all the {@link Clause}s cumulated in {@code this}
+     * at the moment of the invocation. It is not affected by later 
+     * modifications of {@code this}.
      */
-    List<Clause> getClauses() {
-    	return Collections.unmodifiableList(this.clauses);
+    ClauseList getClauses() {
+    	return this.clauses;
     }
     
     @Override
@@ -228,11 +243,7 @@ final class PathCondition implements Cloneable {
         	throw new InternalError(e);
         }
         
-        //does a deep copy
-        o.clauses = new ArrayList<Clause>(this.clauses);
-        o.referenceResolutionMap = new HashMap<>(this.referenceResolutionMap);
-        o.objectCounters = new HashMap<>(this.objectCounters);
-        
+        //no need to copy anything, all the members are persistent
         return o;
     }
 }
@@ -9,12 +9,11 @@ import static jbse.common.Type.isPrimitiveBinaryClassName;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 
 import jbse.bc.ClassFile;
@@ -23,6 +22,7 @@ import jbse.bc.ClassHierarchy;
 import jbse.bc.Classpath;
 import jbse.bc.ExceptionTable;
 import jbse.bc.ExceptionTableEntry;
+import jbse.bc.MethodDescriptor;
 import jbse.bc.Signature;
 import jbse.bc.exc.BadClassFileException;
 import jbse.bc.exc.ClassFileNotAccessibleException;
@@ -67,7 +67,7 @@ public final class State implements Cloneable {
 	/** 
 	 * The identifier of the state in the execution tree.
 	 */
-	private String identifier = "";
+	private StateIdentifier identifier = StateIdentifier.EMPTY;
 
 	/** The sequence number of the state along an execution tree branch. */
 	private int sequenceNumber = 0;
@@ -85,13 +85,13 @@ public final class State implements Cloneable {
 	private int count = 0;
 
 	/** The string literals. */
-	private HashMap<String, ReferenceConcrete> stringLiterals = new HashMap<>();
+	private CopyOnWriteTable<String, ReferenceConcrete> stringLiterals = new CopyOnWriteTable<>();
 
     /** The class objects for nonprimitive types. */
-    private HashMap<String, ReferenceConcrete> classes = new HashMap<>();
+    private CopyOnWriteTable<String, ReferenceConcrete> classes = new CopyOnWriteTable<>();
 
     /** The class objects for primitive types. */
-    private HashMap<String, ReferenceConcrete> classesPrimitive = new HashMap<>();
+    private CopyOnWriteTable<String, ReferenceConcrete> classesPrimitive = new CopyOnWriteTable<>();
 
 	/** The JVM stack of the current execution thread. */
 	private ThreadStack stack = new ThreadStack();
@@ -128,6 +128,12 @@ public final class State implements Cloneable {
 
 	/** {@code true} iff the next bytecode must be executed in its WIDE variant. */
 	private boolean wide = false;
+
+	/** 
+	 * Whether the arrays created in this state must be represented
+	 * in the SMT theory of arrays.
+	 */
+	private boolean useArrayTheory = false;
 	
 	/** The {@link Calculator}. */
 	private final Calculator calc;
@@ -173,6 +179,18 @@ public final class State implements Cloneable {
 	}
 
 	
+	/**
+	 * Sets whether the arrays created from now on
+	 * in this state must be represented in the SMT 
+	 * theory of arrays, so that accessing them with 
+	 * a symbolic index does not branch on their entries.
+	 * 
+	 * @param useArrayTheory a {@code boolean}.
+	 */
+	public void setUseArrayTheory(boolean useArrayTheory) {
+		this.useArrayTheory = useArrayTheory;
+	}
+
 	/**
 	 * Getter for this state's classpath.
 	 * 
@@ -503,11 +521,30 @@ public final class State implements Cloneable {
 	 *         the memory representation of the class 
 	 *         {@code className}, or {@code null} 
 	 *         if the class has not been initialized.
+	 *         It can be shared with the clones of this 
+	 *         state, so it must not be modified; use
+	 *         {@link #getKlassForUpdate(String)} for that.
 	 */
 	public Klass getKlass(String className) {
 		return this.staticMethodArea.get(className);
 	}
 
+	/**
+	 * Returns the {@link Klass} object corresponding to 
+	 * a given class name, for modifying its static fields.
+	 * 
+	 * @param className the name of the class.
+	 * @return the {@link Klass} object corresponding to 
+	 *         the memory representation of the class 
+	 *         {@code className}, or {@code null} 
+	 *         if the class has not been initialized.
+	 *         It is not shared with the clones of this
+	 *         state.
+	 */
+	public Klass getKlassForUpdate(String className) {
+		return this.staticMethodArea.getForUpdate(className);
+	}
+
 	/**
 	 * Creates a new {@link Array} of a given class in the heap of 
 	 * the state.
@@ -524,7 +561,7 @@ public final class State implements Cloneable {
 	 */
 	public ReferenceConcrete createArray(Value initValue, Primitive length, String arraySignature) 
 	throws InvalidTypeException {
-		final Array a = new Array(this.calc, false, initValue, length, arraySignature, null, Epoch.EPOCH_AFTER_START);
+		final Array a = new Array(this.calc, false, initValue, length, arraySignature, null, Epoch.EPOCH_AFTER_START, this.useArrayTheory);
 		return new ReferenceConcrete(this.heap.addNew(a));
 	}
 
@@ -652,7 +689,7 @@ public final class State implements Cloneable {
 	private Array newArraySymbolic(String arraySignature, MemoryPath origin) 
 	throws InvalidTypeException {
 		final Primitive length = (Primitive) createSymbol("" + Type.INT, origin.thenArrayLength());
-		final Array obj = new Array(this.calc, true, null, length, arraySignature, origin, Epoch.EPOCH_BEFORE_START);
+		final Array obj = new Array(this.calc, true, null, length, arraySignature, origin, Epoch.EPOCH_BEFORE_START, this.useArrayTheory);
 		initHashCodeSymbolic(obj);
 		return obj;
 	}
@@ -1043,8 +1080,8 @@ public final class State implements Cloneable {
 	 */
 	private Value[] makeArgsSymbolic(Frame f, Signature methodSignature, boolean isStatic) {
 		//gets the method's signature
-		final String[] paramsDescriptor = Type.splitParametersDescriptors(methodSignature.getDescriptor());
-		final int numArgs = paramsDescriptor.length + (isStatic ? 0 : 1);
+		final MethodDescriptor methodDescriptor = methodSignature.getMethodDescriptor();
+		final int numArgs = methodDescriptor.getParametersNumber() + (isStatic ? 0 : 1);
 
 		//produces the args as symbolic values from the method's signature
 		final String rootClassName = methodSignature.getClassName(); //TODO check that the root class has the method!!!
@@ -1062,7 +1099,7 @@ public final class State implements Cloneable {
 					throw new UnexpectedInternalException(e);
 				}
 			} else {
-				args[i] = createSymbol(paramsDescriptor[(isStatic ? i : i - 1)], origin);
+				args[i] = createSymbol(methodDescriptor.getParameterDescriptor(isStatic ? i : i - 1), origin);
 			}
 
 			//next slot
@@ -1130,8 +1167,7 @@ public final class State implements Cloneable {
 	 * @throws ThreadStackEmptyException if the thread stack is empty.
 	 */
 	public Reference peekReceiverArg(Signature methodSignature) throws ThreadStackEmptyException {
-	    final String[] paramsDescriptors = Type.splitParametersDescriptors(methodSignature.getDescriptor());
-	    final int nParams = paramsDescriptors.length + 1;
+	    final int nParams = methodSignature.getMethodDescriptor().getParametersNumber() + 1;
 	    final Collection<Value> opStackVals = getCurrentFrame().values();
 	    int i = 1;
 	    for (Value val : opStackVals) { 
@@ -1290,6 +1326,8 @@ public final class State implements Cloneable {
 	 * 
 	 * @return the state's static method area as an 
 	 * immutable {@link Map}{@code <}{@link String}{@code , }{@link Klass}{@code >}.
+	 * Its {@link Klass}es can be shared with the clones of this state,
+	 * so they must not be modified.
 	 */
 	public Map<String, Klass> getStaticMethodArea() {
 		return Collections.unmodifiableMap(this.staticMethodArea.getObjects());
@@ -1552,6 +1590,20 @@ public final class State implements Cloneable {
 		return this.pathCondition.getClauses();
 	}
 
+	/**
+	 * Returns the state's path condition clauses as a {@link ClauseList}.
+	 * 
+     * @return an immutable {@link ClauseList} 
+     * representing all the {@link Clause}s cumulated in {@code this}
+     * at the moment of the invocation. Path conditions of states
+     * cloned one from the other share their common prefix, which 
+     * {@link ClauseList#commonPrefixLength(ClauseList, ClauseList)}
+     * skips without comparing its clauses.
+	 */
+	public ClauseList getPathConditionList() {
+		return this.pathCondition.getClauses();
+	}
+
 	/**
 	 * Returns the path condition clauses that have been pushed since
 	 * the last call of {@link #resetLastPathConditionClauses()}. Used to determine
@@ -1563,12 +1615,8 @@ public final class State implements Cloneable {
      * is invoked.
 	 */
 	public Iterable<Clause> getLastPathConditionPushedClauses() {
-		final ListIterator<Clause> it = this.pathCondition.getClauses().listIterator();
-		final int fwdEnd = this.pathCondition.getClauses().size() - this.nPushedClauses;
-		for (int i = 1; i <= fwdEnd; ++i) {
-			it.next();
-		}
-		return () -> it;
+		final ClauseList clauses = this.pathCondition.getClauses();
+		return clauses.suffix(clauses.size() - this.nPushedClauses);
 	}
 
 	/**
@@ -1662,15 +1710,26 @@ public final class State implements Cloneable {
 	}
 
 	/**
-	 * Adds a suffix to the state's identifier.
+	 * Adds a branch number to the state's identifier.
 	 * 
-	 * @param identifierSuffix 
-	 *        a {@link String} representing the suffix to be 
-	 *        appended to the state's identifier.
-	 * @param increase 
+	 * @param separator a {@link String}, the separator
+	 *        preceding the branch number.
+	 * @param branchNumber a nonnegative {@code int}, the 
+	 *        branch number.
 	 */
-	public void appendToIdentifier(String identifierSuffix) {
-		this.identifier += identifierSuffix;
+	public void appendToIdentifier(String separator, int branchNumber) {
+		this.identifier = this.identifier.append(separator, branchNumber);
+	}
+
+	/**
+	 * Adds a label to the state's identifier.
+	 * 
+	 * @param separator a {@link String}, the separator
+	 *        preceding the label.
+	 * @param label a {@link String}, the label.
+	 */
+	public void appendToIdentifier(String separator, String label) {
+		this.identifier = this.identifier.append(separator, label);
 	}
 
 
@@ -1730,6 +1789,17 @@ public final class State implements Cloneable {
 	 *         state's identifier.
 	 */
 	public String getIdentifier() {
+		return this.identifier.toString();
+	}
+
+	/**
+	 * Gets the state's identifier as a path.
+	 * 
+	 * @return a {@link StateIdentifier}; it changes
+	 *         (is a different object) whenever the 
+	 *         state's identifier changes.
+	 */
+	public StateIdentifier getIdentifierPath() {
 		return this.identifier;
 	}
     
@@ -1808,13 +1878,13 @@ public final class State implements Cloneable {
 	 *         {@code this}.
 	 */
 	public void refine(State stateRefining) throws CannotRefineException {
-		final String refiningIdentifier = stateRefining.identifier;
+		final StateIdentifier refiningIdentifier = stateRefining.identifier;
 		final PathCondition refiningPathCondition = stateRefining.pathCondition;
 		
 		//checks that stateRefining refines this state, and 
 		//gets an iterator to the additional clauses
 		final Iterator<Clause> iRefining;
-		if (refiningIdentifier.startsWith(this.identifier)) {
+		if (this.identifier.isPrefixOf(refiningIdentifier)) {
 			iRefining = refiningPathCondition.refines(this.pathCondition);
 			if (iRefining == null) {
 				throw new CannotRefineException();
@@ -1861,6 +1931,139 @@ public final class State implements Cloneable {
 		return this.symbolFactory.createSymbol(staticType, origin);
 	}
 	
+	/**
+	 * Returns the number of symbols created in this state 
+	 * and in the states it was cloned from.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int getNumCreatedSymbols() {
+		return this.symbolFactory.getNumCreatedSymbols();
+	}
+	
+	/**
+	 * Merges this state with another one at the same program point,
+	 * e.g., with a sibling state reaching the join point of a branch. 
+	 * The values that differ in the two states are merged into 
+	 * if-then-else terms, and the path condition of the merged state
+	 * is the disjunction of the path conditions of the two states. 
+	 * Neither {@code this} nor {@code other} is modified. Since the 
+	 * symbols are identified by the order of their creation, the two
+	 * states must descend from a common state (e.g., the state at the 
+	 * branch), and must have created no symbol since then.
+	 * 
+	 * @param other a {@link State}.
+	 * @param numSymbolsAtBranch an {@code int}, the number of symbols 
+	 *        created by the common ancestor of {@code this} and 
+	 *        {@code other} (see {@link #getNumCreatedSymbols()}).
+	 * @return a new {@link State}, the merge of {@code this} and
+	 *         {@code other}, or {@code null} if they cannot be merged, 
+	 *         e.g., because their heaps have different shapes, their
+	 *         path conditions differ for the resolution of some reference,
+	 *         or some of them created symbols after the branch.
+	 */
+	public State mergeWith(State other, int numSymbolsAtBranch) {
+		return new StateMerger(this.calc).merge(this, other, numSymbolsAtBranch);
+	}
+	
+	/**
+	 * Checks whether this state preserves the objects of another 
+	 * state, e.g., of a state it descends from. This happens when
+	 * its heap contains all the objects in the heap of the other
+	 * state with the same field values, and its static method area
+	 * contains exactly the same classes with the same static field
+	 * values. The objects that are in the heap of this state and not 
+	 * in the heap of the other state are not considered.
+	 * 
+	 * @param other a {@link State}.
+	 * @return a {@code boolean}.
+	 */
+	public boolean preservesObjectsOf(State other) {
+		final Map<String, Klass> staticMethodArea = getStaticMethodArea();
+		final Map<String, Klass> otherStaticMethodArea = other.getStaticMethodArea();
+		if (!staticMethodArea.keySet().equals(otherStaticMethodArea.keySet())) {
+			return false;
+		}
+		for (Map.Entry<String, Klass> e : otherStaticMethodArea.entrySet()) {
+			if (!sameObjects(staticMethodArea.get(e.getKey()), e.getValue())) {
+				return false;
+			}
+		}
+		final Map<Long, Objekt> heap = getHeap();
+		for (Map.Entry<Long, Objekt> e : other.getHeap().entrySet()) {
+			final Objekt o = heap.get(e.getKey());
+			if (o == null || !sameObjects(o, e.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static boolean sameObjects(Objekt o1, Objekt o2) {
+		if (o1.getClass() != o2.getClass() || 
+			!o1.getType().equals(o2.getType()) ||
+			!o1.fields.keySet().equals(o2.fields.keySet())) {
+			return false;
+		}
+		if (o1 instanceof Array) {
+			return ((Array) o1).sameAs((Array) o2);
+		}
+		for (Map.Entry<String, Variable> f : o1.fields.entrySet()) {
+			if (!Objects.equals(f.getValue().getValue(), o2.fields.get(f.getKey()).getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the canonical form of this state. Two states 
+	 * have equal canonical forms iff they are at the same 
+	 * program point with the same call stack, their heaps 
+	 * (restricted to the reachable objects) are isomorphic 
+	 * with equal values, and their path conditions differ
+	 * at most in their numeric assumptions.
+	 * 
+	 * @return an unmodifiable {@link List}{@code <}{@link Object}{@code >},
+	 *         that is not affected by later modifications of {@code this}.
+	 */
+	public List<Object> canonicalForm() {
+		final ArrayList<ReferenceConcrete> constants = new ArrayList<>();
+		constants.addAll(this.stringLiterals.values());
+		constants.addAll(this.classes.values());
+		constants.addAll(this.classesPrimitive.values());
+		final StateCanonicalizer c = new StateCanonicalizer(getHeap(), constants);
+		return c.canonicalForm(getStack(), getStaticMethodArea(), getPathConditionList());
+	}
+	
+	/**
+	 * Checks whether this state and another one have the
+	 * same string literals and class objects.
+	 * 
+	 * @param other a {@link State}.
+	 * @return a {@code boolean}.
+	 */
+	boolean sameConstantsAs(State other) {
+		return (this.wide == other.wide && this.useArrayTheory == other.useArrayTheory &&
+				this.stringLiterals.equals(other.stringLiterals) &&
+				this.classes.equals(other.classes) && 
+				this.classesPrimitive.equals(other.classesPrimitive));
+	}
+	
+	/**
+	 * Replaces the last path condition clauses with a single one.
+	 * All the replaced clauses must be {@link ClauseAssume}s.
+	 * 
+	 * @param prefixLength an {@code int}, the number of initial
+	 *        clauses that are kept.
+	 * @param condition a {@link Primitive}, the replacing clause's 
+	 *        condition, or {@code null} for no replacing clause.
+	 */
+	void replaceAssumptions(int prefixLength, Primitive condition) {
+		this.pathCondition.replaceAssumptions(prefixLength, condition);
+		this.nPushedClauses = 0;
+	}
+
 	/**
 	 * Checks whether the next bytecode must be WIDE 
 	 * and resets the WIDE test.
@@ -1916,13 +2119,13 @@ public final class State implements Cloneable {
 		}
 
 		//stringLiterals
-		o.stringLiterals = new HashMap<>(o.stringLiterals);
+		o.stringLiterals = o.stringLiterals.clone();
 
         //classes
-        o.classes = new HashMap<>(o.classes);
+        o.classes = o.classes.clone();
 
         //classesPrimitive
-        o.classesPrimitive = new HashMap<>(o.classesPrimitive);
+        o.classesPrimitive = o.classesPrimitive.clone();
 
 		//stack
 		o.stack = o.stack.clone();
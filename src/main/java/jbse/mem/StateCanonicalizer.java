@@ -0,0 +1,179 @@
+package jbse.mem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import jbse.mem.Array.AccessOutcomeIn;
+import jbse.val.ReferenceConcrete;
+import jbse.val.Simplex;
+import jbse.val.Value;
+
+/**
+ * Calculates the canonical form of a {@link State}, i.e., a
+ * list of tokens that describes its program point, call stack,
+ * heap and values, where the references to the objects created
+ * during symbolic execution are replaced by the order in which
+ * the objects are reached when visiting the state breadth-first
+ * from its thread stack and static method area. Two states
+ * have equal canonical forms iff they are at the same program
+ * point with the same call stack, their heaps restricted to the
+ * reachable objects are isomorphic, the values in corresponding
+ * locations are equal, and their path conditions resolve the
+ * same references and classes in the same way. Their numeric
+ * assumptions may differ. The concrete identity hash codes
+ * of the objects are not considered.
+ *
+ * @author Pietro Braione
+ */
+final class StateCanonicalizer {
+	/** The heap of the state. */
+	private final Map<Long, Objekt> heap;
+
+	/**
+	 * The heap positions that are not renumbered, because
+	 * they are mentioned by the path condition or are
+	 * string literals or class objects.
+	 */
+	private final TreeSet<Long> pinned = new TreeSet<>();
+
+	/** Maps the reached heap positions to their canonical positions. */
+	private final HashMap<Long, Object> canonical = new HashMap<>();
+
+	/** The reached heap positions whose objects must be visited. */
+	private final ArrayDeque<Long> toVisit = new ArrayDeque<>();
+
+	/** The canonical form. */
+	private final ArrayList<Object> form = new ArrayList<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param heap the heap of the state.
+	 * @param constants the {@link ReferenceConcrete}s to
+	 *        the string literals and class objects of the state.
+	 */
+	StateCanonicalizer(Map<Long, Objekt> heap, Collection<ReferenceConcrete> constants) {
+		this.heap = heap;
+		for (ReferenceConcrete r : constants) {
+			this.pinned.add(r.getHeapPosition());
+		}
+	}
+
+	/**
+	 * Calculates the canonical form.
+	 *
+	 * @param stack the thread stack of the state.
+	 * @param staticMethodArea the static method area of the state.
+	 * @param pathCondition the path condition of the state.
+	 * @return an unmodifiable {@link List}{@code <}{@link Object}{@code >}.
+	 */
+	List<Object> canonicalForm(List<Frame> stack, Map<String, Klass> staticMethodArea, ClauseList pathCondition) {
+		//path condition: all but the numeric assumptions
+		final ArrayList<Clause> resolutions = new ArrayList<>();
+		for (Clause c : pathCondition) {
+			if (c instanceof ClauseAssume) {
+				continue;
+			}
+			resolutions.add(c);
+			if (c instanceof ClauseAssumeExpands) {
+				this.pinned.add(((ClauseAssumeExpands) c).getHeapPosition());
+			} else if (c instanceof ClauseAssumeAliases) {
+				this.pinned.add(((ClauseAssumeAliases) c).getHeapPosition());
+			}
+		}
+		this.form.add(resolutions);
+		this.form.add(new ArrayList<>(this.pinned));
+		for (long pos : this.pinned) {
+			this.canonical.put(pos, new ReferenceConcrete(pos));
+			this.toVisit.add(pos);
+		}
+
+		//thread stack
+		this.form.add(stack.size());
+		for (Frame f : stack) {
+			this.form.add(f.getCurrentMethodSignature());
+			this.form.add(f.getProgramCounter());
+			this.form.add(f.getReturnProgramCounter());
+			final Map<Integer, Value> locals = f.localVariablesValues();
+			this.form.add(locals.size());
+			for (Map.Entry<Integer, Value> e : locals.entrySet()) {
+				this.form.add(e.getKey());
+				addValue(e.getValue());
+			}
+			final Collection<Value> operands = f.values();
+			this.form.add(operands.size());
+			for (Value v : operands) {
+				addValue(v);
+			}
+		}
+
+		//static method area
+		final TreeMap<String, Klass> klasses = new TreeMap<>(staticMethodArea);
+		this.form.add(klasses.size());
+		for (Map.Entry<String, Klass> e : klasses.entrySet()) {
+			this.form.add(e.getKey());
+			addObject(e.getValue());
+		}
+
+		//heap
+		while (!this.toVisit.isEmpty()) {
+			final Objekt o = this.heap.get(this.toVisit.poll());
+			if (o == null) {
+				this.form.add(null);
+			} else {
+				addObject(o);
+			}
+		}
+
+		return Collections.unmodifiableList(this.form);
+	}
+
+	private void addObject(Objekt o) {
+		this.form.add(o.getClass());
+		this.form.add(o.getType());
+		this.form.add(o.getOrigin());
+		final Value hashCode = o.getObjektHashCode();
+		this.form.add(hashCode instanceof Simplex ? null : hashCode);
+		if (o instanceof Array) {
+			final Array a = (Array) o;
+			this.form.add(a.getLength());
+			this.form.add(a.hasSimpleRep());
+			this.form.add(a.hasArrayTheoryRep());
+			final List<AccessOutcomeIn> entries = a.entries();
+			this.form.add(entries.size());
+			for (AccessOutcomeIn e : entries) {
+				this.form.add(e.getAccessCondition());
+				addValue(e.getValue());
+			}
+		} else {
+			final TreeMap<String, Variable> fields = new TreeMap<>(o.fields);
+			this.form.add(fields.size());
+			for (Map.Entry<String, Variable> e : fields.entrySet()) {
+				this.form.add(e.getKey());
+				addValue(e.getValue().getValue());
+			}
+		}
+	}
+
+	private void addValue(Value v) {
+		if (v instanceof ReferenceConcrete && !((ReferenceConcrete) v).isNull()) {
+			final long pos = ((ReferenceConcrete) v).getHeapPosition();
+			Object canonicalPos = this.canonical.get(pos);
+			if (canonicalPos == null) {
+				canonicalPos = Integer.valueOf(this.canonical.size());
+				this.canonical.put(pos, canonicalPos);
+				this.toVisit.add(pos);
+			}
+			this.form.add(canonicalPos);
+		} else {
+			this.form.add(v);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package jbse.mem;
+
+/**
+ * The identifier of a {@link State} in the symbolic execution tree.
+ * It is a persistent path: Each identifier points to the identifier
+ * of the parent state, and adds to it a segment made of a separator
+ * and either a branch number or a label. Identifiers are immutable,
+ * so states can share them, and appending a segment costs constant
+ * time and space. The hash code is calculated at construction from
+ * the hash code of the parent and the last segment, while the
+ * {@link String} rendering is calculated only on demand and cached.
+ *
+ * @author Pietro Braione
+ */
+public final class StateIdentifier {
+	/** The empty identifier. */
+	public static final StateIdentifier EMPTY = new StateIdentifier(null, "", -1, "");
+
+	/** The identifier this identifier extends, {@code null} for {@link #EMPTY}. */
+	private final StateIdentifier parent;
+
+	/** The number of segments of this identifier. */
+	private final int depth;
+
+	/** The separator of the last segment. */
+	private final String separator;
+
+	/** The branch number of the last segment, or {@code -1} if it has a label. */
+	private final int branch;
+
+	/** The label of the last segment, or {@code null} if it has a branch number. */
+	private final String label;
+
+	/** The hash code of this identifier. */
+	private final int hashCode;
+
+	/** Caches the rendering of this identifier. */
+	private String rendered;
+
+	private StateIdentifier(StateIdentifier parent, String separator, int branch, String label) {
+		this.parent = parent;
+		this.depth = (parent == null ? 0 : parent.depth + 1);
+		this.separator = separator;
+		this.branch = branch;
+		this.label = label;
+		if (parent == null) {
+			this.hashCode = 0;
+		} else {
+			final int prime = 31;
+			int result = parent.hashCode;
+			result = prime * result + separator.hashCode();
+			result = prime * result + (label == null ? branch : label.hashCode());
+			this.hashCode = result;
+		}
+		this.rendered = (parent == null ? "" : null);
+	}
+
+	/**
+	 * Returns an identifier extending this one with a branch number.
+	 *
+	 * @param separator a {@link String}, the separator of the segment.
+	 * @param branch a nonnegative {@code int}, the branch number.
+	 * @return a {@link StateIdentifier}.
+	 * @throws IllegalArgumentException if {@code branch < 0}.
+	 */
+	public StateIdentifier append(String separator, int branch) {
+		if (branch < 0) {
+			throw new IllegalArgumentException("Negative branch number " + branch + ".");
+		}
+		return new StateIdentifier(this, separator, branch, null);
+	}
+
+	/**
+	 * Returns an identifier extending this one with a label.
+	 *
+	 * @param separator a {@link String}, the separator of the segment.
+	 * @param label a {@link String}, the label.
+	 * @return a {@link StateIdentifier}.
+	 */
+	public StateIdentifier append(String separator, String label) {
+		return new StateIdentifier(this, separator, -1, label);
+	}
+
+	/**
+	 * Returns the identifier this identifier extends.
+	 *
+	 * @return a {@link StateIdentifier}, or {@code null} if
+	 *         {@code this == }{@link #EMPTY}.
+	 */
+	public StateIdentifier getParent() {
+		return this.parent;
+	}
+
+	/**
+	 * Returns the number of segments of this identifier.
+	 *
+	 * @return an {@code int}, {@code 0} for {@link #EMPTY}.
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Returns the separator of the last segment.
+	 *
+	 * @return a {@link String}.
+	 */
+	public String getSeparator() {
+		return this.separator;
+	}
+
+	/**
+	 * Returns the branch number of the last segment.
+	 *
+	 * @return an {@code int}, or {@code -1} if the last segment
+	 *         has a label.
+	 */
+	public int getBranch() {
+		return this.branch;
+	}
+
+	/**
+	 * Returns the label of the last segment.
+	 *
+	 * @return a {@link String}, or {@code null} if the last segment
+	 *         has a branch number.
+	 */
+	public String getLabel() {
+		return this.label;
+	}
+
+	/**
+	 * Returns the ancestor of this identifier with a given depth.
+	 *
+	 * @param depth an {@code int}.
+	 * @return the {@link StateIdentifier} with depth {@code depth}
+	 *         that this identifier extends, or {@code null} if
+	 *         {@code depth < 0 || depth > }{@link #getDepth()}.
+	 */
+	public StateIdentifier ancestor(int depth) {
+		if (depth < 0 || depth > this.depth) {
+			return null;
+		}
+		StateIdentifier retVal = this;
+		while (retVal.depth > depth) {
+			retVal = retVal.parent;
+		}
+		return retVal;
+	}
+
+	/**
+	 * Checks whether this identifier is a prefix of another one, i.e.,
+	 * whether it identifies an ancestor of (or the same) state.
+	 *
+	 * @param other a {@link StateIdentifier}.
+	 * @return {@code true} iff the first {@link #getDepth()} segments
+	 *         of {@code other} are the segments of this identifier.
+	 */
+	public boolean isPrefixOf(StateIdentifier other) {
+		return equals(other.ancestor(this.depth));
+	}
+
+	private boolean sameSegment(StateIdentifier other) {
+		return (this.branch == other.branch && this.separator.equals(other.separator) &&
+				(this.label == null ? other.label == null : this.label.equals(other.label)));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof StateIdentifier)) {
+			return false;
+		}
+		StateIdentifier a = this;
+		StateIdentifier b = (StateIdentifier) obj;
+		if (a.depth != b.depth) {
+			return false;
+		}
+		//identifiers usually share their ancestors, so this stops early
+		while (a != b) {
+			if (!a.sameSegment(b)) {
+				return false;
+			}
+			a = a.parent;
+			b = b.parent;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	@Override
+	public String toString() {
+		if (this.rendered == null) {
+			final StateIdentifier[] segments = new StateIdentifier[this.depth];
+			StateIdentifier s = this;
+			for (int i = this.depth - 1; i >= 0; --i) {
+				segments[i] = s;
+				s = s.parent;
+			}
+			final StringBuilder buf = new StringBuilder();
+			for (StateIdentifier segment : segments) {
+				buf.append(segment.separator);
+				if (segment.label == null) {
+					buf.append(segment.branch);
+				} else {
+					buf.append(segment.label);
+				}
+			}
+			this.rendered = buf.toString();
+		}
+		return this.rendered;
+	}
+}
@@ -0,0 +1,202 @@
+package jbse.mem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.Calculator;
+import jbse.val.FunctionApplication;
+import jbse.val.Primitive;
+import jbse.val.Value;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Merges two {@link State}s reaching the same program point
+ * along different paths into a single {@link State}. The
+ * values that differ in the two states are merged into
+ * {@link FunctionApplication#ITE} terms guarded by the
+ * path condition of the first state, and the path condition
+ * of the merged state is the disjunction of the two path
+ * conditions. Two states can be merged only if they have the
+ * same heap shape, i.e., if they differ only in the values of
+ * some primitive local variables, operand stack slots,
+ * or (instance or static) fields, and if their path conditions
+ * differ only for {@link ClauseAssume}s.
+ *
+ * @author Pietro Braione
+ */
+final class StateMerger {
+	/** The {@link Calculator}. */
+	private final Calculator calc;
+
+	/** The condition guarding the values of the first state. */
+	private Primitive guard;
+
+	StateMerger(Calculator calc) {
+		this.calc = calc;
+	}
+
+	/**
+	 * Merges two states.
+	 *
+	 * @param first a {@link State}.
+	 * @param second a {@link State}.
+	 * @param numSymbolsAtBranch an {@code int}, the number of 
+	 *        symbols created by the common ancestor of {@code first}
+	 *        and {@code second}. Two states that created the same 
+	 *        number of symbols after the branch may give the same 
+	 *        identifiers to different symbols, so both states must 
+	 *        have created exactly this number of symbols.
+	 * @return a new {@link State} that is the merge of
+	 *         {@code first} and {@code second}, with the
+	 *         identifier of {@code first}, or {@code null}
+	 *         if {@code first} and {@code second} cannot be
+	 *         merged.
+	 */
+	State merge(State first, State second, int numSymbolsAtBranch) {
+		if (first.isStuck() || second.isStuck() ||
+			first.getNumCreatedSymbols() != numSymbolsAtBranch ||
+			second.getNumCreatedSymbols() != numSymbolsAtBranch ||
+			first.getStackSize() != second.getStackSize() ||
+			!first.sameConstantsAs(second)) {
+			return null;
+		}
+
+		//path condition
+		final ClauseList firstClauses = first.getPathConditionList();
+		final ClauseList secondClauses = second.getPathConditionList();
+		final int prefixLength = ClauseList.commonPrefixLength(firstClauses, secondClauses);
+		final Primitive firstGuard, secondGuard;
+		try {
+			firstGuard = conjunction(firstClauses.suffix(prefixLength));
+			secondGuard = conjunction(secondClauses.suffix(prefixLength));
+		} catch (InvalidOperandException | InvalidTypeException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		if (firstGuard == null || secondGuard == null ||
+			firstGuard.surelyTrue() || secondGuard.surelyTrue()) {
+			return null;
+		}
+		final Primitive disjunction;
+		try {
+			disjunction = firstGuard.or(secondGuard);
+		} catch (InvalidOperandException | InvalidTypeException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		this.guard = firstGuard;
+
+		final State retVal = first.clone();
+
+		//thread stack
+		final List<Frame> mergedFrames = retVal.getStack();
+		final List<Frame> secondFrames = second.getStack();
+		for (int i = 0; i < mergedFrames.size(); ++i) {
+			if (!mergedFrames.get(i).merge(secondFrames.get(i), this)) {
+				return null;
+			}
+		}
+
+		//heap and static method area
+		//(the Klasses are shared with first until updated)
+		final Map<Long, Objekt> mergedHeap = retVal.getHeap();
+		if (!mergeObjects(mergedHeap, second.getHeap(), mergedHeap::get) ||
+			!mergeObjects(retVal.getStaticMethodArea(), second.getStaticMethodArea(), retVal::getKlassForUpdate)) {
+			return null;
+		}
+
+		retVal.replaceAssumptions(prefixLength, (disjunction.surelyTrue() ? null : disjunction));
+		return retVal;
+	}
+
+	/**
+	 * Returns the conjunction of the conditions of a
+	 * list of {@link ClauseAssume}s.
+	 *
+	 * @param clauses a {@link List}{@code <}{@link Clause}{@code >}.
+	 * @return a {@link Primitive}, or {@code null} if some
+	 *         clause in {@code clauses} is not a {@link ClauseAssume}.
+	 */
+	private Primitive conjunction(List<Clause> clauses)
+	throws InvalidOperandException, InvalidTypeException {
+		Primitive retVal = this.calc.valBoolean(true);
+		for (Clause c : clauses) {
+			if (!(c instanceof ClauseAssume)) {
+				return null;
+			}
+			final Primitive condition = ((ClauseAssume) c).getCondition();
+			retVal = (retVal.surelyTrue() ? condition : retVal.and(condition));
+		}
+		return retVal;
+	}
+
+	private <K> boolean mergeObjects(Map<K, ? extends Objekt> merged, Map<K, ? extends Objekt> second, Function<K, ? extends Objekt> forUpdate) {
+		if (!merged.keySet().equals(second.keySet())) {
+			return false;
+		}
+		for (K key : new ArrayList<>(merged.keySet())) {
+			final Objekt o1 = merged.get(key);
+			final Objekt o2 = second.get(key);
+			if (o1.getClass() != o2.getClass() ||
+				!o1.getType().equals(o2.getType()) ||
+				!o1.getObjektHashCode().equals(o2.getObjektHashCode()) ||
+				(o1.getOrigin() == null ? o2.getOrigin() != null : !o1.getOrigin().equals(o2.getOrigin())) ||
+				!o1.fields.keySet().equals(o2.fields.keySet())) {
+				return false;
+			}
+			if (o1 instanceof Array) {
+				//arrays must be identical
+				if (!((Array) o1).sameAs((Array) o2)) {
+					return false;
+				}
+				continue;
+			}
+			Objekt updated = null;
+			for (Map.Entry<String, Variable> f : o1.fields.entrySet()) {
+				final Value v1 = f.getValue().getValue();
+				final Value v = mergeValues(v1, o2.fields.get(f.getKey()).getValue());
+				if (v == null) {
+					return false;
+				}
+				if (v != v1) {
+					if (updated == null) {
+						updated = forUpdate.apply(key);
+					}
+					updated.fields.get(f.getKey()).setValue(v);
+					++updated.fieldWrites;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Merges two values.
+	 *
+	 * @param first the {@link Value} in the first state.
+	 * @param second the {@link Value} in the second state.
+	 * @return {@code first} if it is equal to {@code second},
+	 *         an {@link FunctionApplication#ITE} term if they
+	 *         are different {@link Primitive}s with same type,
+	 *         {@code null} otherwise.
+	 */
+	Value mergeValues(Value first, Value second) {
+		if (first == null ? second == null : first.equals(second)) {
+			return first;
+		}
+		if (first instanceof Primitive && second instanceof Primitive &&
+			first.getType() == second.getType()) {
+			try {
+				return new FunctionApplication(first.getType(), this.calc, FunctionApplication.ITE, this.guard, (Primitive) first, (Primitive) second);
+			} catch (InvalidTypeException | InvalidOperandException e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+		}
+		return null;
+	}
+}
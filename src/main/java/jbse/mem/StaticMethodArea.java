@@ -1,45 +1,208 @@
 package jbse.mem;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
- * The static method area, where all the {@link Klass} objects of a 
- * JVM state are stored.
- * 
+ * The static method area, where all the {@link Klass} objects of a
+ * JVM state are stored.<br /><br />
+ *
+ * The area is shared among its clones. It is made of a frozen
+ * base table, that is shared by all the clones and is never
+ * modified, and of a (usually small) table of the {@link Klass}es
+ * that were created or modified since the base table was frozen.
+ * A {@link Klass} is copied into the latter table the first time
+ * it is modified after cloning, so cloning an area costs in the
+ * number of recently created or modified {@link Klass}es, rather
+ * than in the number of loaded classes.
+ *
  * @author Pietro Braione
  *
  */
 public final class StaticMethodArea implements Cloneable {
-	private HashMap<String, Klass> objTable;
-	
+	/**
+	 * The ratio between the sizes of {@link #base} and of
+	 * {@link #delta} that triggers freezing a new base.
+	 */
+	private static final int FREEZE_RATIO = 8;
+
+	/**
+	 * The frozen {@link Klass}es, shared among the clones.
+	 * Neither the map nor the {@link Klass}es are ever modified.
+	 */
+	private HashMap<String, Klass> base;
+
+	/**
+	 * The {@link Klass}es created or modified after {@link #base}
+	 * was frozen. They hide the ones in {@link #base} with same name.
+	 */
+	private HashMap<String, Klass> delta;
+
+	/**
+	 * The names of the {@link Klass}es in {@link #delta} that
+	 * are not shared with a clone, and thus can be modified.
+	 */
+	private HashSet<String> owned;
+
 	public StaticMethodArea() {
-		this.objTable = new HashMap<String, Klass>();
+		this.base = new HashMap<>();
+		this.delta = new HashMap<>();
+		this.owned = new HashSet<>();
 	}
-	
-	public boolean contains(String className) { 
-		return this.objTable.containsKey(className); 
+
+	public boolean contains(String className) {
+		return this.delta.containsKey(className) || this.base.containsKey(className);
 	}
 
+	/**
+	 * Returns a {@link Klass}.
+	 *
+	 * @param className the name of the class.
+	 * @return the {@link Klass} of {@code className}, or
+	 *         {@code null} if there is none. It can be shared
+	 *         with the clones of this area, so it must not be
+	 *         modified; use {@link #getForUpdate(String)} for that.
+	 */
 	public Klass get(String className) {
-    	return this.objTable.get(className);
+		final Klass k = this.delta.get(className);
+		return (k == null ? this.base.get(className) : k);
     }
 
+	/**
+	 * Returns a {@link Klass} that can be modified.
+	 *
+	 * @param className the name of the class.
+	 * @return the {@link Klass} of {@code className}, or
+	 *         {@code null} if there is none. If it is shared
+	 *         with some clone of this area, it is first replaced
+	 *         in this area by a copy.
+	 */
+	public Klass getForUpdate(String className) {
+		if (this.owned.contains(className)) {
+			return this.delta.get(className);
+		}
+		final Klass k = get(className);
+		if (k == null) {
+			return null;
+		}
+		final Klass kCopy = k.clone();
+		this.delta.put(className, kCopy);
+		this.owned.add(className);
+		return kCopy;
+	}
+
+	/**
+	 * Sets a {@link Klass}.
+	 *
+	 * @param className the name of the class.
+	 * @param k the {@link Klass} of {@code className}. It is
+	 *        owned by this area after the invocation, so the
+	 *        caller must not keep it.
+	 * @return the previous {@link Klass} of {@code className},
+	 *         or {@code null} if there was none.
+	 */
 	public Klass set(String className, Klass k) {
-    	return this.objTable.put(className, k);
+		final Klass retVal = get(className);
+		this.delta.put(className, k);
+		this.owned.add(className);
+		return retVal;
     }
-	
+
+	/**
+	 * Returns all the {@link Klass}es.
+	 *
+	 * @return an unmodifiable {@link Map}{@code <}{@link String}{@code , }{@link Klass}{@code >}
+	 *         backed by this area. Its {@link Klass}es can be shared
+	 *         with the clones of this area, so they must not be
+	 *         modified.
+	 */
     public Map<String, Klass> getObjects() {
-        return this.objTable;
+        return new AbstractMap<String, Klass>() {
+        	@Override
+        	public boolean containsKey(Object key) {
+        		return (key instanceof String && StaticMethodArea.this.contains((String) key));
+        	}
+
+        	@Override
+        	public Klass get(Object key) {
+        		return (key instanceof String ? StaticMethodArea.this.get((String) key) : null);
+        	}
+
+        	@Override
+        	public Set<Map.Entry<String, Klass>> entrySet() {
+        		return new AbstractSet<Map.Entry<String, Klass>>() {
+        			@Override
+        			public int size() {
+        				int retVal = StaticMethodArea.this.base.size();
+        				for (String className : StaticMethodArea.this.delta.keySet()) {
+        					if (!StaticMethodArea.this.base.containsKey(className)) {
+        						++retVal;
+        					}
+        				}
+        				return retVal;
+        			}
+
+        			@Override
+        			public Iterator<Map.Entry<String, Klass>> iterator() {
+        				return new EntryIterator();
+        			}
+        		};
+        	}
+        };
     }
-    
+
+    /**
+     * Iterates over the entries of {@link #delta}, and then
+     * over the entries of {@link #base} that are not hidden
+     * by {@link #delta}.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Klass>> {
+    	private final Iterator<Map.Entry<String, Klass>> itDelta = StaticMethodArea.this.delta.entrySet().iterator();
+    	private final Iterator<Map.Entry<String, Klass>> itBase = StaticMethodArea.this.base.entrySet().iterator();
+    	private Map.Entry<String, Klass> next = null;
+
+    	@Override
+    	public boolean hasNext() {
+    		if (this.next != null) {
+    			return true;
+    		}
+    		if (this.itDelta.hasNext()) {
+    			this.next = this.itDelta.next();
+    			return true;
+    		}
+    		while (this.itBase.hasNext()) {
+    			final Map.Entry<String, Klass> e = this.itBase.next();
+    			if (!StaticMethodArea.this.delta.containsKey(e.getKey())) {
+    				this.next = e;
+    				return true;
+    			}
+    		}
+    		return false;
+    	}
+
+    	@Override
+    	public Map.Entry<String, Klass> next() {
+    		if (!hasNext()) {
+    			throw new NoSuchElementException();
+    		}
+    		final Map.Entry<String, Klass> retVal = new AbstractMap.SimpleImmutableEntry<>(this.next);
+    		this.next = null;
+    		return retVal;
+    	}
+    }
+
 	@Override
 	public String toString() {
-        final StringBuilder buf = new StringBuilder(); 
+        final StringBuilder buf = new StringBuilder();
         buf.append("[");
         boolean isFirst = true;
-        final Set<Map.Entry<String, Klass>> entries = this.objTable.entrySet();
+        final Set<Map.Entry<String, Klass>> entries = getObjects().entrySet();
         for (Map.Entry<String, Klass> e : entries) {
             if (isFirst) {
                 isFirst = false;
@@ -57,24 +220,32 @@ public final class StaticMethodArea implements Cloneable {
         buf.append("]");
         return buf.toString();
 	}
-    
+
 	@Override
 	public StaticMethodArea clone() {
+		//freezes a new base when delta grows too big,
+		//so the clones do not copy it over and over
+		if (this.delta.size() * FREEZE_RATIO > this.base.size()) {
+			final HashMap<String, Klass> newBase = new HashMap<>(this.base);
+			newBase.putAll(this.delta);
+			this.base = newBase;
+			this.delta = new HashMap<>();
+		}
+
+		//from now on, all the Klasses are shared
+		this.owned = new HashSet<>();
+
 		final StaticMethodArea o;
 		try {
 			o = (StaticMethodArea) super.clone();
 		} catch (CloneNotSupportedException e) {
 			throw new InternalError(e);
 		}
-		
-		//objTable
-		HashMap<String, Klass> objTableClone = new HashMap<String, Klass>();
-		for (Map.Entry<String, Klass> e : this.objTable.entrySet()) {
-			Klass val = e.getValue();
-			objTableClone.put(e.getKey(), val.clone());
-		}
-		o.objTable = objTableClone;
-		
+
+		//base is shared, delta is copied
+		o.delta = new HashMap<>(this.delta);
+		o.owned = new HashSet<>();
+
 		return o;
 	}
 }
@@ -2,6 +2,7 @@ package jbse.rewr;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.function.LongConsumer;
 
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.rewr.exc.NoResultException;
@@ -26,6 +27,16 @@ import jbse.val.exc.InvalidTypeException;
 public class CalculatorRewriting extends Calculator {
 	private final ArrayList<Rewriter> rewriters = new ArrayList<Rewriter>();
 	
+	/** 
+	 * Receives the time (in nanoseconds) spent by each outermost 
+	 * invocation of {@link #applyRewriters(Primitive, Rewriter...)}, 
+	 * or {@code null} if rewriting must not be timed.
+	 */
+	private LongConsumer rewritingTimeListener = null;
+	
+	/** The nesting depth of the current {@link #applyRewriters(Primitive, Rewriter...)} invocation. */
+	private int rewritingDepth = 0;
+	
 	/**
 	 * Constructor.
 	 */
@@ -364,6 +375,20 @@ public class CalculatorRewriting extends Calculator {
     	this.rewriters.add(r);
     }
     
+    /**
+     * Sets a listener that is notified of the time spent
+     * rewriting. Nested rewritings (i.e., those triggered by
+     * a {@link Rewriter} while it rewrites) are accounted in
+     * the time of the outermost one.
+     * 
+     * @param rewritingTimeListener a {@link LongConsumer} that
+     *        will receive the time, in nanoseconds, spent by each 
+     *        rewriting, or {@code null} to stop timing.
+     */
+    public void setRewritingTimeListener(LongConsumer rewritingTimeListener) {
+    	this.rewritingTimeListener = rewritingTimeListener;
+    }
+    
     /**
      * Applies a sequence of rewriters to a {@link Primitive}.
      * 
@@ -376,6 +401,20 @@ public class CalculatorRewriting extends Calculator {
      *         in their invocation order.
      */
     public Primitive applyRewriters(Primitive p, Rewriter...rewriters) {
+    	if (this.rewritingTimeListener == null || this.rewritingDepth > 0) {
+    		return doApplyRewriters(p, rewriters);
+    	}
+    	final long start = System.nanoTime();
+    	++this.rewritingDepth;
+    	try {
+    		return doApplyRewriters(p, rewriters);
+    	} finally {
+    		--this.rewritingDepth;
+    		this.rewritingTimeListener.accept(System.nanoTime() - start);
+    	}
+    }
+    
+    private Primitive doApplyRewriters(Primitive p, Rewriter...rewriters) {
     	Primitive retVal = p;
     	final ArrayList<Rewriter> toApply = new ArrayList<Rewriter>(Arrays.asList(rewriters));
     	toApply.addAll(this.rewriters);
@@ -257,6 +257,21 @@ public class DecisionAlternativeComparators {
 		};
 	}
 	
+    /**
+     * Default comparator for {@link DecisionAlternative_INVOKESUMMARY}s.
+     * 
+     * @return A {@link Comparator}{@code <}{@link DecisionAlternative_INVOKESUMMARY}{@code >}
+     *         ordering the alternatives by the index of their summary case.
+     */
+	private static Comparator<DecisionAlternative_INVOKESUMMARY> defaultComparatorDecisionAlternative_INVOKESUMMARY() {
+		return new Comparator<DecisionAlternative_INVOKESUMMARY>() {
+			@Override
+			public int compare(DecisionAlternative_INVOKESUMMARY o1, DecisionAlternative_INVOKESUMMARY o2) {
+				return o1.caseIndex() - o2.caseIndex();
+			}
+		};
+	}
+	
 	private final HashMap<Class<?>, Comparator<?>> comparators = new HashMap<>(); 
 	
 	/**
@@ -271,6 +286,7 @@ public class DecisionAlternativeComparators {
     	this.comparators.put(DecisionAlternative_XNEWARRAY.class,  defaultComparatorDecisionAlternative_XNEWARRAY());
     	this.comparators.put(DecisionAlternative_XASTORE.class,    defaultComparatorDecisionAlternative_XASTORE());
     	this.comparators.put(DecisionAlternative_XALOAD.class,     defaultComparatorDecisionAlternative_XALOAD());
+    	this.comparators.put(DecisionAlternative_INVOKESUMMARY.class, defaultComparatorDecisionAlternative_INVOKESUMMARY());
     }
 
     /**
@@ -0,0 +1,85 @@
+package jbse.tree;
+
+/**
+ * {@link DecisionAlternative} for the invocation of a method 
+ * whose effect is calculated by instantiating its summary. 
+ * Each alternative is a case of the summary.
+ * 
+ * @author Pietro Braione
+ */
+public final class DecisionAlternative_INVOKESUMMARY implements DecisionAlternative {
+	/** The index of the case of the summary. */
+	private final int caseIndex;
+	
+	private final boolean isConcrete;
+	
+	private final String toString;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param caseIndex an {@code int}, the index of the case 
+	 *        of the summary.
+	 * @param isConcrete {@code true} iff the precondition of 
+	 *        the case was decided on concrete values.
+	 */
+	public DecisionAlternative_INVOKESUMMARY(int caseIndex, boolean isConcrete) {
+		this.caseIndex = caseIndex;
+		this.isConcrete = isConcrete;
+		this.toString = "INVOKESUMMARY:" + caseIndex;
+	}
+	
+	public int caseIndex() {
+		return this.caseIndex;
+	}
+
+	@Override
+	public String getIdentifier() {
+		return this.toString;
+	}
+	
+	@Override
+	public int getBranchNumber() {
+		return this.caseIndex + 1;
+	}
+
+    @Override
+    public boolean trivial() {
+        return this.isConcrete;
+    }
+
+	@Override
+	public boolean concrete() {
+		return this.isConcrete;
+	}
+    
+    @Override
+    public boolean noDecision() {
+        return false;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } 
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final DecisionAlternative_INVOKESUMMARY other = (DecisionAlternative_INVOKESUMMARY) obj;
+        return (this.caseIndex == other.caseIndex);
+    }
+    
+    @Override
+    public int hashCode() {
+        return this.caseIndex;
+    }
+
+    @Override
+    public String toString() {
+        return this.toString;
+    }
+}
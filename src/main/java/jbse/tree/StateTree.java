@@ -1,9 +1,15 @@
 package jbse.tree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.State;
+import jbse.mem.StateIdentifier;
 
 /**
  * Class storing the {@link State}s in the symbolic execution
@@ -114,6 +120,13 @@ public class StateTree {
          */
         int emittedStates;
         
+        /** 
+         * {@code true} iff the branch contains a state whose 
+         * exploration was suspended, and that must be emitted 
+         * without changing its identifier.
+         */
+        boolean resumed;
+        
         /** 
          * Constructor for branch identification.
          */
@@ -121,6 +134,7 @@ public class StateTree {
             this.branch = new BranchPoint();
             this.totalStates = 0;
             this.emittedStates = 0;
+            this.resumed = false;
         }
     }
 	
@@ -148,6 +162,23 @@ public class StateTree {
 	 */
 	private boolean nextIsInitialState = true;
 	
+	/** 
+	 * The branch numbers of the identifiers of the states whose 
+	 * subtrees must be replayed ({@code null} for an identifier
+	 * that is not replicable), empty if the whole tree must be 
+	 * explored.
+	 */
+	private List<int[]> replayTargets = Collections.emptyList();
+	
+	/** The last identifier checked against the replay targets. */
+	private StateIdentifier replayCheckedIdentifier = null;
+	
+	/** 
+	 * Whether the branches of {@link #replayCheckedIdentifier} agree 
+	 * with those of each replay target, up to the shortest.
+	 */
+	private boolean[] replayCheckedAgrees = null;
+	
 	/**
 	 * Constructor.
 	 */
@@ -166,6 +197,226 @@ public class StateTree {
     	return this.stateIdMode;
     }
 	
+    /**
+     * Sets the state whose subtree must be replayed. When set, 
+     * at each branch only the states whose identifiers are prefixes 
+     * of the target identifier, or that have the target identifier as
+     * a prefix, are explored. It must be used only when the state 
+     * identification mode is {@link StateIdentificationMode#REPLICABLE},
+     * since this is the only mode where the identifier of a state 
+     * does not depend on the exploration of its siblings.
+     * 
+     * @param replayTarget a {@link String}, the identifier of the 
+     *        target state, or {@code null} for exploring the whole tree.
+     */
+    public void setReplayTarget(String replayTarget) {
+    	setReplayTargets(replayTarget == null ? 
+    			Collections.<String>emptyList() : 
+    			Collections.singletonList(replayTarget));
+    }
+    
+    /**
+     * Sets the states whose subtrees must be replayed, e.g., 
+     * for resuming an exploration from its frontier. Same as
+     * {@link #setReplayTarget(String)}, but at each branch the
+     * states on the path to, or in the subtree of, any target
+     * are explored. 
+     * 
+     * @param replayTargets a {@link Collection}{@code <}{@link String}{@code >}, 
+     *        the identifiers of the target states; if empty, the 
+     *        whole tree is explored.
+     */
+    public void setReplayTargets(Collection<String> replayTargets) {
+    	this.replayTargets = new ArrayList<>(replayTargets.size());
+    	for (String replayTarget : replayTargets) {
+    		this.replayTargets.add(replicableBranches(replayTarget));
+    	}
+    	this.replayCheckedIdentifier = null;
+    	this.replayCheckedAgrees = null;
+    }
+    
+    /**
+     * Parses a state identifier into the branch numbers of 
+     * its segments, i.e., of all its segments but the initial 
+     * {@link #IDENTIFIER_DEFAULT_LONG} label. The parsed identifiers
+     * can be compared with the {@link StateIdentifier}s of the states 
+     * without rendering them (see {@link StateIdentifier#getBranch()}).
+     * 
+     * @param identifier a {@link String}.
+     * @return an {@code int[]}, the branch numbers in {@code identifier}, 
+     *         or {@code null} if the state identification mode is 
+     *         {@link StateIdentificationMode#LONG}, or {@code identifier}
+     *         is not well-formed.
+     */
+    public int[] branches(String identifier) {
+    	if (this.stateIdMode == StateIdentificationMode.REPLICABLE) {
+    		return replicableBranches(identifier);
+    	} else if (this.stateIdMode == StateIdentificationMode.COMPACT) {
+    		return compactBranches(identifier);
+    	} else {
+    		return null;
+    	}
+    }
+    
+    /**
+     * Parses a {@link StateIdentificationMode#COMPACT} identifier.
+     * 
+     * @param identifier a {@link String}.
+     * @return an {@code int[]}, the branch numbers in {@code identifier}, 
+     *         or {@code null} if {@code identifier} is not well-formed.
+     */
+    private static int[] compactBranches(String identifier) {
+    	if (identifier.isEmpty()) {
+    		return new int[0];
+    	}
+    	if (!identifier.startsWith(IDENTIFIER_SEPARATOR_COMPACT)) {
+    		return null;
+    	}
+    	final String[] parts = identifier.substring(IDENTIFIER_SEPARATOR_COMPACT.length()).split("\\" + IDENTIFIER_SEPARATOR_COMPACT, -1);
+    	return parseBranches(parts);
+    }
+    
+    /**
+     * Parses a {@link StateIdentificationMode#REPLICABLE} identifier.
+     * 
+     * @param identifier a {@link String}.
+     * @return an {@code int[]}, the branch numbers in {@code identifier}, 
+     *         or {@code null} if {@code identifier} is not replicable (and
+     *         thus identifies no state).
+     */
+    private static int[] replicableBranches(String identifier) {
+    	if (!identifier.startsWith(IDENTIFIER_DEFAULT_LONG)) {
+    		return null;
+    	}
+    	final String suffix = identifier.substring(IDENTIFIER_DEFAULT_LONG.length());
+    	if (suffix.isEmpty()) {
+    		return new int[0];
+    	}
+    	if (!suffix.startsWith(IDENTIFIER_SEPARATOR_LONG)) {
+    		return null;
+    	}
+    	final String[] parts = suffix.substring(IDENTIFIER_SEPARATOR_LONG.length()).split("\\" + IDENTIFIER_SEPARATOR_LONG, -1);
+    	return parseBranches(parts);
+    }
+    
+    private static int[] parseBranches(String[] parts) {
+    	final int[] retVal = new int[parts.length];
+    	try {
+    		for (int i = 0; i < parts.length; ++i) {
+    			retVal[i] = Integer.parseInt(parts[i]);
+    			if (retVal[i] < 0) {
+    				return null;
+    			}
+    		}
+    	} catch (NumberFormatException e) {
+    		return null;
+    	}
+    	return retVal;
+    }
+    
+    /**
+     * Compares a state identifier with the replay targets, 
+     * caching the result for the next invocation with the 
+     * same identifier (e.g., for all the alternatives of 
+     * a branch).
+     * 
+     * @param identifier a {@link StateIdentifier}.
+     * @return a {@code boolean[]} whose {@code i}-th element is 
+     *         {@code true} iff {@code identifier} is replicable 
+     *         and its branch numbers are equal to those of the 
+     *         {@code i}-th target, up to the shortest of the two.
+     */
+    private boolean[] replayAgrees(StateIdentifier identifier) {
+    	if (identifier == this.replayCheckedIdentifier) {
+    		return this.replayCheckedAgrees;
+    	}
+    	final boolean[] retVal = new boolean[this.replayTargets.size()];
+    	for (int i = 0; i < retVal.length; ++i) {
+    		retVal[i] = (this.replayTargets.get(i) != null);
+    	}
+    	StateIdentifier id = identifier;
+    	while (id.getDepth() > 1) {
+    		if (id.getLabel() != null || !IDENTIFIER_SEPARATOR_LONG.equals(id.getSeparator())) {
+    			Arrays.fill(retVal, false);
+    			break;
+    		}
+    		final int index = id.getDepth() - 2;
+    		for (int i = 0; i < retVal.length; ++i) {
+    			final int[] target = this.replayTargets.get(i);
+    			if (retVal[i] && index < target.length && target[index] != id.getBranch()) {
+    				retVal[i] = false;
+    			}
+    		}
+    		id = id.getParent();
+    	}
+    	if (id.getDepth() != 1 || !IDENTIFIER_DEFAULT_LONG.equals(id.getLabel())) {
+    		Arrays.fill(retVal, false);
+    	}
+    	this.replayCheckedIdentifier = identifier;
+    	this.replayCheckedAgrees = retVal;
+    	return retVal;
+    }
+    
+    /**
+     * Checks whether a state that would be added to a branch 
+     * must be explored when replaying.
+     * 
+     * @param parent the {@link State} that is branching.
+     * @param branchNumber the number of the branch of the 
+     *        added state.
+     * @return {@code true} iff no replay target is set, or
+     *         the identifier of the added state is on the 
+     *         path from the root to some target state, or 
+     *         in the subtree of some target state.
+     */
+    public boolean isOnReplayPath(State parent, int branchNumber) {
+    	if (this.replayTargets.isEmpty()) {
+    		return true;
+    	}
+    	final StateIdentifier identifier = parent.getIdentifierPath();
+    	final boolean[] agrees = replayAgrees(identifier);
+    	final int index = identifier.getDepth() - 1; //of the branch number of the added state
+    	for (int i = 0; i < agrees.length; ++i) {
+    		final int[] replayTarget = this.replayTargets.get(i);
+    		if (agrees[i] && (index >= replayTarget.length || replayTarget[index] == branchNumber)) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+    
+    /**
+     * Checks whether a state is strictly above some replay
+     * target and on the path to it, is not in the subtree of 
+     * any replay target, and every decision taken by the state 
+     * yields a branch. In this case the alternatives leading to 
+     * the targets are known to be feasible, as they were 
+     * when the target states were first reached, and the other 
+     * alternatives will be discarded, so the satisfiability 
+     * of the alternatives need not be checked.
+     * 
+     * @param state a {@link State}.
+     * @return a {@code boolean}.
+     */
+    public boolean isReplayingAboveTarget(State state) {
+    	if (this.replayTargets.isEmpty() || this.breadthMode == BreadthMode.MORE_THAN_ONE) {
+    		return false;
+    	}
+    	final StateIdentifier identifier = state.getIdentifierPath();
+    	final boolean[] agrees = replayAgrees(identifier);
+    	final int numBranches = identifier.getDepth() - 1;
+    	boolean retVal = false;
+    	for (int i = 0; i < agrees.length; ++i) {
+    		if (agrees[i]) {
+    			if (numBranches >= this.replayTargets.get(i).length) {
+    				return false; //in the subtree of a target
+    			}
+    			retVal = true;
+    		}
+    	}
+    	return retVal;
+    }
+	
     /**
      * Adds the initial state to the store. 
      * 
@@ -174,8 +425,11 @@ public class StateTree {
     public void addInitialState(State s) {
     	this.add(s);
     	if (this.nextIsInitialState) {
-    		s.appendToIdentifier((this.stateIdMode == StateIdentificationMode.COMPACT) ? 
-    						IDENTIFIER_DEFAULT_COMPACT : IDENTIFIER_DEFAULT_LONG);
+    		if (this.stateIdMode == StateIdentificationMode.COMPACT) {
+    			s.appendToIdentifier(IDENTIFIER_SEPARATOR_COMPACT, 1); //IDENTIFIER_DEFAULT_COMPACT
+    		} else {
+    			s.appendToIdentifier("", IDENTIFIER_DEFAULT_LONG);
+    		}
             s.resetDepth();
             s.resetCount();
 	    } else {
@@ -199,9 +453,9 @@ public class StateTree {
 	    	
     	//updates the state identifier
 	    if (this.stateIdMode == StateIdentificationMode.REPLICABLE) {
-	   		s.appendToIdentifier(IDENTIFIER_SEPARATOR_LONG + branchNumber);
+	   		s.appendToIdentifier(IDENTIFIER_SEPARATOR_LONG, branchNumber);
 	    } else if (this.stateIdMode == StateIdentificationMode.LONG) {
-	   		s.appendToIdentifier(IDENTIFIER_SEPARATOR_LONG + branchIdentifier);
+	   		s.appendToIdentifier(IDENTIFIER_SEPARATOR_LONG, branchIdentifier);
     	} //else (compact id) do nothing, nextState() will update it
         
     	add(s);
@@ -217,6 +471,34 @@ public class StateTree {
         return !this.stateBuffer.isEmpty();
     }
     
+    /**
+     * Returns the number of pending {@link State}s.
+     * 
+     * @return an {@code int}, the number of {@link State}s 
+     *         that can be emitted.
+     */
+    public int getNumPendingStates() {
+        return this.stateBuffer.size();
+    }
+    
+    /**
+     * Returns the identifiers of the pending {@link State}s.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}, the 
+     *         identifiers of the {@link State}s that can be emitted, 
+     *         in emission order. They are meaningful only when the 
+     *         state identification mode is not 
+     *         {@link StateIdentificationMode#COMPACT}, since in this 
+     *         mode identifiers are assigned upon emission.
+     */
+    public List<String> getPendingStateIdentifiers() {
+    	final ArrayList<String> retVal = new ArrayList<>(this.stateBuffer.size());
+    	for (State s : this.stateBuffer) {
+    		retVal.add(s.getIdentifier());
+    	}
+    	return retVal;
+    }
+    
     /**
      * Checks whether the next state in this {@link StateTree} is the last in a branch.
      *  
@@ -239,11 +521,15 @@ public class StateTree {
         final State s = this.stateBuffer.getFirst();
         final BranchInfo b = this.branchList.getFirst();
         ++b.emittedStates;
-        if (this.stateIdMode == StateIdentificationMode.COMPACT && !this.nextIsInitialState) {
-        	s.appendToIdentifier(IDENTIFIER_SEPARATOR_COMPACT + String.valueOf(b.emittedStates));
-        } //else, the identifier has been already set by addState
+        if (b.resumed) {
+        	//the state was already emitted: nothing to update
+        } else {
+        	if (this.stateIdMode == StateIdentificationMode.COMPACT && !this.nextIsInitialState) {
+        		s.appendToIdentifier(IDENTIFIER_SEPARATOR_COMPACT, b.emittedStates);
+        	} //else, the identifier has been already set by addState
+        	s.resetSequenceNumber();
+        }
         this.nextIsInitialState = false;
-        s.resetSequenceNumber();
         if (b.emittedStates == b.totalStates) {
             this.branchList.removeFirst();
         }
@@ -267,6 +553,29 @@ public class StateTree {
      *         the tree level.
      */
     public boolean possiblyAddBranchPoint(boolean moreThanOneResult, boolean trivial, boolean concrete, boolean noDecision) {
+		final boolean retVal = mustAddBranchPoint(moreThanOneResult, trivial, concrete, noDecision);
+		if (retVal) {
+			addBranchPoint();
+		}
+		return retVal;
+    }
+    
+    /**
+     * Checks whether a decision must increase by one the level 
+     * of the tree, without increasing it.
+     * 
+     * @param moreThanOneResult {@code true} iff the 
+     *        created branch will have than one state. 
+     * @param trivial iff the branch originates from a 
+     *        trivial decision.
+     * @param concrete iff the branch originates from a 
+     *        concrete decision.
+     * @param noDecision iff the branch originates from a
+     *        bytecode that takes no decision.
+     * @return {@code true} iff {@link #possiblyAddBranchPoint(boolean, boolean, boolean, boolean)}
+     *         would increase the tree level.
+     */
+    public boolean mustAddBranchPoint(boolean moreThanOneResult, boolean trivial, boolean concrete, boolean noDecision) {
 		boolean retVal = moreThanOneResult;
     	switch (this.breadthMode) {
     	case MORE_THAN_ONE:
@@ -283,11 +592,6 @@ public class StateTree {
     	default: 
     		throw new UnexpectedInternalException("Unexpected breadth mode " + this.breadthMode + ".");	    		
     	}
-		
-		if (retVal) {
-			addBranchPoint();
-		}
-		
 		return retVal;
     }
     
@@ -303,12 +607,30 @@ public class StateTree {
 		addState(state, 1, id); //exactly one state in the branch
     }
     
+    /**
+     * Adds back a state that was emitted and whose exploration
+     * was suspended, e.g., while waiting to be merged with some 
+     * sibling state. The state is added as the only state 
+     * of a new branch, and will be the next one to be emitted, 
+     * without changes to its identifier and sequence number. 
+     * Differently from {@link #addBranchPoint(State, String)}, 
+     * it does not affect the result of {@link #createdBranch()}.
+     * 
+     * @param state the {@link State} to be added.
+     */
+    public void addSuspendedState(State state) {
+    	final BranchInfo b = new BranchInfo();
+    	b.resumed = true;
+    	this.branchList.addFirst(b);
+    	add(state);
+    }
+    
     /**
      * Increases by one the level of the tree. Note that 
      * increasing the level without adding a {@code State}
      * will crash the engine.
      */
-    private void addBranchPoint() {
+    public void addBranchPoint() {
 		this.branchList.addFirst(new BranchInfo());
 		this.createdBranch = true;
     }
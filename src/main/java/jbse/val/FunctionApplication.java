@@ -53,7 +53,42 @@ public final class FunctionApplication extends Primitive {
     
     /** Maximum */
     public static final String MAX = "max";
-    
+
+    //functions of the theory of arrays; the type of an array term is
+    //the type of its members
+
+    /** Array read, the args are an array term and an index */
+    public static final String SELECT = "select";
+
+    /** Array update, the args are an array term, an index and a value */
+    public static final String STORE = "store";
+
+    /** Constant array, the only arg is the value of all its members */
+    public static final String ARRAY_CONST = "array_const";
+
+    /**
+     * Initial contents of a symbolic array, the only arg is the
+     * symbolic length of the array, that identifies it
+     */
+    public static final String ARRAY_INITIAL = "array_initial";
+
+    /**
+     * Contents of an array after a copy with nonconcrete length, the 
+     * args are the destination array term, the source array term, the 
+     * source position, the destination position and the length; it is
+     * not a function of the theory of arrays, so {@link jbse.mem.Array}
+     * resolves the reads of these terms and never hands them to the 
+     * decision procedure
+     */
+    public static final String ARRAY_COPY = "array_copy";
+
+    /**
+     * Conditional value, the args are a boolean condition, the
+     * value when the condition is true, and the value when it
+     * is false; the type of the term is the type of the values
+     */
+    public static final String ITE = "ite";
+
     /** The function name. */
 	private final String operator;
 	
@@ -1,54 +1,80 @@
 package jbse.val;
 
-import java.util.Arrays;
 import java.util.Iterator;
-import java.util.stream.Stream;
+import java.util.NoSuchElementException;
 
 /**
  * A path is a sequence of {@link Access}es to a state's
- * memory that yields a value.
+ * memory that yields a value. {@link MemoryPath}s are 
+ * immutable and persistent: each is a pointer to the 
+ * {@link MemoryPath} it extends plus its last {@link Access}, 
+ * so extending a path has constant cost and the paths 
+ * of the objects reachable from the same root share 
+ * their common prefixes.
  * 
  * @author Pietro Braione
  *
  */
 public final class MemoryPath implements Iterable<Access> {
-    private final Access[] accesses;
-    private final String toString;
-    private final int hashCode;
+    /** The {@link MemoryPath} this one extends, {@code null} for root paths. */
+    private final MemoryPath parent;
+    
+    /** The last {@link Access} in the path. */
+    private final Access access;
+    
+    /** The number of {@link Access}es in the path. */
+    private final int length;
+    
+    /** The hash code of the sequence of accesses, as per {@link java.util.List#hashCode()}. */
+    private final int accessesHashCode;
+    
+    /** Cache for {@link #toString()}, built on first invocation. */
+    private String toString;
 
-    private MemoryPath(Access... accesses) {
-        this.accesses = accesses.clone();
-        this.toString = String.join(".", Arrays.stream(this.accesses).map(Object::toString).toArray(String[]::new));
-        final int prime = 2311;
-        this.hashCode = prime + Arrays.hashCode(this.accesses);
+    private MemoryPath(MemoryPath parent, Access access) {
+        this.parent = parent;
+        this.access = access;
+        this.length = (parent == null ? 1 : parent.length + 1);
+        this.accessesHashCode = 31 * (parent == null ? 1 : parent.accessesHashCode) + access.hashCode();
     }
     
     public static MemoryPath mkStatic(String className) {
-        return new MemoryPath(new AccessStatic(className));
+        return new MemoryPath(null, new AccessStatic(className));
     }
     
     public static MemoryPath mkLocalVariable(String variableName) {
-        return new MemoryPath(new AccessLocalVariable(variableName));
+        return new MemoryPath(null, new AccessLocalVariable(variableName));
     }
     
     public MemoryPath thenField(String fieldName) {
-        return new MemoryPath(Stream.concat(Arrays.stream(this.accesses), Stream.of(new AccessField(fieldName))).toArray(Access[]::new));
+        return new MemoryPath(this, new AccessField(fieldName));
     }
     
     public MemoryPath thenArrayMember(Primitive index) {
-        return new MemoryPath(Stream.concat(Arrays.stream(this.accesses), Stream.of(new AccessArrayMember(index))).toArray(Access[]::new));
+        return new MemoryPath(this, new AccessArrayMember(index));
     }
     
     public MemoryPath thenArrayLength() {
-        return new MemoryPath(Stream.concat(Arrays.stream(this.accesses), Stream.of(AccessArrayLength.instance())).toArray(Access[]::new));
+        return new MemoryPath(this, AccessArrayLength.instance());
     }
 
     public MemoryPath thenHashCode() {
-        return new MemoryPath(Stream.concat(Arrays.stream(this.accesses), Stream.of(AccessHashCode.instance())).toArray(Access[]::new));
+        return new MemoryPath(this, AccessHashCode.instance());
+    }
+    
+    private Access[] accesses() {
+        final Access[] retVal = new Access[this.length];
+        MemoryPath p = this;
+        for (int i = retVal.length - 1; i >= 0; --i) {
+            retVal[i] = p.access;
+            p = p.parent;
+        }
+        return retVal;
     }
 
     @Override
     public Iterator<Access> iterator() {
+        final Access[] accesses = accesses();
         return new Iterator<Access>() {
             private int index = 0;
 
@@ -59,10 +85,14 @@ public final class MemoryPath implements Iterable<Access> {
 
             @Override
             public Access next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
                 return accesses[this.index++];
             }
         };
     }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -75,19 +105,43 @@ public final class MemoryPath implements Iterable<Access> {
             return false;
         }
         final MemoryPath other = (MemoryPath) obj;
-        if (!Arrays.equals(this.accesses, other.accesses)) {
+        if (this.length != other.length || this.accessesHashCode != other.accessesHashCode) {
             return false;
         }
+        //compares the accesses backwards up to the 
+        //first shared (identical) parent
+        MemoryPath p = this, q = other;
+        while (p != q) {
+            if (!p.access.equals(q.access)) {
+                return false;
+            }
+            p = p.parent;
+            q = q.parent;
+        }
         return true;
     }
 
     @Override
     public int hashCode() {
-        return this.hashCode;
+        return 2311 + this.accessesHashCode;
     }
     
     @Override
     public String toString() {
-        return this.toString;
+        String retVal = this.toString;
+        if (retVal == null) {
+            final StringBuilder buf = new StringBuilder();
+            boolean first = true;
+            for (Access a : accesses()) {
+                if (!first) {
+                    buf.append('.');
+                }
+                first = false;
+                buf.append(a.toString());
+            }
+            retVal = buf.toString();
+            this.toString = retVal;
+        }
+        return retVal;
     }
 }
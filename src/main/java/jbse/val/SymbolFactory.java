@@ -35,6 +35,15 @@ public final class SymbolFactory implements Cloneable {
         }
 	}
 	
+	/**
+	 * Returns the number of symbols created by this factory.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int getNumCreatedSymbols() {
+		return this.nextIdRefSym + this.nextIdPrimSym;
+	}
+	
 	private int getNextIdPrimitiveSymbolic() {
 		final int retVal = this.nextIdPrimSym++;
 		return retVal;
@@ -0,0 +1,56 @@
+package jbse.algo;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Primitive;
+import jbse.val.Simplex;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class MethodSummaryTest {
+	private static final Signature ABS = new Signature("Foo", "(I)I", "abs");
+
+	private static final String ABS_TEXT =
+		ABS.toString() + "\n" +
+		"B GE P0 SI 0\n" +
+		"P0\n" +
+		"B LT P0 SI 0\n" +
+		"U NEG P0\n";
+
+	final CalculatorRewriting calc;
+
+	public MethodSummaryTest() {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+	}
+
+	@Test
+	public void testRoundTrip() {
+		final MethodSummary summary = MethodSummary.fromText(ABS, this.calc, ABS_TEXT);
+		assertNotNull(summary);
+		assertEquals(2, summary.getNumCases());
+		assertEquals(ABS_TEXT, summary.toText());
+	}
+
+	@Test
+	public void testInstantiate() throws InvalidOperandException, InvalidTypeException {
+		final MethodSummary summary = MethodSummary.fromText(ABS, this.calc, ABS_TEXT);
+		final Primitive arg = this.calc.valInt(-3);
+		assertTrue(summary.getPrecondition(0, arg).surelyFalse());
+		assertTrue(summary.getPrecondition(1, arg).surelyTrue());
+		assertEquals(this.calc.valInt(3), summary.getReturnValue(1, arg));
+		assertTrue(summary.getReturnValue(1, arg) instanceof Simplex);
+	}
+
+	@Test
+	public void testMalformed() {
+		assertNull(MethodSummary.fromText(ABS, this.calc, ABS_TEXT + "P0\n"));
+		assertNull(MethodSummary.fromText(ABS, this.calc, ABS_TEXT.replace("P0\n", "P1\n")));
+		assertNull(MethodSummary.fromText(new Signature("Foo", "(I)I", "neg"), this.calc, ABS_TEXT));
+	}
+}
@@ -0,0 +1,76 @@
+package jbse.algo;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.algo.exc.CannotInvokeNativeException;
+import jbse.bc.Signature;
+import jbse.jvm.EngineTestUtil;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Value;
+
+public class NativeInvokerReflectTest {
+	private static final Signature MAX = new Signature("java/lang/Math", "(II)I", "max");
+	private static final Signature IS_DIGIT = new Signature("java/lang/Character", "(C)Z", "isDigit");
+	private static final Signature MISSING = new Signature("java/lang/Math", "(II)I", "missing");
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+	private State state;
+
+	@Before
+	public void setUp() throws Exception {
+		//the invocations advance the program counter of abs by one
+		this.state = EngineTestUtil.initialState(this.calc, "jbse/jvm/testdata/Merging", "(I)I", "abs");
+	}
+
+	private Value invoke(NativeInvoker invoker, Signature method, Value... args) throws Exception {
+		invoker.doInvokeNative(this.state, method, args, 1);
+		return this.state.popOperand();
+	}
+
+	@Test
+	public void testResolvedOnce() throws Exception {
+		final NativeInvokerReflect invoker = new NativeInvokerReflect();
+		assertEquals(this.calc.valInt(3), invoke(invoker, MAX, this.calc.valInt(3), this.calc.valInt(-2)));
+		final Object m = NativeInvokerReflect.CACHE.get(MAX);
+		assertNotNull(m);
+		//the arguments are not cached with the method
+		assertEquals(this.calc.valInt(7), invoke(invoker, MAX, this.calc.valInt(1), this.calc.valInt(7)));
+		assertSame(m, NativeInvokerReflect.CACHE.get(MAX));
+		//the cache is shared by all the invokers, and keyed by equal signatures
+		assertEquals(this.calc.valInt(0), invoke(new NativeInvokerReflect(), new Signature("java/lang/Math", "(II)I", "max"), this.calc.valInt(0), this.calc.valInt(-1)));
+		assertSame(m, NativeInvokerReflect.CACHE.get(MAX));
+		//each invocation advances the program counter
+		assertEquals(3, this.state.getPC());
+	}
+
+	@Test
+	public void testNarrowArguments() throws Exception {
+		final NativeInvokerReflect invoker = new NativeInvokerReflect();
+		//chars are ints on the operand stack
+		assertEquals(this.calc.valBoolean(true), invoke(invoker, IS_DIGIT, this.calc.valInt('7')));
+		assertEquals(this.calc.valBoolean(false), invoke(invoker, IS_DIGIT, this.calc.valInt('x')));
+	}
+
+	@Test
+	public void testUnresolvedNotCached() throws Exception {
+		final NativeInvokerReflect invoker = new NativeInvokerReflect();
+		for (int i = 0; i < 2; ++i) {
+			try {
+				invoker.doInvokeNative(this.state, MISSING, new Value[] { this.calc.valInt(1), this.calc.valInt(2) }, 1);
+				fail();
+			} catch (CannotInvokeNativeException e) {
+				//expected
+			}
+			assertFalse(NativeInvokerReflect.CACHE.containsKey(MISSING));
+		}
+	}
+
+	@Test(expected = CannotInvokeNativeException.class)
+	public void testWrongNumberOfArguments() throws Exception {
+		invoke(new NativeInvokerReflect(), MAX, this.calc.valInt(1));
+	}
+}
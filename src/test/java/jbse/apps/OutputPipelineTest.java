@@ -0,0 +1,45 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jbse.common.exc.UnexpectedInternalException;
+
+public class OutputPipelineTest {
+	@Test
+	public void testOrder() throws IOException {
+		final StringWriter w1 = new StringWriter();
+		final StringWriter w2 = new StringWriter();
+		final Writer w = OutputPipeline.tee(w1, w2);
+		final OutputPipeline p = new OutputPipeline(2, Arrays.asList(w1, w2));
+		final StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; ++i) {
+			final String s = Integer.toString(i) + " ";
+			expected.append(s);
+			p.submit(() -> w.write(s));
+		}
+		p.close();
+		assertEquals(expected.toString(), w1.toString());
+		assertEquals(expected.toString(), w2.toString());
+	}
+
+	@Test(expected=IOException.class)
+	public void testFailure() throws IOException {
+		final OutputPipeline p = new OutputPipeline(1, Arrays.asList());
+		p.submit(() -> { throw new IOException(); });
+		for (int i = 0; i < 10; ++i) {
+			try {
+				p.submit(() -> { });
+			} catch (UnexpectedInternalException e) {
+				break;
+			}
+		}
+		p.close();
+	}
+}
@@ -0,0 +1,98 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.jvm.EngineTestUtil;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.ReferenceConcrete;
+
+public class StateFormatterGraphvizTest {
+	private static final String NODE = "jbse/jvm/testdata/Node";
+	private static final Signature NEXT = new Signature(NODE, "L" + NODE + ";", "next");
+
+	private State s;
+	private final long[] pos = new long[3];
+
+	/**
+	 * Creates a state whose root frame refers to
+	 * a list of three nodes.
+	 */
+	@Before
+	public void setUp() throws Exception {
+		final CalculatorRewriting calc = EngineTestUtil.calculator();
+		this.s = EngineTestUtil.initialState(calc, NODE, "(L" + NODE + ";)I", "size");
+		ReferenceConcrete next = null;
+		for (int i = this.pos.length - 1; i >= 0; --i) {
+			final ReferenceConcrete r = this.s.createInstance(NODE);
+			if (next != null) {
+				this.s.getObject(r).setFieldValue(NEXT, next);
+			}
+			this.pos[i] = r.getHeapPosition();
+			next = r;
+		}
+		this.s.setLocalVariable(0, next);
+	}
+
+	private String render(int maxDepth, int maxObjects) {
+		final StateFormatterGraphviz f = new StateFormatterGraphviz(maxDepth, maxObjects);
+		f.formatState(this.s);
+		return f.emit();
+	}
+
+	private static int occurrences(String str, String sub) {
+		int retVal = 0;
+		for (int i = str.indexOf(sub); i >= 0; i = str.indexOf(sub, i + 1)) {
+			++retVal;
+		}
+		return retVal;
+	}
+
+	private String node(int i) {
+		return "H" + this.pos[i] + "[shape=box";
+	}
+
+	private String edge(int from, int to) {
+		return "H" + this.pos[from] + "->H" + this.pos[to] + "[";
+	}
+
+	private String edgeToElided(int from) {
+		return "H" + this.pos[from] + "->HE[";
+	}
+
+	@Test
+	public void testWholeHeap() {
+		final String dot = render(0, 0);
+		for (int i = 0; i < 3; ++i) {
+			assertTrue(dot, dot.contains(node(i)));
+		}
+		assertTrue(dot, dot.contains(edge(0, 1)));
+		assertTrue(dot, dot.contains(edge(1, 2)));
+		assertFalse(dot, dot.contains("HE"));
+	}
+
+	@Test
+	public void testMaxDepth() {
+		final String dot = render(2, 0);
+		assertTrue(dot, dot.contains(node(0)));
+		assertTrue(dot, dot.contains(node(1)));
+		assertFalse(dot, dot.contains(node(2)));
+		assertTrue(dot, dot.contains(edge(0, 1)));
+		assertTrue(dot, dot.contains(edgeToElided(1)));
+		assertEquals(dot, 1, occurrences(dot, "HE[shape=plaintext"));
+	}
+
+	@Test
+	public void testMaxObjects() {
+		final String dot = render(0, 1);
+		assertTrue(dot, dot.contains(node(0)));
+		assertFalse(dot, dot.contains(node(1)));
+		assertFalse(dot, dot.contains(node(2)));
+		assertTrue(dot, dot.contains(edgeToElided(0)));
+		assertEquals(dot, 1, occurrences(dot, "HE[shape=plaintext"));
+	}
+}
@@ -0,0 +1,198 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.common.Type;
+import jbse.jvm.EngineTestUtil;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import jbse.val.ReferenceConcrete;
+
+public class StateFormatterJSONTest {
+	private static final String NODE = "jbse/jvm/testdata/Node";
+
+	/**
+	 * A parser for the JSON values: objects become {@link Map}s,
+	 * arrays {@link List}s, numbers {@link Long}s, and strings
+	 * {@link String}s.
+	 */
+	private static final class Parser {
+		private final String text;
+		private int pos = 0;
+
+		Parser(String text) {
+			this.text = text;
+		}
+
+		Object parse() {
+			final Object retVal = value();
+			skipWhitespace();
+			assertEquals("trailing characters", this.text.length(), this.pos);
+			return retVal;
+		}
+
+		private Object value() {
+			skipWhitespace();
+			final char c = this.text.charAt(this.pos);
+			if (c == '{') {
+				final LinkedHashMap<String, Object> retVal = new LinkedHashMap<>();
+				++this.pos;
+				if (!consume('}')) {
+					do {
+						skipWhitespace();
+						final String key = string();
+						skipWhitespace();
+						assertTrue(consume(':'));
+						assertNull("duplicate key " + key, retVal.put(key, value()));
+						skipWhitespace();
+					} while (consume(','));
+					assertTrue("unterminated object at " + this.pos, consume('}'));
+				}
+				return retVal;
+			} else if (c == '[') {
+				final ArrayList<Object> retVal = new ArrayList<>();
+				++this.pos;
+				skipWhitespace();
+				if (!consume(']')) {
+					do {
+						retVal.add(value());
+						skipWhitespace();
+					} while (consume(','));
+					assertTrue("unterminated array at " + this.pos, consume(']'));
+				}
+				return retVal;
+			} else if (c == '"') {
+				return string();
+			} else if (this.text.startsWith("null", this.pos)) {
+				this.pos += 4;
+				return null;
+			} else {
+				final int start = this.pos;
+				while (this.pos < this.text.length() && (Character.isDigit(this.text.charAt(this.pos)) || this.text.charAt(this.pos) == '-')) {
+					++this.pos;
+				}
+				assertTrue("unexpected character at " + start, this.pos > start);
+				return Long.valueOf(this.text.substring(start, this.pos));
+			}
+		}
+
+		private String string() {
+			assertTrue("expected string at " + this.pos, consume('"'));
+			final StringBuilder retVal = new StringBuilder();
+			while (true) {
+				final char c = this.text.charAt(this.pos++);
+				if (c == '"') {
+					return retVal.toString();
+				} else if (c == '\\') {
+					final char e = this.text.charAt(this.pos++);
+					if (e == 'u') {
+						retVal.append((char) Integer.parseInt(this.text.substring(this.pos, this.pos + 4), 16));
+						this.pos += 4;
+					} else {
+						assertTrue("bad escape at " + this.pos, e == '"' || e == '\\');
+						retVal.append(e);
+					}
+				} else {
+					assertTrue("control character at " + this.pos, c >= 0x20);
+					retVal.append(c);
+				}
+			}
+		}
+
+		private boolean consume(char c) {
+			if (this.pos < this.text.length() && this.text.charAt(this.pos) == c) {
+				++this.pos;
+				return true;
+			}
+			return false;
+		}
+
+		private void skipWhitespace() {
+			while (this.pos < this.text.length() && Character.isWhitespace(this.text.charAt(this.pos))) {
+				++this.pos;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> object(Object o) {
+		assertTrue(String.valueOf(o), o instanceof Map);
+		return (Map<String, Object>) o;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> array(Object o) {
+		assertTrue(String.valueOf(o), o instanceof List);
+		return (List<Object>) o;
+	}
+
+	@Test
+	public void testParse() throws Exception {
+		final CalculatorRewriting calc = EngineTestUtil.calculator();
+		final State s = EngineTestUtil.initialState(calc, NODE, "(L" + NODE + ";)I", "size");
+		final ReferenceConcrete r = s.createInstance(NODE);
+		final Primitive v = calc.valTerm(Type.INT, "V");
+		s.getObject(r).setFieldValue(new Signature(NODE, "I", "value"), v);
+		s.setLocalVariable(0, r);
+		s.assume(v.gt(calc.valInt(0)));
+		s.pushOperand(calc.valInt(42));
+
+		final StateFormatterJSON f = new StateFormatterJSON();
+		f.formatState(s);
+		final String json = f.emit();
+		assertTrue(json.endsWith("\n"));
+		assertEquals("one line", json.length() - 1, json.indexOf('\n'));
+		final Map<String, Object> dump = object(new Parser(json).parse());
+
+		assertEquals(s.getIdentifier(), dump.get("id"));
+		assertEquals(Long.valueOf(s.getSequenceNumber()), dump.get("seq"));
+		final List<Object> pathCondition = array(dump.get("pathCondition"));
+		assertEquals(s.getPathCondition().size(), pathCondition.size());
+		assertEquals(s.getPathConditionList().get(pathCondition.size() - 1).toString(), pathCondition.get(pathCondition.size() - 1));
+
+		final List<Object> stack = array(dump.get("stack"));
+		assertEquals(1, stack.size());
+		final Map<String, Object> frame = object(stack.get(0));
+		assertEquals(s.getCurrentMethodSignature().toString(), frame.get("method"));
+		assertEquals(0L, frame.get("pc"));
+		final Map<String, Object> local = object(object(frame.get("locals")).get("n"));
+		assertEquals(r.getHeapPosition(), local.get("ref"));
+		assertEquals(Collections.singletonList("42"), array(frame.get("operands")));
+
+		final Map<String, Object> heap = object(dump.get("heap"));
+		assertEquals(s.getHeap().size(), heap.size());
+		final Map<String, Object> node = object(heap.get(Long.toString(r.getHeapPosition())));
+		assertEquals(NODE, node.get("type"));
+		final Map<String, Object> fields = object(node.get("fields"));
+		assertTrue(fields.containsValue(v.toString()));
+		assertTrue(fields.containsValue(null)); //next
+		assertNotNull(object(dump.get("statics")));
+	}
+
+	@Test
+	public void testEscapes() throws Exception {
+		final CalculatorRewriting calc = EngineTestUtil.calculator();
+		final State s = EngineTestUtil.initialState(calc, NODE, "(L" + NODE + ";)I", "size");
+		s.pushOperand(calc.valTerm(Type.INT, "a\"b\\c\nd"));
+		final StateFormatterJSON f = new StateFormatterJSON();
+		f.formatState(s);
+		final Map<String, Object> dump = object(new Parser(f.emit()).parse());
+		final Map<String, Object> frame = object(array(dump.get("stack")).get(0));
+		assertEquals("a\"b\\c\nd", array(frame.get("operands")).get(0));
+	}
+
+	@Test
+	public void testNoState() {
+		assertEquals("", new StateFormatterJSON().emit());
+	}
+}
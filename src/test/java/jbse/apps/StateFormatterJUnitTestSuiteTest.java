@@ -0,0 +1,129 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jbse.jvm.EngineTestUtil;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Simplex;
+
+public class StateFormatterJUnitTestSuiteTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private CalculatorRewriting calc;
+	private State initialState;
+	private PrimitiveSymbolic i;
+	private int modelRequests;
+
+	@Before
+	public void setUp() throws Exception {
+		this.calc = EngineTestUtil.calculator();
+		this.initialState = EngineTestUtil.initialState(this.calc, "jbse/jvm/testdata/Merging", "(I)I", "abs");
+		this.i = (PrimitiveSymbolic) this.initialState.getRootFrame().getLocalVariableValue(0);
+		this.modelRequests = 0;
+	}
+
+	private Map<PrimitiveSymbolic, Simplex> model() {
+		++this.modelRequests;
+		return Collections.singletonMap(this.i, this.calc.valInt(2));
+	}
+
+	/** A state whose path condition has a numeric assumption. */
+	private State numeric() throws Exception {
+		final State retVal = this.initialState.clone();
+		retVal.assume(this.i.ge(this.calc.valInt(1)));
+		return retVal;
+	}
+
+	private StateFormatterJUnitTestSuite rolling(Path dir, int testsPerClass) {
+		return new StateFormatterJUnitTestSuite(() -> this.initialState, this::model, dir, testsPerClass);
+	}
+
+	private static String read(Path file) throws Exception {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	private static int occurrences(String str, String sub) {
+		int retVal = 0;
+		for (int k = str.indexOf(sub); k >= 0; k = str.indexOf(sub, k + 1)) {
+			++retVal;
+		}
+		return retVal;
+	}
+
+	private void format(StateFormatterJUnitTestSuite f, int numStates) throws Exception {
+		f.formatPrologue();
+		for (int k = 0; k < numStates; ++k) {
+			f.formatState(numeric());
+		}
+		f.formatEpilogue();
+	}
+
+	@Test
+	public void testRollover() throws Exception {
+		final Path dir = this.folder.newFolder().toPath();
+		final StateFormatterJUnitTestSuite f = rolling(dir, 2);
+		format(f, 5);
+		assertEquals("", f.emit());
+		for (int k = 0; k < 3; ++k) {
+			final String c = read(dir.resolve("TestSuite" + k + ".java"));
+			assertTrue(c, c.contains("public class TestSuite" + k + " {"));
+			assertEquals(c, (k < 2 ? 2 : 1), occurrences(c, "    @Test"));
+			assertTrue(c, c.contains("public void test" + (2 * k) + "()"));
+			//the last class is closed as well
+			assertTrue(c, c.endsWith("}\n"));
+		}
+		assertFalse(Files.exists(dir.resolve("TestSuite3.java")));
+	}
+
+	@Test
+	public void testRolloverExact() throws Exception {
+		final Path dir = this.folder.newFolder().toPath();
+		format(rolling(dir, 2), 4);
+		final String c = read(dir.resolve("TestSuite1.java"));
+		assertTrue(c, c.contains("public void test3()"));
+		assertTrue(c, c.endsWith("}\n"));
+		//no empty class after a full one
+		assertFalse(Files.exists(dir.resolve("TestSuite2.java")));
+	}
+
+	@Test
+	public void testModelOnlyWhenNeeded() throws Exception {
+		final Path dir = this.folder.newFolder().toPath();
+		final StateFormatterJUnitTestSuite f = rolling(dir, 10);
+		f.formatPrologue();
+		assertFalse(StateFormatterJUnitTestSuite.needsModel(this.initialState));
+		f.formatState(this.initialState.clone());
+		assertEquals(0, this.modelRequests);
+		final State numeric = numeric();
+		assertTrue(StateFormatterJUnitTestSuite.needsModel(numeric));
+		f.formatState(numeric);
+		assertEquals(1, this.modelRequests);
+		f.formatEpilogue();
+		final String c = read(dir.resolve("TestSuite0.java"));
+		assertEquals(c, 2, occurrences(c, "    @Test"));
+	}
+
+	@Test
+	public void testSingleClass() throws Exception {
+		final StateFormatterJUnitTestSuite f = new StateFormatterJUnitTestSuite(() -> this.initialState, this::model);
+		format(f, 3);
+		final String c = f.emit();
+		assertTrue(c, c.contains("public class TestSuite {"));
+		assertEquals(c, 3, occurrences(c, "    @Test"));
+		assertEquals(3, this.modelRequests);
+	}
+}
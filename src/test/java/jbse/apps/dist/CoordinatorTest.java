@@ -0,0 +1,206 @@
+package jbse.apps.dist;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureEnumeration;
+import jbse.jvm.EngineParameters;
+import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.jvm.EngineTestUtil;
+import jbse.jvm.RunnerParameters;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.PrimitiveSymbolic;
+
+public class CoordinatorTest {
+	private static ExplorationStats traces(long n, String... unsafe) {
+		final ExplorationStats retVal = new ExplorationStats();
+		retVal.tracesTotal = n;
+		retVal.tracesUnsafe = unsafe.length;
+		retVal.unsafeTraces.addAll(Arrays.asList(unsafe));
+		return retVal;
+	}
+
+	/**
+	 * A scripted worker: when assigned the root it waits to be
+	 * asked for states and hands over {@code ROOT|2}; it explores
+	 * any other subtree in one trace.
+	 */
+	private static Thread fakeWorker(Channel c) {
+		final Thread t = new Thread(() -> {
+			try {
+				c.send(Message.hello());
+				while (true) {
+					final Message m = c.receive();
+					if (m.getKind() == Message.Kind.STOP) {
+						return;
+					} else if (m.getKind() == Message.Kind.STEAL) {
+						c.send(Message.donate(Collections.<String>emptyList()));
+					} else if (m.getKind() == Message.Kind.ASSIGN && m.getIdentifiers().equals(Collections.singletonList("ROOT"))) {
+						while (c.receive().getKind() != Message.Kind.STEAL) { }
+						c.send(Message.donate(Collections.singletonList("ROOT|2")));
+						c.send(Message.done(traces(1, "ROOT|1|1")));
+					} else if (m.getKind() == Message.Kind.ASSIGN) {
+						c.send(Message.done(traces(1)));
+					}
+				}
+			} catch (IOException e) {
+				//coordinator gone
+			}
+		});
+		t.setDaemon(true);
+		t.start();
+		return t;
+	}
+
+	/**
+	 * Produces the parameters of the symbolic execution of
+	 * {@code jbse.jvm.testdata.ArrayAccess.get(int)}.
+	 */
+	private static Supplier<RunnerParameters> arrayAccess(boolean doStateMerging) {
+		return () -> {
+			try {
+				final CalculatorRewriting calc = EngineTestUtil.calculator();
+				final State initialState = EngineTestUtil.initialState(calc, "jbse/jvm/testdata/ArrayAccess", "(I)I", "get");
+				final PrimitiveSymbolic i = (PrimitiveSymbolic) initialState.getRootFrame().getLocalVariableValue(0);
+				final EngineParameters p = EngineTestUtil.parameters(calc, new DecisionProcedureEnumeration(calc, i, -5, 5), initialState);
+				p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+				p.setBreadthMode(BreadthMode.ALL_DECISIONS_SYMBOLIC);
+				p.setDoStateMerging(doStateMerging);
+				return new RunnerParameters(p);
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+
+	/**
+	 * Assigns some subtrees to a {@link Worker}, and returns
+	 * the statistics of their exploration.
+	 */
+	private static ExplorationStats assign(Supplier<RunnerParameters> parameters, String... identifiers) throws IOException {
+		final LocalChannel[] p = LocalChannel.pair();
+		final Thread t = new Thread(() -> {
+			try {
+				new Worker(p[1], parameters).run();
+			} catch (IOException e) {
+				//coordinator gone
+			}
+		});
+		t.setDaemon(true);
+		t.start();
+		assertEquals(Message.Kind.HELLO, p[0].receive().getKind());
+		p[0].send(Message.assign(Arrays.asList(identifiers)));
+		Message m;
+		do {
+			m = p[0].receive();
+		} while (m.getKind() != Message.Kind.DONE);
+		p[0].send(Message.stop());
+		return m.getStats();
+	}
+
+	@Test(timeout = 10000)
+	public void testWorkerSymbolicIndex() throws IOException {
+		//the leaves behind the array access are replayed with
+		//their original path conditions, where a[0] is unreachable
+		final ExplorationStats s = assign(arrayAccess(false), "ROOT|1|1", "ROOT|1|2", "ROOT|1|3");
+		assertEquals(3, s.getTracesTotal());
+		assertEquals(0, s.getTracesUnsafe());
+		assertTrue(s.getUnexplored().isEmpty());
+	}
+
+	@Test(timeout = 10000)
+	public void testWorkerStateMergingRejected() throws IOException {
+		final ExplorationStats s = assign(arrayAccess(true), "ROOT");
+		assertEquals(0, s.getTracesTotal());
+		assertEquals(Collections.singletonList("ROOT"), s.getUnexplored());
+	}
+
+	@Test(timeout = 10000)
+	public void testSingleWorker() throws IOException {
+		final LocalChannel[] p = LocalChannel.pair();
+		final Thread t = new Thread(() -> {
+			try {
+				p[1].send(Message.hello());
+				final Message m = p[1].receive();
+				assertEquals(Message.Kind.ASSIGN, m.getKind());
+				assertEquals(Collections.singletonList("ROOT"), m.getIdentifiers());
+				p[1].send(Message.done(traces(3)));
+				p[1].receive(); //STOP
+			} catch (IOException e) {
+				//coordinator gone
+			}
+		});
+		t.setDaemon(true);
+		t.start();
+		final ExplorationStats s = new Coordinator(Collections.<Channel>singletonList(p[0])).run();
+		assertEquals(3, s.getTracesTotal());
+		assertTrue(s.getUnexplored().isEmpty());
+	}
+
+	@Test(timeout = 10000)
+	public void testStealing() throws IOException {
+		final List<Channel> channels = new ArrayList<>();
+		for (int i = 0; i < 2; ++i) {
+			final LocalChannel[] p = LocalChannel.pair();
+			channels.add(p[0]);
+			fakeWorker(p[1]);
+		}
+		final ExplorationStats s = new Coordinator(channels).run();
+		assertEquals(2, s.getTracesTotal());
+		assertEquals(1, s.getTracesUnsafe());
+		assertEquals(Collections.singletonList("ROOT|1|1"), s.getUnsafeTraces());
+		assertTrue(s.getUnexplored().isEmpty());
+	}
+
+	@Test(timeout = 10000)
+	public void testDisconnection() throws IOException {
+		final LocalChannel[] p = LocalChannel.pair();
+		final Thread t = new Thread(() -> {
+			try {
+				p[1].send(Message.hello());
+				p[1].receive(); //ASSIGN
+			} catch (IOException e) {
+				//coordinator gone
+			} finally {
+				p[1].close();
+			}
+		});
+		t.setDaemon(true);
+		t.start();
+		final ExplorationStats s = new Coordinator(Collections.<Channel>singletonList(p[0])).run();
+		assertEquals(0, s.getTracesTotal());
+		assertEquals(Collections.singletonList("ROOT"), s.getUnexplored());
+	}
+
+	@Test
+	public void testMessageRoundTrip() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		Message.assign(Arrays.asList("ROOT|1", "ROOT|2|3")).writeTo(out);
+		Message.done(traces(5, "ROOT|1|1")).writeTo(out);
+		out.flush();
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		final Message assign = Message.readFrom(in);
+		assertEquals(Message.Kind.ASSIGN, assign.getKind());
+		assertEquals(Arrays.asList("ROOT|1", "ROOT|2|3"), assign.getIdentifiers());
+		final Message done = Message.readFrom(in);
+		assertEquals(Message.Kind.DONE, done.getKind());
+		assertEquals(5, done.getStats().getTracesTotal());
+		assertEquals(Collections.singletonList("ROOT|1|1"), done.getStats().getUnsafeTraces());
+	}
+}
@@ -0,0 +1,91 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+
+public class CheckpointTest {
+	@Test
+	public void testRoundTrip() throws IOException {
+		final Path file = Files.createTempFile("jbse", ".ckp");
+		try {
+			final List<String> frontier = Arrays.asList("ROOT|2|1|1", "ROOT|2|1|2|300", "ROOT|2|2", "ROOT|3");
+			new Checkpoint(new long[] { 0, 7, 1L << 40 }, frontier).write(file);
+			final Checkpoint c = Checkpoint.read(file);
+			assertArrayEquals(new long[] { 0, 7, 1L << 40 }, c.getCounters());
+			assertEquals(frontier, c.getFrontier());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testComplete() throws IOException {
+		final Path file = Files.createTempFile("jbse", ".ckp");
+		try {
+			new Checkpoint(new long[0], Collections.<String>emptyList()).write(file);
+			assertTrue(Checkpoint.read(file).getFrontier().isEmpty());
+			new Checkpoint(new long[0], Collections.singletonList("ROOT")).write(file);
+			assertEquals(Collections.singletonList("ROOT"), Checkpoint.read(file).getFrontier());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotReplicable() throws IOException {
+		final Path file = Files.createTempFile("jbse", ".ckp");
+		try {
+			new Checkpoint(new long[0], Collections.singletonList(".1.2")).write(file);
+		} finally {
+			assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotACheckpoint() throws IOException {
+		final Path file = Files.createTempFile("jbse", ".ckp");
+		try {
+			Files.write(file, new byte[] { 1, 2, 3, 4, 5 });
+			Checkpoint.read(file);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testStateMergingRejected() throws IOException {
+		final Path file = Files.createTempFile("jbse", ".ckp");
+		final Path dump = Files.createTempFile("jbse", ".txt");
+		try {
+			new Checkpoint(new long[0], Collections.singletonList("ROOT")).write(file);
+			final RunParameters p = new RunParameters();
+			p.setShowOnConsole(false);
+			p.setOutputFileName(dump.toString());
+			p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+			p.setDoStateMerging(true);
+			p.setResumeFrom(file.toString());
+			assertEquals(1, new Run(p).run());
+			assertTrue(new String(Files.readAllBytes(dump), StandardCharsets.UTF_8).contains("state merging"));
+			p.setResumeFrom(null);
+			p.setCheckpoint(file.toString(), 1, TimeUnit.SECONDS);
+			assertEquals(1, new Run(p).run());
+			assertTrue(new String(Files.readAllBytes(dump), StandardCharsets.UTF_8).contains("state merging"));
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(dump);
+		}
+	}
+}
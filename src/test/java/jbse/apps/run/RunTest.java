@@ -0,0 +1,34 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import jbse.apps.run.RunParameters.StateFormatMode;
+
+public class RunTest {
+	@Test
+	public void testNoArrayTheoryForJUnit() throws IOException {
+		final Path dump = Files.createTempFile("jbse", ".txt");
+		try {
+			final RunParameters p = new RunParameters();
+			p.setShowOnConsole(false);
+			p.setOutputFileName(dump.toString());
+			p.setUseArrayTheory(true);
+			p.setStateFormatMode(StateFormatMode.FULLTEXT);
+			new Run(p).run();
+			assertTrue(p.getUseArrayTheory());
+			p.setStateFormatMode(StateFormatMode.JUNIT_TEST);
+			new Run(p).run();
+			assertFalse(p.getUseArrayTheory());
+			assertTrue(new String(Files.readAllBytes(dump), StandardCharsets.UTF_8).contains("theory of arrays will not be used"));
+		} finally {
+			Files.deleteIfExists(dump);
+		}
+	}
+}
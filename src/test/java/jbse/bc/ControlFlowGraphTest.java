@@ -0,0 +1,67 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ControlFlowGraphTest {
+	@Test
+	public void testIfThenElse() {
+		//y = (x > 0 ? 1 : 2); return y;
+		final byte[] code = {
+			(byte) 0x1a,                         //0: iload_0
+			(byte) 0x9e, (byte) 0x00, (byte) 0x08, //1: ifle 9
+			(byte) 0x04,                         //4: iconst_1
+			(byte) 0x3c,                         //5: istore_1
+			(byte) 0xa7, (byte) 0x00, (byte) 0x05, //6: goto 11
+			(byte) 0x05,                         //9: iconst_2
+			(byte) 0x3c,                         //10: istore_1
+			(byte) 0x1b,                         //11: iload_1
+			(byte) 0xac                          //12: ireturn
+		};
+		final ControlFlowGraph cfg = new ControlFlowGraph(code);
+		assertEquals(1, cfg.immediatePostDominator(0));
+		assertEquals(11, cfg.immediatePostDominator(1));
+		assertEquals(5, cfg.immediatePostDominator(4));
+		assertEquals(11, cfg.immediatePostDominator(6));
+		assertEquals(ControlFlowGraph.NO_POST_DOMINATOR, cfg.immediatePostDominator(12));
+		assertEquals(ControlFlowGraph.NO_POST_DOMINATOR, cfg.immediatePostDominator(2));
+	}
+
+	@Test
+	public void testTableSwitch() {
+		//switch (x) { case 0: y = 1; break; case 1: y = 2; } return y;
+		final byte[] code = {
+			(byte) 0x1a,                                                  //0: iload_0
+			(byte) 0xaa, (byte) 0x00, (byte) 0x00,                        //1: tableswitch, padding
+			(byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x21,           //default: 34
+			(byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x00,           //low: 0
+			(byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x01,           //high: 1
+			(byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x17,           //0: 24
+			(byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x1c,           //1: 29
+			(byte) 0x04,                                                  //24: iconst_1
+			(byte) 0x3c,                                                  //25: istore_1
+			(byte) 0xa7, (byte) 0x00, (byte) 0x08,                        //26: goto 34
+			(byte) 0x05,                                                  //29: iconst_2
+			(byte) 0x3c,                                                  //30: istore_1
+			(byte) 0xa7, (byte) 0x00, (byte) 0x03,                        //31: goto 34
+			(byte) 0x1b,                                                  //34: iload_1
+			(byte) 0xac                                                   //35: ireturn
+		};
+		final ControlFlowGraph cfg = new ControlFlowGraph(code);
+		assertEquals(34, cfg.immediatePostDominator(1));
+		assertEquals(34, cfg.immediatePostDominator(31));
+	}
+
+	@Test
+	public void testSubroutinesUnsupported() {
+		final byte[] code = {
+			(byte) 0xa8, (byte) 0x00, (byte) 0x04, //0: jsr 4
+			(byte) 0xb1,                         //3: return
+			(byte) 0x4c,                         //4: astore_1
+			(byte) 0xa9, (byte) 0x01             //5: ret 1
+		};
+		final ControlFlowGraph cfg = new ControlFlowGraph(code);
+		assertEquals(ControlFlowGraph.NO_POST_DOMINATOR, cfg.immediatePostDominator(0));
+	}
+}
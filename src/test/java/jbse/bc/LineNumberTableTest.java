@@ -0,0 +1,37 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LineNumberTableTest {
+	@Test
+	public void testSourceRows() {
+		final LineNumberTable lnt = new LineNumberTable(3);
+		lnt.addRow(0, 10);
+		lnt.addRow(4, 11);
+		lnt.addRow(9, 13);
+		assertEquals(10, lnt.getSourceRow(0));
+		assertEquals(10, lnt.getSourceRow(3));
+		assertEquals(11, lnt.getSourceRow(4));
+		assertEquals(11, lnt.getSourceRow(8));
+		assertEquals(13, lnt.getSourceRow(9));
+		assertEquals(13, lnt.getSourceRow(20));
+	}
+
+	@Test
+	public void testNoRows() {
+		final LineNumberTable lnt = new LineNumberTable(0);
+		assertEquals(-1, lnt.getSourceRow(0));
+		assertEquals(-1, lnt.getSourceRow(5));
+	}
+
+	@Test
+	public void testFirstRowAfterStart() {
+		final LineNumberTable lnt = new LineNumberTable(2);
+		lnt.addRow(2, 7);
+		lnt.addRow(5, 8);
+		assertEquals(-1, lnt.getSourceRow(1));
+		assertEquals(7, lnt.getSourceRow(2));
+	}
+}
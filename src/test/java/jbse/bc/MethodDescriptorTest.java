@@ -0,0 +1,42 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MethodDescriptorTest {
+	@Test
+	public void testParse() {
+		final MethodDescriptor d = MethodDescriptor.of("(IJ[Ljava/lang/String;D)Ljava/lang/Object;");
+		assertEquals(4, d.getParametersNumber());
+		assertEquals("I", d.getParameterDescriptor(0));
+		assertEquals("[Ljava/lang/String;", d.getParameterDescriptor(2));
+		assertEquals('J', d.getParameterType(1));
+		assertFalse(d.isParameterCat_2(0));
+		assertTrue(d.isParameterCat_2(1));
+		assertTrue(d.isParameterCat_2(3));
+		assertEquals(0, d.getParameterSlot(0));
+		assertEquals(1, d.getParameterSlot(1));
+		assertEquals(3, d.getParameterSlot(2));
+		assertEquals(4, d.getParameterSlot(3));
+		assertEquals(6, d.getParametersSlotsNumber());
+		assertEquals("Ljava/lang/Object;", d.getReturnValueDescriptor());
+		assertFalse(d.isVoid());
+	}
+
+	@Test
+	public void testNoParameters() {
+		final MethodDescriptor d = MethodDescriptor.of("()V");
+		assertEquals(0, d.getParametersNumber());
+		assertEquals(0, d.getParametersSlotsNumber());
+		assertTrue(d.isVoid());
+	}
+
+	@Test
+	public void testInterned() {
+		final Signature s1 = new Signature("a/A", "(Z)I", "m");
+		final Signature s2 = new Signature("b/B", new String("(Z)I"), "n");
+		assertSame(s1.getMethodDescriptor(), s2.getMethodDescriptor());
+		assertSame(s1.getMethodDescriptor(), MethodDescriptor.of("(Z)I"));
+	}
+}
@@ -0,0 +1,117 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureAlgorithmsTest {
+	final CalculatorRewriting calc;
+	final ClassHierarchy hier;
+	DecisionProcedureCounting component;
+	DecisionProcedureAlgorithms dec;
+
+	public DecisionProcedureAlgorithmsTest() throws InvalidClassFileFactoryClassException {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+		this.hier = new ClassHierarchy(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>());
+	}
+
+	/**
+	 * A decision procedure that counts the queries, and
+	 * answers that the alternatives in odd position are 
+	 * unsatisfiable.
+	 */
+	static class DecisionProcedureCounting extends DecisionProcedureAlwSat {
+		int isSat = 0;
+		int isSatAlternatives = 0;
+
+		@Override
+		public boolean isSat(ClassHierarchy hier, Expression exp) {
+			++this.isSat;
+			return true;
+		}
+
+		@Override
+		public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) {
+			++this.isSatAlternatives;
+			final boolean[] retVal = new boolean[alternatives.size()];
+			for (int i = 0; i < retVal.length; ++i) {
+				retVal[i] = (i % 2 == 0);
+			}
+			return retVal;
+		}
+	}
+
+	@Before
+	public void setUp() {
+		this.component = new DecisionProcedureCounting();
+		this.dec = new DecisionProcedureAlgorithms(this.component, this.calc);
+	}
+
+	@Test
+	public void testAlternativesRemembered() 
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 0 |- A < 5, A > 7 in one query, then no more queries for them
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		final Expression aLtFive = (Expression) A.lt(this.calc.valInt(5));
+		final Expression aGtSeven = (Expression) A.gt(this.calc.valInt(7));
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		final boolean[] sat = this.dec.isSatAlternatives(this.hier, Arrays.asList(aLtFive, aGtSeven));
+		assertTrue(Arrays.equals(new boolean[] { true, false }, sat));
+		assertEquals(1, this.component.isSatAlternatives);
+		assertTrue(this.dec.isSat(this.hier, aLtFive));
+		assertFalse(this.dec.isSat(this.hier, aGtSeven));
+		assertEquals(0, this.component.isSat);
+		//other expressions are queried
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(9))));
+		assertEquals(1, this.component.isSat);
+	}
+
+	@Test
+	public void testAlternativesForgotten() 
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A < 5, A > 7 are queried again after the assumptions change
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		final Expression aLtFive = (Expression) A.lt(this.calc.valInt(5));
+		final Expression aGtSeven = (Expression) A.gt(this.calc.valInt(7));
+		this.dec.isSatAlternatives(this.hier, Arrays.asList(aLtFive, aGtSeven));
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, aGtSeven));
+		assertEquals(1, this.component.isSat);
+		this.dec.isSatAlternatives(this.hier, Arrays.asList(aLtFive, aGtSeven));
+		this.dec.clearAssumptions();
+		assertTrue(this.dec.isSat(this.hier, aGtSeven));
+		assertEquals(2, this.component.isSat);
+	}
+
+	@Test
+	public void testAlternativesSkipped() 
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//with the checks skipped all the alternatives are sat, with no query
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		this.dec.setSkipSatChecks(true);
+		final boolean[] sat = this.dec.isSatAlternatives(this.hier, Arrays.asList((Expression) A.lt(this.calc.valInt(5)), (Expression) A.gt(this.calc.valInt(7))));
+		assertTrue(Arrays.equals(new boolean[] { true, true }, sat));
+		assertEquals(0, this.component.isSatAlternatives);
+	}
+}
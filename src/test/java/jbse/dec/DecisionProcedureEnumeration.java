@@ -0,0 +1,71 @@
+package jbse.dec;
+
+import java.util.HashMap;
+import java.util.List;
+
+import jbse.bc.ClassHierarchy;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * A {@link DecisionProcedure} for tests, that decides the 
+ * satisfiability of the numeric clauses on a single {@code int} 
+ * symbol by enumerating the values of the symbol in a range. 
+ * All the other clauses are satisfiable.
+ */
+public final class DecisionProcedureEnumeration extends DecisionProcedureAlwSat {
+	private final Calculator calc;
+	private final PrimitiveSymbolic symbol;
+	private final int min, max;
+	private final ModelEvaluator evaluator = new ModelEvaluator();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param calc a {@link Calculator}.
+	 * @param symbol the {@link PrimitiveSymbolic} with type {@code int}
+	 *        in the clauses.
+	 * @param min the minimum value of {@code symbol}.
+	 * @param max the maximum value of {@code symbol}.
+	 */
+	public DecisionProcedureEnumeration(Calculator calc, PrimitiveSymbolic symbol, int min, int max) {
+		this.calc = calc;
+		this.symbol = symbol;
+		this.min = min;
+		this.max = max;
+	}
+
+	@Override
+	public boolean isSat(ClassHierarchy hier, Expression exp) {
+		final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+		for (int v = this.min; v <= this.max; ++v) {
+			model.put(this.symbol, this.calc.valInt(v));
+			if (satisfies(model, exp)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean[] isSatAlternatives(ClassHierarchy hier, List<Expression> alternatives) {
+		final boolean[] retVal = new boolean[alternatives.size()];
+		for (int i = 0; i < retVal.length; ++i) {
+			retVal[i] = isSat(hier, alternatives.get(i));
+		}
+		return retVal;
+	}
+
+	private boolean satisfies(HashMap<PrimitiveSymbolic, Simplex> model, Expression exp) {
+		for (Clause c : getAssumptions()) {
+			if (c instanceof ClauseAssume && !this.evaluator.satisfies(model, ((ClauseAssume) c).getCondition())) {
+				return false;
+			}
+		}
+		return this.evaluator.satisfies(model, exp);
+	}
+}
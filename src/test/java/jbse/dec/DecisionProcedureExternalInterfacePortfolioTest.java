@@ -0,0 +1,244 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.dec.exc.NoModelException;
+import jbse.mem.Objekt;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureExternalInterfacePortfolioTest {
+	final CalculatorRewriting calc;
+	final ClassHierarchy hier;
+
+	public DecisionProcedureExternalInterfacePortfolioTest() throws InvalidClassFileFactoryClassException {
+		this.calc = new CalculatorRewriting();
+		this.hier = new ClassHierarchy(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>());
+	}
+
+	/**
+	 * An external interface that answers a fixed value,
+	 * possibly after a latch is released, and counts the
+	 * checks it does, the checks it abandons because their 
+	 * interruption token is set, and the models it produces.
+	 * It may also release another latch when it starts a 
+	 * check and after answering, and report its answers as 
+	 * unknown.
+	 */
+	static class ExternalInterfaceFixed extends DecisionProcedureExternalInterface {
+		final boolean answer;
+		CountDownLatch latch;
+		final AtomicInteger checks = new AtomicInteger(0);
+		final AtomicInteger interrupts = new AtomicInteger(0);
+		final AtomicInteger models = new AtomicInteger(0);
+		boolean unknown = false;
+		CountDownLatch started = null;
+		CountDownLatch release = null;
+		AtomicBoolean interruption = null;
+
+		ExternalInterfaceFixed(boolean answer, CountDownLatch latch) {
+			this.answer = answer;
+			this.latch = latch;
+		}
+
+		@Override
+		public boolean wasLastCheckUnknown() {
+			return this.unknown;
+		}
+
+		@Override
+		public void setInterruption(AtomicBoolean interruption) {
+			this.interruption = interruption;
+		}
+
+		@Override
+		public Map<PrimitiveSymbolic, Simplex> getModel() {
+			this.models.incrementAndGet();
+			return Collections.emptyMap();
+		}
+
+		@Override public boolean isWorking() { return true; }
+		@Override public void sendClauseAssume(Primitive predicate) { }
+		@Override public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o) { }
+		@Override public void sendClauseAssumeExpands(ReferenceSymbolic r, String className) { }
+		@Override public void sendClauseAssumeNull(ReferenceSymbolic r) { }
+		@Override public void sendClauseAssumeClassInitialized(String className) { }
+		@Override public void sendClauseAssumeClassNotInitialized(String className) { }
+		@Override public void retractClause() { }
+		@Override public void pushAssumption(boolean positive) { }
+		@Override public void clear() { }
+		@Override public void quit() { }
+		@Override public void fail() { }
+
+		@Override
+		public boolean checkSat(ClassHierarchy hier, boolean positive) throws IOException {
+			final AtomicBoolean interruption = this.interruption;
+			final CountDownLatch latch = this.latch;
+			final CountDownLatch release = this.release;
+			this.interruption = null;
+			if (this.started != null) {
+				this.started.countDown();
+			}
+			if (latch != null) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+			}
+			final boolean interrupted = (interruption != null && interruption.get());
+			if (interrupted) {
+				this.interrupts.incrementAndGet();
+			}
+			this.checks.incrementAndGet();
+			if (release != null) {
+				release.countDown();
+			}
+			return (interrupted ? true : this.answer);
+		}
+	}
+
+	@Test
+	public void testFirstAnswerWins() throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final ExternalInterfaceFixed slow = new ExternalInterfaceFixed(true, latch);
+		final ExternalInterfaceFixed fast = new ExternalInterfaceFixed(false, null);
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(slow, fast);
+		portfolio.sendClauseAssume(this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0)));
+		assertFalse(portfolio.checkSat(this.hier, true));
+		portfolio.retractClause();
+		latch.countDown();
+		portfolio.quit();
+		//the slow one skips the check if it did not start it in time,
+		//and abandons it otherwise
+		assertTrue(slow.checks.get() <= 1);
+		assertEquals(slow.checks.get(), slow.interrupts.get());
+		assertEquals(0, fast.interrupts.get());
+	}
+
+	@Test
+	public void testUnknownAnswerDoesNotWin() throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		//the unknown answer surely comes first
+		final CountDownLatch latch = new CountDownLatch(1);
+		final ExternalInterfaceFixed slow = new ExternalInterfaceFixed(false, latch);
+		final ExternalInterfaceFixed fast = new ExternalInterfaceFixed(true, null);
+		fast.unknown = true;
+		fast.release = latch;
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(slow, fast);
+		portfolio.sendClauseAssume(this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0)));
+		assertFalse(portfolio.checkSat(this.hier, true));
+		assertFalse(portfolio.wasLastCheckUnknown());
+		portfolio.retractClause();
+		portfolio.quit();
+		//the fast one had already finished its check
+		assertEquals(0, fast.interrupts.get());
+		assertEquals(0, slow.interrupts.get());
+		assertEquals(1, portfolio.getWinStatistics().values().iterator().next()[0]);
+	}
+
+	@Test
+	public void testAllUnknown() throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		final ExternalInterfaceFixed first = new ExternalInterfaceFixed(true, null);
+		final ExternalInterfaceFixed second = new ExternalInterfaceFixed(true, null);
+		first.unknown = second.unknown = true;
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(first, second);
+		portfolio.sendClauseAssume(this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0)));
+		assertTrue(portfolio.checkSat(this.hier, true));
+		assertTrue(portfolio.wasLastCheckUnknown());
+		portfolio.retractClause();
+		portfolio.quit();
+		assertEquals(1, first.checks.get());
+		assertEquals(1, second.checks.get());
+		//unknown answers are no wins
+		for (int[] wins : portfolio.getWinStatistics().values()) {
+			assertEquals(0, wins[0] + wins[1]);
+		}
+	}
+
+	@Test
+	public void testRouting() throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final ExternalInterfaceFixed slow = new ExternalInterfaceFixed(true, latch);
+		final ExternalInterfaceFixed fast = new ExternalInterfaceFixed(true, null);
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(slow, fast);
+		final Primitive query = this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0));
+		for (int i = 0; i < 12; ++i) {
+			portfolio.sendClauseAssume(query);
+			assertTrue(portfolio.checkSat(this.hier, true));
+			portfolio.retractClause();
+		}
+		latch.countDown();
+		portfolio.quit();
+		//the slow one raced only until the shape was routed to the fast one,
+		//and skipped the checks queued after the first one (and the first
+		//one too, if it did not start it in time)
+		assertEquals(12, fast.checks.get());
+		assertTrue(slow.checks.get() <= 1);
+		assertEquals(8, portfolio.getWinStatistics().values().iterator().next()[1]);
+	}
+
+	@Test
+	public void testInterruptedBeforeChecking() throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		//the slow one starts its check, and is interrupted before
+		//it reaches the point where it reads the token
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch latch = new CountDownLatch(1);
+		final ExternalInterfaceFixed slow = new ExternalInterfaceFixed(false, latch);
+		final ExternalInterfaceFixed fast = new ExternalInterfaceFixed(false, started);
+		slow.started = started;
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(slow, fast);
+		portfolio.sendClauseAssume(this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0)));
+		assertFalse(portfolio.checkSat(this.hier, true));
+		portfolio.retractClause();
+		latch.countDown();
+
+		//the next check is not interrupted by the previous race,
+		//and this time the slow one answers first
+		fast.latch = new CountDownLatch(1);
+		slow.release = fast.latch;
+		portfolio.sendClauseAssume(this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0)));
+		assertFalse(portfolio.checkSat(this.hier, true));
+		portfolio.retractClause();
+		portfolio.quit();
+		assertEquals(2, slow.checks.get());
+		assertEquals(1, slow.interrupts.get());
+	}
+
+	@Test(timeout = 10000)
+	public void testModelFromLastAnswering() throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException, NoModelException {
+		//the slow one is stuck in its check until the end
+		final CountDownLatch latch = new CountDownLatch(1);
+		final ExternalInterfaceFixed slow = new ExternalInterfaceFixed(true, latch);
+		final ExternalInterfaceFixed fast = new ExternalInterfaceFixed(false, null);
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(slow, fast);
+		portfolio.sendClauseAssume(this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0)));
+		assertFalse(portfolio.checkSat(this.hier, true));
+		assertNotNull(portfolio.getModel());
+		assertEquals(1, fast.models.get());
+		assertEquals(0, slow.models.get());
+		portfolio.retractClause();
+		latch.countDown();
+		portfolio.quit();
+	}
+}
@@ -0,0 +1,291 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.Objekt;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.MemoryPath;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureExternalTest {
+	final CalculatorRewriting calc;
+	final ClassHierarchy hier;
+	ExternalInterfaceRecording extIf;
+	DecisionProcedureExternal dec;
+
+	public DecisionProcedureExternalTest() throws InvalidClassFileFactoryClassException {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+		this.hier = new ClassHierarchy(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>());
+	}
+
+	/**
+	 * An external interface that answers always sat and
+	 * records the assumptions of every checked query, and
+	 * the alternatives of every batched query.
+	 */
+	static class ExternalInterfaceRecording extends DecisionProcedureExternalInterface {
+		final ArrayList<Primitive> pushed = new ArrayList<>();
+		final ArrayList<List<Primitive>> checked = new ArrayList<>();
+		final ArrayList<List<Primitive>> batches = new ArrayList<>();
+		final ArrayList<List<Primitive>> pushedAtBatches = new ArrayList<>();
+		Primitive current;
+
+		@Override public boolean isWorking() { return true; }
+		@Override public void sendClauseAssume(Primitive predicate) { this.current = predicate; }
+		@Override public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o) { this.current = null; }
+		@Override public void sendClauseAssumeExpands(ReferenceSymbolic r, String className) { this.current = null; }
+		@Override public void sendClauseAssumeNull(ReferenceSymbolic r) { this.current = null; }
+		@Override public void sendClauseAssumeClassInitialized(String className) { this.current = null; }
+		@Override public void sendClauseAssumeClassNotInitialized(String className) { this.current = null; }
+		@Override public void retractClause() { this.current = null; }
+
+		Map<PrimitiveSymbolic, Simplex> model = Collections.emptyMap();
+		int modelRequests = 0;
+
+		@Override
+		public Map<PrimitiveSymbolic, Simplex> getModel() {
+			++this.modelRequests;
+			return this.model;
+		}
+
+		@Override
+		public boolean checkSat(ClassHierarchy hier, boolean positive) {
+			final ArrayList<Primitive> query = new ArrayList<>(this.pushed);
+			query.add(this.current);
+			this.checked.add(query);
+			return true;
+		}
+
+		@Override
+		public boolean[] checkSatAlternatives(ClassHierarchy hier, List<? extends Primitive> predicates) {
+			this.batches.add(new ArrayList<>(predicates));
+			this.pushedAtBatches.add(new ArrayList<>(this.pushed));
+			final boolean[] retVal = new boolean[predicates.size()];
+			Arrays.fill(retVal, true);
+			return retVal;
+		}
+
+		@Override
+		public Map<PrimitiveSymbolic, Simplex> checkSatAndGetModel(ClassHierarchy hier, boolean positive) {
+			checkSat(hier, positive);
+			return this.model;
+		}
+
+		@Override
+		public void pushAssumption(boolean positive) {
+			this.pushed.add(this.current);
+			this.current = null;
+		}
+
+		@Override
+		public void popAssumption() {
+			this.pushed.remove(this.pushed.size() - 1);
+		}
+
+		@Override public void clear() { this.pushed.clear(); }
+		@Override public void quit() { }
+		@Override public void fail() { }
+	}
+
+	@Before
+	public void setUp() {
+		this.extIf = new ExternalInterfaceRecording();
+		this.dec = new DecisionProcedureExternal(new DecisionProcedureAlwSat(), this.calc) {
+			{ this.extIf = DecisionProcedureExternalTest.this.extIf; }
+
+			@Override
+			protected boolean canPopAssumptions() {
+				return true;
+			}
+		};
+		this.dec.setSlicing(true);
+	}
+
+	@Test
+	public void testSlice() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//A > 0, B > A, C > 0 |- B < 5 must be sent with A > 0, B > A only
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		final Primitive B = this.calc.valTerm(Type.INT, "B");
+		final Primitive C = this.calc.valTerm(Type.INT, "C");
+		final Expression aGtZero = (Expression) A.gt(this.calc.valInt(0));
+		final Expression bGtA = (Expression) B.gt(A);
+		final Expression cGtZero = (Expression) C.gt(this.calc.valInt(0));
+		final Expression bLtFive = (Expression) B.lt(this.calc.valInt(5));
+		this.dec.pushAssumption(new ClauseAssume(aGtZero));
+		this.dec.pushAssumption(new ClauseAssume(bGtA));
+		this.dec.pushAssumption(new ClauseAssume(cGtZero));
+		assertTrue(this.extIf.pushed.isEmpty());
+		assertTrue(this.dec.isSat(this.hier, bLtFive));
+		assertEquals(1, this.extIf.checked.size());
+		assertEquals(Arrays.asList(aGtZero, bGtA, bLtFive), this.extIf.checked.get(0));
+		assertTrue(this.extIf.pushed.isEmpty());
+	}
+
+	@Test
+	public void testIndependent() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//A > 0 |- B < C is checked alone, and only once
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		final Primitive B = this.calc.valTerm(Type.INT, "B");
+		final Primitive C = this.calc.valTerm(Type.INT, "C");
+		final Expression aGtZero = (Expression) A.gt(this.calc.valInt(0));
+		final Expression bLtC = (Expression) B.lt(C);
+		this.dec.pushAssumption(new ClauseAssume(aGtZero));
+		assertTrue(this.dec.isSat(this.hier, bLtC));
+		assertTrue(this.dec.isSat(this.hier, bLtC));
+		assertEquals(1, this.extIf.checked.size());
+		assertEquals(Arrays.asList(bLtC), this.extIf.checked.get(0));
+	}
+
+	@Test
+	public void testSliceAfterReset() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//A > 0, B > A, (reset to A > 0) |- B < 5 must be sent alone
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		final Primitive B = this.calc.valTerm(Type.INT, "B");
+		final Expression aGtZero = (Expression) A.gt(this.calc.valInt(0));
+		final Expression bGtA = (Expression) B.gt(A);
+		final Expression bLtFive = (Expression) B.lt(this.calc.valInt(5));
+		this.dec.pushAssumption(new ClauseAssume(aGtZero));
+		this.dec.pushAssumption(new ClauseAssume(bGtA));
+		this.dec.setAssumptions(Arrays.<Clause>asList(new ClauseAssume(aGtZero)));
+		assertTrue(this.dec.isSat(this.hier, bLtFive));
+		assertEquals(Arrays.asList(bLtFive), this.extIf.checked.get(0));
+	}
+
+	@Test
+	public void testModelCache() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//with model A == 1, B == 2 for A > 0 |- B > A, then
+		//A > 0 |- B < 5 is answered without the solver, 
+		//A > 0 |- B > 5 is not
+		this.dec.setSlicing(false);
+		this.dec.setModelCacheSize(4);
+		final SymbolFactory f = new SymbolFactory(this.calc);
+		final PrimitiveSymbolic A = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("a"));
+		final PrimitiveSymbolic B = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("b"));
+		final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+		model.put(A, (Simplex) this.calc.val_(1L));
+		model.put(B, (Simplex) this.calc.val_(2L));
+		this.extIf.model = model;
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.gt(A)));
+		assertEquals(1, this.extIf.checked.size());
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.lt(this.calc.valInt(5))));
+		assertEquals(1, this.extIf.checked.size());
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.gt(this.calc.valInt(5))));
+		assertEquals(2, this.extIf.checked.size());
+	}
+
+	@Test
+	public void testModelCacheOverflow() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//with model X == Integer.MAX_VALUE for X > 0 |- X >= 5, 
+		//X > 0 |- X + 1 < 0 must be sent to the solver, since 
+		//X + 1 does not overflow in the solver's arithmetic
+		this.dec.setSlicing(false);
+		this.dec.setModelCacheSize(4);
+		final SymbolFactory f = new SymbolFactory(this.calc);
+		final PrimitiveSymbolic X = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("x"));
+		final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+		model.put(X, this.calc.valInt(Integer.MAX_VALUE));
+		this.extIf.model = model;
+		this.dec.pushAssumption(new ClauseAssume((Expression) X.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) X.ge(this.calc.valInt(5))));
+		assertEquals(1, this.extIf.checked.size());
+		this.dec.isSat(this.hier, (Expression) X.add(this.calc.valInt(1)).lt(this.calc.valInt(0)));
+		assertEquals(2, this.extIf.checked.size());
+	}
+
+	@Test
+	public void testModelFromCache() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//the model A == 1, B == 2 of A > 0 |- B > A is the
+		//model of A > 0, B > A, but not of A > 0, B > A, B > 5
+		this.dec.setSlicing(false);
+		this.dec.setModelCacheSize(1);
+		final SymbolFactory f = new SymbolFactory(this.calc);
+		final PrimitiveSymbolic A = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("a"));
+		final PrimitiveSymbolic B = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("b"));
+		final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+		model.put(A, (Simplex) this.calc.val_(1L));
+		model.put(B, (Simplex) this.calc.val_(2L));
+		this.extIf.model = model;
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.gt(A)));
+		this.dec.pushAssumption(new ClauseAssume((Expression) B.gt(A)));
+		assertEquals(model, this.dec.getModel());
+		assertEquals(0, this.extIf.modelRequests);
+		this.dec.pushAssumption(new ClauseAssume((Expression) B.gt(this.calc.valInt(5))));
+		this.dec.getModel();
+		assertEquals(1, this.extIf.modelRequests);
+	}
+
+	@Test
+	public void testAlternativesBatched() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//A > 0, B > A, C > 0 |- B < 5, B > 7 must be sent as
+		//a single batch with A > 0, B > A only
+		final Primitive A = this.calc.valTerm(Type.INT, "A");
+		final Primitive B = this.calc.valTerm(Type.INT, "B");
+		final Primitive C = this.calc.valTerm(Type.INT, "C");
+		final Expression aGtZero = (Expression) A.gt(this.calc.valInt(0));
+		final Expression bGtA = (Expression) B.gt(A);
+		final Expression bLtFive = (Expression) B.lt(this.calc.valInt(5));
+		final Expression bGtSeven = (Expression) B.gt(this.calc.valInt(7));
+		this.dec.pushAssumption(new ClauseAssume(aGtZero));
+		this.dec.pushAssumption(new ClauseAssume(bGtA));
+		this.dec.pushAssumption(new ClauseAssume((Expression) C.gt(this.calc.valInt(0))));
+		final boolean[] sat = this.dec.isSatAlternatives(this.hier, Arrays.asList(bLtFive, bGtSeven));
+		assertTrue(Arrays.equals(new boolean[] { true, true }, sat));
+		assertTrue(this.extIf.checked.isEmpty());
+		assertEquals(1, this.extIf.batches.size());
+		assertEquals(Arrays.asList(bLtFive, bGtSeven), this.extIf.batches.get(0));
+		assertEquals(Arrays.asList(aGtZero, bGtA), this.extIf.pushedAtBatches.get(0));
+		assertTrue(this.extIf.pushed.isEmpty());
+	}
+
+	@Test
+	public void testAlternativesModelCache() throws InvalidOperandException, InvalidTypeException, InvalidInputException, DecisionException {
+		//with model A == 1, B == 2 for A > 0 |- B > A, then
+		//of the alternatives B < 5, B > 5 only B > 5 is sent
+		this.dec.setSlicing(false);
+		this.dec.setModelCacheSize(4);
+		final SymbolFactory f = new SymbolFactory(this.calc);
+		final PrimitiveSymbolic A = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("a"));
+		final PrimitiveSymbolic B = (PrimitiveSymbolic) f.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("b"));
+		final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+		model.put(A, (Simplex) this.calc.val_(1L));
+		model.put(B, (Simplex) this.calc.val_(2L));
+		this.extIf.model = model;
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.gt(A)));
+		final Expression bGtFive = (Expression) B.gt(this.calc.valInt(5));
+		final boolean[] sat = this.dec.isSatAlternatives(this.hier, Arrays.asList((Expression) B.lt(this.calc.valInt(5)), bGtFive));
+		assertTrue(Arrays.equals(new boolean[] { true, true }, sat));
+		assertEquals(1, this.extIf.batches.size());
+		assertEquals(Arrays.asList(bGtFive), this.extIf.batches.get(0));
+	}
+}
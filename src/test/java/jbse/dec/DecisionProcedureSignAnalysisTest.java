@@ -2,6 +2,7 @@ package jbse.dec;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -437,4 +438,25 @@ public class DecisionProcedureSignAnalysisTest {
 		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.valDouble(-1.0d).mul(f).add(E.mul(F)).div(this.calc.valDouble(-1.0d).mul(E)).lt(this.calc.valInt(0))));
 		assertFalse(this.dec.isSat(this.hier, (Expression) f.sub(E.mul(F)).ge(this.calc.valInt(0))));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void alternativesTest1() 
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 0 |-/- A < 0, A = 0, A <= 0 
+		Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		final boolean[] sat = this.dec.isSatAlternatives(this.hier, Arrays.asList((Expression) A.lt(this.calc.valInt(0)), (Expression) A.eq(this.calc.valInt(0)), (Expression) A.le(this.calc.valInt(0))));
+		assertTrue(Arrays.equals(new boolean[] { false, false, false }, sat));
+	}
+	
+	@Test
+	public void alternativesTest2() 
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 0 |-/- A < 0, A > 0 |-?- A > 5 (delegated)
+		this.dec = new DecisionProcedureSignAnalysis(new DecisionProcedureAlwSat(), this.calc);
+		Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		final boolean[] sat = this.dec.isSatAlternatives(this.hier, Arrays.asList((Expression) A.lt(this.calc.valInt(0)), (Expression) A.gt(this.calc.valInt(5))));
+		assertTrue(Arrays.equals(new boolean[] { false, true }, sat));
+	}
+}
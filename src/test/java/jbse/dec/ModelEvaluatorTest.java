@@ -0,0 +1,58 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.MemoryPath;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class ModelEvaluatorTest {
+	private final CalculatorRewriting calc = new CalculatorRewriting();
+	private final SymbolFactory f = new SymbolFactory(this.calc);
+	private final ModelEvaluator evaluator = new ModelEvaluator();
+	private final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
+
+	private PrimitiveSymbolic symbol(char type, String name) {
+		return (PrimitiveSymbolic) this.f.createSymbol("" + type, MemoryPath.mkLocalVariable(name));
+	}
+
+	@Test
+	public void testOverflow() throws InvalidOperandException, InvalidTypeException {
+		final PrimitiveSymbolic X = symbol(Type.INT, "x");
+		this.model.put(X, this.calc.valInt(Integer.MAX_VALUE));
+		assertTrue(this.evaluator.satisfies(this.model, X.gt(this.calc.valInt(0))));
+		//in Java X + 1 < 0, but not for the solver
+		assertFalse(this.evaluator.satisfies(this.model, X.add(this.calc.valInt(1)).lt(this.calc.valInt(0))));
+		assertFalse(this.evaluator.satisfies(this.model, X.add(this.calc.valInt(1)).ge(this.calc.valInt(0))));
+	}
+
+	@Test
+	public void testDivMod() throws InvalidOperandException, InvalidTypeException {
+		final PrimitiveSymbolic X = symbol(Type.INT, "x");
+		this.model.put(X, this.calc.valInt(-7));
+		//SMT-LIB: (div -7 2) == -4, (mod -7 2) == 1; Java: -7 / 2 == -3, -7 % 2 == -1
+		assertTrue(this.evaluator.satisfies(this.model, X.div(this.calc.valInt(2)).eq(this.calc.valInt(-4))));
+		assertTrue(this.evaluator.satisfies(this.model, X.rem(this.calc.valInt(2)).eq(this.calc.valInt(1))));
+		assertTrue(this.evaluator.satisfies(this.model, X.div(this.calc.valInt(-2)).eq(this.calc.valInt(4))));
+		assertFalse(this.evaluator.satisfies(this.model, X.div(this.calc.valInt(0)).eq(this.calc.valInt(0))));
+	}
+
+	@Test
+	public void testFloatingPointUnknown() throws InvalidOperandException, InvalidTypeException {
+		final PrimitiveSymbolic D = symbol(Type.DOUBLE, "d");
+		this.model.put(D, this.calc.valDouble(1.0));
+		final Primitive p = D.gt(this.calc.valDouble(0.0));
+		assertFalse(this.evaluator.satisfies(this.model, p));
+		assertFalse(this.evaluator.satisfies(this.model, p.not()));
+	}
+}
@@ -0,0 +1,89 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureEnumeration;
+import jbse.mem.State;
+import jbse.mem.exc.ContradictionException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.PrimitiveSymbolic;
+
+public class EngineMergingTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/Merging";
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	/**
+	 * Explores all the paths of a method with 
+	 * signature {@code (I)I}.
+	 * 
+	 * @param methodName the name of the method.
+	 * @param doStateMerging whether the states must be merged.
+	 * @return a {@link List} of the leaves.
+	 */
+	private List<State> explore(String methodName, boolean doStateMerging) throws Exception {
+		final State initialState = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", methodName);
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) initialState.getRootFrame().getLocalVariableValue(0);
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureEnumeration(this.calc, x, -5, 5), initialState);
+		p.setDoStateMerging(doStateMerging);
+		final Engine engine = new EngineBuilder().build(p);
+		final ArrayList<State> retVal = new ArrayList<>();
+		while (true) {
+			boolean contradiction = false;
+			while (engine.canStep()) {
+				try {
+					engine.step();
+				} catch (ContradictionException e) {
+					contradiction = true;
+					break;
+				}
+			}
+			if (!contradiction) {
+				retVal.add(engine.getCurrentState().clone());
+			}
+			if (!engine.canBacktrack()) {
+				break;
+			}
+			engine.backtrack();
+		}
+		engine.close();
+		return retVal;
+	}
+
+	private static HashSet<String> returnValues(List<State> leaves) {
+		final HashSet<String> retVal = new HashSet<>();
+		for (State leaf : leaves) {
+			retVal.add(leaf.getStuckReturn().toString());
+		}
+		return retVal;
+	}
+
+	@Test
+	public void testMergingReducesPaths() throws Exception {
+		final List<State> unmerged = explore("abs", false);
+		final List<State> merged = explore("abs", true);
+		//x < -3, -3 <= x < 0, 0 <= x <= 3, x > 3
+		assertEquals(4, unmerged.size());
+		//the branches of x < 0 are merged before y > 3
+		assertEquals(2, merged.size());
+		assertEquals(returnValues(unmerged), returnValues(merged));
+	}
+
+	@Test
+	public void testUnmergedStatesAreResumed() throws Exception {
+		final List<State> unmerged = explore("alloc", false);
+		final List<State> merged = explore("alloc", true);
+		//x < 0, 0 <= x <= 3, x > 3
+		assertEquals(3, unmerged.size());
+		//the branches of x < 0 cannot be merged, and
+		//the parked one is resumed
+		assertEquals(3, merged.size());
+		assertEquals(returnValues(unmerged), returnValues(merged));
+	}
+}
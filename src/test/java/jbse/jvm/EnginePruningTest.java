@@ -0,0 +1,65 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureEnumeration;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.PrimitiveSymbolic;
+
+public class EnginePruningTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/Pruning";
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	private Engine engine(boolean doSubsumptionPruning) throws Exception {
+		final State initialState = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "stabilize");
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) initialState.getRootFrame().getLocalVariableValue(0);
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureEnumeration(this.calc, x, -5, 5), initialState);
+		p.setDoSubsumptionPruning(doSubsumptionPruning);
+		return new EngineBuilder().build(p);
+	}
+
+	@Test(timeout = 10000)
+	public void testStabilizedLoopIsPruned() throws Exception {
+		final Engine engine = engine(true);
+		final List<String> returned = new ArrayList<>();
+		while (true) {
+			while (engine.canStep()) {
+				engine.step();
+			}
+			if (!engine.currentStatePruned()) {
+				returned.add(engine.getCurrentState().getStuckReturn().toString());
+			}
+			if (!engine.canBacktrack()) {
+				break;
+			}
+			engine.backtrack();
+		}
+		engine.close();
+		//x <= 0 returns at the first loop test, x > 0 never exits the
+		//loop and is pruned at the loop head when y is 1 again
+		assertEquals(1, returned.size());
+		assertEquals(1, engine.getPrunedStates());
+	}
+
+	@Test(timeout = 10000)
+	public void testLoopDoesNotTerminateWithoutPruning() throws Exception {
+		final Engine engine = engine(false);
+		for (int i = 0; i < 1000; ++i) {
+			if (!engine.canStep()) {
+				//the trace exiting the loop
+				assertTrue(engine.canBacktrack());
+				engine.backtrack();
+			}
+			engine.step();
+		}
+		assertEquals(0, engine.getPrunedStates());
+		engine.close();
+	}
+}
@@ -0,0 +1,75 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureEnumeration;
+import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.mem.State;
+import jbse.mem.exc.ContradictionException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.PrimitiveSymbolic;
+
+public class EngineReplayTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/ArrayAccess";
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	/**
+	 * Explores all the paths.
+	 * 
+	 * @param replayTarget the identifier of the replayed state, 
+	 *        or {@code null} for no replay. 
+	 * @return a {@link Map} from the identifiers of the leaves
+	 *         to their path conditions.
+	 */
+	private Map<String, String> explore(String replayTarget) throws Exception {
+		final State initialState = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "get");
+		final PrimitiveSymbolic i = (PrimitiveSymbolic) initialState.getRootFrame().getLocalVariableValue(0);
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureEnumeration(this.calc, i, -5, 5), initialState);
+		p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+		//otherwise the sat checks are never skipped
+		p.setBreadthMode(BreadthMode.ALL_DECISIONS_SYMBOLIC);
+		p.setReplayTarget(replayTarget);
+		final Engine engine = new EngineBuilder().build(p);
+		final LinkedHashMap<String, String> retVal = new LinkedHashMap<>();
+		while (true) {
+			boolean contradiction = false;
+			while (engine.canStep()) {
+				try {
+					engine.step();
+				} catch (ContradictionException e) {
+					contradiction = true;
+					break;
+				}
+			}
+			if (!contradiction) {
+				final State leaf = engine.getCurrentState();
+				retVal.put(leaf.getIdentifier(), leaf.getPathCondition().toString());
+			}
+			if (!engine.canBacktrack()) {
+				break;
+			}
+			engine.backtrack();
+		}
+		engine.close();
+		return retVal;
+	}
+
+	@Test
+	public void testReplaySymbolicIndex() throws Exception {
+		final Map<String, String> leaves = explore(null);
+		//i < 1, i == 1, i == 2, and out of bounds
+		assertEquals(4, leaves.size());
+		for (Map.Entry<String, String> leaf : leaves.entrySet()) {
+			final Map<String, String> replayed = explore(leaf.getKey());
+			assertEquals(leaf.getKey(), 1, replayed.size());
+			assertEquals(leaf.getValue(), replayed.get(leaf.getKey()));
+		}
+	}
+}
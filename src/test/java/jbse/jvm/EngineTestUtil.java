@@ -0,0 +1,94 @@
+package jbse.jvm;
+
+import java.util.HashMap;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+
+/**
+ * Builds {@link Engine}s that symbolically execute the methods
+ * of the classes in {@code jbse.jvm.testdata}. The initial state
+ * has only the frame of the root method, without the initialization
+ * of the JRE, so the methods may only use JRE classes whose
+ * initialization is trivial.
+ */
+public final class EngineTestUtil {
+	public static final String[] CLASSPATH = {
+		"src/test/resources/jbse/bc/testdata/rt.jar", "target/classes", "target/test-classes"
+	};
+
+	public static CalculatorRewriting calculator() {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		return calc;
+	}
+
+	/**
+	 * Returns the parameters of an {@link Engine}.
+	 *
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param dec the {@link DecisionProcedure} of the engine.
+	 * @param className the name of the class of the root method.
+	 * @param descriptor the descriptor of the root method.
+	 * @param methodName the name of the root method.
+	 * @return some {@link EngineParameters}, whose initial state is
+	 *         set, so they must not be further modified by invoking
+	 *         methods that reset it.
+	 * @throws Exception if the initial state cannot be created.
+	 */
+	public static EngineParameters parameters(CalculatorRewriting calc, DecisionProcedure dec,
+											  String className, String descriptor, String methodName)
+	throws Exception {
+		return parameters(calc, dec, initialState(calc, className, descriptor, methodName));
+	}
+
+	/**
+	 * Returns the parameters of an {@link Engine}.
+	 *
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param dec the {@link DecisionProcedure} of the engine.
+	 * @param initialState a {@link State} returned by
+	 *        {@link #initialState(CalculatorRewriting, String, String, String)}.
+	 * @return some {@link EngineParameters}, whose initial state is
+	 *         {@code initialState}, so they must not be further modified
+	 *         by invoking methods that reset it.
+	 * @throws Exception if the root frame of {@code initialState} is missing.
+	 */
+	public static EngineParameters parameters(CalculatorRewriting calc, DecisionProcedure dec, State initialState)
+	throws Exception {
+		final Signature method = initialState.getRootMethodSignature();
+		final EngineParameters retVal = new EngineParameters();
+		retVal.setCalculator(calc);
+		retVal.setDecisionProcedure(new DecisionProcedureAlgorithms(dec, calc));
+		retVal.setMethodSignature(method.getClassName(), method.getDescriptor(), method.getName());
+		retVal.setInitialState(initialState);
+		return retVal;
+	}
+
+	/**
+	 * Returns a state with the frame of a method with symbolic arguments.
+	 *
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param className the name of the class of the method.
+	 * @param descriptor the descriptor of the method.
+	 * @param methodName the name of the method.
+	 * @return a {@link State}.
+	 * @throws Exception if the state cannot be created.
+	 */
+	public static State initialState(CalculatorRewriting calc, String className, String descriptor, String methodName)
+	throws Exception {
+		final State retVal = new State(new Classpath(CLASSPATH), ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+		retVal.pushFrameSymbolic(new Signature(className, descriptor, methodName));
+		return retVal;
+	}
+
+	private EngineTestUtil() {
+		//do not instantiate!
+	}
+}
@@ -0,0 +1,78 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jbse.bc.Signature;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+
+public class MethodSummarizerTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/SummarizedStatics";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	@Test
+	public void testStaticChangedBetweenCalls() throws Exception {
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureAlwSat(), SUBJECT, "()I", "entry");
+		p.addSummarized(SUBJECT, "(I)I", "addK");
+		p.addSummarized(SUBJECT, "(I)I", "twice");
+		final Engine engine = new EngineBuilder().build(p);
+		while (engine.canStep()) {
+			engine.step();
+		}
+		//addK reads k, that changes between the invocations
+		assertEquals(this.calc.valInt(7), engine.getCurrentState().getStuckReturn());
+	}
+
+	@Test
+	public void testReadsRejected() throws Exception {
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureAlwSat(), SUBJECT, "()I", "entry");
+		p.addSummarized(SUBJECT, "(I)I", "addK");
+		p.addSummarized(SUBJECT, "(I)I", "twice");
+		final State state = EngineTestUtil.initialState(this.calc, SUBJECT, "()I", "entry");
+		final MethodSummarizer summarizer = new MethodSummarizer(p);
+		assertNull(summarizer.getSummary(state, new Signature(SUBJECT, "(I)I", "addK")));
+		assertNotNull(summarizer.getSummary(state, new Signature(SUBJECT, "(I)I", "twice")));
+		assertEquals(1, summarizer.getSummary(state, new Signature(SUBJECT, "(I)I", "twice")).getNumCases());
+	}
+
+	@Test
+	public void testCacheDependsOnExecutedClasses() throws Exception {
+		final Path dir = this.folder.newFolder().toPath();
+		final Signature plusSize = new Signature(SUBJECT, "(I)I", "plusSize");
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureAlwSat(), SUBJECT, "()I", "entry");
+		p.addSummarized(SUBJECT, "(I)I", "plusSize");
+		p.setSummariesCacheDirectory(dir);
+		final State state = EngineTestUtil.initialState(this.calc, SUBJECT, "()I", "entry");
+		//otherwise the summary would depend on the initialization of Node
+		state.ensureKlassSymbolic("jbse/jvm/testdata/Node");
+		assertNotNull(new MethodSummarizer(p).getSummary(state, plusSize));
+		final Path[] files = Files.list(dir).toArray(Path[]::new);
+		assertEquals(1, files.length);
+		final String text = new String(Files.readAllBytes(files[0]), StandardCharsets.UTF_8);
+		final String header = text.substring(0, text.indexOf('\n'));
+		assertTrue(header, header.endsWith(" jbse/jvm/testdata/Node " + SUBJECT));
+
+		//an up-to-date cached summary is reused as is
+		assertNotNull(new MethodSummarizer(p).getSummary(state, plusSize));
+		assertEquals(text, new String(Files.readAllBytes(files[0]), StandardCharsets.UTF_8));
+
+		//a cached summary for other bytecode is recalculated
+		final String stale = header.replaceFirst(" [0-9a-f]+ ", " 0000 ") + text.substring(header.length());
+		Files.write(files[0], stale.getBytes(StandardCharsets.UTF_8));
+		assertEquals(1, new MethodSummarizer(p).getSummary(state, plusSize).getNumCases());
+		assertEquals(text, new String(Files.readAllBytes(files[0]), StandardCharsets.UTF_8));
+	}
+}
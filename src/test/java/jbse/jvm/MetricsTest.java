@@ -0,0 +1,41 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MetricsTest {
+	@Test
+	public void testCounter() {
+		final Metrics m = new Metrics();
+		m.counter("a").inc();
+		m.counter("a").add(2);
+		assertEquals(3L, m.counter("a").get());
+		assertEquals(Long.valueOf(3L), m.counterValues().get("a"));
+	}
+
+	@Test
+	public void testHistogram() {
+		final Metrics m = new Metrics();
+		final Metrics.Histogram h = m.histogram("h");
+		for (long v = 1; v <= 100; ++v) {
+			h.record(v);
+		}
+		assertEquals(100L, h.count());
+		assertEquals(5050L, h.sum());
+		assertEquals(100L, h.max());
+		assertEquals(63L, h.percentile(0.5));
+		assertEquals(100L, h.percentile(0.99));
+	}
+
+	@Test
+	public void testJson() {
+		final Metrics m = new Metrics();
+		m.counter("c\"").inc();
+		m.histogram("h").record(0);
+		final String json = m.toJson();
+		assertTrue(json.contains("\"counters\":{\"c\\\"\":1}"));
+		assertTrue(json.contains("\"h\":{\"count\":1,\"sum\":0,\"max\":0,\"p50\":0,\"p90\":0,\"p99\":0}"));
+		assertFalse(json.contains("\n"));
+	}
+}
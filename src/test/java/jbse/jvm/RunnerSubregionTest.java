@@ -0,0 +1,98 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureEnumeration;
+import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.tree.StateTree;
+import jbse.val.PrimitiveSymbolic;
+
+public class RunnerSubregionTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/ArrayAccess";
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	/**
+	 * Runs the subject.
+	 *
+	 * @param mode the {@link StateIdentificationMode}.
+	 * @param subregion the identifier of the subregion,
+	 *        or {@code null} for everything.
+	 * @param excluded the identifier of an excluded subregion,
+	 *        or {@code null} for none.
+	 * @return the identifiers of the leaves.
+	 */
+	private List<String> run(StateIdentificationMode mode, String subregion, String excluded) throws Exception {
+		final State initialState = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "get");
+		final PrimitiveSymbolic i = (PrimitiveSymbolic) initialState.getRootFrame().getLocalVariableValue(0);
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureEnumeration(this.calc, i, -5, 5), initialState);
+		p.setStateIdentificationMode(mode);
+		p.setBreadthMode(BreadthMode.ALL_DECISIONS_SYMBOLIC);
+		final RunnerParameters rp = new RunnerParameters(p);
+		if (subregion != null) {
+			rp.setIdentifierSubregion(subregion);
+		}
+		final ArrayList<String> retVal = new ArrayList<>();
+		rp.setActions(new Runner.Actions() {
+			@Override
+			public boolean atTraceEnd() {
+				retVal.add(getEngine().getCurrentState().getIdentifier());
+				return false;
+			}
+		});
+		final RunnerBuilder rb = new RunnerBuilder();
+		final Runner runner = rb.build(rp);
+		if (excluded != null) {
+			runner.excludeSubregion(excluded);
+		}
+		runner.run();
+		rb.getEngine().close();
+		return retVal;
+	}
+
+	private static List<String> below(List<String> leaves, String identifier, String separator) {
+		final ArrayList<String> retVal = new ArrayList<>();
+		for (String leaf : leaves) {
+			if (leaf.equals(identifier) || leaf.startsWith(identifier + separator)) {
+				retVal.add(leaf);
+			}
+		}
+		return retVal;
+	}
+
+	private void checkSubregions(StateIdentificationMode mode, String separator) throws Exception {
+		final List<String> leaves = run(mode, null, null);
+		assertTrue(leaves.size() > 1);
+		for (String leaf : leaves) {
+			assertEquals(leaf, below(leaves, leaf, separator), run(mode, leaf, null));
+			final String parent = leaf.substring(0, leaf.lastIndexOf(separator));
+			assertEquals(parent, below(leaves, parent, separator), run(mode, parent, null));
+			final List<String> others = new ArrayList<>(leaves);
+			others.remove(leaf);
+			assertEquals(leaf, others, run(mode, null, leaf));
+		}
+	}
+
+	@Test
+	public void testReplicable() throws Exception {
+		checkSubregions(StateIdentificationMode.REPLICABLE, StateTree.IDENTIFIER_SEPARATOR_LONG);
+	}
+
+	@Test
+	public void testCompact() throws Exception {
+		checkSubregions(StateIdentificationMode.COMPACT, StateTree.IDENTIFIER_SEPARATOR_COMPACT);
+	}
+
+	@Test
+	public void testLong() throws Exception {
+		checkSubregions(StateIdentificationMode.LONG, StateTree.IDENTIFIER_SEPARATOR_LONG);
+	}
+}
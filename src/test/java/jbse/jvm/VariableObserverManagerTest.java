@@ -0,0 +1,100 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.common.Type;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.mem.State;
+import jbse.mem.exc.ContradictionException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.ReferenceConcrete;
+import jbse.val.Value;
+
+public class VariableObserverManagerTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/Observed";
+	private static final Signature F = new Signature(SUBJECT, "" + Type.BOOLEAN, "f");
+	private static final Signature S = new Signature(SUBJECT, "" + Type.BOOLEAN, "s");
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	/** The notifications, as the name and the value of the changed variable. */
+	private final List<String> notifications = new ArrayList<>();
+
+	/** The number of notifications after each step. */
+	private final List<Integer> notificationsAfterStep = new ArrayList<>();
+
+	/** The root object. */
+	private ReferenceConcrete root;
+
+	private ExecutionObserver observer(Signature field) {
+		return e -> {
+			final State state = e.getCurrentState();
+			final Value v = (field == F ? state.getObject(this.root) : state.getKlass(SUBJECT)).getFieldValue(field);
+			this.notifications.add(field.getName() + "=" + v);
+		};
+	}
+
+	/**
+	 * Explores {@code Observed.run(int)} with a concrete
+	 * root object, observing its fields.
+	 */
+	private void explore() throws Exception {
+		final State initialState = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)V", "run");
+		this.root = initialState.createInstance(SUBJECT);
+		initialState.setLocalVariable(0, this.root);
+		initialState.ensureKlassSymbolic(SUBJECT);
+		final EngineParameters p = EngineTestUtil.parameters(this.calc, new DecisionProcedureAlwSat(), initialState);
+		p.addExecutionObserver(SUBJECT, "" + Type.BOOLEAN, "f", observer(F));
+		p.addExecutionObserver(SUBJECT, "" + Type.BOOLEAN, "s", observer(S));
+		final Engine engine = new EngineBuilder().build(p);
+		while (true) {
+			while (engine.canStep()) {
+				try {
+					engine.step();
+				} catch (ContradictionException e) {
+					break;
+				}
+				this.notificationsAfterStep.add(this.notifications.size());
+			}
+			if (!engine.canBacktrack()) {
+				break;
+			}
+			engine.backtrack();
+		}
+		engine.close();
+	}
+
+	@Test
+	public void testNotifications() throws Exception {
+		explore();
+		//the x > 0 trace sets f and s, the other one (after
+		//the backtrack) sets f back, while s keeps the value
+		//it had at the branch
+		assertEquals(Arrays.asList("f=1", "s=1", "f=0"), this.notifications);
+	}
+
+	@Test
+	public void testNoNotificationsWithoutChanges() throws Exception {
+		explore();
+		//each notification comes from a different step, and
+		//most steps (including the write to n) notify nothing
+		int previous = 0;
+		int stepsNotifying = 0;
+		for (int n : this.notificationsAfterStep) {
+			assertTrue(n - previous <= 1);
+			if (n > previous) {
+				++stepsNotifying;
+			}
+			previous = n;
+		}
+		assertEquals(3, stepsNotifying);
+		assertTrue(this.notificationsAfterStep.size() > 3);
+	}
+}
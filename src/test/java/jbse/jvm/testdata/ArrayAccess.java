@@ -0,0 +1,16 @@
+package jbse.jvm.testdata;
+
+import jbse.meta.Analysis;
+
+public class ArrayAccess {
+	static int get(int i) {
+		final int[] a = { 10, 20, 30 };
+		if (i < 1) {
+			return -1;
+		}
+		final int v = a[i];
+		//a[0] is unreachable
+		Analysis.ass3rt(v != 10);
+		return v;
+	}
+}
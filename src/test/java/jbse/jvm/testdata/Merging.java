@@ -0,0 +1,34 @@
+package jbse.jvm.testdata;
+
+public class Merging {
+	int f;
+
+	static int abs(int x) {
+		final int y;
+		if (x < 0) {
+			y = -x;
+		} else {
+			y = x;
+		}
+		if (y > 3) {
+			return 1;
+		}
+		return 0;
+	}
+
+	static int alloc(int x) {
+		int[] a = null;
+		if (x < 0) {
+			//the branches have different heaps
+			a = new int[1];
+		}
+		if (x > 3) {
+			return 1;
+		}
+		return 0;
+	}
+
+	static int ref(int x, Merging o) {
+		return x;
+	}
+}
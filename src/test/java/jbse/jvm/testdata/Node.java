@@ -0,0 +1,14 @@
+package jbse.jvm.testdata;
+
+public class Node {
+	Node next;
+	int value;
+
+	static int size(Node n) {
+		int retVal = 0;
+		for (Node m = n; m != null; m = m.next) {
+			++retVal;
+		}
+		return retVal;
+	}
+}
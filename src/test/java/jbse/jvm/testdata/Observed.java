@@ -0,0 +1,17 @@
+package jbse.jvm.testdata;
+
+public class Observed {
+	static boolean s;
+	boolean f;
+	int n;
+
+	void run(int x) {
+		this.n = 1;
+		this.f = true;
+		if (x > 0) {
+			s = true;
+		} else {
+			this.f = false;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package jbse.jvm.testdata;
+
+public class Pruning {
+	int f;
+
+	static int stabilize(int x) {
+		int y = 0;
+		while (x > 0) {
+			//y is 1 from the second iteration on
+			y = 1;
+		}
+		return y;
+	}
+
+	static int ref(int x, Pruning o) {
+		return x;
+	}
+}
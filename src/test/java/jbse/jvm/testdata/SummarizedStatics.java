@@ -0,0 +1,25 @@
+package jbse.jvm.testdata;
+
+public class SummarizedStatics {
+	static int k;
+
+	static int addK(int x) {
+		return x + k;
+	}
+
+	static int twice(int x) {
+		return x + x;
+	}
+
+	static int plusSize(int x) {
+		return x + Node.size(null);
+	}
+
+	static int entry() {
+		k = 1;
+		final int a = addK(5);
+		k = 2;
+		final int b = addK(5);
+		return b - a + twice(3);
+	}
+}
@@ -0,0 +1,124 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.mem.Objekt.Epoch;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.FunctionApplication;
+import jbse.val.Primitive;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class ArrayTest {
+	private CalculatorRewriting calc = new CalculatorRewriting();
+
+	@Test
+	public void testEntriesBranch() throws InvalidTypeException, InvalidOperandException {
+		final Array a = new Array(this.calc, false, null, this.calc.valInt(3), "" + Type.ARRAYOF + Type.INT, null, Epoch.EPOCH_AFTER_START);
+		final Primitive index = this.calc.valTerm(Type.INT, "I");
+		final Collection<Array.AccessOutcome> outcomes = a.get(index);
+		assertEquals(4, outcomes.size()); //three entries plus out of range
+	}
+
+	@Test
+	public void testArrayTheorySingleRead() throws InvalidTypeException, InvalidOperandException {
+		final Array a = new Array(this.calc, false, null, this.calc.valInt(3), "" + Type.ARRAYOF + Type.INT, null, Epoch.EPOCH_AFTER_START, true);
+		assertTrue(a.hasArrayTheoryRep());
+		final Primitive index = this.calc.valTerm(Type.INT, "I");
+		a.set(index, this.calc.valInt(5));
+		final Collection<Array.AccessOutcome> outcomes = a.get(this.calc.valTerm(Type.INT, "J"));
+		assertEquals(2, outcomes.size()); //in range plus out of range
+		int numIn = 0;
+		for (Array.AccessOutcome o : outcomes) {
+			if (o instanceof Array.AccessOutcomeIn) {
+				++numIn;
+				final Primitive value = (Primitive) ((Array.AccessOutcomeIn) o).getValue();
+				assertTrue(value instanceof FunctionApplication);
+				assertEquals(FunctionApplication.SELECT, ((FunctionApplication) value).getOperator());
+				final Primitive contents = ((FunctionApplication) value).getArgs()[0];
+				assertEquals(FunctionApplication.STORE, ((FunctionApplication) contents).getOperator());
+			}
+		}
+		assertEquals(1, numIn);
+	}
+
+	private static Primitive valueIn(Collection<Array.AccessOutcome> outcomes) {
+		for (Array.AccessOutcome o : outcomes) {
+			if (o instanceof Array.AccessOutcomeIn) {
+				return (Primitive) ((Array.AccessOutcomeIn) o).getValue();
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void testArrayTheoryCopySymbolicLength() throws InvalidTypeException, InvalidOperandException {
+		final String type = "" + Type.ARRAYOF + Type.INT;
+		final Array src = new Array(this.calc, false, null, this.calc.valInt(3), type, null, Epoch.EPOCH_AFTER_START, true);
+		src.set(this.calc.valInt(1), this.calc.valInt(7));
+		final Array dest = new Array(this.calc, false, null, this.calc.valTerm(Type.INT, "L"), type, null, Epoch.EPOCH_AFTER_START, true);
+		final Primitive k = this.calc.valTerm(Type.INT, "K");
+		final Primitive before = valueIn(dest.get(k));
+		assertEquals(FunctionApplication.SELECT, ((FunctionApplication) before).getOperator());
+		
+		dest.arraycopy(src, this.calc.valInt(0), this.calc.valTerm(Type.INT, "D"), this.calc.valTerm(Type.INT, "N"), r -> { });
+		assertTrue(dest.hasArrayTheoryRep());
+		final Primitive after = valueIn(dest.get(k));
+		assertEquals(FunctionApplication.ITE, ((FunctionApplication) after).getOperator());
+		//outside the copy range, the value read before the copy
+		assertEquals(before, ((FunctionApplication) after).getArgs()[2]);
+		assertFalse(after.toString().contains(FunctionApplication.ARRAY_COPY));
+		
+		dest.set(this.calc.valTerm(Type.INT, "X"), this.calc.valInt(5));
+		final Primitive afterSet = valueIn(dest.get(k));
+		assertEquals(FunctionApplication.ITE, ((FunctionApplication) afterSet).getOperator());
+		assertEquals(this.calc.valInt(5), ((FunctionApplication) afterSet).getArgs()[1]);
+		assertEquals(after, ((FunctionApplication) afterSet).getArgs()[2]);
+		assertFalse(afterSet.toString().contains(FunctionApplication.ARRAY_COPY));
+	}
+
+	@Test
+	public void testArrayTheoryNotForReferences() throws InvalidTypeException {
+		final Array a = new Array(this.calc, false, null, this.calc.valInt(3), "" + Type.ARRAYOF + "Ljava/lang/Object;", null, Epoch.EPOCH_AFTER_START, true);
+		assertFalse(a.hasArrayTheoryRep());
+	}
+
+	@Test
+	public void testFastAccess() throws InvalidTypeException, InvalidOperandException, FastArrayAccessNotAllowedException {
+		final Array a = new Array(this.calc, false, null, this.calc.valInt(3), "" + Type.ARRAYOF + Type.INT, null, Epoch.EPOCH_AFTER_START);
+		assertTrue(a.inRangeFast(this.calc.valInt(0)));
+		assertTrue(a.inRangeFast(this.calc.valInt(2)));
+		assertFalse(a.inRangeFast(this.calc.valInt(3)));
+		assertFalse(a.inRangeFast(this.calc.valInt(-1)));
+		a.setFast(this.calc.valInt(1), this.calc.valInt(7));
+		assertEquals(this.calc.valInt(7), a.getFast(this.calc.valInt(1)));
+		assertNull(a.getFast(this.calc.valInt(3)));
+	}
+
+	@Test
+	public void testFastAccessAfterClone() throws InvalidTypeException, InvalidOperandException, FastArrayAccessNotAllowedException {
+		final Array a = new Array(this.calc, false, null, this.calc.valInt(3), "" + Type.ARRAYOF + Type.INT, null, Epoch.EPOCH_AFTER_START);
+		a.setFast(this.calc.valInt(2), this.calc.valInt(7));
+		final Array b = a.clone();
+		a.set(this.calc.valTerm(Type.INT, "I"), this.calc.valInt(5));
+		assertFalse(a.hasSimpleRep());
+		assertEquals(4, a.values().size());
+		assertTrue(b.hasSimpleRep());
+		assertEquals(3, b.values().size());
+		b.setFast(this.calc.valInt(1), this.calc.valInt(8));
+		assertEquals(this.calc.valInt(7), b.getFast(this.calc.valInt(2)));
+		assertEquals(this.calc.valInt(8), b.getFast(this.calc.valInt(1)));
+	}
+
+	@Test(expected = FastArrayAccessNotAllowedException.class)
+	public void testFastAccessSymbolicLength() throws InvalidTypeException, InvalidOperandException, FastArrayAccessNotAllowedException {
+		final Array a = new Array(this.calc, false, null, this.calc.valTerm(Type.INT, "L"), "" + Type.ARRAYOF + Type.INT, null, Epoch.EPOCH_AFTER_START);
+		a.getFast(this.calc.valInt(0));
+	}
+}
@@ -0,0 +1,111 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class PathConditionTest {
+	private CalculatorRewriting calc;
+	private Primitive a, b, c;
+
+	@Before
+	public void setUp() throws InvalidOperandException, InvalidTypeException {
+		this.calc = new CalculatorRewriting();
+		this.a = this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0));
+		this.b = this.calc.valTerm(Type.INT, "B").gt(this.calc.valInt(0));
+		this.c = this.calc.valTerm(Type.INT, "C").gt(this.calc.valInt(0));
+	}
+
+	@Test
+	public void testCloneIsIndependent() {
+		final PathCondition pc = new PathCondition();
+		pc.addClauseAssume(this.a);
+		final PathCondition pcClone = pc.clone();
+		pc.addClauseAssume(this.b);
+		pcClone.addClauseAssume(this.c);
+		assertEquals(Arrays.asList(new ClauseAssume(this.a), new ClauseAssume(this.b)), pc.getClauses());
+		assertEquals(Arrays.asList(new ClauseAssume(this.a), new ClauseAssume(this.c)), pcClone.getClauses());
+	}
+
+	@Test
+	public void testRefines() {
+		final PathCondition pc = new PathCondition();
+		pc.addClauseAssume(this.a);
+		final PathCondition pcClone = pc.clone();
+		pcClone.addClauseAssume(this.b);
+		pcClone.addClauseAssume(this.c);
+		final Iterator<Clause> it = pcClone.refines(pc);
+		assertNotNull(it);
+		assertEquals(new ClauseAssume(this.b), it.next());
+		assertEquals(new ClauseAssume(this.c), it.next());
+		assertFalse(it.hasNext());
+		assertNull(pc.refines(pcClone));
+	}
+
+	@Test
+	public void testRefinesNotShared() {
+		final PathCondition pc1 = new PathCondition();
+		pc1.addClauseAssume(this.a);
+		final PathCondition pc2 = new PathCondition();
+		pc2.addClauseAssume(this.a);
+		pc2.addClauseAssume(this.b);
+		assertNotNull(pc2.refines(pc1));
+		final PathCondition pc3 = new PathCondition();
+		pc3.addClauseAssume(this.c);
+		assertNull(pc2.refines(pc3));
+	}
+
+	@Test
+	public void testCommonPrefixLength() {
+		final PathCondition pc = new PathCondition();
+		pc.addClauseAssume(this.a);
+		pc.addClauseAssume(this.b);
+		final PathCondition pc1 = pc.clone();
+		final PathCondition pc2 = pc.clone();
+		pc1.addClauseAssume(this.c);
+		pc2.addClauseAssume(this.a);
+		assertEquals(2, ClauseList.commonPrefixLength(pc1.getClauses(), pc2.getClauses()));
+		assertEquals(3, ClauseList.commonPrefixLength(pc1.getClauses(), pc1.getClauses()));
+		assertEquals(0, ClauseList.commonPrefixLength(pc1.getClauses(), new PathCondition().getClauses()));
+		assertEquals(Arrays.asList(new ClauseAssume(this.b), new ClauseAssume(this.c)), pc1.getClauses().suffix(1));
+	}
+
+	@Test
+	public void testAccess() {
+		final PathCondition pc = new PathCondition();
+		pc.addClauseAssume(this.a);
+		pc.addClauseAssume(this.b);
+		pc.addClauseAssume(this.c);
+		final ClauseList clauses = pc.getClauses();
+		assertEquals(new ClauseAssume(this.a), clauses.get(0));
+		assertEquals(new ClauseAssume(this.b), clauses.get(1));
+		assertEquals(new ClauseAssume(this.c), clauses.get(2));
+		final ListIterator<Clause> it = clauses.listIterator(1);
+		assertEquals(new ClauseAssume(this.b), it.next());
+		assertEquals(new ClauseAssume(this.b), it.previous());
+		assertEquals(new ClauseAssume(this.a), it.previous());
+		assertFalse(it.hasPrevious());
+
+		//extending the list does not affect its iterators
+		final Iterator<Clause> it2 = clauses.iterator();
+		pc.addClauseAssume(this.a);
+		int n = 0;
+		while (it2.hasNext()) {
+			it2.next();
+			++n;
+		}
+		assertEquals(3, n);
+		assertEquals(Arrays.asList(new ClauseAssume(this.a), new ClauseAssume(this.b), new ClauseAssume(this.c), new ClauseAssume(this.a)), pc.getClauses());
+	}
+}
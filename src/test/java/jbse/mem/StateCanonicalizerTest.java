@@ -0,0 +1,103 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.jvm.EngineTestUtil;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceConcrete;
+import jbse.val.ReferenceSymbolic;
+
+public class StateCanonicalizerTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/Pruning";
+	private static final Signature FIELD = new Signature(SUBJECT, "I", "f");
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+	private State s;
+	private PrimitiveSymbolic x;
+	private ReferenceSymbolic o;
+
+	@Before
+	public void setUp() throws Exception {
+		this.s = EngineTestUtil.initialState(this.calc, SUBJECT, "(IL" + SUBJECT + ";)I", "ref");
+		this.x = (PrimitiveSymbolic) this.s.getRootFrame().getLocalVariableValue(0);
+		this.o = (ReferenceSymbolic) this.s.getRootFrame().getLocalVariableValue(1);
+	}
+
+	/**
+	 * Stores in the second local variable a reference
+	 * to a new object with a given field value.
+	 */
+	private static ReferenceConcrete storeNew(State state, int fieldValue) throws Exception {
+		final ReferenceConcrete r = state.createInstance(SUBJECT);
+		state.getObject(r).setFieldValue(FIELD, state.getCalculator().valInt(fieldValue));
+		state.setLocalVariable(1, r);
+		return r;
+	}
+
+	@Test
+	public void testEqualAcrossHeapRenumbering() throws Exception {
+		final State s1 = this.s.clone();
+		//unreachable, shifts the heap positions
+		s1.createArray(this.calc.valInt(0), this.calc.valInt(1), "[I");
+		final ReferenceConcrete r1 = storeNew(s1, 3);
+		final State s2 = this.s.clone();
+		final ReferenceConcrete r2 = storeNew(s2, 3);
+		assertNotEquals(r1.getHeapPosition(), r2.getHeapPosition());
+		assertEquals(s1.canonicalForm(), s2.canonicalForm());
+	}
+
+	@Test
+	public void testEqualWithDifferentNumericAssumptions() throws Exception {
+		final State s1 = this.s.clone();
+		s1.assume(this.x.lt(this.calc.valInt(0)));
+		final State s2 = this.s.clone();
+		s2.assume(this.x.gt(this.calc.valInt(0)));
+		assertEquals(s1.canonicalForm(), s2.canonicalForm());
+	}
+
+	@Test
+	public void testDifferentFieldValue() throws Exception {
+		final State s1 = this.s.clone();
+		storeNew(s1, 3);
+		final State s2 = this.s.clone();
+		storeNew(s2, 4);
+		assertNotEquals(s1.canonicalForm(), s2.canonicalForm());
+	}
+
+	@Test
+	public void testDifferentResolution() throws Exception {
+		final State s1 = this.s.clone();
+		s1.assumeNull(this.o);
+		final State s2 = this.s.clone();
+		assertNotEquals(s1.canonicalForm(), s2.canonicalForm());
+		s2.assumeExpands(this.o, SUBJECT);
+		assertNotEquals(s1.canonicalForm(), s2.canonicalForm());
+		//the same resolutions, assumed independently
+		final State s3 = this.s.clone();
+		s3.assumeNull(this.o);
+		assertEquals(s1.canonicalForm(), s3.canonicalForm());
+		final State s4 = this.s.clone();
+		s4.assumeExpands(this.o, SUBJECT);
+		assertEquals(s2.canonicalForm(), s4.canonicalForm());
+		assertEquals(s2.canonicalForm().hashCode(), s4.canonicalForm().hashCode());
+	}
+
+	@Test
+	public void testExpansionsToDifferentClasses() throws Exception {
+		final State s1 = this.s.clone();
+		s1.assumeExpands(this.o, SUBJECT);
+		final State s2 = this.s.clone();
+		s2.assumeExpands(this.o, "jbse/jvm/testdata/Node");
+		final int n = s1.getPathConditionList().size();
+		assertEquals(n, s2.getPathConditionList().size());
+		assertNotEquals(s1.getPathConditionList().get(n - 1), s2.getPathConditionList().get(n - 1));
+		//the expansions must not be taken as a common prefix
+		assertEquals(this.s.getPathCondition().size(), ClauseList.commonPrefixLength(s1.getPathConditionList(), s2.getPathConditionList()));
+		assertNotEquals(s1.canonicalForm(), s2.canonicalForm());
+	}
+}
@@ -0,0 +1,57 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StateIdentifierTest {
+	private static final StateIdentifier ROOT = StateIdentifier.EMPTY.append("", "ROOT");
+
+	@Test
+	public void testRendering() {
+		assertEquals("", StateIdentifier.EMPTY.toString());
+		assertEquals("ROOT|2|10", ROOT.append("|", 2).append("|", 10).toString());
+		assertEquals(".1.3", StateIdentifier.EMPTY.append(".", 1).append(".", 3).toString());
+		assertEquals("ROOT|IFX_true", ROOT.append("|", "IFX_true").toString());
+	}
+
+	@Test
+	public void testStructure() {
+		final StateIdentifier a = ROOT.append("|", 2);
+		final StateIdentifier b = a.append("|", 10);
+		assertEquals(3, b.getDepth());
+		assertSame(a, b.getParent());
+		assertSame(ROOT, b.ancestor(1));
+		assertNull(b.ancestor(4));
+		assertEquals(10, b.getBranch());
+		assertNull(b.getLabel());
+	}
+
+	@Test
+	public void testPrefix() {
+		final StateIdentifier a = ROOT.append("|", 1);
+		final StateIdentifier b = a.append("|", 10);
+		assertTrue(a.isPrefixOf(b));
+		assertTrue(b.isPrefixOf(b));
+		assertFalse(b.isPrefixOf(a));
+		//"ROOT|1" is a string prefix of "ROOT|10", but not a path prefix
+		assertFalse(a.isPrefixOf(ROOT.append("|", 10)));
+		//equal paths need not share their nodes
+		assertTrue(a.isPrefixOf(ROOT.append("|", 1).append("|", 3)));
+		assertEquals(a, StateIdentifier.EMPTY.append("", "ROOT").append("|", 1));
+		assertEquals(a.hashCode(), StateIdentifier.EMPTY.append("", "ROOT").append("|", 1).hashCode());
+	}
+
+	@Test
+	public void testHashCode() {
+		final StateIdentifier a = ROOT.append("|", 1).append("|", 2);
+		assertEquals(a.hashCode(), StateIdentifier.EMPTY.append("", "ROOT").append("|", 1).append("|", 2).hashCode());
+		assertEquals(ROOT.append("|", "IFX_true").hashCode(), ROOT.append("|", "IFX_true").hashCode());
+		//the hash code comes from the segments, not from the rendering,
+		//so different identifiers with the same rendering may differ
+		final StateIdentifier b = ROOT.append("|", "1|2");
+		assertEquals(a.toString(), b.toString());
+		assertNotEquals(a, b);
+		assertNotEquals(a.hashCode(), b.hashCode());
+	}
+}
@@ -0,0 +1,123 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.jvm.EngineTestUtil;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.FunctionApplication;
+import jbse.val.MemoryPath;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+
+public class StateMergerTest {
+	private static final String SUBJECT = "jbse/jvm/testdata/Merging";
+
+	private final CalculatorRewriting calc = EngineTestUtil.calculator();
+
+	@Test
+	public void testMergeGuardsDifferingValues() throws Exception {
+		final State s = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "abs");
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) s.getRootFrame().getLocalVariableValue(0);
+		final Primitive negative = x.lt(this.calc.valInt(0));
+		final Primitive large = x.gt(this.calc.valInt(3));
+		final State s1 = s.clone();
+		s1.assume(negative);
+		s1.setLocalVariable(1, x.neg());
+		final State s2 = s.clone();
+		s2.assume(large);
+		s2.setLocalVariable(1, x);
+
+		final State merged = s1.mergeWith(s2, s.getNumCreatedSymbols());
+		assertNotNull(merged);
+		assertEquals(s1.getIdentifier(), merged.getIdentifier());
+		//the equal values are kept, the different ones are guarded by the first path
+		assertSame(x, merged.getRootFrame().getLocalVariableValue(0));
+		assertEquals(new FunctionApplication(Type.INT, this.calc, FunctionApplication.ITE, negative, x.neg(), x),
+					 merged.getRootFrame().getLocalVariableValue(1));
+		//the differing clauses are replaced by their disjunction
+		final ClauseList pathCondition = merged.getPathConditionList();
+		assertEquals(s.getPathCondition().size() + 1, pathCondition.size());
+		assertEquals(new ClauseAssume(negative.or(large)), pathCondition.get(pathCondition.size() - 1));
+		//the merged states are not modified
+		assertEquals(x.neg(), s1.getRootFrame().getLocalVariableValue(1));
+		assertEquals(s.getPathCondition().size() + 1, s2.getPathCondition().size());
+	}
+
+	@Test
+	public void testGuardIsConjunctionOfDifferingClauses() throws Exception {
+		final State s = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "abs");
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) s.getRootFrame().getLocalVariableValue(0);
+		final Primitive positive = x.gt(this.calc.valInt(0));
+		s.assume(positive);
+		final Primitive small = x.lt(this.calc.valInt(3));
+		final Primitive odd = x.rem(this.calc.valInt(2)).eq(this.calc.valInt(1));
+		final Primitive large = x.gt(this.calc.valInt(5));
+		final State s1 = s.clone();
+		s1.assume(small);
+		s1.assume(odd);
+		s1.setLocalVariable(1, this.calc.valInt(1));
+		final State s2 = s.clone();
+		s2.assume(large);
+		s2.setLocalVariable(1, this.calc.valInt(2));
+
+		final State merged = s1.mergeWith(s2, s.getNumCreatedSymbols());
+		assertNotNull(merged);
+		final Primitive guard = small.and(odd);
+		assertEquals(new FunctionApplication(Type.INT, this.calc, FunctionApplication.ITE, guard, this.calc.valInt(1), this.calc.valInt(2)),
+					 merged.getRootFrame().getLocalVariableValue(1));
+		//the common prefix is kept
+		final ClauseList pathCondition = merged.getPathConditionList();
+		assertEquals(s.getPathCondition(), pathCondition.subList(0, pathCondition.size() - 1));
+		assertEquals(new ClauseAssume(guard.or(large)), pathCondition.get(pathCondition.size() - 1));
+	}
+
+	@Test
+	public void testRefuseDifferentHeapShape() throws Exception {
+		final State s = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "alloc");
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) s.getRootFrame().getLocalVariableValue(0);
+		final State s1 = s.clone();
+		s1.assume(x.lt(this.calc.valInt(0)));
+		s1.createArray(this.calc.valInt(0), this.calc.valInt(1), "[I");
+		final State s2 = s.clone();
+		s2.assume(x.ge(this.calc.valInt(0)));
+		assertNull(s1.mergeWith(s2, s.getNumCreatedSymbols()));
+		assertNull(s2.mergeWith(s1, s.getNumCreatedSymbols()));
+	}
+
+	@Test
+	public void testRefuseDifferentReferenceClauses() throws Exception {
+		final State s = EngineTestUtil.initialState(this.calc, SUBJECT, "(IL" + SUBJECT + ";)I", "ref");
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) s.getRootFrame().getLocalVariableValue(0);
+		final ReferenceSymbolic o = (ReferenceSymbolic) s.getRootFrame().getLocalVariableValue(1);
+		final State s1 = s.clone();
+		s1.assume(x.lt(this.calc.valInt(0)));
+		final State s2 = s.clone();
+		s2.assume(x.ge(this.calc.valInt(0)));
+		assertNotNull(s1.mergeWith(s2, s.getNumCreatedSymbols()));
+		//the reference clause cannot be disjoined
+		s2.assumeNull(o);
+		assertNull(s1.mergeWith(s2, s.getNumCreatedSymbols()));
+		assertNull(s2.mergeWith(s1, s.getNumCreatedSymbols()));
+	}
+
+	@Test
+	public void testRefuseSymbolsCreatedAfterBranch() throws Exception {
+		final State s = EngineTestUtil.initialState(this.calc, SUBJECT, "(I)I", "abs");
+		final PrimitiveSymbolic x = (PrimitiveSymbolic) s.getRootFrame().getLocalVariableValue(0);
+		final State s1 = s.clone();
+		s1.assume(x.lt(this.calc.valInt(0)));
+		final State s2 = s.clone();
+		s2.assume(x.ge(this.calc.valInt(0)));
+		//both create a symbol with the same identifier, 
+		//but with a different origin
+		s1.setLocalVariable(1, s1.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("y")));
+		s2.setLocalVariable(1, s2.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("z")));
+		assertEquals(s1.getNumCreatedSymbols(), s2.getNumCreatedSymbols());
+		assertNull(s1.mergeWith(s2, s.getNumCreatedSymbols()));
+		assertNull(s2.mergeWith(s1, s.getNumCreatedSymbols()));
+	}
+}
@@ -0,0 +1,60 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.mem.Objekt.Epoch;
+import jbse.rewr.CalculatorRewriting;
+
+public class StaticMethodAreaTest {
+	private static final Signature FOO_X = new Signature("Foo", "I", "x");
+	
+	private final CalculatorRewriting calc = new CalculatorRewriting();
+	
+	private Klass mkKlass(int x) {
+		final Klass k = new Klass(this.calc, null, Epoch.EPOCH_AFTER_START, 1, FOO_X);
+		k.setFieldValue(FOO_X, this.calc.valInt(x));
+		return k;
+	}
+
+	@Test
+	public void testCloneSharesKlasses() {
+		final StaticMethodArea a = new StaticMethodArea();
+		a.set("Foo", mkKlass(1));
+		a.set("Bar", mkKlass(2));
+		final StaticMethodArea b = a.clone();
+		assertSame(a.get("Foo"), b.get("Foo"));
+		assertSame(a.get("Bar"), b.get("Bar"));
+		assertEquals(2, b.getObjects().size());
+	}
+
+	@Test
+	public void testUpdateAfterClone() {
+		final StaticMethodArea a = new StaticMethodArea();
+		a.set("Foo", mkKlass(1));
+		final StaticMethodArea b = a.clone();
+		b.getForUpdate("Foo").setFieldValue(FOO_X, this.calc.valInt(2));
+		a.getForUpdate("Foo").setFieldValue(FOO_X, this.calc.valInt(3));
+		assertEquals(this.calc.valInt(3), a.get("Foo").getFieldValue(FOO_X));
+		assertEquals(this.calc.valInt(2), b.get("Foo").getFieldValue(FOO_X));
+		final StaticMethodArea c = b.clone();
+		assertSame(b.get("Foo"), c.get("Foo"));
+		c.getForUpdate("Foo").setFieldValue(FOO_X, this.calc.valInt(4));
+		assertEquals(this.calc.valInt(2), b.get("Foo").getFieldValue(FOO_X));
+	}
+
+	@Test
+	public void testSetAfterClone() {
+		final StaticMethodArea a = new StaticMethodArea();
+		a.set("Foo", mkKlass(1));
+		final StaticMethodArea b = a.clone();
+		b.set("Bar", mkKlass(2));
+		assertFalse(a.contains("Bar"));
+		assertTrue(b.contains("Bar"));
+		assertEquals(1, a.getObjects().size());
+		assertEquals(2, b.getObjects().size());
+		assertTrue(b.getObjects().keySet().contains("Foo"));
+	}
+}
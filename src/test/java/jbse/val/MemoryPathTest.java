@@ -0,0 +1,83 @@
+package jbse.val;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+
+public class MemoryPathTest {
+	final CalculatorRewriting calc;
+
+	public MemoryPathTest() {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+	}
+
+	private MemoryPath path() {
+		return MemoryPath.mkLocalVariable("this").thenField("next").thenArrayMember(this.calc.valInt(2)).thenArrayLength();
+	}
+
+	private static ArrayList<Access> accesses(MemoryPath p) {
+		final ArrayList<Access> retVal = new ArrayList<>();
+		for (Access a : p) {
+			retVal.add(a);
+		}
+		return retVal;
+	}
+
+	@Test
+	public void testHashCodeAsArray() {
+		//the hash code is the one of the array of the accesses
+		final MemoryPath p = path();
+		final ArrayList<Access> accesses = accesses(p);
+		assertEquals(4, accesses.size());
+		assertEquals(2311 + Arrays.hashCode(accesses.toArray()), p.hashCode());
+		final MemoryPath s = MemoryPath.mkStatic("java/lang/Object").thenHashCode();
+		assertEquals(2311 + Arrays.hashCode(accesses(s).toArray()), s.hashCode());
+	}
+
+	@Test
+	public void testEqualsUnshared() {
+		final MemoryPath p = path();
+		final MemoryPath q = path();
+		assertNotSame(p, q);
+		assertEquals(p, q);
+		assertEquals(q, p);
+		assertEquals(p.hashCode(), q.hashCode());
+		assertEquals(p.toString(), q.toString());
+	}
+
+	@Test
+	public void testEqualsShared() {
+		final MemoryPath prefix = MemoryPath.mkLocalVariable("this").thenField("next");
+		final MemoryPath p = prefix.thenField("value");
+		assertEquals(p, prefix.thenField("value"));
+		assertNotEquals(p, prefix.thenField("next"));
+		assertNotEquals(p, prefix);
+		assertNotEquals(prefix, p);
+	}
+
+	@Test
+	public void testNotEquals() {
+		final MemoryPath p = path();
+		//same length, different first access
+		assertNotEquals(p, MemoryPath.mkLocalVariable("that").thenField("next").thenArrayMember(this.calc.valInt(2)).thenArrayLength());
+		//same length, different access in the middle
+		assertNotEquals(p, MemoryPath.mkLocalVariable("this").thenField("next").thenArrayMember(this.calc.valInt(3)).thenArrayLength());
+		//a static and a local variable with the same name
+		assertNotEquals(MemoryPath.mkStatic("x"), MemoryPath.mkLocalVariable("x"));
+		//"Aa" and "BB" have the same hash code, so only the accesses tell the paths apart
+		final MemoryPath aa = MemoryPath.mkLocalVariable("this").thenField("next").thenField("Aa");
+		final MemoryPath bb = MemoryPath.mkLocalVariable("this").thenField("next").thenField("BB");
+		assertEquals(aa.hashCode(), bb.hashCode());
+		assertNotEquals(aa, bb);
+		assertNotEquals(MemoryPath.mkLocalVariable("Aa").thenField("next"), MemoryPath.mkLocalVariable("BB").thenField("next"));
+		assertNotEquals(p, null);
+		assertNotEquals(p, p.toString());
+	}
+}